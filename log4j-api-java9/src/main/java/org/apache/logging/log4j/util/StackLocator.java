@@ -16,9 +16,16 @@
  */
 package org.apache.logging.log4j.util;
 
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.Stack;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -30,7 +37,16 @@ public class StackLocator {
 
     private final static StackWalker walker = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
 
-    private final static StackWalker stackWalker = StackWalker.getInstance();
+    /**
+     * Caches the StackTraceElements of call sites, as creating a StackTraceElement costs more than walking the stack to
+     * find the call site.
+     */
+    private final static ClassValue<CallSites> callSites = new ClassValue<>() {
+        @Override
+        protected CallSites computeValue(final Class<?> type) {
+            return new CallSites(type);
+        }
+    };
 
     private final static StackLocator INSTANCE = new StackLocator();
 
@@ -73,14 +89,129 @@ public class StackLocator {
     }
 
     public StackTraceElement calcLocation(final String fqcnOfLogger) {
-        return stackWalker.walk(
-                s -> s.dropWhile(f -> !f.getClassName().equals(fqcnOfLogger)) // drop the top frames until we reach the logger
-                        .dropWhile(f -> f.getClassName().equals(fqcnOfLogger)) // drop the logger frames
-                        .findFirst()).map(StackWalker.StackFrame::toStackTraceElement).orElse(null);
+        return walker.walk(s -> {
+            boolean inLogger = false;
+            for (final Iterator<StackWalker.StackFrame> frames = s.iterator(); frames.hasNext();) {
+                final StackWalker.StackFrame frame = frames.next();
+                if (frame.getClassName().equals(fqcnOfLogger)) {
+                    inLogger = true;
+                } else if (inLogger) {
+                    // the first frame after the logger frames, no need to walk the rest of the stack
+                    return toStackTraceElement(frame);
+                }
+            }
+            return null;
+        });
     }
 
     public StackTraceElement getStackTraceElement(final int depth) {
-        return stackWalker.walk(s -> s.skip(depth).findFirst())
-                .map(StackWalker.StackFrame::toStackTraceElement).orElse(null);
+        return walker.walk(s -> s.skip(depth).findFirst()).map(StackLocator::toStackTraceElement).orElse(null);
+    }
+
+    private static StackTraceElement toStackTraceElement(final StackWalker.StackFrame frame) {
+        return callSites.get(frame.getDeclaringClass()).getStackTraceElement(frame);
+    }
+
+    /**
+     * The StackTraceElements of the call sites in a class, identified by method name and bytecode index. As the frames
+     * do not provide the descriptor of their method before Java 10, call sites in overloaded methods are not cached.
+     * Must not reference the class to allow it to be unloaded.
+     */
+    private static final class CallSites {
+
+        /**
+         * Methods with more call sites, like generated code, are not cached any further.
+         */
+        private static final int MAX_CALL_SITES_PER_METHOD = 64;
+
+        private final Set<String> overloadedMethods;
+        private final ConcurrentMap<String, MethodCallSites> methods = new ConcurrentHashMap<>();
+
+        CallSites(final Class<?> type) {
+            this.overloadedMethods = getOverloadedMethods(type);
+        }
+
+        private static Set<String> getOverloadedMethods(final Class<?> type) {
+            try {
+                final Set<String> names = new HashSet<>();
+                final Set<String> overloaded = new HashSet<>();
+                for (final Method method : type.getDeclaredMethods()) {
+                    if (!names.add(method.getName())) {
+                        overloaded.add(method.getName());
+                    }
+                }
+                if (type.getDeclaredConstructors().length > 1) {
+                    overloaded.add("<init>");
+                }
+                return overloaded;
+            } catch (final LinkageError | SecurityException e) {
+                // do not cache call sites of a class whose methods are unknown
+                return null;
+            }
+        }
+
+        StackTraceElement getStackTraceElement(final StackWalker.StackFrame frame) {
+            final String methodName = frame.getMethodName();
+            if (overloadedMethods == null || overloadedMethods.contains(methodName)) {
+                return frame.toStackTraceElement();
+            }
+            final int byteCodeIndex = frame.getByteCodeIndex();
+            final MethodCallSites sites = methods.get(methodName);
+            if (sites != null) {
+                final StackTraceElement element = sites.get(byteCodeIndex);
+                if (element != null) {
+                    return element;
+                }
+                if (sites.size() >= MAX_CALL_SITES_PER_METHOD) {
+                    return frame.toStackTraceElement();
+                }
+            }
+            final StackTraceElement element = frame.toStackTraceElement();
+            methods.merge(methodName, new MethodCallSites(byteCodeIndex, element), MethodCallSites::add);
+            return element;
+        }
+    }
+
+    /**
+     * The immutable StackTraceElements of the call sites in a method.
+     */
+    private static final class MethodCallSites {
+
+        private final int[] byteCodeIndexes;
+        private final StackTraceElement[] elements;
+
+        MethodCallSites(final int byteCodeIndex, final StackTraceElement element) {
+            this(new int[] {byteCodeIndex}, new StackTraceElement[] {element});
+        }
+
+        private MethodCallSites(final int[] byteCodeIndexes, final StackTraceElement[] elements) {
+            this.byteCodeIndexes = byteCodeIndexes;
+            this.elements = elements;
+        }
+
+        StackTraceElement get(final int byteCodeIndex) {
+            for (int i = 0; i < byteCodeIndexes.length; i++) {
+                if (byteCodeIndexes[i] == byteCodeIndex) {
+                    return elements[i];
+                }
+            }
+            return null;
+        }
+
+        int size() {
+            return byteCodeIndexes.length;
+        }
+
+        MethodCallSites add(final MethodCallSites other) {
+            if (get(other.byteCodeIndexes[0]) != null) {
+                return this;
+            }
+            final int size = byteCodeIndexes.length;
+            final int[] newByteCodeIndexes = Arrays.copyOf(byteCodeIndexes, size + 1);
+            final StackTraceElement[] newElements = Arrays.copyOf(elements, size + 1);
+            newByteCodeIndexes[size] = other.byteCodeIndexes[0];
+            newElements[size] = other.elements[0];
+            return new MethodCallSites(newByteCodeIndexes, newElements);
+        }
     }
 }
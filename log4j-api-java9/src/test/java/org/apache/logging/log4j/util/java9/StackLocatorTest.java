@@ -132,6 +132,36 @@ public class StackLocatorTest {
         assertEquals(96, element.getLineNumber());
     }
 
+    @Test
+    public void testCalcLocationIsCached() {
+        final StackTraceElement first = new Foo().foo();
+        final StackTraceElement second = new Foo().foo();
+        assertEquals(first, second);
+        assertSame(first, second);
+    }
+
+    /**
+     * Returns the expected location, captured on the same line, and the calculated one.
+     */
+    private StackTraceElement[] overloaded(final int i) {
+        return new StackTraceElement[] {new Throwable().getStackTrace()[0], new Bar().bar()};
+    }
+
+    private StackTraceElement[] overloaded(final String s) {
+        return new StackTraceElement[] {new Throwable().getStackTrace()[0], new Bar().bar()};
+    }
+
+    @Test
+    public void testCalcLocationInOverloadedMethods() {
+        for (int i = 0; i < 2; i++) {
+            final StackTraceElement[] intLocations = overloaded(0);
+            final StackTraceElement[] stringLocations = overloaded("");
+            assertEquals(intLocations[0].getLineNumber(), intLocations[1].getLineNumber());
+            assertEquals(stringLocations[0].getLineNumber(), stringLocations[1].getLineNumber());
+            assertNotEquals(intLocations[1].getLineNumber(), stringLocations[1].getLineNumber());
+        }
+    }
+
     @Test
     public void testCalcLocationWhenNotInTheStack() {
         final StackLocator stackLocator = StackLocator.getInstance();
@@ -104,4 +104,26 @@ public interface Layout<T extends Serializable> extends Encoder<LogEvent> {
     default boolean requiresLocation() {
         return false;
     }
+
+    /**
+     * Indicates whether the encoding of an event depends on the events this Layout encoded before, so that events
+     * must reach the destination in the order they were encoded. A stateful Layout guards its state with its own
+     * monitor: a caller that encodes outside of the destination lock keeps the order by holding it.
+     *
+     * @return true if the Layout keeps state across events.
+     * @since 3.0
+     */
+    default boolean isStateful() {
+        return false;
+    }
+
+    /**
+     * Notifies this Layout that the destination it encodes to switched to a new stream, for example after a rollover.
+     * A stateful Layout must not refer to anything it encoded to the previous stream.
+     *
+     * @since 3.0
+     */
+    default void streamChanged() {
+        // stateless by default
+    }
 }
@@ -36,6 +36,7 @@ import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.config.AbstractConfiguration;
 import org.apache.logging.log4j.core.config.Configuration;
 import org.apache.logging.log4j.core.config.ConfigurationFactory;
 import org.apache.logging.log4j.core.config.ConfigurationListener;
@@ -614,6 +615,12 @@ public class LoggerContext extends AbstractLifeCycle
                 map.putIfAbsent("hostName", "unknown");
             }
             map.putIfAbsent("contextName", contextName);
+            if (prev instanceof AbstractConfiguration && config instanceof AbstractConfiguration
+                    && ((AbstractConfiguration) prev).updateLoggerConfigs((AbstractConfiguration) config)) {
+                // only the Loggers changed, they were updated in place and the new configuration was discarded
+                config.removeListener(this);
+                return prev;
+            }
             config.start();
             this.configuration = config;
             updateLoggers();
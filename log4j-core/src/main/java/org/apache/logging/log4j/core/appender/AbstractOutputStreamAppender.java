@@ -88,6 +88,11 @@ public abstract class AbstractOutputStreamAppender<M extends OutputStreamManager
 
     private final M manager;
 
+    /**
+     * The thread that is appending a batch of events while holding the manager lock, see {@link #beginBatch()}.
+     */
+    private volatile Thread batchThread;
+
     /**
      * Instantiates a WriterAppender and set the output destination to a new {@link java.io.OutputStreamWriter}
      * initialized with <code>os</code> as its {@link java.io.OutputStream}.
@@ -169,7 +174,11 @@ public abstract class AbstractOutputStreamAppender<M extends OutputStreamManager
     }
 
     private void tryAppend(final LogEvent event) {
-        if (Constants.ENABLE_DIRECT_ENCODERS) {
+        final WriteCombiner combiner = manager.getWriteCombiner();
+        // a thread already holding the manager lock (e.g. while dispatching a batch) must not wait for a combiner
+        if (combiner != null && !Thread.holdsLock(manager)) {
+            combiner.write(getLayout(), event, shouldFlush(event));
+        } else if (Constants.ENABLE_DIRECT_ENCODERS) {
             directEncodeEvent(event);
         } else {
             writeByteArrayToManager(event);
@@ -178,7 +187,7 @@ public abstract class AbstractOutputStreamAppender<M extends OutputStreamManager
 
     protected void directEncodeEvent(final LogEvent event) {
         getLayout().encode(event, manager);
-        if (this.immediateFlush || event.isEndOfBatch()) {
+        if (shouldFlush(event)) {
             manager.flush();
         }
     }
@@ -186,7 +195,44 @@ public abstract class AbstractOutputStreamAppender<M extends OutputStreamManager
     protected void writeByteArrayToManager(final LogEvent event) {
         final byte[] bytes = getLayout().toByteArray(event);
         if (bytes != null && bytes.length > 0) {
-            manager.write(bytes, this.immediateFlush || event.isEndOfBatch());
+            manager.write(bytes, shouldFlush(event));
         }
     }
+
+    /**
+     * Returns whether the manager is flushed after the specified event was written by the current thread.
+     *
+     * @param event the event
+     * @return whether the event is flushed
+     * @since 3.0
+     */
+    protected boolean shouldFlush(final LogEvent event) {
+        return (this.immediateFlush || event.isEndOfBatch()) && batchThread != Thread.currentThread();
+    }
+
+    /**
+     * Marks the start of a batch of events appended by the current thread. Until {@link #endBatch()} is called,
+     * events appended by the current thread are not flushed individually, regardless of the immediate flush setting.
+     * The caller must hold the lock of the {@linkplain #getManager() manager} for the whole batch, so that events
+     * from other threads cannot be interleaved.
+     */
+    void beginBatch() {
+        batchThread = Thread.currentThread();
+    }
+
+    /**
+     * Marks the end of a batch of events started with {@link #beginBatch()} and flushes the manager once.
+     */
+    void endBatch() {
+        batchThread = null;
+        manager.flush();
+    }
+
+    /**
+     * Called after a batch of events was ended with {@link #endBatch()} and the lock of the
+     * {@linkplain #getManager() manager} was released. Does nothing by default.
+     */
+    void afterBatch() {
+        // nothing to do
+    }
 }
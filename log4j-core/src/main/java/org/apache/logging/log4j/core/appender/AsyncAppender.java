@@ -61,9 +61,11 @@ import java.util.concurrent.TransferQueue;
 public final class AsyncAppender extends AbstractAppender {
 
     private static final int DEFAULT_QUEUE_SIZE = 1024;
+    private static final int DEFAULT_BATCH_SIZE = 1;
 
     private final BlockingQueue<LogEvent> queue;
     private final int queueSize;
+    private final int batchSize;
     private final boolean blocking;
     private final long shutdownTimeout;
     private final Configuration config;
@@ -77,10 +79,12 @@ public final class AsyncAppender extends AbstractAppender {
     private AsyncAppender(final String name, final Filter filter, final AppenderRef[] appenderRefs,
             final String errorRef, final int queueSize, final boolean blocking, final boolean ignoreExceptions,
             final long shutdownTimeout, final Configuration config, final boolean includeLocation,
-            final BlockingQueueFactory<LogEvent> blockingQueueFactory, final Property[] properties) {
+            final BlockingQueueFactory<LogEvent> blockingQueueFactory, final int batchSize,
+            final Property[] properties) {
         super(name, filter, null, ignoreExceptions, properties);
         this.queue = blockingQueueFactory.create(queueSize);
         this.queueSize = queueSize;
+        this.batchSize = batchSize;
         this.blocking = blocking;
         this.shutdownTimeout = shutdownTimeout;
         this.config = config;
@@ -111,7 +115,7 @@ public final class AsyncAppender extends AbstractAppender {
         }
         if (appenders.size() > 0) {
             dispatcher = new AsyncAppenderEventDispatcher(
-                    getName(), errorAppender, appenders, queue);
+                    getName(), errorAppender, appenders, queue, batchSize);
         } else if (errorRef == null) {
             throw new ConfigurationException("No appenders are available for AsyncAppender " + getName());
         }
@@ -273,6 +277,9 @@ public final class AsyncAppender extends AbstractAppender {
         @PluginElement(BlockingQueueFactory.ELEMENT_TYPE)
         private BlockingQueueFactory<LogEvent> blockingQueueFactory = new ArrayBlockingQueueFactory<>();
 
+        @PluginBuilderAttribute
+        private int batchSize = DEFAULT_BATCH_SIZE;
+
         public Builder setAppenderRefs(final AppenderRef[] appenderRefs) {
             this.appenderRefs = appenderRefs;
             return this;
@@ -323,10 +330,19 @@ public final class AsyncAppender extends AbstractAppender {
             return this;
         }
 
+        public Builder setBatchSize(final int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
         @Override
         public AsyncAppender build() {
+            if (batchSize < 1) {
+                LOGGER.warn("Invalid batchSize {} for AsyncAppender {}, using 1.", batchSize, name);
+                batchSize = 1;
+            }
             return new AsyncAppender(name, getFilter(), appenderRefs, errorRef, bufferSize, blocking, ignoreExceptions,
-                shutdownTimeout, configuration, includeLocation, blockingQueueFactory, getPropertyArray());
+                shutdownTimeout, configuration, includeLocation, blockingQueueFactory, batchSize, getPropertyArray());
         }
     }
 
@@ -376,6 +392,15 @@ public final class AsyncAppender extends AbstractAppender {
         return queueSize;
     }
 
+    /**
+     * Returns the maximum number of events the background thread takes from the queue and dispatches at once.
+     *
+     * @return the maximum batch size
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
     public int getQueueRemainingCapacity() {
         return queue.remainingCapacity();
     }
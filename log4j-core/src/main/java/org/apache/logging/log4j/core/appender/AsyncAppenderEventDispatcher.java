@@ -17,12 +17,15 @@
 package org.apache.logging.log4j.core.appender;
 
 import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.Appender;
 import org.apache.logging.log4j.core.LogEvent;
 import org.apache.logging.log4j.core.config.AppenderControl;
 import org.apache.logging.log4j.core.impl.Log4jLogEvent;
 import org.apache.logging.log4j.core.util.Log4jThread;
 import org.apache.logging.log4j.status.StatusLogger;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -44,16 +47,36 @@ class AsyncAppenderEventDispatcher extends Log4jThread {
 
     private final AtomicBoolean stoppedRef;
 
+    private final int batchSize;
+
+    // only accessed by the dispatcher thread
+    private final List<LogEvent> batch;
+
+    // only accessed by the dispatcher thread
+    private final boolean[] batchSucceeded;
+
     AsyncAppenderEventDispatcher(
             final String name,
             final AppenderControl errorAppender,
             final List<AppenderControl> appenders,
             final BlockingQueue<LogEvent> queue) {
+        this(name, errorAppender, appenders, queue, 1);
+    }
+
+    AsyncAppenderEventDispatcher(
+            final String name,
+            final AppenderControl errorAppender,
+            final List<AppenderControl> appenders,
+            final BlockingQueue<LogEvent> queue,
+            final int batchSize) {
         super("AsyncAppenderEventDispatcher-" + THREAD_COUNTER.incrementAndGet() + "-" + name);
         this.errorAppender = errorAppender;
         this.appenders = appenders;
         this.queue = queue;
         this.stoppedRef = new AtomicBoolean(false);
+        this.batchSize = Math.max(1, batchSize);
+        this.batch = new ArrayList<>(this.batchSize);
+        this.batchSucceeded = new boolean[this.batchSize];
     }
 
     @Override
@@ -76,8 +99,18 @@ class AsyncAppenderEventDispatcher extends Log4jThread {
             if (event == STOP_EVENT) {
                 break;
             }
-            event.setEndOfBatch(queue.isEmpty());
-            dispatch(event);
+            if (batchSize == 1) {
+                event.setEndOfBatch(queue.isEmpty());
+                dispatch(event);
+                continue;
+            }
+            batch.add(event);
+            queue.drainTo(batch, batchSize - 1);
+            final boolean stopEventDrained = removeStopEvents();
+            dispatchBatch();
+            if (stopEventDrained) {
+                break;
+            }
         }
         LOGGER.trace("{} has stopped.", getName());
     }
@@ -85,24 +118,119 @@ class AsyncAppenderEventDispatcher extends Log4jThread {
     private void dispatchRemaining() {
         int eventCount = 0;
         while (true) {
-            // Note the non-blocking Queue#poll() method!
-            final LogEvent event = queue.poll();
-            if (event == null) {
+            // Note the non-blocking Queue#drainTo() method!
+            if (queue.drainTo(batch, batchSize) == 0) {
                 break;
             }
             // Allow events that managed to be submitted after the sentinel.
-            if (event == STOP_EVENT) {
-                continue;
-            }
-            event.setEndOfBatch(queue.isEmpty());
-            dispatch(event);
-            eventCount++;
+            removeStopEvents();
+            eventCount += batch.size();
+            dispatchBatch();
         }
         LOGGER.trace(
                 "{} has processed the last {} remaining event(s).",
                 getName(), eventCount);
     }
 
+    /**
+     * Removes the sentinel from the batch, comparing by identity.
+     *
+     * @return {@code true} if the batch contained the sentinel
+     */
+    private boolean removeStopEvents() {
+        boolean found = false;
+        for (int i = batch.size() - 1; i >= 0; i--) {
+            if (batch.get(i) == STOP_EVENT) {
+                batch.remove(i);
+                found = true;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Dispatches the drained events to the registered appenders <b>in the
+     * current thread</b> and clears the batch. Only the last event of the batch
+     * is marked as end of batch. Appenders writing to an
+     * {@link OutputStreamManager} receive the whole batch while the manager is
+     * locked, and are flushed once after the batch. Waiting for the batch to
+     * become durable is done after the lock was released, so it does not
+     * block other threads writing to the manager.
+     */
+    private void dispatchBatch() {
+        final int size = batch.size();
+        if (size == 0) {
+            return;
+        }
+        for (int i = 0; i < size; i++) {
+            batch.get(i).setEndOfBatch(i == size - 1);
+        }
+        Arrays.fill(batchSucceeded, 0, size, false);
+
+        // noinspection ForLoopReplaceableByForEach (avoid iterator instantion)
+        for (int appenderIndex = 0; appenderIndex < appenders.size(); appenderIndex++) {
+            final AppenderControl control = appenders.get(appenderIndex);
+            final Appender appender = control.getAppender();
+            if (appender instanceof AbstractOutputStreamAppender) {
+                final AbstractOutputStreamAppender<?> streamAppender = (AbstractOutputStreamAppender<?>) appender;
+                synchronized (streamAppender.getManager()) {
+                    streamAppender.beginBatch();
+                    try {
+                        dispatchBatch(control, size);
+                    } finally {
+                        endBatch(streamAppender);
+                    }
+                }
+                afterBatch(streamAppender);
+            } else {
+                dispatchBatch(control, size);
+            }
+        }
+
+        // Fallback to the error appender for the events none has succeeded for.
+        for (int i = 0; i < size; i++) {
+            if (!batchSucceeded[i]) {
+                dispatchToErrorAppender(batch.get(i));
+            }
+        }
+        batch.clear();
+    }
+
+    private void dispatchBatch(final AppenderControl control, final int size) {
+        for (int i = 0; i < size; i++) {
+            try {
+                control.callAppender(batch.get(i));
+                batchSucceeded[i] = true;
+            } catch (final Throwable error) {
+                // If no appender is successful, the error appender will get it.
+                // It is okay to simply log it here.
+                LOGGER.trace(
+                        "{} has failed to call appender {}",
+                        getName(), control.getAppenderName(), error);
+            }
+        }
+    }
+
+    private void endBatch(final AbstractOutputStreamAppender<?> appender) {
+        try {
+            appender.endBatch();
+        } catch (final Throwable error) {
+            LOGGER.trace(
+                    "{} has failed to flush appender {}",
+                    getName(), appender.getName(), error);
+        }
+    }
+
+    private void afterBatch(final AbstractOutputStreamAppender<?> appender) {
+        try {
+            appender.afterBatch();
+        } catch (final Throwable error) {
+            LOGGER.trace(
+                    "{} has failed to complete the batch of appender {}",
+                    getName(), appender.getName(), error);
+        }
+    }
+
     /**
      * Dispatches the given {@code event} to the registered appenders <b>in the
      * current thread</b>.
@@ -127,7 +255,14 @@ class AsyncAppenderEventDispatcher extends Log4jThread {
         }
 
         // Fallback to the error appender if none has succeeded so far.
-        if (!succeeded && errorAppender != null) {
+        if (!succeeded) {
+            dispatchToErrorAppender(event);
+        }
+
+    }
+
+    private void dispatchToErrorAppender(final LogEvent event) {
+        if (errorAppender != null) {
             try {
                 errorAppender.callAppender(event);
             } catch (final Throwable error) {
@@ -138,7 +273,6 @@ class AsyncAppenderEventDispatcher extends Log4jThread {
                         getName(), errorAppender.getAppenderName(), error);
             }
         }
-
     }
 
     void stop(final long timeoutMillis) throws InterruptedException {
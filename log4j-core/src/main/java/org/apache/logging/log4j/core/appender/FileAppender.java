@@ -20,6 +20,7 @@ import org.apache.logging.log4j.core.Appender;
 import org.apache.logging.log4j.core.Core;
 import org.apache.logging.log4j.core.Filter;
 import org.apache.logging.log4j.core.Layout;
+import org.apache.logging.log4j.core.LogEvent;
 import org.apache.logging.log4j.core.config.Property;
 import org.apache.logging.log4j.core.net.Advertiser;
 import org.apache.logging.log4j.plugins.Plugin;
@@ -77,6 +78,12 @@ public final class FileAppender extends AbstractOutputStreamAppender<FileManager
         @PluginBuilderAttribute
         private String fileGroup;
 
+        @PluginBuilderAttribute
+        private boolean combineWrites;
+
+        @PluginBuilderAttribute
+        private String syncPolicy;
+
         @Override
         public FileAppender build() {
             boolean bufferedIo = isBufferedIo();
@@ -88,10 +95,18 @@ public final class FileAppender extends AbstractOutputStreamAppender<FileManager
             if (!bufferedIo && bufferSize > 0) {
                 LOGGER.warn("The bufferSize is set to {} but bufferedIo is false: {}", bufferSize, bufferedIo);
             }
+            final FileSyncPolicy fileSyncPolicy;
+            try {
+                fileSyncPolicy = FileSyncPolicy.parse(syncPolicy);
+            } catch (final IllegalArgumentException ex) {
+                LOGGER.error("FileAppender '{}': {}", getName(), ex.getMessage());
+                return null;
+            }
             final Layout<? extends Serializable> layout = getOrCreateLayout();
 
             final FileManager manager = FileManager.getFileManager(fileName, append, locking, bufferedIo, createOnDemand,
-                    advertiseUri, layout, bufferSize, filePermissions, fileOwner, fileGroup, getConfiguration());
+                    advertiseUri, layout, bufferSize, filePermissions, fileOwner, fileGroup, getConfiguration(),
+                    combineWrites, fileSyncPolicy);
             if (manager == null) {
                 return null;
             }
@@ -136,6 +151,14 @@ public final class FileAppender extends AbstractOutputStreamAppender<FileManager
             return fileGroup;
         }
 
+        public boolean isCombineWrites() {
+            return combineWrites;
+        }
+
+        public String getSyncPolicy() {
+            return syncPolicy;
+        }
+
         public B setAdvertise(final boolean advertise) {
             this.advertise = advertise;
             return asBuilder();
@@ -181,6 +204,16 @@ public final class FileAppender extends AbstractOutputStreamAppender<FileManager
             return asBuilder();
         }
 
+        public B setCombineWrites(final boolean combineWrites) {
+            this.combineWrites = combineWrites;
+            return asBuilder();
+        }
+
+        public B setSyncPolicy(final String syncPolicy) {
+            this.syncPolicy = syncPolicy;
+            return asBuilder();
+        }
+
     }
     
     @PluginFactory
@@ -212,6 +245,20 @@ public final class FileAppender extends AbstractOutputStreamAppender<FileManager
         this.advertiser = advertiser;
     }
 
+    @Override
+    public void append(final LogEvent event) {
+        super.append(event);
+        if (shouldFlush(event)) {
+            getManager().awaitDurable();
+        }
+    }
+
+    @Override
+    void afterBatch() {
+        // waiting for a sync while holding the manager lock would stall every thread writing to it
+        getManager().awaitDurable();
+    }
+
     /**
      * Returns the file name this appender is associated with.
      * @return The File name.
@@ -37,10 +37,12 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.logging.log4j.core.Layout;
 import org.apache.logging.log4j.core.LoggerContext;
 import org.apache.logging.log4j.core.config.Configuration;
+import org.apache.logging.log4j.core.config.ConfigurationScheduler;
 import org.apache.logging.log4j.core.util.Constants;
 import org.apache.logging.log4j.core.util.FileUtils;
 import org.apache.logging.log4j.util.StackLocatorUtil;
@@ -62,6 +64,9 @@ public class FileManager extends OutputStreamManager {
     private final String fileOwner;
     private final String fileGroup;
     private final boolean attributeViewEnabled;
+    private volatile FileSyncer syncer;
+    private boolean unsyncedWrites;
+    private boolean syncChannelWarned;
 
     /**
      * @since 2.9
@@ -121,17 +126,57 @@ public class FileManager extends OutputStreamManager {
      * @param configuration The configuration.
      * @return A FileManager for the File.
      */
-    public static FileManager getFileManager(final String fileName, final boolean append, boolean locking,
+    public static FileManager getFileManager(final String fileName, final boolean append, final boolean locking,
             final boolean bufferedIo, final boolean createOnDemand, final String advertiseUri,
             final Layout<? extends Serializable> layout,
             final int bufferSize, final String filePermissions, final String fileOwner, final String fileGroup,
             final Configuration configuration) {
+        return getFileManager(fileName, append, locking, bufferedIo, createOnDemand, advertiseUri, layout, bufferSize,
+                filePermissions, fileOwner, fileGroup, configuration, false, FileSyncPolicy.NONE);
+    }
+
+    /**
+     * Returns the FileManager.
+     * @param fileName The name of the file to manage.
+     * @param append true if the file should be appended to, false if it should be overwritten.
+     * @param locking true if the file should be locked while writing, false otherwise.
+     * @param bufferedIo true if the contents should be buffered as they are written.
+     * @param createOnDemand true if you want to lazy-create the file (a.k.a. on-demand.)
+     * @param advertiseUri the URI to use when advertising the file
+     * @param layout The layout
+     * @param bufferSize buffer size for buffered IO
+     * @param filePermissions File permissions
+     * @param fileOwner File owner
+     * @param fileGroup File group
+     * @param configuration The configuration.
+     * @param combineWrites true if the writes of concurrent threads should be combined.
+     * @param syncPolicy when the data is forced to the storage device, {@code null} for {@link FileSyncPolicy#NONE}.
+     * @return A FileManager for the File.
+     * @since 3.0
+     */
+    public static FileManager getFileManager(final String fileName, final boolean append, boolean locking,
+            final boolean bufferedIo, final boolean createOnDemand, final String advertiseUri,
+            final Layout<? extends Serializable> layout,
+            final int bufferSize, final String filePermissions, final String fileOwner, final String fileGroup,
+            final Configuration configuration, final boolean combineWrites, final FileSyncPolicy syncPolicy) {
 
         if (locking && bufferedIo) {
             locking = false;
         }
         return narrow(FileManager.class, getManager(fileName, new FactoryData(append, locking, bufferedIo, bufferSize,
-                createOnDemand, advertiseUri, layout, filePermissions, fileOwner, fileGroup, configuration), FACTORY));
+                createOnDemand, advertiseUri, layout, filePermissions, fileOwner, fileGroup, configuration,
+                combineWrites, syncPolicy), FACTORY));
+    }
+
+    /**
+     * Updates the FileManager's data during a reconfiguration. This method should be considered private.
+     * @param data The data to update.
+     */
+    @Override
+    public void updateData(final Object data) {
+        final FactoryData factoryData = (FactoryData) data;
+        setCombineWrites(factoryData.combineWrites);
+        setSyncPolicy(factoryData.syncPolicy, factoryData.getConfiguration());
     }
 
     @Override
@@ -227,6 +272,151 @@ public class FileManager extends OutputStreamManager {
         } else {
             super.writeToDestination(bytes, offset, length);
         }
+        unsyncedWrites = true;
+    }
+
+    /**
+     * Sets when the data written to the file is forced to the storage device, replacing any previous policy.
+     *
+     * @param policy the sync policy, {@code null} for {@link FileSyncPolicy#NONE}
+     * @since 3.0
+     */
+    public void setSyncPolicy(final FileSyncPolicy policy) {
+        setSyncPolicy(policy, null);
+    }
+
+    /**
+     * Sets when the data written to the file is forced to the storage device, replacing any previous policy. The
+     * periodic sync of an {@link FileSyncPolicy.Mode#INTERVAL} policy runs on the scheduler of the configuration.
+     *
+     * @param policy the sync policy, {@code null} for {@link FileSyncPolicy#NONE}
+     * @param configuration the configuration using this manager, or null if there is none
+     * @since 3.0
+     */
+    public synchronized void setSyncPolicy(final FileSyncPolicy policy, final Configuration configuration) {
+        final FileSyncPolicy newPolicy = policy == null ? FileSyncPolicy.NONE : policy;
+        final ConfigurationScheduler scheduler = configuration == null ? null : configuration.getScheduler();
+        final FileSyncer oldSyncer = syncer;
+        if (newPolicy.equals(getSyncPolicy())) {
+            if (oldSyncer != null) {
+                // the previous configuration stops its scheduler
+                oldSyncer.start(scheduler);
+            }
+            return;
+        }
+        if (oldSyncer != null) {
+            oldSyncer.stop();
+        }
+        if (newPolicy.getMode() == FileSyncPolicy.Mode.NONE) {
+            syncer = null;
+        } else {
+            final FileSyncer newSyncer = new FileSyncer(this, newPolicy);
+            newSyncer.start(scheduler);
+            syncer = newSyncer;
+        }
+    }
+
+    /**
+     * Returns when the data written to the file is forced to the storage device.
+     *
+     * @return the sync policy
+     * @since 3.0
+     */
+    public FileSyncPolicy getSyncPolicy() {
+        final FileSyncer current = syncer;
+        return current == null ? FileSyncPolicy.NONE : current.getPolicy();
+    }
+
+    /**
+     * Returns the object that forces the file to the storage device and keeps statistics about it.
+     *
+     * @return the syncer, or {@code null} if the sync policy is {@link FileSyncPolicy#NONE}
+     * @since 3.0
+     */
+    public FileSyncer getSyncer() {
+        return syncer;
+    }
+
+    /**
+     * Blocks until the data written by the current thread has been forced to the storage device, if the sync policy
+     * is {@link FileSyncPolicy.Mode#GROUP_COMMIT}.
+     *
+     * @throws AppenderLoggingException if the file could not be synced
+     * @since 3.0
+     */
+    public void awaitDurable() {
+        final FileSyncer current = syncer;
+        if (current != null) {
+            current.awaitDurable();
+        }
+    }
+
+    /**
+     * Returns whether data was written to the file since the last call, and resets that state. Called with the
+     * manager lock held.
+     */
+    boolean clearUnsyncedWrites() {
+        final boolean result = unsyncedWrites;
+        unsyncedWrites = false;
+        return result;
+    }
+
+    /**
+     * Returns the channel to force for the current file, or {@code null} if there is none. Called with the manager
+     * lock held.
+     */
+    FileChannel getSyncChannel() {
+        if (!hasOutputStream()) {
+            return null;
+        }
+        final FileChannel channel;
+        try {
+            channel = getSyncChannel(getOutputStream());
+        } catch (final IOException ex) {
+            throw new AppenderLoggingException("Unable to access " + getName(), ex);
+        }
+        if (channel == null && !syncChannelWarned) {
+            syncChannelWarned = true;
+            LOGGER.warn("Unable to sync {}: the sync policy {} is ignored as its output stream is not a file",
+                    getName(), getSyncPolicy());
+        }
+        return channel;
+    }
+
+    /**
+     * Passes the data written to the specified stream on to its file and returns the channel of the file, so the
+     * data can be forced to the storage device. Subclasses that wrap the {@link FileOutputStream} must override this
+     * method for their sync policy to have an effect.
+     *
+     * @param os the current output stream of this manager.
+     * @return the channel of the file, or {@code null} if the stream does not write to a file.
+     * @throws IOException if the data could not be passed on to the file.
+     * @since 3.0
+     */
+    protected FileChannel getSyncChannel(final OutputStream os) throws IOException {
+        return os instanceof FileOutputStream ? ((FileOutputStream) os).getChannel() : null;
+    }
+
+    @Override
+    protected synchronized boolean closeOutputStream() {
+        final FileSyncer current = syncer;
+        if (current != null) {
+            flush();
+            final FileChannel channel = getSyncChannel();
+            if (channel != null && channel.isOpen()) {
+                current.syncBeforeClose(channel);
+            }
+        }
+        return super.closeOutputStream();
+    }
+
+    @Override
+    public boolean releaseSub(final long timeout, final TimeUnit timeUnit) {
+        final FileSyncer current = syncer;
+        if (current != null) {
+            current.stop();
+        }
+        return super.releaseSub(timeout, timeUnit);
     }
 
     /**
@@ -334,6 +524,8 @@ public class FileManager extends OutputStreamManager {
         private final String filePermissions;
         private final String fileOwner;
         private final String fileGroup;
+        private final boolean combineWrites;
+        private final FileSyncPolicy syncPolicy;
 
         /**
          * Constructor.
@@ -348,11 +540,13 @@ public class FileManager extends OutputStreamManager {
          * @param fileOwner File owner
          * @param fileGroup File group
          * @param configuration the configuration
+         * @param combineWrites true if the writes of concurrent threads should be combined
+         * @param syncPolicy when the data is forced to the storage device
          */
         public FactoryData(final boolean append, final boolean locking, final boolean bufferedIo, final int bufferSize,
                 final boolean createOnDemand, final String advertiseURI, final Layout<? extends Serializable> layout,
                 final String filePermissions, final String fileOwner, final String fileGroup,
-                final Configuration configuration) {
+                final Configuration configuration, final boolean combineWrites, final FileSyncPolicy syncPolicy) {
             super(configuration);
             this.append = append;
             this.locking = locking;
@@ -364,6 +558,8 @@ public class FileManager extends OutputStreamManager {
             this.filePermissions = filePermissions;
             this.fileOwner = fileOwner;
             this.fileGroup = fileGroup;
+            this.combineWrites = combineWrites;
+            this.syncPolicy = syncPolicy;
         }
     }
 
@@ -393,6 +589,8 @@ public class FileManager extends OutputStreamManager {
                 if (fos != null && fm.attributeViewEnabled) {
                     fm.defineAttributeView(file.toPath());
                 }
+                fm.setCombineWrites(data.combineWrites);
+                fm.setSyncPolicy(data.syncPolicy, data.getConfiguration());
                 return fm;
             } catch (final IOException ex) {
                 LOGGER.error("FileManager (" + name + ") " + ex, ex);
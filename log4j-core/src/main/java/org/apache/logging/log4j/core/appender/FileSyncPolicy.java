@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.appender;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Determines when a {@link FileManager} forces the data it has written to the storage device.
+ * <ul>
+ * <li>{@code none} - the default, data is handed to the operating system but never forced.</li>
+ * <li>{@code interval=<n>[ms|s]} - data written since the last sync is forced periodically by a background thread,
+ * for example {@code interval=10ms}. Appenders never wait for the device.</li>
+ * <li>{@code groupCommit} - appenders wait until each flushed event has been forced to the device. Threads that wait
+ * at the same time share a single {@link java.nio.channels.FileChannel#force(boolean) force}.</li>
+ * </ul>
+ *
+ * @since 3.0
+ */
+public final class FileSyncPolicy {
+
+    /**
+     * The kind of sync policy.
+     */
+    public enum Mode {
+        /** Never force data to the device. */
+        NONE,
+        /** Force data to the device periodically. */
+        INTERVAL,
+        /** Force data to the device before an appender returns, batching concurrent callers. */
+        GROUP_COMMIT
+    }
+
+    /** Never force data to the device. */
+    public static final FileSyncPolicy NONE = new FileSyncPolicy(Mode.NONE, 0);
+
+    /** Force data to the device before an appender returns, batching concurrent callers. */
+    public static final FileSyncPolicy GROUP_COMMIT = new FileSyncPolicy(Mode.GROUP_COMMIT, 0);
+
+    private static final String INTERVAL_PREFIX = "interval=";
+
+    private final Mode mode;
+    private final long intervalMillis;
+
+    private FileSyncPolicy(final Mode mode, final long intervalMillis) {
+        this.mode = mode;
+        this.intervalMillis = intervalMillis;
+    }
+
+    /**
+     * Creates a policy that forces data written to the device periodically.
+     *
+     * @param interval the time between syncs, must be positive
+     * @param unit the unit of the interval
+     * @return the policy
+     */
+    public static FileSyncPolicy interval(final long interval, final TimeUnit unit) {
+        final long millis = unit.toMillis(interval);
+        if (millis <= 0) {
+            throw new IllegalArgumentException("Sync interval must be at least one millisecond: " + interval + ' '
+                    + unit);
+        }
+        return new FileSyncPolicy(Mode.INTERVAL, millis);
+    }
+
+    /**
+     * Parses a sync policy such as {@code none}, {@code groupCommit} or {@code interval=10ms}.
+     *
+     * @param text the text to parse, {@code null} or empty for {@link #NONE}
+     * @return the policy
+     * @throws IllegalArgumentException if the text is not a valid sync policy
+     */
+    public static FileSyncPolicy parse(final String text) {
+        if (text == null) {
+            return NONE;
+        }
+        final String value = text.trim().toLowerCase(Locale.ROOT);
+        if (value.isEmpty() || value.equals("none")) {
+            return NONE;
+        }
+        if (value.equals("groupcommit")) {
+            return GROUP_COMMIT;
+        }
+        if (value.startsWith(INTERVAL_PREFIX)) {
+            String interval = value.substring(INTERVAL_PREFIX.length()).trim();
+            TimeUnit unit = TimeUnit.MILLISECONDS;
+            if (interval.endsWith("ms")) {
+                interval = interval.substring(0, interval.length() - 2);
+            } else if (interval.endsWith("s")) {
+                interval = interval.substring(0, interval.length() - 1);
+                unit = TimeUnit.SECONDS;
+            }
+            try {
+                return interval(Long.parseLong(interval.trim()), unit);
+            } catch (final NumberFormatException ex) {
+                // fall through
+            }
+        }
+        throw new IllegalArgumentException("Invalid sync policy '" + text
+                + "', expected none, groupCommit or interval=<milliseconds>ms");
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Returns the time between syncs for {@link Mode#INTERVAL}, zero otherwise.
+     *
+     * @return the sync interval in milliseconds
+     */
+    public long getIntervalMillis() {
+        return intervalMillis;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof FileSyncPolicy)) {
+            return false;
+        }
+        final FileSyncPolicy other = (FileSyncPolicy) obj;
+        return mode == other.mode && intervalMillis == other.intervalMillis;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * mode.hashCode() + Long.hashCode(intervalMillis);
+    }
+
+    @Override
+    public String toString() {
+        switch (mode) {
+            case INTERVAL:
+                return INTERVAL_PREFIX + intervalMillis + "ms";
+            case GROUP_COMMIT:
+                return "groupCommit";
+            default:
+                return "none";
+        }
+    }
+}
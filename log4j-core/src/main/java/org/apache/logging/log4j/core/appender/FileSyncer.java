@@ -0,0 +1,279 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.appender;
+
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.config.ConfigurationScheduler;
+import org.apache.logging.log4j.status.StatusLogger;
+
+/**
+ * Forces the data written by a {@link FileManager} to the storage device according to its {@link FileSyncPolicy},
+ * and keeps statistics about how long that takes.
+ * <p>
+ * With {@link FileSyncPolicy.Mode#GROUP_COMMIT}, a thread that needs its writes to be durable waits for the first sync
+ * that starts after its write. Only one sync runs at a time, so all threads that arrive while a sync is in progress
+ * are covered together by the next one.
+ * </p>
+ * <p>
+ * With {@link FileSyncPolicy.Mode#INTERVAL}, the sync is scheduled on the {@link ConfigurationScheduler} of the
+ * configuration using the manager, and moves to the scheduler of the next configuration on reconfiguration. A manager
+ * created without a configuration gets a scheduler of its own.
+ * </p>
+ *
+ * @since 3.0
+ */
+public final class FileSyncer {
+
+    private static final Logger LOGGER = StatusLogger.getLogger();
+
+    private static final long[] LATENCY_BUCKET_BOUNDS_MICROS = {100, 500, 1_000, 5_000, 10_000, 50_000, 100_000};
+
+    private final FileManager manager;
+    private final FileSyncPolicy policy;
+
+    // group commit state, guarded by generationLock
+    private final Object generationLock = new Object();
+    private long startedGeneration;
+    private long completedGeneration;
+    private boolean syncing;
+
+    private final AtomicLongArray latencyHistogram = new AtomicLongArray(LATENCY_BUCKET_BOUNDS_MICROS.length + 1);
+    private final AtomicLong syncCount = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    private ConfigurationScheduler scheduler;
+    private boolean ownScheduler;
+    private ScheduledFuture<?> syncTask;
+
+    FileSyncer(final FileManager manager, final FileSyncPolicy policy) {
+        this.manager = manager;
+        this.policy = policy;
+    }
+
+    /**
+     * Schedules the periodic sync of an {@link FileSyncPolicy.Mode#INTERVAL} policy, or moves it to the specified
+     * scheduler. The statistics are kept.
+     *
+     * @param configurationScheduler the scheduler of the configuration using the manager, or null to keep the current
+     *            scheduler or to use one of its own
+     */
+    synchronized void start(final ConfigurationScheduler configurationScheduler) {
+        if (policy.getMode() != FileSyncPolicy.Mode.INTERVAL) {
+            return;
+        }
+        if (syncTask != null && (configurationScheduler == null || configurationScheduler == scheduler)) {
+            return;
+        }
+        stop();
+        if (configurationScheduler == null) {
+            scheduler = new ConfigurationScheduler("FileSync-" + manager.getName());
+            ownScheduler = true;
+        } else {
+            scheduler = configurationScheduler;
+        }
+        if (!scheduler.isExecutorServiceSet()) {
+            scheduler.incrementScheduledItems();
+        }
+        if (!scheduler.isStarted()) {
+            scheduler.start();
+        }
+        final long interval = policy.getIntervalMillis();
+        syncTask = scheduler.scheduleWithFixedDelay(this::syncIfDirty, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    synchronized void stop() {
+        if (syncTask != null) {
+            syncTask.cancel(false);
+            syncTask = null;
+        }
+        if (ownScheduler) {
+            scheduler.stop();
+            ownScheduler = false;
+        }
+        scheduler = null;
+    }
+
+    /**
+     * Blocks until everything written by the current thread has been forced to the device. Does nothing unless the
+     * policy is {@link FileSyncPolicy.Mode#GROUP_COMMIT}.
+     *
+     * @throws AppenderLoggingException if the data could not be forced to the device
+     */
+    void awaitDurable() {
+        if (policy.getMode() != FileSyncPolicy.Mode.GROUP_COMMIT) {
+            return;
+        }
+        if (Thread.holdsLock(manager)) {
+            // no other thread can sync while we hold the manager lock, so don't wait for one
+            sync(true);
+            return;
+        }
+        final long generation;
+        synchronized (generationLock) {
+            // any sync that starts from now on covers our write
+            final long target = startedGeneration + 1;
+            while (syncing && completedGeneration < target) {
+                try {
+                    generationLock.wait();
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new AppenderLoggingException("Interrupted waiting for " + manager.getName()
+                            + " to be synced", ex);
+                }
+            }
+            if (completedGeneration >= target) {
+                return;
+            }
+            syncing = true;
+            generation = ++startedGeneration;
+        }
+        try {
+            sync(true);
+        } finally {
+            synchronized (generationLock) {
+                syncing = false;
+                completedGeneration = generation;
+                generationLock.notifyAll();
+            }
+        }
+    }
+
+    private void syncIfDirty() {
+        try {
+            sync(false);
+        } catch (final RuntimeException ex) {
+            // an exception would cancel the periodic sync
+            LOGGER.error("Unable to sync {}", manager.getName(), ex);
+        }
+    }
+
+    /**
+     * Flushes the manager and forces its file to the device. The manager lock is only held while flushing, so other
+     * threads can keep writing while the device is busy.
+     */
+    private void sync(final boolean always) {
+        final FileChannel channel;
+        synchronized (manager) {
+            manager.flush();
+            if (!manager.clearUnsyncedWrites() && !always) {
+                return;
+            }
+            channel = manager.getSyncChannel();
+        }
+        if (channel == null) {
+            return;
+        }
+        final long start = System.nanoTime();
+        try {
+            channel.force(false);
+        } catch (final ClosedChannelException ex) {
+            // the file was closed concurrently, e.g. on rollover, which forces it before closing
+            return;
+        } catch (final IOException ex) {
+            throw new AppenderLoggingException("Unable to sync " + manager.getName(), ex);
+        }
+        recordLatency(System.nanoTime() - start);
+    }
+
+    /**
+     * Forces the specified file to the device, used by the manager before it closes the file.
+     */
+    void syncBeforeClose(final FileChannel channel) {
+        final long start = System.nanoTime();
+        try {
+            channel.force(false);
+            recordLatency(System.nanoTime() - start);
+        } catch (final IOException ex) {
+            LOGGER.error("Unable to sync {} before closing it", manager.getName(), ex);
+        }
+    }
+
+    private void recordLatency(final long nanos) {
+        final long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+        int bucket = 0;
+        while (bucket < LATENCY_BUCKET_BOUNDS_MICROS.length && micros >= LATENCY_BUCKET_BOUNDS_MICROS[bucket]) {
+            bucket++;
+        }
+        latencyHistogram.incrementAndGet(bucket);
+        syncCount.incrementAndGet();
+        totalLatencyNanos.addAndGet(nanos);
+        long max;
+        while (nanos > (max = maxLatencyNanos.get()) && !maxLatencyNanos.compareAndSet(max, nanos)) {
+            // retry
+        }
+    }
+
+    public FileSyncPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Returns how often the file was forced to the device.
+     *
+     * @return the number of syncs
+     */
+    public long getSyncCount() {
+        return syncCount.get();
+    }
+
+    /**
+     * Returns the exclusive upper bounds of the buckets of the latency histogram, in microseconds. The histogram has
+     * one more bucket for all syncs that took longer than the last bound.
+     *
+     * @return the latency bucket bounds in microseconds
+     */
+    public long[] getLatencyBucketBoundsMicros() {
+        return LATENCY_BUCKET_BOUNDS_MICROS.clone();
+    }
+
+    /**
+     * Returns the number of syncs per latency bucket.
+     *
+     * @return the latency histogram
+     * @see #getLatencyBucketBoundsMicros()
+     */
+    public long[] getLatencyHistogram() {
+        final long[] result = new long[latencyHistogram.length()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = latencyHistogram.get(i);
+        }
+        return result;
+    }
+
+    public long getMaxLatencyMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(maxLatencyNanos.get());
+    }
+
+    public long getAverageLatencyMicros() {
+        final long count = syncCount.get();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalLatencyNanos.get() / count);
+    }
+
+    @Override
+    public String toString() {
+        return "FileSyncer[" + manager.getName() + ", policy=" + policy + ", syncs=" + syncCount.get() + ']';
+    }
+}
@@ -21,14 +21,10 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.io.RandomAccessFile;
 import java.io.Serializable;
-import java.lang.reflect.Method;
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
-import java.security.AccessController;
 import java.security.PrivilegedActionException;
-import java.security.PrivilegedExceptionAction;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
@@ -37,6 +33,7 @@ import org.apache.logging.log4j.core.Layout;
 import org.apache.logging.log4j.core.util.Closer;
 import org.apache.logging.log4j.core.util.FileUtils;
 import org.apache.logging.log4j.core.util.NullOutputStream;
+import org.apache.logging.log4j.core.util.internal.MappedBuffers;
 
 //Lines too long...
 //CHECKSTYLE:OFF
@@ -61,7 +58,6 @@ public class MemoryMappedFileManager extends OutputStreamManager {
      * Default length of region to map.
      */
     static final int DEFAULT_REGION_LENGTH = 32 * 1024 * 1024;
-    private static final int MAX_REMAP_COUNT = 10;
     private static final MemoryMappedFileManagerFactory FACTORY = new MemoryMappedFileManagerFactory();
     private static final double NANOS_PER_MILLISEC = 1000.0 * 1000.0;
 
@@ -179,53 +175,11 @@ public class MemoryMappedFileManager extends OutputStreamManager {
 
     public static MappedByteBuffer mmap(final FileChannel fileChannel, final String fileName, final long start,
             final int size) throws IOException {
-        for (int i = 1;; i++) {
-            try {
-                LOGGER.debug("MMapAppender remapping {} start={}, size={}", fileName, start, size);
-
-                final long startNanos = System.nanoTime();
-                final MappedByteBuffer map = fileChannel.map(FileChannel.MapMode.READ_WRITE, start, size);
-                map.order(ByteOrder.nativeOrder());
-
-                final float millis = (float) ((System.nanoTime() - startNanos) / NANOS_PER_MILLISEC);
-                LOGGER.debug("MMapAppender remapped {} OK in {} millis", fileName, millis);
-
-                return map;
-            } catch (final IOException e) {
-                if (e.getMessage() == null || !e.getMessage().endsWith("user-mapped section open")) {
-                    throw e;
-                }
-                LOGGER.debug("Remap attempt {}/{} failed. Retrying...", i, MAX_REMAP_COUNT, e);
-                if (i < MAX_REMAP_COUNT) {
-                    Thread.yield();
-                } else {
-                    try {
-                        Thread.sleep(1);
-                    } catch (final InterruptedException ignored) {
-                        Thread.currentThread().interrupt();
-                        throw e;
-                    }
-                }
-            }
-        }
+        return MappedBuffers.mmap(fileChannel, fileName, start, size);
     }
 
     private static void unsafeUnmap(final MappedByteBuffer mbb) throws PrivilegedActionException {
-        LOGGER.debug("MMapAppender unmapping old buffer...");
-        final long startNanos = System.nanoTime();
-        AccessController.doPrivileged(new PrivilegedExceptionAction<Object>() {
-            @Override
-            public Object run() throws Exception {
-                final Method getCleanerMethod = mbb.getClass().getMethod("cleaner");
-                getCleanerMethod.setAccessible(true);
-                final Object cleaner = getCleanerMethod.invoke(mbb); // sun.misc.Cleaner instance
-                final Method cleanMethod = cleaner.getClass().getMethod("clean");
-                cleanMethod.invoke(cleaner);
-                return null;
-            }
-        });
-        final float millis = (float) ((System.nanoTime() - startNanos) / NANOS_PER_MILLISEC);
-        LOGGER.debug("MMapAppender unmapped buffer OK in {} millis", millis);
+        MappedBuffers.unsafeUnmap(mbb);
     }
 
     /**
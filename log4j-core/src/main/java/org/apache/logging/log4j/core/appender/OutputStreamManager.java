@@ -40,6 +40,7 @@ public class OutputStreamManager extends AbstractManager implements ByteBufferDe
     protected ByteBuffer byteBuffer;
     private volatile OutputStream outputStream;
     private boolean skipFooter;
+    private volatile WriteCombiner writeCombiner;
 
     protected OutputStreamManager(final OutputStream os, final String streamName, final Layout<?> layout,
             final boolean writeHeader) {
@@ -114,6 +115,40 @@ public class OutputStreamManager extends AbstractManager implements ByteBufferDe
         this.skipFooter = skipFooter;
     }
 
+    /**
+     * Sets whether appenders encode log events without holding this manager's lock. Each thread encodes into a buffer of its
+     * own, and the writes of concurrent threads are committed to this manager in a single batch by one of them, with
+     * at most one flush per batch. This reduces lock contention when many threads log to the same manager.
+     * <p>
+     * The buffers are kept in thread locals, if thread locals are disabled a buffer is allocated for each event.
+     * </p>
+     * <p>
+     * Writes are not combined for a {@linkplain Layout#isStateful() stateful} layout: an event encoded before the
+     * stream changes could be written to the new stream, after the layout started over.
+     * </p>
+     *
+     * @param combineWrites whether writes are combined
+     * @since 3.0
+     */
+    public synchronized void setCombineWrites(final boolean combineWrites) {
+        if (!combineWrites) {
+            // threads that already got the combiner complete their writes with it
+            writeCombiner = null;
+        } else if (layout != null && layout.isStateful()) {
+            LOGGER.warn("{} does not combine writes of the stateful layout {}", getName(), layout);
+        } else if (writeCombiner == null) {
+            writeCombiner = new WriteCombiner(this);
+        }
+    }
+
+    /**
+     * Returns the write combiner used by appenders writing to this manager, or {@code null} if write combining is not
+     * enabled.
+     */
+    WriteCombiner getWriteCombiner() {
+        return writeCombiner;
+    }
+
     /**
      * Default hook to write footer during close.
      */
@@ -170,6 +205,9 @@ public class OutputStreamManager extends AbstractManager implements ByteBufferDe
 
     protected void setOutputStream(final OutputStream os) {
         this.outputStream = os;
+        if (layout != null) {
+            layout.streamChanged();
+        }
     }
 
     /**
@@ -24,6 +24,7 @@ import org.apache.logging.log4j.core.LogEvent;
 import org.apache.logging.log4j.core.appender.rolling.DefaultRolloverStrategy;
 import org.apache.logging.log4j.core.appender.rolling.DirectFileRolloverStrategy;
 import org.apache.logging.log4j.core.appender.rolling.DirectWriteRolloverStrategy;
+import org.apache.logging.log4j.core.appender.rolling.FileExtension;
 import org.apache.logging.log4j.core.appender.rolling.RollingFileManager;
 import org.apache.logging.log4j.core.appender.rolling.RolloverStrategy;
 import org.apache.logging.log4j.core.appender.rolling.TriggeringPolicy;
@@ -96,6 +97,18 @@ public final class RollingFileAppender extends AbstractOutputStreamAppender<Roll
         @PluginBuilderAttribute
         private String fileGroup;
 
+        @PluginBuilderAttribute
+        private boolean combineWrites;
+
+        @PluginBuilderAttribute
+        private String syncPolicy;
+
+        @PluginBuilderAttribute
+        private boolean asyncRollover;
+
+        @PluginBuilderAttribute
+        private boolean compressOutput;
+
         @Override
         public RollingFileAppender build() {
             // Even though some variables may be annotated with @Required, we must still perform validation here for
@@ -138,10 +151,30 @@ public final class RollingFileAppender extends AbstractOutputStreamAppender<Roll
                 return null;
             }
 
+            if (compressOutput) {
+                if (fileName == null) {
+                    LOGGER.error("RollingFileAppender '{}': compressOutput requires a file name.", getName());
+                    return null;
+                }
+                if (FileExtension.lookupForFile(filePattern) != FileExtension.GZ) {
+                    LOGGER.warn("RollingFileAppender '{}': The output is compressed but the file pattern {} does not end "
+                            + "with .gz", getName(), filePattern);
+                }
+            }
+
+            final FileSyncPolicy fileSyncPolicy;
+            try {
+                fileSyncPolicy = FileSyncPolicy.parse(syncPolicy);
+            } catch (final IllegalArgumentException ex) {
+                LOGGER.error("RollingFileAppender '{}': {}", getName(), ex.getMessage());
+                return null;
+            }
+
             final Layout<? extends Serializable> layout = getOrCreateLayout();
             final RollingFileManager manager = RollingFileManager.getFileManager(fileName, filePattern, append,
                     isBufferedIo, policy, strategy, advertiseUri, layout, bufferSize, isImmediateFlush(),
-                    createOnDemand, filePermissions, fileOwner, fileGroup, getConfiguration());
+                    createOnDemand, filePermissions, fileOwner, fileGroup, getConfiguration(), compressOutput,
+                    combineWrites, fileSyncPolicy, asyncRollover);
             if (manager == null) {
                 return null;
             }
@@ -188,6 +221,22 @@ public final class RollingFileAppender extends AbstractOutputStreamAppender<Roll
             return fileGroup;
         }
 
+        public boolean isCombineWrites() {
+            return combineWrites;
+        }
+
+        public String getSyncPolicy() {
+            return syncPolicy;
+        }
+
+        public boolean isAsyncRollover() {
+            return asyncRollover;
+        }
+
+        public boolean isCompressOutput() {
+            return compressOutput;
+        }
+
         public B setAdvertise(final boolean advertise) {
             this.advertise = advertise;
             return asBuilder();
@@ -260,6 +309,26 @@ public final class RollingFileAppender extends AbstractOutputStreamAppender<Roll
             return asBuilder();
         }
 
+        public B setCombineWrites(final boolean combineWrites) {
+            this.combineWrites = combineWrites;
+            return asBuilder();
+        }
+
+        public B setSyncPolicy(final String syncPolicy) {
+            this.syncPolicy = syncPolicy;
+            return asBuilder();
+        }
+
+        public B setAsyncRollover(final boolean asyncRollover) {
+            this.asyncRollover = asyncRollover;
+            return asBuilder();
+        }
+
+        public B setCompressOutput(final boolean compressOutput) {
+            this.compressOutput = compressOutput;
+            return asBuilder();
+        }
+
     }
     
     private final String fileName;
@@ -302,6 +371,15 @@ public final class RollingFileAppender extends AbstractOutputStreamAppender<Roll
     public void append(final LogEvent event) {
         getManager().checkRollover(event);
         super.append(event);
+        if (shouldFlush(event)) {
+            getManager().awaitDurable();
+        }
+    }
+
+    @Override
+    void afterBatch() {
+        // waiting for a sync while holding the manager lock would stall every thread writing to it
+        getManager().awaitDurable();
     }
 
     /**
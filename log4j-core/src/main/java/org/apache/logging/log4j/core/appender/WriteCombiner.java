@@ -0,0 +1,265 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.appender;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.logging.log4j.core.Layout;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.layout.ByteBufferDestination;
+import org.apache.logging.log4j.core.layout.ByteBufferDestinationHelper;
+import org.apache.logging.log4j.core.util.Constants;
+
+/**
+ * Write path for an {@link OutputStreamManager} that lets threads encode log events without holding the manager lock.
+ * <p>
+ * Each thread encodes its event into a private buffer and publishes it on a lock-free stack of pending writes. One of
+ * the publishing threads then becomes the combiner: it takes all pending writes, acquires the manager lock once,
+ * writes them in publication order, flushes at most once and releases the other threads. Threads that do not become
+ * the combiner wait until their write has been committed, so an event is never split or reordered relative to events
+ * its thread logged before, and its buffer can be reused without copying (flat combining). A waiting thread spins
+ * briefly and then parks until the combiner releases it or hands the combiner role over to it.
+ * </p>
+ * <p>
+ * If thread locals are enabled, each thread reuses its encode buffer for all of its writes. Otherwise a buffer is
+ * allocated for each write.
+ * </p>
+ */
+final class WriteCombiner {
+
+    private static final int SPIN_TRIES = 100;
+
+    /**
+     * A thread writes to one combiner at a time, so it only needs one buffer for all of them. The buffer is kept in a
+     * single element Object[] instead of a custom class, because it needs to contain JDK classes, no custom (Log4j)
+     * classes: the Log4j classes may be loaded by a separate class loader which cannot be garbage collected if a
+     * thread pool threadlocal still has a reference to it. The slot is empty while its buffer is in use.
+     */
+    private static final ThreadLocal<Object[]> BUFFERS = Constants.ENABLE_THREADLOCALS ? new ThreadLocal<>() : null;
+
+    private final OutputStreamManager manager;
+    private final AtomicReference<Record> pending = new AtomicReference<>();
+    private final AtomicBoolean combining = new AtomicBoolean();
+
+    WriteCombiner(final OutputStreamManager manager) {
+        this.manager = manager;
+    }
+
+    /**
+     * Encodes the specified event and writes it to the manager, blocking until it has been committed.
+     *
+     * @param layout the layout to encode the event with
+     * @param event the event to write
+     * @param flush whether the manager should be flushed after this event was written
+     * @throws AppenderLoggingException if the event could not be written
+     */
+    void write(final Layout<?> layout, final LogEvent event, final boolean flush) {
+        final Object[] slot = getSlot();
+        final Record record = new Record(takeBuffer(slot));
+        try {
+            write(layout, event, flush, record);
+        } finally {
+            if (slot != null) {
+                slot[0] = record.buffer;
+            }
+        }
+    }
+
+    private void write(final Layout<?> layout, final LogEvent event, final boolean flush, final Record record) {
+        ((Buffer) record.buffer).clear();
+        layout.encode(event, record);
+        record.flush = flush;
+        record.pending = true;
+        publish(record);
+
+        int counter = 0;
+        boolean interrupted = false;
+        while (record.pending) {
+            if (combining.compareAndSet(false, true)) {
+                try {
+                    combine();
+                } finally {
+                    combining.set(false);
+                    handOver();
+                }
+            } else if (++counter > SPIN_TRIES) {
+                // the combiner unparks this thread when its write was committed or when it should combine
+                LockSupport.park(this);
+                interrupted |= Thread.interrupted();
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (record.buffer.capacity() > Constants.ENCODER_BYTE_BUFFER_SIZE) {
+            // don't keep the buffer of an unusually large event for the lifetime of the thread
+            record.buffer = ByteBuffer.wrap(new byte[Constants.ENCODER_BYTE_BUFFER_SIZE]);
+        }
+        final RuntimeException error = record.error;
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    private static Object[] getSlot() {
+        if (BUFFERS == null) {
+            return null;
+        }
+        Object[] result = BUFFERS.get();
+        if (result == null) {
+            result = new Object[1];
+            BUFFERS.set(result);
+        }
+        return result;
+    }
+
+    private static ByteBuffer takeBuffer(final Object[] slot) {
+        if (slot != null && slot[0] != null) {
+            final ByteBuffer result = (ByteBuffer) slot[0];
+            slot[0] = null;
+            return result;
+        }
+        // thread locals are disabled, this is the first write of the thread, or an event is logged while encoding
+        // another one, e.g. from a toString() method
+        return ByteBuffer.wrap(new byte[Constants.ENCODER_BYTE_BUFFER_SIZE]);
+    }
+
+    private void publish(final Record record) {
+        Record head;
+        do {
+            head = pending.get();
+            record.next = head;
+        } while (!pending.compareAndSet(head, record));
+    }
+
+    /**
+     * Wakes up the thread of the most recently published record, if any, after the combining flag was released.
+     * Its thread may have parked while this thread was combining and would otherwise not notice that the flag is
+     * free.
+     */
+    private void handOver() {
+        final Record head = pending.get();
+        if (head != null) {
+            LockSupport.unpark(head.thread);
+        }
+    }
+
+    /**
+     * Writes all pending records. Must only be called by the thread that won the combining flag.
+     */
+    private void combine() {
+        Record list = pending.getAndSet(null);
+        if (list == null) {
+            return;
+        }
+        // the stack holds the most recent record first, reverse it to write in publication order
+        Record ordered = null;
+        while (list != null) {
+            final Record next = list.next;
+            list.next = ordered;
+            ordered = list;
+            list = next;
+        }
+        RuntimeException error = null;
+        try {
+            synchronized (manager) {
+                boolean flush = false;
+                for (Record record = ordered; record != null; record = record.next) {
+                    final ByteBuffer buffer = record.buffer;
+                    ((Buffer) buffer).flip();
+                    if (buffer.hasRemaining()) {
+                        manager.writeBytes(buffer.array(), buffer.arrayOffset(), buffer.limit());
+                    }
+                    flush |= record.flush;
+                }
+                if (flush) {
+                    manager.flush();
+                }
+            }
+        } catch (final RuntimeException ex) {
+            error = ex instanceof AppenderLoggingException ? ex : new AppenderLoggingException(ex);
+        } catch (final Error err) {
+            // the drained records are no longer reachable from the stack, their threads must be released in any case
+            error = new AppenderLoggingException(err);
+            throw err;
+        } finally {
+            release(ordered, error);
+        }
+    }
+
+    private static void release(final Record ordered, final RuntimeException error) {
+        Record record = ordered;
+        while (record != null) {
+            // read the next record before releasing this one, its owner may return right away
+            final Record next = record.next;
+            final Thread thread = record.thread;
+            record.next = null;
+            record.error = error;
+            record.pending = false;
+            LockSupport.unpark(thread);
+            record = next;
+        }
+    }
+
+    /**
+     * A thread's encode buffer, published as one pending write.
+     */
+    private static final class Record implements ByteBufferDestination {
+
+        final Thread thread = Thread.currentThread();
+        ByteBuffer buffer;
+        boolean flush;
+        RuntimeException error;
+        Record next;
+        volatile boolean pending;
+
+        Record(final ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public ByteBuffer getByteBuffer() {
+            return buffer;
+        }
+
+        /**
+         * Grows the buffer instead of writing anything: an event must be committed as a whole.
+         */
+        @Override
+        public ByteBuffer drain(final ByteBuffer buf) {
+            final ByteBuffer larger = ByteBuffer.wrap(new byte[buf.capacity() * 2]);
+            ((Buffer) buf).flip();
+            larger.put(buf);
+            buffer = larger;
+            return larger;
+        }
+
+        @Override
+        public void writeBytes(final ByteBuffer data) {
+            ByteBufferDestinationHelper.writeToUnsynchronized(data, this);
+        }
+
+        @Override
+        public void writeBytes(final byte[] data, final int offset, final int length) {
+            ByteBufferDestinationHelper.writeToUnsynchronized(data, offset, length, this);
+        }
+    }
+}
@@ -20,6 +20,7 @@ import org.apache.logging.log4j.core.Core;
 import org.apache.logging.log4j.core.appender.rolling.action.Action;
 import org.apache.logging.log4j.core.appender.rolling.action.CompositeAction;
 import org.apache.logging.log4j.core.appender.rolling.action.FileRenameAction;
+import org.apache.logging.log4j.core.appender.rolling.action.ParallelGzCompressAction;
 import org.apache.logging.log4j.core.appender.rolling.action.PathCondition;
 import org.apache.logging.log4j.core.appender.rolling.action.PosixViewAttributeAction;
 import org.apache.logging.log4j.core.config.Configuration;
@@ -81,6 +82,7 @@ public class DefaultRolloverStrategy extends AbstractRolloverStrategy {
 
     private static final int MIN_WINDOW_SIZE = 1;
     private static final int DEFAULT_WINDOW_SIZE = 7;
+    private static final int MAX_COMPRESSION_BLOCK_SIZE = 256 * 1024 * 1024;
 
     /**
      * Builds DefaultRolloverStrategy instances.
@@ -98,6 +100,12 @@ public class DefaultRolloverStrategy extends AbstractRolloverStrategy {
         @PluginBuilderAttribute("compressionLevel")
         private String compressionLevelStr;
 
+        @PluginBuilderAttribute("compressionThreads")
+        private int compressionThreads = 1;
+
+        @PluginBuilderAttribute("compressionBlockSize")
+        private String compressionBlockSize;
+
         @PluginElement("Actions")
         private Action[] customActions;
 
@@ -142,8 +150,11 @@ public class DefaultRolloverStrategy extends AbstractRolloverStrategy {
             final int compressionLevel = Integers.parseInt(compressionLevelStr, Deflater.DEFAULT_COMPRESSION);
             // The config object can be null when this object is built programmatically.
             StrSubstitutor nonNullStrSubstitutor = config != null ? config.getStrSubstitutor() : new StrSubstitutor();
+            final int blockSize = compressionBlockSize == null ? ParallelGzCompressAction.DEFAULT_BLOCK_SIZE
+                    : (int) Math.min(MAX_COMPRESSION_BLOCK_SIZE,
+                            FileSize.parse(compressionBlockSize, ParallelGzCompressAction.DEFAULT_BLOCK_SIZE));
             return new DefaultRolloverStrategy(minIndex, maxIndex, useMax, compressionLevel, nonNullStrSubstitutor,
-                    customActions, stopCustomActionsOnError, tempCompressedFilePattern);
+                    customActions, stopCustomActionsOnError, tempCompressedFilePattern, compressionThreads, blockSize);
         }
 
         public String getMax() {
@@ -207,6 +218,37 @@ public class DefaultRolloverStrategy extends AbstractRolloverStrategy {
             return this;
         }
 
+        public int getCompressionThreads() {
+            return compressionThreads;
+        }
+
+        /**
+         * Defines the number of threads that compress a file.
+         *
+         * @param compressionThreads The maximum number of threads compressing one file; applies only to GZ files.
+         * @return This builder for chaining convenience
+         */
+        public Builder setCompressionThreads(final int compressionThreads) {
+            this.compressionThreads = compressionThreads;
+            return this;
+        }
+
+        public String getCompressionBlockSize() {
+            return compressionBlockSize;
+        }
+
+        /**
+         * Defines the size of the blocks compressed in parallel.
+         *
+         * @param compressionBlockSize The block size, for example "1 MB"; applies only if compressionThreads is
+         *            greater than one.
+         * @return This builder for chaining convenience
+         */
+        public Builder setCompressionBlockSize(final String compressionBlockSize) {
+            this.compressionBlockSize = compressionBlockSize;
+            return this;
+        }
+
         public Action[] getCustomActions() {
             return customActions;
         }
@@ -284,6 +326,8 @@ public class DefaultRolloverStrategy extends AbstractRolloverStrategy {
     private final int minIndex;
     private final boolean useMax;
     private final int compressionLevel;
+    private final int compressionThreads;
+    private final int compressionBlockSize;
     private final List<Action> customActions;
     private final boolean stopCustomActionsOnError;
     private final PatternProcessor tempCompressedFilePattern;
@@ -301,11 +345,34 @@ public class DefaultRolloverStrategy extends AbstractRolloverStrategy {
     protected DefaultRolloverStrategy(final int minIndex, final int maxIndex, final boolean useMax,
             final int compressionLevel, final StrSubstitutor strSubstitutor, final Action[] customActions,
             final boolean stopCustomActionsOnError, final String tempCompressedFilePatternString) {
+        this(minIndex, maxIndex, useMax, compressionLevel, strSubstitutor, customActions, stopCustomActionsOnError,
+                tempCompressedFilePatternString, 1, ParallelGzCompressAction.DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param minIndex The minimum index.
+     * @param maxIndex The maximum index.
+     * @param customActions custom actions to perform asynchronously after rollover
+     * @param stopCustomActionsOnError whether to stop executing asynchronous actions if an error occurs
+     * @param tempCompressedFilePatternString File pattern of the working file
+     *                                     used during compression, if null no temporary file are used
+     * @param compressionThreads the maximum number of threads compressing one file
+     * @param compressionBlockSize the size of the blocks compressed in parallel
+     * @since 3.0
+     */
+    protected DefaultRolloverStrategy(final int minIndex, final int maxIndex, final boolean useMax,
+            final int compressionLevel, final StrSubstitutor strSubstitutor, final Action[] customActions,
+            final boolean stopCustomActionsOnError, final String tempCompressedFilePatternString,
+            final int compressionThreads, final int compressionBlockSize) {
         super(strSubstitutor);
         this.minIndex = minIndex;
         this.maxIndex = maxIndex;
         this.useMax = useMax;
         this.compressionLevel = compressionLevel;
+        this.compressionThreads = Math.max(1, compressionThreads);
+        this.compressionBlockSize = compressionBlockSize;
         this.stopCustomActionsOnError = stopCustomActionsOnError;
         this.customActions = customActions == null ? Collections.<Action> emptyList() : Arrays.asList(customActions);
         this.tempCompressedFilePattern =
@@ -316,6 +383,14 @@ public class DefaultRolloverStrategy extends AbstractRolloverStrategy {
         return this.compressionLevel;
     }
 
+    public int getCompressionThreads() {
+        return compressionThreads;
+    }
+
+    public int getCompressionBlockSize() {
+        return compressionBlockSize;
+    }
+
     public List<Action> getCustomActions() {
         return customActions;
     }
@@ -503,13 +578,13 @@ public class DefaultRolloverStrategy extends AbstractRolloverStrategy {
                 }
                 compressAction = new CompositeAction(
                         Arrays.asList(fileExtension.createCompressAction(renameTo, tmpCompressedName,
-                                true, compressionLevel),
+                                true, compressionLevel, compressionThreads, compressionBlockSize),
                                 new FileRenameAction(tmpCompressedNameFile,
                                         renameToFile, true)),
                         true);
             } else {
                 compressAction = fileExtension.createCompressAction(renameTo, compressedName,
-                        true, compressionLevel);
+                        true, compressionLevel, compressionThreads, compressionBlockSize);
             }
         }
 
@@ -22,6 +22,7 @@ import java.util.Objects;
 import org.apache.logging.log4j.core.appender.rolling.action.Action;
 import org.apache.logging.log4j.core.appender.rolling.action.CommonsCompressAction;
 import org.apache.logging.log4j.core.appender.rolling.action.GzCompressAction;
+import org.apache.logging.log4j.core.appender.rolling.action.ParallelGzCompressAction;
 import org.apache.logging.log4j.core.appender.rolling.action.ZipCompressAction;
 
 /**
@@ -41,6 +42,17 @@ public enum FileExtension {
                                     final int compressionLevel) {
             return new GzCompressAction(source(renameTo), target(compressedName), deleteSource, compressionLevel);
         }
+
+        @Override
+        Action createCompressAction(final String renameTo, final String compressedName, final boolean deleteSource,
+                                    final int compressionLevel, final int compressionThreads,
+                                    final int compressionBlockSize) {
+            if (compressionThreads <= 1) {
+                return createCompressAction(renameTo, compressedName, deleteSource, compressionLevel);
+            }
+            return new ParallelGzCompressAction(source(renameTo), target(compressedName), deleteSource,
+                    compressionLevel, compressionThreads, compressionBlockSize);
+        }
     },
     BZIP2(".bz2") {
         @Override
@@ -103,6 +115,15 @@ public enum FileExtension {
     abstract Action createCompressAction(String renameTo, String compressedName, boolean deleteSource,
                                          int compressionLevel);
 
+    /**
+     * Creates an action that compresses on up to the specified number of threads, if the format supports it.
+     */
+    Action createCompressAction(final String renameTo, final String compressedName, final boolean deleteSource,
+                                final int compressionLevel, final int compressionThreads,
+                                final int compressionBlockSize) {
+        return createCompressAction(renameTo, compressedName, deleteSource, compressionLevel);
+    }
+
     String getExtension() {
         return extension;
     }
@@ -22,8 +22,10 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.io.Serializable;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileTime;
 import java.util.Collection;
@@ -41,6 +43,7 @@ import org.apache.logging.log4j.core.LogEvent;
 import org.apache.logging.log4j.core.LoggerContext;
 import org.apache.logging.log4j.core.appender.ConfigurationFactoryData;
 import org.apache.logging.log4j.core.appender.FileManager;
+import org.apache.logging.log4j.core.appender.FileSyncPolicy;
 import org.apache.logging.log4j.core.appender.ManagerFactory;
 import org.apache.logging.log4j.core.appender.rolling.action.AbstractAction;
 import org.apache.logging.log4j.core.appender.rolling.action.Action;
@@ -58,6 +61,7 @@ public class RollingFileManager extends FileManager {
     private static final int MAX_TRIES = 3;
     private static final int MIN_DURATION = 100;
     private static final FileTime EPOCH = FileTime.fromMillis(0);
+    private static final String NEXT_FILE_SUFFIX = ".next";
 
     protected long size;
     private long initialTime;
@@ -70,6 +74,19 @@ public class RollingFileManager extends FileManager {
     private volatile boolean initialized;
     private volatile String fileName;
     private final boolean directWrite;
+    private final boolean compressOutput;
+    private final boolean immediateFlush;
+    private volatile boolean asyncRollover;
+    private volatile boolean stopping;
+    // Background rollover tasks hold the semaphore and must never lock the manager, the file logging switches to on
+    // the next asynchronous rollover is guarded by its own lock.
+    private final Object nextFileLock = new Object();
+    private OutputStream nextOutputStream;
+    private long nextFileLength;
+    // Set while the manager writes to the next file because the background rollover could not move it into place.
+    private volatile boolean writingToNextFile;
+    // The last event whose rollover check was deferred while a background rollover held the semaphore.
+    private volatile LogEvent deferredRolloverEvent;
 
     /* This executor pool will create a new Thread for every work async action to be performed. Using it allows
        us to make sure all the Threads are completed when the Manager is stopped. */
@@ -94,8 +111,28 @@ public class RollingFileManager extends FileManager {
             final String advertiseURI, final Layout<? extends Serializable> layout,
             final String filePermissions, final String fileOwner, final String fileGroup,
             final boolean writeHeader, final ByteBuffer buffer) {
+        this(loggerContext, fileName, pattern, os, append, createOnDemand, size, initialTime, triggeringPolicy,
+                rolloverStrategy, advertiseURI, layout, filePermissions, fileOwner, fileGroup, writeHeader, buffer,
+                false, true);
+    }
+
+    /**
+     * @param compressOutput true if the output stream compresses to GZIP, so archived files need not be compressed
+     * @param immediateFlush true if the appender flushes after every event, every flush of a compressed output stream
+     *            then ends the current deflate block
+     * @since 3.0
+     */
+    protected RollingFileManager(final LoggerContext loggerContext, final String fileName, final String pattern, final OutputStream os,
+            final boolean append, final boolean createOnDemand, final long size, final long initialTime,
+            final TriggeringPolicy triggeringPolicy, final RolloverStrategy rolloverStrategy,
+            final String advertiseURI, final Layout<? extends Serializable> layout,
+            final String filePermissions, final String fileOwner, final String fileGroup,
+            final boolean writeHeader, final ByteBuffer buffer, final boolean compressOutput,
+            final boolean immediateFlush) {
         super(loggerContext, fileName != null ? fileName : pattern, os, append, false, createOnDemand,
 			advertiseURI, layout, filePermissions, fileOwner, fileGroup, writeHeader, buffer);
+        this.compressOutput = compressOutput;
+        this.immediateFlush = immediateFlush;
         this.size = size;
         this.initialTime = initialTime;
         this.triggeringPolicy = triggeringPolicy;
@@ -152,6 +189,42 @@ public class RollingFileManager extends FileManager {
             final boolean immediateFlush, final boolean createOnDemand,
             final String filePermissions, final String fileOwner, final String fileGroup,
             final Configuration configuration) {
+        return getFileManager(fileName, pattern, append, bufferedIO, policy, strategy, advertiseURI, layout,
+                bufferSize, immediateFlush, createOnDemand, filePermissions, fileOwner, fileGroup, configuration, false,
+                false, FileSyncPolicy.NONE, false);
+    }
+
+    /**
+     * Returns a RollingFileManager.
+     * @param fileName The file name.
+     * @param pattern The pattern for rolling file.
+     * @param append true if the file should be appended to.
+     * @param bufferedIO true if data should be buffered.
+     * @param policy The TriggeringPolicy.
+     * @param strategy The RolloverStrategy.
+     * @param advertiseURI the URI to use when advertising the file
+     * @param layout The Layout.
+     * @param bufferSize buffer size to use if bufferedIO is true
+     * @param immediateFlush flush on every write or not
+     * @param createOnDemand true if you want to lazy-create the file (a.k.a. on-demand.)
+     * @param filePermissions File permissions
+     * @param fileOwner File owner
+     * @param fileGroup File group
+     * @param configuration The configuration.
+     * @param compressOutput true if the file should be written in GZIP format.
+     * @param combineWrites true if the writes of concurrent threads should be combined.
+     * @param syncPolicy when the data is forced to the storage device, {@code null} for {@link FileSyncPolicy#NONE}.
+     * @param asyncRollover true if rollovers should be completed in the background.
+     * @return A RollingFileManager.
+     * @since 3.0
+     */
+    public static RollingFileManager getFileManager(final String fileName, final String pattern, final boolean append,
+            final boolean bufferedIO, final TriggeringPolicy policy, final RolloverStrategy strategy,
+            final String advertiseURI, final Layout<? extends Serializable> layout, final int bufferSize,
+            final boolean immediateFlush, final boolean createOnDemand,
+            final String filePermissions, final String fileOwner, final String fileGroup,
+            final Configuration configuration, final boolean compressOutput, final boolean combineWrites,
+            final FileSyncPolicy syncPolicy, final boolean asyncRollover) {
 
         if (strategy instanceof DirectWriteRolloverStrategy && fileName != null) {
             LOGGER.error("The fileName attribute must not be specified with the DirectWriteRolloverStrategy");
@@ -160,7 +233,8 @@ public class RollingFileManager extends FileManager {
         final String name = fileName == null ? pattern : fileName;
         return narrow(RollingFileManager.class, getManager(name, new FactoryData(fileName, pattern, append,
             bufferedIO, policy, strategy, advertiseURI, layout, bufferSize, immediateFlush, createOnDemand,
-            filePermissions, fileOwner, fileGroup, configuration), factory));
+            filePermissions, fileOwner, fileGroup, configuration, compressOutput, combineWrites, syncPolicy,
+            asyncRollover), factory));
     }
 
     /**
@@ -186,8 +260,52 @@ public class RollingFileManager extends FileManager {
         return directWrite;
     }
 
+    /**
+     * Returns the extension of the compression format the rolled over files are compressed to after the rollover.
+     * @return The file extension, or null if files are not compressed after the rollover, also if they are written
+     * compressed already.
+     */
     public FileExtension getFileExtension() {
-        return patternProcessor.getFileExtension();
+        return compressOutput ? null : patternProcessor.getFileExtension();
+    }
+
+    /**
+     * Returns whether the file is written in GZIP format.
+     * @return true if the output is compressed while it is written.
+     * @since 3.0
+     */
+    public boolean isCompressOutput() {
+        return compressOutput;
+    }
+
+    @Override
+    protected OutputStream createOutputStream() throws IOException {
+        if (!compressOutput) {
+            return super.createOutputStream();
+        }
+        final String filename = getFileName();
+        LOGGER.debug("Now writing compressed to {} at {}", filename, new Date());
+        final File file = new File(filename);
+        createParentDir(file);
+        final boolean empty = !file.exists() || file.length() == 0;
+        // appending starts a new GZIP member, concatenated members form a valid GZIP file
+        final OutputStream os = new SyncFlushGzipOutputStream(new FileOutputStream(file, isAppend()),
+                immediateFlush);
+        if (empty) {
+            writeHeader(os);
+        }
+        defineAttributeView(Paths.get(filename));
+        return os;
+    }
+
+    @Override
+    protected FileChannel getSyncChannel(final OutputStream os) throws IOException {
+        if (os instanceof SyncFlushGzipOutputStream) {
+            final SyncFlushGzipOutputStream gzip = (SyncFlushGzipOutputStream) os;
+            gzip.syncFlush();
+            return super.getSyncChannel(gzip.getOutputStream());
+        }
+        return super.getSyncChannel(os);
     }
 
     // override to make visible for unit tests
@@ -232,6 +350,17 @@ public class RollingFileManager extends FileManager {
      * @param event The LogEvent.
      */
     public synchronized void checkRollover(final LogEvent event) {
+        if (asyncRollover && semaphore.availablePermits() == 0) {
+            // The previous rollover is still being completed in the background. Don't let the policy advance its
+            // state until the strategy and its actions are done, the check is performed once they release the
+            // semaphore.
+            deferredRolloverEvent = event.toImmutable();
+            if (semaphore.availablePermits() == 0) {
+                return;
+            }
+            // released meanwhile, its holder may have missed the event
+        }
+        deferredRolloverEvent = null;
         if (triggeringPolicy.isTriggeringEvent(event)) {
             rollover();
         }
@@ -240,6 +369,7 @@ public class RollingFileManager extends FileManager {
     @Override
     public boolean releaseSub(final long timeout, final TimeUnit timeUnit) {
         LOGGER.debug("Shutting down RollingFileManager {}", getName());
+        stopping = true;
         boolean stopped = true;
         stopped &= ((LifeCycle) triggeringPolicy).stop(timeout, timeUnit);
         final boolean status = super.releaseSub(timeout, timeUnit) && stopped;
@@ -280,20 +410,34 @@ public class RollingFileManager extends FileManager {
             // Preserve interrupt status
             Thread.currentThread().interrupt();
         }
+        closeNextFile();
+        if (writingToNextFile) {
+            appendNextFile();
+        }
         LOGGER.debug("RollingFileManager shutdown completed with status {}", status);
         return status;
     }
 
-	public synchronized void rollover(long prevFileTime, long prevRollTime) {
-		getPatternProcessor().setPrevFileTime(prevFileTime);
-		getPatternProcessor().setCurrentFileTime(prevRollTime);
-		rollover();
+	public void rollover(long prevFileTime, long prevRollTime) {
+		if (asyncRollover) {
+			// the strategy of a rollover still completing in the background reads the pattern processor, wait for it
+			// without holding the manager lock so logging continues meanwhile
+			awaitBackgroundRollover();
+		}
+		synchronized (this) {
+			getPatternProcessor().setPrevFileTime(prevFileTime);
+			getPatternProcessor().setCurrentFileTime(prevRollTime);
+			rollover();
+		}
 	}
 
     public synchronized void rollover() {
         if (!hasOutputStream() && !isCreateOnDemand()) {
             return;
         }
+        if (asyncRollover && switchToNextFile()) {
+            return;
+        }
         if (rollover(rolloverStrategy)) {
             try {
                 size = 0;
@@ -303,6 +447,303 @@ public class RollingFileManager extends FileManager {
                 logError("Failed to create file after rollover", e);
             }
         }
+        if (asyncRollover) {
+            openNextFileInBackground();
+        }
+    }
+
+    /**
+     * Lets rollovers complete in the background. When a rollover is triggered, the manager switches to a file that
+     * was opened in advance and returns right away; closing the previous file, running the rollover strategy,
+     * moving the new file into place and opening the file for the following rollover are done by a background thread.
+     * <p>
+     * The file for the next rollover is opened as soon as the previous rollover has completed, so it is ready well
+     * before a time based or cron based policy triggers. While it is not available, rollovers fall back to the
+     * synchronous behavior. While the previous rollover, including the asynchronous actions of the strategy, is still
+     * being completed, rollover checks are deferred until it is done. The new file is renamed while it is
+     * open, which requires a file system that allows it. Not supported with a {@link DirectFileRolloverStrategy} or
+     * with createOnDemand.
+     * </p>
+     *
+     * @since 3.0
+     */
+    public synchronized void enableAsyncRollover() {
+        if (asyncRollover) {
+            return;
+        }
+        if (directWrite || isCreateOnDemand()) {
+            LOGGER.warn("Asynchronous rollover is not supported for {} with createOnDemand or a {}", getName(),
+                    DirectFileRolloverStrategy.class.getSimpleName());
+            return;
+        }
+        asyncRollover = true;
+        openNextFileInBackground();
+    }
+
+    /**
+     * Makes rollovers synchronous again. Waits for a rollover that is being completed in the background and closes the
+     * file opened for the next one.
+     *
+     * @since 3.0
+     */
+    public synchronized void disableAsyncRollover() {
+        if (!asyncRollover) {
+            return;
+        }
+        asyncRollover = false;
+        // background tasks never lock the manager while they hold the semaphore
+        awaitBackgroundRollover();
+        closeNextFile();
+    }
+
+    public boolean isAsyncRollover() {
+        return asyncRollover;
+    }
+
+    /**
+     * Returns the name of the file opened in advance for the next asynchronous rollover.
+     *
+     * @return the name of the next file
+     * @since 3.0
+     */
+    public String getNextFileName() {
+        return getFileName() + NEXT_FILE_SUFFIX;
+    }
+
+    /**
+     * Returns whether the file for the next asynchronous rollover is open.
+     */
+    boolean isNextFileOpen() {
+        synchronized (nextFileLock) {
+            return nextOutputStream != null;
+        }
+    }
+
+    /**
+     * Switches to the file opened in advance and hands the rest of the rollover to a background thread.
+     *
+     * @return true if the manager switched to the next file, false if the rollover must be performed synchronously
+     */
+    private boolean switchToNextFile() {
+        if (!semaphore.tryAcquire()) {
+            return false;
+        }
+        final OutputStream next;
+        final long nextLength;
+        synchronized (nextFileLock) {
+            next = nextOutputStream;
+            nextLength = nextFileLength;
+            nextOutputStream = null;
+        }
+        if (next == null) {
+            semaphore.release();
+            return false;
+        }
+        final OutputStream previous;
+        try {
+            writeFooter();
+            flush();
+            previous = getOutputStream();
+        } catch (final Exception ex) {
+            synchronized (nextFileLock) {
+                nextOutputStream = next;
+            }
+            semaphore.release();
+            logError("Unable to prepare rollover", ex);
+            return false;
+        }
+        setOutputStream(next);
+        writingToNextFile = true;
+        size = nextLength;
+        initialTime = System.currentTimeMillis();
+        if (size == 0) {
+            writeHeader(next);
+        }
+        final long fileTime = initialTime;
+        try {
+            asyncExecutor.execute(() -> completeRollover(previous, fileTime));
+        } catch (final RuntimeException ex) {
+            // the manager is being stopped, complete the rollover on this thread
+            completeRollover(previous, fileTime);
+        }
+        return true;
+    }
+
+    /**
+     * Completes a rollover started by {@link #switchToNextFile()}. Holds the semaphore acquired by it until the
+     * asynchronous action of the strategy, for example compressing the archived file, completed, so the strategy of the
+     * next rollover never renames or deletes files the action still works on. It must not lock the manager while
+     * holding the semaphore: a cron rollover waits for the semaphore before locking it, a rollover triggered by an
+     * event waits for it while holding the lock. Rollover checks made meanwhile are performed once it is released.
+     */
+    private void completeRollover(final OutputStream previous, final long fileTime) {
+        try {
+            closePreviousFile(previous);
+            final RolloverDescription descriptor = rolloverStrategy.rollover(this);
+            if (descriptor != null && descriptor.getSynchronous() != null) {
+                LOGGER.debug("RollingFileManager executing {} in the background", descriptor.getSynchronous());
+                try {
+                    descriptor.getSynchronous().execute();
+                } catch (final Exception ex) {
+                    logError("Caught error in synchronous task", ex);
+                }
+            }
+            final Path current = Paths.get(getFileName());
+            final Path next = Paths.get(getNextFileName());
+            if (Files.exists(current)) {
+                // The next rollover is synchronous and appends the next file to the current one before archiving it.
+                LOGGER.error("Unable to roll over {}, logging continues to {} until the next rollover", current, next);
+                return;
+            }
+            Files.move(next, current);
+            writingToNextFile = false;
+            try {
+                Files.setAttribute(current, "creationTime", FileTime.fromMillis(fileTime));
+            } catch (final Exception ex) {
+                LOGGER.warn("Unable to set current file time for {}", current);
+            }
+            openNextFile();
+            if (descriptor != null && descriptor.getAsynchronous() != null) {
+                LOGGER.debug("RollingFileManager executing async {}", descriptor.getAsynchronous());
+                try {
+                    descriptor.getAsynchronous().execute();
+                } catch (final Exception ex) {
+                    logError("Caught error in asynchronous task", ex);
+                }
+            }
+        } catch (final Exception ex) {
+            logError("Unable to complete rollover", ex);
+        } finally {
+            releaseRollover();
+        }
+    }
+
+    /**
+     * Releases the semaphore held by a rollover and performs the rollover check that was deferred meanwhile. Locks the
+     * manager if a check was deferred, so it must only be called once the semaphore is no longer needed.
+     */
+    private void releaseRollover() {
+        semaphore.release();
+        if (deferredRolloverEvent != null && !stopping) {
+            synchronized (this) {
+                final LogEvent event = deferredRolloverEvent;
+                if (event != null) {
+                    checkRollover(event);
+                }
+            }
+        }
+    }
+
+    private void closePreviousFile(final OutputStream previous) {
+        try {
+            if (getSyncPolicy().getMode() != FileSyncPolicy.Mode.NONE && previous instanceof FileOutputStream) {
+                ((FileOutputStream) previous).getChannel().force(false);
+            }
+            previous.close();
+        } catch (final IOException ex) {
+            logError("Unable to close previous file", ex);
+        }
+    }
+
+    private void openNextFileInBackground() {
+        try {
+            asyncExecutor.execute(() -> {
+                try {
+                    semaphore.acquire();
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                try {
+                    openNextFile();
+                } finally {
+                    releaseRollover();
+                }
+            });
+        } catch (final RuntimeException ex) {
+            LOGGER.debug("Not opening the next file for {}, the manager is being stopped", getName());
+        }
+    }
+
+    /**
+     * Opens the file for the next rollover. Called while holding the semaphore, so it must not lock the manager.
+     */
+    private void openNextFile() {
+        synchronized (nextFileLock) {
+            if (stopping || !asyncRollover || nextOutputStream != null || writingToNextFile) {
+                return;
+            }
+        }
+        final File file = new File(getNextFileName());
+        try {
+            final File parent = file.getParentFile();
+            if (parent != null) {
+                parent.mkdirs();
+            }
+            // Append to anything left over from a process that stopped before moving the file into place.
+            final FileOutputStream fos = new FileOutputStream(file, true);
+            final OutputStream os = compressOutput ? new SyncFlushGzipOutputStream(fos, immediateFlush) : fos;
+            defineAttributeView(file.toPath());
+            synchronized (nextFileLock) {
+                if (!stopping) {
+                    nextOutputStream = os;
+                    nextFileLength = file.length();
+                    return;
+                }
+            }
+            os.close();
+        } catch (final IOException ex) {
+            logError("Unable to open " + file + " for the next rollover", ex);
+        }
+    }
+
+    /**
+     * Appends the next file, that the manager wrote to since a rollover that could not be completed, to the current
+     * file and deletes it, so its events are archived with the current file instead of ending up in a later file.
+     * Called while holding the semaphore after the output stream was closed.
+     */
+    private void appendNextFile() {
+        final Path next = Paths.get(getNextFileName());
+        try {
+            if (Files.exists(next)) {
+                try (final OutputStream os = new FileOutputStream(getFileName(), true)) {
+                    Files.copy(next, os);
+                }
+                Files.delete(next);
+            }
+        } catch (final IOException ex) {
+            logError("Unable to append " + next + " to " + getFileName(), ex);
+        } finally {
+            writingToNextFile = false;
+        }
+    }
+
+    private void awaitBackgroundRollover() {
+        try {
+            semaphore.acquire();
+            semaphore.release();
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void closeNextFile() {
+        final OutputStream next;
+        synchronized (nextFileLock) {
+            next = nextOutputStream;
+            nextOutputStream = null;
+        }
+        if (next != null) {
+            try {
+                next.close();
+                final File file = new File(getNextFileName());
+                if (file.length() == 0) {
+                    Files.deleteIfExists(file.toPath());
+                }
+            } catch (final IOException ex) {
+                logError("Unable to close the next file", ex);
+            }
+        }
     }
 
     protected void createFileAfterRollover() throws IOException  {
@@ -386,6 +827,9 @@ public class RollingFileManager extends FileManager {
             if (descriptor != null) {
                 writeFooter();
                 closeOutputStream();
+                if (writingToNextFile) {
+                    appendNextFile();
+                }
                 if (descriptor.getSynchronous() != null) {
                     LOGGER.debug("RollingFileManager executing synchronous {}", descriptor.getSynchronous());
                     try {
@@ -443,7 +887,7 @@ public class RollingFileManager extends FileManager {
             try {
                 return action.execute();
             } finally {
-                manager.semaphore.release();
+                manager.releaseRollover();
             }
         }
 
@@ -500,6 +944,10 @@ public class RollingFileManager extends FileManager {
         private final String filePermissions;
         private final String fileOwner;
         private final String fileGroup;
+        private final boolean compressOutput;
+        private final boolean combineWrites;
+        private final FileSyncPolicy syncPolicy;
+        private final boolean asyncRollover;
 
         /**
          * Creates the data for the factory.
@@ -515,12 +963,17 @@ public class RollingFileManager extends FileManager {
          * @param fileOwner File owner
          * @param fileGroup File group
          * @param configuration The configuration
+         * @param compressOutput true if the file should be written in GZIP format
+         * @param combineWrites true if the writes of concurrent threads should be combined
+         * @param syncPolicy when the data is forced to the storage device
+         * @param asyncRollover true if rollovers should be completed in the background
          */
         public FactoryData(final String fileName, final String pattern, final boolean append, final boolean bufferedIO,
                 final TriggeringPolicy policy, final RolloverStrategy strategy, final String advertiseURI,
                 final Layout<? extends Serializable> layout, final int bufferSize, final boolean immediateFlush,
                 final boolean createOnDemand, final String filePermissions, final String fileOwner, final String fileGroup,
-                final Configuration configuration) {
+                final Configuration configuration, final boolean compressOutput, final boolean combineWrites,
+                final FileSyncPolicy syncPolicy, final boolean asyncRollover) {
             super(configuration);
             this.fileName = fileName;
             this.pattern = pattern;
@@ -536,6 +989,10 @@ public class RollingFileManager extends FileManager {
             this.filePermissions = filePermissions;
             this.fileOwner = fileOwner;
             this.fileGroup = fileGroup;
+            this.compressOutput = compressOutput;
+            this.combineWrites = combineWrites;
+            this.syncPolicy = syncPolicy;
+            this.asyncRollover = asyncRollover;
         }
 
         public TriggeringPolicy getTriggeringPolicy() {
@@ -574,6 +1031,14 @@ public class RollingFileManager extends FileManager {
             builder.append(filePermissions);
             builder.append(", fileOwner=");
             builder.append(fileOwner);
+            builder.append(", compressOutput=");
+            builder.append(compressOutput);
+            builder.append(", combineWrites=");
+            builder.append(combineWrites);
+            builder.append(", syncPolicy=");
+            builder.append(syncPolicy);
+            builder.append(", asyncRollover=");
+            builder.append(asyncRollover);
             builder.append("]");
             return builder.toString();
         }
@@ -591,6 +1056,13 @@ public class RollingFileManager extends FileManager {
         setRolloverStrategy(factoryData.getRolloverStrategy());
         setPatternProcessor(new PatternProcessor(factoryData.getPattern(), getPatternProcessor()));
         setTriggeringPolicy(factoryData.getTriggeringPolicy());
+        setCombineWrites(factoryData.combineWrites);
+        setSyncPolicy(factoryData.syncPolicy, factoryData.getConfiguration());
+        if (factoryData.asyncRollover) {
+            enableAsyncRollover();
+        } else {
+            disableAsyncRollover();
+        }
     }
 
     /**
@@ -625,18 +1097,27 @@ public class RollingFileManager extends FileManager {
             try {
                 final int actualSize = data.bufferedIO ? data.bufferSize : Constants.ENCODER_BYTE_BUFFER_SIZE;
                 final ByteBuffer buffer = ByteBuffer.wrap(new byte[actualSize]);
-                final OutputStream os = data.createOnDemand  || data.fileName == null ? null :
+                OutputStream os = data.createOnDemand  || data.fileName == null ? null :
                         new FileOutputStream(data.fileName, data.append);
+                if (os != null && data.compressOutput) {
+                    os = new SyncFlushGzipOutputStream(os, data.immediateFlush);
+                }
                 // LOG4J2-531 create file first so time has valid value.
                 final long initialTime = file == null || !file.exists() ? 0 : initialFileTime(file);
                 final boolean writeHeader = file != null && file.exists() && file.length() == 0;
 
                 final RollingFileManager rm = new RollingFileManager(data.getLoggerContext(), data.fileName, data.pattern, os,
                     data.append, data.createOnDemand, size, initialTime, data.policy, data.strategy, data.advertiseURI,
-                    data.layout, data.filePermissions, data.fileOwner, data.fileGroup, writeHeader, buffer);
+                    data.layout, data.filePermissions, data.fileOwner, data.fileGroup, writeHeader, buffer,
+                    data.compressOutput, data.immediateFlush);
                 if (os != null && rm.isAttributeViewEnabled()) {
                     rm.defineAttributeView(file.toPath());
                 }
+                rm.setCombineWrites(data.combineWrites);
+                rm.setSyncPolicy(data.syncPolicy, data.getConfiguration());
+                if (data.asyncRollover) {
+                    rm.enableAsyncRollover();
+                }
 
                 return rm;
             } catch (final IOException ex) {
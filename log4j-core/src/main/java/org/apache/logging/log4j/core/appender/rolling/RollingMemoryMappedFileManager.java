@@ -0,0 +1,397 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.appender.rolling;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Paths;
+
+import org.apache.logging.log4j.core.Layout;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.appender.AppenderLoggingException;
+import org.apache.logging.log4j.core.appender.ConfigurationFactoryData;
+import org.apache.logging.log4j.core.appender.ManagerFactory;
+import org.apache.logging.log4j.core.appender.MemoryMappedFileManager;
+import org.apache.logging.log4j.core.config.Configuration;
+import org.apache.logging.log4j.core.util.Closer;
+import org.apache.logging.log4j.core.util.FileUtils;
+import org.apache.logging.log4j.core.util.NullOutputStream;
+import org.apache.logging.log4j.core.util.internal.MappedBuffers;
+
+/**
+ * Extends RollingFileManager but instead of using a buffered output stream, this class maps a region of the current
+ * file into memory and writes to this memory region, like {@link MemoryMappedFileManager}.
+ * <p>
+ * On rollover the mapped region is released and the file is truncated to the length that was actually written, before
+ * it is handed to the rollover strategy. The next file is then mapped in a single step, so writers are blocked no
+ * longer than it takes to swap one region.
+ * </p>
+ *
+ * @since 3.0
+ */
+public class RollingMemoryMappedFileManager extends RollingFileManager {
+
+    /**
+     * Default length of region to map.
+     */
+    public static final int DEFAULT_REGION_LENGTH = 32 * 1024 * 1024;
+
+    private static final RollingMemoryMappedFileManagerFactory FACTORY = new RollingMemoryMappedFileManagerFactory();
+    private static final ByteBuffer UNMAPPED = ByteBuffer.wrap(new byte[0]);
+
+    private final boolean immediateFlush;
+    private final int regionLength;
+    private RandomAccessFile randomAccessFile;
+    private MappedByteBuffer mappedBuffer;
+    private long mappingOffset;
+
+    protected RollingMemoryMappedFileManager(final LoggerContext loggerContext, final RandomAccessFile raf,
+            final String fileName, final String pattern, final OutputStream os, final boolean append,
+            final boolean immediateFlush, final int regionLength, final long initialTime,
+            final TriggeringPolicy policy, final RolloverStrategy strategy, final String advertiseURI,
+            final Layout<? extends Serializable> layout, final String filePermissions, final String fileOwner,
+            final String fileGroup) throws IOException {
+        super(loggerContext, fileName, pattern, os, append, false, 0, initialTime, policy, strategy, advertiseURI,
+                layout, filePermissions, fileOwner, fileGroup, false, UNMAPPED);
+        this.immediateFlush = immediateFlush;
+        this.regionLength = regionLength;
+        if (raf != null) {
+            map(raf, append);
+        }
+    }
+
+    public static RollingMemoryMappedFileManager getRollingMemoryMappedFileManager(final String fileName,
+            final String filePattern, final boolean isAppend, final boolean immediateFlush, final int regionLength,
+            final TriggeringPolicy policy, final RolloverStrategy strategy, final String advertiseURI,
+            final Layout<? extends Serializable> layout, final String filePermissions, final String fileOwner,
+            final String fileGroup, final Configuration configuration) {
+        if (strategy instanceof DirectWriteRolloverStrategy && fileName != null) {
+            LOGGER.error("The fileName attribute must not be specified with the DirectWriteRolloverStrategy");
+            return null;
+        }
+        final String name = fileName == null ? filePattern : fileName;
+        return narrow(RollingMemoryMappedFileManager.class, getManager(name, new FactoryData(fileName, filePattern,
+                isAppend, immediateFlush, regionLength, policy, strategy, advertiseURI, layout, filePermissions,
+                fileOwner, fileGroup, configuration), FACTORY));
+    }
+
+    /**
+     * Maps the first region of the specified file, after its current content if appending, and writes the header if
+     * the file is empty.
+     */
+    private void map(final RandomAccessFile raf, final boolean append) throws IOException {
+        final long position = append ? raf.length() : 0;
+        raf.setLength(position + regionLength);
+        this.randomAccessFile = raf;
+        this.mappedBuffer = MappedBuffers.mmap(raf.getChannel(), getFileName(), position, regionLength);
+        this.byteBuffer = mappedBuffer;
+        this.mappingOffset = position;
+        this.size = position;
+        if (position == 0 && layout != null) {
+            final byte[] header = layout.getHeader();
+            if (header != null) {
+                write(header, 0, header.length, false);
+            }
+        }
+    }
+
+    private void ensureMapped() {
+        if (mappedBuffer == null) {
+            try {
+                // continue after anything written before the region was released
+                openFile(true);
+            } catch (final IOException ex) {
+                throw new AppenderLoggingException("Unable to map " + getFileName(), ex);
+            }
+        }
+    }
+
+    @Override
+    protected synchronized void write(final byte[] bytes, int offset, int length, final boolean immediateFlush) {
+        ensureMapped();
+        while (length > mappedBuffer.remaining()) {
+            final int chunk = mappedBuffer.remaining();
+            mappedBuffer.put(bytes, offset, chunk);
+            offset += chunk;
+            length -= chunk;
+            remap();
+        }
+        mappedBuffer.put(bytes, offset, length);
+
+        // no need to call flush() if force is true,
+        // already done in AbstractOutputStreamAppender.append
+    }
+
+    private synchronized void remap() {
+        final long offset = this.mappingOffset + mappedBuffer.position();
+        final int length = mappedBuffer.remaining() + regionLength;
+        try {
+            MappedBuffers.unsafeUnmap(mappedBuffer);
+            final long fileLength = randomAccessFile.length() + regionLength;
+            LOGGER.debug("{} {} extending {} by {} bytes to {}", getClass().getSimpleName(), getName(), getFileName(),
+                    regionLength, fileLength);
+            randomAccessFile.setLength(fileLength);
+            mappedBuffer = MappedBuffers.mmap(randomAccessFile.getChannel(), getFileName(), offset, length);
+            this.byteBuffer = mappedBuffer;
+            mappingOffset = offset;
+            size = offset;
+        } catch (final Exception ex) {
+            // The region may already be unmapped, writing to it could crash the JVM. Release the file instead, the
+            // next write maps it again after what was written so far.
+            mappedBuffer = null;
+            byteBuffer = UNMAPPED;
+            size = offset;
+            try {
+                randomAccessFile.setLength(offset);
+            } catch (final IOException ioe) {
+                logError("Unable to truncate " + getFileName(), ioe);
+            }
+            Closer.closeSilently(randomAccessFile);
+            randomAccessFile = null;
+            throw new AppenderLoggingException("Unable to remap " + getFileName(), ex);
+        }
+    }
+
+    @Override
+    protected void createFileAfterRollover() throws IOException {
+        openFile(isAppend());
+    }
+
+    private void openFile(final boolean append) throws IOException {
+        final String fileName = getFileName();
+        final File file = new File(fileName);
+        FileUtils.makeParentDirs(file);
+        final RandomAccessFile raf = new RandomAccessFile(fileName, "rw");
+        try {
+            map(raf, append);
+        } catch (final IOException ex) {
+            Closer.closeSilently(raf);
+            throw ex;
+        }
+        if (isAttributeViewEnabled()) {
+            defineAttributeView(Paths.get(fileName));
+        }
+    }
+
+    @Override
+    public synchronized void flush() {
+        if (mappedBuffer != null) {
+            mappedBuffer.force();
+        }
+    }
+
+    /**
+     * Releases the mapped region and truncates the file to the length that was actually written.
+     */
+    @Override
+    public synchronized boolean closeOutputStream() {
+        if (mappedBuffer == null) {
+            return true;
+        }
+        final long position = mappedBuffer.position();
+        final long length = mappingOffset + position;
+        try {
+            MappedBuffers.unsafeUnmap(mappedBuffer);
+        } catch (final Exception ex) {
+            logError("Unable to unmap MappedBuffer", ex);
+        }
+        mappedBuffer = null;
+        byteBuffer = UNMAPPED;
+        size = length;
+        try {
+            LOGGER.debug("{} closing. Setting {} length to {} (offset {} + position {})", getClass().getSimpleName(),
+                    getFileName(), length, mappingOffset, position);
+            randomAccessFile.setLength(length);
+            randomAccessFile.close();
+            return true;
+        } catch (final IOException ex) {
+            logError("Unable to close MemoryMappedFile", ex);
+            return false;
+        } finally {
+            randomAccessFile = null;
+        }
+    }
+
+    @Override
+    protected void flushBuffer(final ByteBuffer buffer) {
+        // do nothing (do not call drain() to avoid spurious remapping)
+    }
+
+    @Override
+    public synchronized ByteBuffer getByteBuffer() {
+        ensureMapped();
+        return mappedBuffer;
+    }
+
+    @Override
+    public ByteBuffer drain(final ByteBuffer buf) {
+        remap();
+        return mappedBuffer;
+    }
+
+    /**
+     * Returns the length of the memory mapped region.
+     *
+     * @return the length of the mapped region
+     */
+    public int getRegionLength() {
+        return regionLength;
+    }
+
+    /**
+     * Returns {@code true} if the content of the buffer should be forced to the storage device on every write,
+     * {@code false} otherwise.
+     *
+     * @return whether each write should be force-sync'ed
+     */
+    public boolean isImmediateFlush() {
+        return immediateFlush;
+    }
+
+    /**
+     * Factory to create a RollingMemoryMappedFileManager.
+     */
+    private static class RollingMemoryMappedFileManagerFactory implements
+            ManagerFactory<RollingMemoryMappedFileManager, FactoryData> {
+
+        /**
+         * Create the RollingMemoryMappedFileManager.
+         *
+         * @param name The name of the entity to manage.
+         * @param data The data required to create the entity.
+         * @return a RollingMemoryMappedFileManager.
+         */
+        @SuppressWarnings("resource")
+        @Override
+        public RollingMemoryMappedFileManager createManager(final String name, final FactoryData data) {
+            File file = null;
+            long initialTime = System.currentTimeMillis();
+            RandomAccessFile raf = null;
+            try {
+                if (data.fileName != null) {
+                    file = new File(name);
+                    if (!data.append) {
+                        file.delete();
+                    }
+                    if (file.exists()) {
+                        initialTime = file.lastModified();
+                    }
+                    FileUtils.makeParentDirs(file);
+                    raf = new RandomAccessFile(name, "rw");
+                }
+                final RollingMemoryMappedFileManager rm = new RollingMemoryMappedFileManager(data.getLoggerContext(),
+                        raf, data.fileName, data.pattern, NullOutputStream.getInstance(), data.append,
+                        data.immediateFlush, data.regionLength, initialTime, data.policy, data.strategy,
+                        data.advertiseURI, data.layout, data.filePermissions, data.fileOwner, data.fileGroup);
+                if (file != null && rm.isAttributeViewEnabled()) {
+                    rm.defineAttributeView(file.toPath());
+                }
+                return rm;
+            } catch (final Exception ex) {
+                LOGGER.error("RollingMemoryMappedFileManager (" + name + ") " + ex, ex);
+                Closer.closeSilently(raf);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Factory data.
+     */
+    private static class FactoryData extends ConfigurationFactoryData {
+        private final String fileName;
+        private final String pattern;
+        private final boolean append;
+        private final boolean immediateFlush;
+        private final int regionLength;
+        private final TriggeringPolicy policy;
+        private final RolloverStrategy strategy;
+        private final String advertiseURI;
+        private final Layout<? extends Serializable> layout;
+        private final String filePermissions;
+        private final String fileOwner;
+        private final String fileGroup;
+
+        /**
+         * Create the data for the factory.
+         *
+         * @param fileName The file name.
+         * @param pattern The pattern.
+         * @param append The append flag.
+         * @param immediateFlush Whether to force the mapped region to the storage device on every write.
+         * @param regionLength The length of the mapped region.
+         * @param policy The triggering policy.
+         * @param strategy The rollover strategy.
+         * @param advertiseURI The URI to use when advertising the file.
+         * @param layout The layout.
+         * @param filePermissions File permissions
+         * @param fileOwner File owner
+         * @param fileGroup File group
+         * @param configuration The configuration.
+         */
+        public FactoryData(final String fileName, final String pattern, final boolean append,
+                final boolean immediateFlush, final int regionLength, final TriggeringPolicy policy,
+                final RolloverStrategy strategy, final String advertiseURI,
+                final Layout<? extends Serializable> layout, final String filePermissions, final String fileOwner,
+                final String fileGroup, final Configuration configuration) {
+            super(configuration);
+            this.fileName = fileName;
+            this.pattern = pattern;
+            this.append = append;
+            this.immediateFlush = immediateFlush;
+            this.regionLength = regionLength;
+            this.policy = policy;
+            this.strategy = strategy;
+            this.advertiseURI = advertiseURI;
+            this.layout = layout;
+            this.filePermissions = filePermissions;
+            this.fileOwner = fileOwner;
+            this.fileGroup = fileGroup;
+        }
+
+        public String getPattern() {
+            return pattern;
+        }
+
+        public TriggeringPolicy getTriggeringPolicy() {
+            return this.policy;
+        }
+
+        public RolloverStrategy getRolloverStrategy() {
+            return this.strategy;
+        }
+    }
+
+    /**
+     * Updates the RollingFileManager's data during a reconfiguration. This method should be considered private.
+     * It is not thread safe and calling it outside of a reconfiguration may lead to errors. This method may be
+     * made protected in a future release.
+     * @param data The data to update.
+     */
+    @Override
+    public void updateData(final Object data) {
+        final FactoryData factoryData = (FactoryData) data;
+        setRolloverStrategy(factoryData.getRolloverStrategy());
+        setPatternProcessor(new PatternProcessor(factoryData.getPattern(), getPatternProcessor()));
+        setTriggeringPolicy(factoryData.getTriggeringPolicy());
+    }
+}
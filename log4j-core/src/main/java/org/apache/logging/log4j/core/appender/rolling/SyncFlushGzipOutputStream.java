@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.appender.rolling;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * GZIP stream for files that are written while they are being read, or that may be left behind by a crash.
+ * <p>
+ * A flush ends the current deflate block with a sync flush, so everything written up to that point can be
+ * decompressed even though the GZIP trailer is missing. With immediate flush every flush is honored, so each event can
+ * be read as soon as it is logged. Otherwise, as every sync flush costs compression ratio, flushes are only honored
+ * once enough data was written or enough time passed since the previous sync flush; like the data still buffered by
+ * the manager, the data written since then becomes readable later.
+ * </p>
+ */
+final class SyncFlushGzipOutputStream extends GZIPOutputStream {
+
+    static final int FLUSH_SIZE = 64 * 1024;
+    static final long FLUSH_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final boolean immediateFlush;
+    private long unflushed;
+    private long lastFlushNanos = System.nanoTime();
+
+    SyncFlushGzipOutputStream(final OutputStream out, final boolean immediateFlush) throws IOException {
+        super(out, BUFFER_SIZE, true);
+        this.immediateFlush = immediateFlush;
+    }
+
+    @Override
+    public synchronized void write(final byte[] buf, final int off, final int len) throws IOException {
+        super.write(buf, off, len);
+        unflushed += len;
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        if (unflushed == 0) {
+            return;
+        }
+        final long now = System.nanoTime();
+        if (immediateFlush || unflushed >= FLUSH_SIZE || now - lastFlushNanos >= FLUSH_INTERVAL_NANOS) {
+            super.flush();
+            unflushed = 0;
+            lastFlushNanos = now;
+        }
+    }
+
+    /**
+     * Passes everything written so far on to the underlying stream, regardless of when the previous sync flush was.
+     */
+    synchronized void syncFlush() throws IOException {
+        if (unflushed > 0) {
+            super.flush();
+            unflushed = 0;
+            lastFlushNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Returns the stream the compressed data is written to.
+     */
+    OutputStream getOutputStream() {
+        return out;
+    }
+}
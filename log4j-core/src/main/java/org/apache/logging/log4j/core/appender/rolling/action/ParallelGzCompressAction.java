@@ -0,0 +1,229 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.appender.rolling.action;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Compresses a file using GZ compression on several threads.
+ * <p>
+ * The file is split into blocks that are compressed in parallel, each into a complete GZIP member, and the members
+ * are written in order. A file made of several members is a valid GZIP file that standard tools such as
+ * {@code gunzip} and {@link java.util.zip.GZIPInputStream} decompress into the original data. Only a bounded number of
+ * blocks is in memory at any time, so the action streams files of any size.
+ * </p>
+ *
+ * @since 3.0
+ */
+public final class ParallelGzCompressAction extends AbstractAction {
+
+    /**
+     * The default block size, 1 MB.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+
+    private static final int MIN_BLOCK_SIZE = 32 * 1024;
+
+    // ID1, ID2, CM = deflate, FLG, MTIME, XFL, OS = unknown
+    private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private final File source;
+    private final File destination;
+    private final boolean deleteSource;
+    private final int compressionLevel;
+    private final int threads;
+    private final int blockSize;
+
+    /**
+     * Create new instance of ParallelGzCompressAction.
+     *
+     * @param source       file to compress, may not be null.
+     * @param destination  compressed file, may not be null.
+     * @param deleteSource if true, attempt to delete file on completion.  Failure to delete
+     *                     does not cause an exception to be thrown or affect return value.
+     * @param compressionLevel
+     *                     Gzip deflater compression level.
+     * @param threads      the maximum number of threads compressing at the same time.
+     * @param blockSize    the number of bytes compressed as one block, at least 32 KB.
+     */
+    public ParallelGzCompressAction(final File source, final File destination, final boolean deleteSource,
+            final int compressionLevel, final int threads, final int blockSize) {
+        this.source = Objects.requireNonNull(source, "source");
+        this.destination = Objects.requireNonNull(destination, "destination");
+        this.deleteSource = deleteSource;
+        this.compressionLevel = compressionLevel;
+        this.threads = Math.max(1, threads);
+        this.blockSize = Math.max(MIN_BLOCK_SIZE, blockSize);
+    }
+
+    /**
+     * Compress.
+     *
+     * @return true if successfully compressed.
+     * @throws IOException on IO exception.
+     */
+    @Override
+    public boolean execute() throws IOException {
+        if (!source.exists()) {
+            return false;
+        }
+        final ForkJoinPool pool = new ForkJoinPool(threads);
+        try (final InputStream is = new FileInputStream(source);
+             final OutputStream os = new FileOutputStream(destination)) {
+            // Keep every thread busy while the oldest block is written, without reading ahead any further.
+            final ArrayDeque<Future<byte[]>> inFlight = new ArrayDeque<>();
+            byte[] block = readBlock(is);
+            if (block == null) {
+                // an empty file still needs one member to be a valid GZIP file
+                block = new byte[0];
+            }
+            for (; block != null; block = readBlock(is)) {
+                final byte[] data = block;
+                inFlight.add(pool.submit(() -> compress(data, compressionLevel)));
+                if (inFlight.size() >= 2 * threads) {
+                    os.write(await(inFlight.poll()));
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                os.write(await(inFlight.poll()));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        if (deleteSource && !source.delete()) {
+            LOGGER.warn("Unable to delete {}.", source);
+        }
+        return true;
+    }
+
+    private byte[] readBlock(final InputStream is) throws IOException {
+        final byte[] block = new byte[blockSize];
+        int length = 0;
+        int n;
+        while (length < blockSize && (n = is.read(block, length, blockSize - length)) != -1) {
+            length += n;
+        }
+        if (length == 0) {
+            return null;
+        }
+        if (length < blockSize) {
+            final byte[] last = new byte[length];
+            System.arraycopy(block, 0, last, 0, length);
+            return last;
+        }
+        return block;
+    }
+
+    private static byte[] await(final Future<byte[]> future) throws IOException {
+        try {
+            return future.get();
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while compressing");
+        } catch (final ExecutionException ex) {
+            throw new IOException("Unable to compress block", ex.getCause());
+        }
+    }
+
+    /**
+     * Compresses the specified data into a complete GZIP member.
+     *
+     * @param data the data to compress
+     * @param compressionLevel the deflater compression level
+     * @return the GZIP member
+     */
+    static byte[] compress(final byte[] data, final int compressionLevel) {
+        final Deflater deflater = new Deflater(compressionLevel, true);
+        try {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + HEADER.length + 8);
+            out.write(HEADER, 0, HEADER.length);
+            deflater.setInput(data);
+            deflater.finish();
+            final byte[] buffer = new byte[Math.min(data.length + 64, 64 * 1024)];
+            while (!deflater.finished()) {
+                final int n = deflater.deflate(buffer);
+                out.write(buffer, 0, n);
+            }
+            final CRC32 crc = new CRC32();
+            crc.update(data, 0, data.length);
+            writeInt(out, (int) crc.getValue());
+            writeInt(out, data.length);
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static void writeInt(final ByteArrayOutputStream out, final int value) {
+        // little endian, as required by RFC 1952
+        out.write(value & 0xff);
+        out.write((value >> 8) & 0xff);
+        out.write((value >> 16) & 0xff);
+        out.write((value >> 24) & 0xff);
+    }
+
+    /**
+     * Capture exception.
+     *
+     * @param ex exception.
+     */
+    @Override
+    protected void reportException(final Exception ex) {
+        LOGGER.warn("Exception during compression of '" + source.toString() + "'.", ex);
+    }
+
+    @Override
+    public String toString() {
+        return ParallelGzCompressAction.class.getSimpleName() + '[' + source + " to " + destination
+                + ", deleteSource=" + deleteSource + ", threads=" + threads + ", blockSize=" + blockSize + ']';
+    }
+
+    public File getSource() {
+        return source;
+    }
+
+    public File getDestination() {
+        return destination;
+    }
+
+    public boolean isDeleteSource() {
+        return deleteSource;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+}
@@ -22,6 +22,7 @@ import org.apache.logging.log4j.core.LogEvent;
 import org.apache.logging.log4j.core.config.Configuration;
 import org.apache.logging.log4j.core.config.plugins.PluginConfiguration;
 import org.apache.logging.log4j.core.script.AbstractScript;
+import org.apache.logging.log4j.core.script.PreparedScript;
 import org.apache.logging.log4j.core.script.ScriptManager;
 import org.apache.logging.log4j.plugins.Plugin;
 import org.apache.logging.log4j.plugins.PluginAttribute;
@@ -55,6 +56,9 @@ public final class Routes {
         @PluginElement("Script")
         private AbstractScript patternScript;
 
+        @PluginAttribute
+        private boolean reuseBindings;
+
         @PluginElement
         @Required
         private Route[] routes;
@@ -75,7 +79,7 @@ public final class Routes {
                     configuration.getScriptManager().addScript(patternScript);
                 }
             }
-            return new Routes(configuration, patternScript, pattern, routes);
+            return new Routes(configuration, patternScript, pattern, reuseBindings, routes);
         }
 
         public Configuration getConfiguration() {
@@ -94,6 +98,10 @@ public final class Routes {
             return routes;
         }
 
+        public boolean isReuseBindings() {
+            return reuseBindings;
+        }
+
         public Builder setConfiguration(@SuppressWarnings("hiding") final Configuration configuration) {
             this.configuration = configuration;
             return this;
@@ -113,6 +121,19 @@ public final class Routes {
             this.routes = routes;
             return this;
         }
+
+        /**
+         * Sets whether the bindings passed to the script are reused for the next event on the same thread, so
+         * variables the script defines are kept between events.
+         *
+         * @param reuseBindings whether the bindings are reused.
+         * @return this builder.
+         * @since 3.0
+         */
+        public Builder setReuseBindings(@SuppressWarnings("hiding") final boolean reuseBindings) {
+            this.reuseBindings = reuseBindings;
+            return this;
+        }
         
     }
 
@@ -131,11 +152,17 @@ public final class Routes {
     
     // TODO Why not make this a Map or add a Map.
     private final Route[] routes;
+
+    private final boolean reuseBindings;
+
+    private volatile PreparedScript preparedScript;
     
-    private Routes(final Configuration configuration, final AbstractScript patternScript, final String pattern, final Route... routes) {
+    private Routes(final Configuration configuration, final AbstractScript patternScript, final String pattern,
+            final boolean reuseBindings, final Route... routes) {
         this.configuration = configuration;
         this.patternScript = patternScript;
         this.pattern = pattern;
+        this.reuseBindings = reuseBindings;
         this.routes = routes;
     }
 
@@ -147,17 +174,26 @@ public final class Routes {
      */
     public String getPattern(final LogEvent event, final ConcurrentMap<Object, Object> scriptStaticVariables) {
         if (patternScript != null) {
-            final ScriptManager scriptManager = configuration.getScriptManager();
-            final Bindings bindings = scriptManager.createBindings(patternScript);
+            final PreparedScript script = getPreparedScript();
+            final Bindings bindings = script.getBindings();
             bindings.put(STATIC_VARIABLES_KEY, scriptStaticVariables);
             bindings.put(LOG_EVENT_KEY, event);
-            final Object object = scriptManager.execute(patternScript.getName(), bindings);
-            bindings.remove(LOG_EVENT_KEY);
-            return Objects.toString(object, null);
+            return Objects.toString(script.execute(bindings), null);
         }
         return pattern;
     }
 
+    private PreparedScript getPreparedScript() {
+        PreparedScript script = preparedScript;
+        if (script == null) {
+            final ScriptManager scriptManager = configuration.getScriptManager();
+            script = new PreparedScript(scriptManager, patternScript, reuseBindings,
+                    scriptManager.createBindings(patternScript), STATIC_VARIABLES_KEY, LOG_EVENT_KEY);
+            preparedScript = script;
+        }
+        return script;
+    }
+
     /**
      * Gets the optional script that decides which route to pick.
      * @return the optional script that decides which route to pick. May be null.
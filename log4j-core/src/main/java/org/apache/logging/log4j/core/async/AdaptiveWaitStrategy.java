@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.async;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+import com.lmax.disruptor.AlertException;
+import com.lmax.disruptor.Sequence;
+import com.lmax.disruptor.SequenceBarrier;
+import com.lmax.disruptor.WaitStrategy;
+import com.lmax.disruptor.util.ThreadHints;
+
+/**
+ * Wait strategy that adapts to the rate at which log events arrive. The background thread keeps a moving average of
+ * how long it had to wait for new events and uses it to pick the phase it starts waiting in: busy-spinning while
+ * events arrive back to back, yielding under moderate load, and parking when the application is mostly idle. Within a
+ * single wait the strategy always backs off further from its starting phase, and the park time doubles up to one
+ * millisecond, so an idle background thread costs next to no CPU.
+ * <p>
+ * Unlike the blocking strategies, a parked background thread is not woken up by producers; the first event after an
+ * idle period may wait up to the maximum park time before it is processed.
+ * </p>
+ */
+public class AdaptiveWaitStrategy implements WaitStrategy {
+
+    /**
+     * The phase a waiting background thread starts in.
+     */
+    public enum Phase {
+        /** Busy-spin, events arrive faster than the thread could be woken up. */
+        SPIN,
+        /** Yield the CPU between checks, events arrive frequently. */
+        YIELD,
+        /** Park the thread between checks, events arrive rarely. */
+        PARK
+    }
+
+    private static final int SPIN_TRIES = 100;
+    private static final long SPIN_THRESHOLD_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+    private static final long YIELD_THRESHOLD_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final AtomicLongFieldUpdater<AdaptiveWaitStrategy> transitionCountUpdater =
+            AtomicLongFieldUpdater.newUpdater(AdaptiveWaitStrategy.class, "transitionCount");
+
+    private final int yieldTries;
+    private final long minParkNanos;
+
+    // only accessed by the background thread
+    private double averageWaitNanos;
+
+    private volatile Phase phase = Phase.YIELD;
+    private volatile long transitionCount;
+
+    /**
+     * Creates an adaptive wait strategy.
+     *
+     * @param yieldTries how often to yield before the background thread starts parking
+     * @param minParkNanos the initial park time, doubled on each park up to one millisecond
+     */
+    public AdaptiveWaitStrategy(final int yieldTries, final long minParkNanos) {
+        this.yieldTries = Math.max(0, yieldTries);
+        this.minParkNanos = Math.max(1, Math.min(minParkNanos, MAX_PARK_NANOS));
+    }
+
+    @Override
+    public long waitFor(final long sequence, final Sequence cursor, final Sequence dependentSequence,
+            final SequenceBarrier barrier) throws AlertException {
+        long availableSequence = dependentSequence.get();
+        if (availableSequence >= sequence) {
+            recordWait(0);
+            return availableSequence;
+        }
+        final long start = System.nanoTime();
+        Phase current = phase;
+        int counter = 0;
+        long parkNanos = minParkNanos;
+        while ((availableSequence = dependentSequence.get()) < sequence) {
+            barrier.checkAlert();
+            switch (current) {
+                case SPIN:
+                    ThreadHints.onSpinWait();
+                    if (++counter >= SPIN_TRIES) {
+                        current = Phase.YIELD;
+                        counter = 0;
+                    }
+                    break;
+                case YIELD:
+                    Thread.yield();
+                    if (++counter >= yieldTries) {
+                        current = Phase.PARK;
+                    }
+                    break;
+                default:
+                    LockSupport.parkNanos(parkNanos);
+                    parkNanos = Math.min(parkNanos << 1, MAX_PARK_NANOS);
+                    break;
+            }
+        }
+        recordWait(System.nanoTime() - start);
+        return availableSequence;
+    }
+
+    private void recordWait(final long waitNanos) {
+        // Long idle periods are capped, so the strategy returns to spinning quickly once a burst starts.
+        final long sample = Math.min(waitNanos, MAX_PARK_NANOS);
+        // a floating point average, shifting a long would round down and never converge up for small differences
+        averageWaitNanos += (sample - averageWaitNanos) * 0.25;
+        final Phase next = averageWaitNanos < SPIN_THRESHOLD_NANOS
+                ? Phase.SPIN
+                : averageWaitNanos < YIELD_THRESHOLD_NANOS ? Phase.YIELD : Phase.PARK;
+        if (next != phase) {
+            phase = next;
+            // only the background thread writes, so an ordered store is enough
+            transitionCountUpdater.lazySet(this, transitionCount + 1);
+        }
+    }
+
+    @Override
+    public void signalAllWhenBlocking() {
+        // nothing to signal, waiting threads never block on a lock
+    }
+
+    /**
+     * Returns the phase the background thread currently starts waiting in.
+     *
+     * @return the current phase
+     */
+    public Phase getPhase() {
+        return phase;
+    }
+
+    /**
+     * Returns how often the background thread switched between phases since this strategy was created.
+     *
+     * @return the number of phase transitions
+     */
+    public long getTransitionCount() {
+        return transitionCount;
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveWaitStrategy[phase=" + phase + ", transitions=" + transitionCount + ']';
+    }
+}
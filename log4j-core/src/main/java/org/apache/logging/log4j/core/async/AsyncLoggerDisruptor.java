@@ -42,6 +42,13 @@ import org.apache.logging.log4j.message.Message;
  * works with its associated AsyncLoggerContext to synchronize the life cycle of the Disruptor and its thread with the
  * life cycle of the context. The AsyncLoggerDisruptor of the context is shared by all AsyncLogger objects created by
  * that AsyncLoggerContext.
+ * <p>
+ * By default a single multi-producer ring buffer is used. When the {@code log4j2.asyncLoggerRingBufferShards} property
+ * is set to a value greater than one, that many ring buffers are created, each drained by its own background thread.
+ * Application threads are striped over the shards by thread ID, so events logged by a single thread are always
+ * delivered to the appenders in order, while events logged by different threads that map to different shards may be
+ * delivered out of timestamp order.
+ * </p>
  */
 class AsyncLoggerDisruptor extends AbstractLifeCycle {
     private static final int SLEEP_MILLIS_BETWEEN_DRAIN_ATTEMPTS = 50;
@@ -49,11 +56,12 @@ class AsyncLoggerDisruptor extends AbstractLifeCycle {
 
     private final Object queueFullEnqueueLock = new Object();
 
-    private volatile Disruptor<RingBufferLogEvent> disruptor;
+    private volatile Disruptor<RingBufferLogEvent>[] disruptors;
+    private WaitStrategy[] waitStrategies;
     private String contextName;
 
     private boolean useThreadLocalTranslator = true;
-    private long backgroundThreadId;
+    private long[] backgroundThreadIds;
     private AsyncQueueFullPolicy asyncQueueFullPolicy;
     private int ringBufferSize;
 
@@ -69,8 +77,25 @@ class AsyncLoggerDisruptor extends AbstractLifeCycle {
         contextName = name;
     }
 
+    /**
+     * Returns the Disruptor of the shard that the current thread publishes to, or {@code null} if this
+     * AsyncLoggerDisruptor was not started or has been stopped.
+     */
     Disruptor<RingBufferLogEvent> getDisruptor() {
-        return disruptor;
+        final Disruptor<RingBufferLogEvent>[] temp = disruptors;
+        return temp == null ? null : temp[shardIndex(temp.length)];
+    }
+
+    /**
+     * Returns the number of ring buffers events are striped over, or zero if no Disruptor is currently running.
+     */
+    int getShardCount() {
+        final Disruptor<RingBufferLogEvent>[] temp = disruptors;
+        return temp == null ? 0 : temp.length;
+    }
+
+    private static int shardIndex(final int shards) {
+        return shards == 1 ? 0 : (int) (Thread.currentThread().getId() % shards);
     }
 
     /**
@@ -80,7 +105,7 @@ class AsyncLoggerDisruptor extends AbstractLifeCycle {
      */
     @Override
     public synchronized void start() {
-        if (disruptor != null) {
+        if (disruptors != null) {
             LOGGER.trace(
                     "[{}] AsyncLoggerDisruptor not starting new disruptor for this context, using existing object.",
                     contextName);
@@ -92,36 +117,54 @@ class AsyncLoggerDisruptor extends AbstractLifeCycle {
         }
         setStarting();
         LOGGER.trace("[{}] AsyncLoggerDisruptor creating new disruptor for this context.", contextName);
-        ringBufferSize = DisruptorUtil.calculateRingBufferSize("AsyncLogger.RingBufferSize");
-        final WaitStrategy waitStrategy = DisruptorUtil.createWaitStrategy("AsyncLogger.WaitStrategy");
+        final int shards = DisruptorUtil.calculateRingBufferShards("AsyncLogger.RingBufferShards");
+        ringBufferSize = DisruptorUtil.calculateShardRingBufferSize(
+                DisruptorUtil.calculateRingBufferSize("AsyncLogger.RingBufferSize"), shards);
+        asyncQueueFullPolicy = AsyncQueueFullPolicyFactory.create();
+        backgroundThreadIds = new long[shards];
+        waitStrategies = new WaitStrategy[shards];
+
+        @SuppressWarnings("unchecked")
+        final Disruptor<RingBufferLogEvent>[] created = (Disruptor<RingBufferLogEvent>[]) new Disruptor<?>[shards];
+        for (int i = 0; i < shards; i++) {
+            created[i] = createDisruptor(i, shards);
+            created[i].start();
+        }
+        disruptors = created;
+
+        LOGGER.trace("[{}] AsyncLoggers use a {} translator", contextName, useThreadLocalTranslator ? "threadlocal"
+                : "vararg");
+        super.start();
+    }
 
-        final ThreadFactory threadFactory = new Log4jThreadFactory("AsyncLogger[" + contextName + "]", true, Thread.NORM_PRIORITY) {
+    private Disruptor<RingBufferLogEvent> createDisruptor(final int shard, final int shards) {
+        final WaitStrategy waitStrategy = DisruptorUtil.createWaitStrategy("AsyncLogger.WaitStrategy");
+        waitStrategies[shard] = waitStrategy;
+        final String threadName = shards == 1
+                ? "AsyncLogger[" + contextName + "]"
+                : "AsyncLogger[" + contextName + "]-Shard" + shard;
+        final ThreadFactory threadFactory = new Log4jThreadFactory(threadName, true, Thread.NORM_PRIORITY) {
             @Override
             public Thread newThread(final Runnable r) {
                 final Thread result = super.newThread(r);
-                backgroundThreadId = result.getId();
+                backgroundThreadIds[shard] = result.getId();
                 return result;
             }
         };
-        asyncQueueFullPolicy = AsyncQueueFullPolicyFactory.create();
 
-        disruptor = new Disruptor<>(RingBufferLogEvent.FACTORY, ringBufferSize, threadFactory, ProducerType.MULTI,
-                waitStrategy);
+        final Disruptor<RingBufferLogEvent> result = new Disruptor<>(RingBufferLogEvent.FACTORY, ringBufferSize,
+                threadFactory, ProducerType.MULTI, waitStrategy);
 
         final ExceptionHandler<RingBufferLogEvent> errorHandler = DisruptorUtil.getAsyncLoggerExceptionHandler();
-        disruptor.setDefaultExceptionHandler(errorHandler);
+        result.setDefaultExceptionHandler(errorHandler);
 
         final RingBufferLogEventHandler[] handlers = {new RingBufferLogEventHandler()};
-        disruptor.handleEventsWith(handlers);
+        result.handleEventsWith(handlers);
 
-        LOGGER.debug("[{}] Starting AsyncLogger disruptor for this context with ringbufferSize={}, waitStrategy={}, "
-                + "exceptionHandler={}...", contextName, disruptor.getRingBuffer().getBufferSize(), waitStrategy
-                .getClass().getSimpleName(), errorHandler);
-        disruptor.start();
-
-        LOGGER.trace("[{}] AsyncLoggers use a {} translator", contextName, useThreadLocalTranslator ? "threadlocal"
-                : "vararg");
-        super.start();
+        LOGGER.debug("[{}] Starting AsyncLogger disruptor {}/{} for this context with ringbufferSize={}, "
+                + "waitStrategy={}, exceptionHandler={}...", contextName, shard + 1, shards,
+                result.getRingBuffer().getBufferSize(), waitStrategy.getClass().getSimpleName(), errorHandler);
+        return result;
     }
 
     /**
@@ -130,7 +173,7 @@ class AsyncLoggerDisruptor extends AbstractLifeCycle {
      */
     @Override
     public boolean stop(final long timeout, final TimeUnit timeUnit) {
-        final Disruptor<RingBufferLogEvent> temp = getDisruptor();
+        final Disruptor<RingBufferLogEvent>[] temp = disruptors;
         if (temp == null) {
             LOGGER.trace("[{}] AsyncLoggerDisruptor: disruptor for this context already shut down.", contextName);
             return true; // disruptor was already shut down by another thread
@@ -139,7 +182,7 @@ class AsyncLoggerDisruptor extends AbstractLifeCycle {
         LOGGER.debug("[{}] AsyncLoggerDisruptor: shutting down disruptor for this context.", contextName);
 
         // We must guarantee that publishing to the RingBuffer has stopped before we call disruptor.shutdown().
-        disruptor = null; // client code fails with NPE if log after stop. This is by design.
+        disruptors = null; // client code fails with NPE if log after stop. This is by design.
 
         // Calling Disruptor.shutdown() will wait until all enqueued events are fully processed,
         // but this waiting happens in a busy-spin. To avoid (postpone) wasting CPU,
@@ -150,12 +193,15 @@ class AsyncLoggerDisruptor extends AbstractLifeCycle {
             } catch (final InterruptedException e) { // ignored
             }
         }
-        try {
-            // busy-spins until all events currently in the disruptor have been processed, or timeout
-            temp.shutdown(timeout, timeUnit);
-        } catch (final TimeoutException e) {
-            LOGGER.warn("[{}] AsyncLoggerDisruptor: shutdown timed out after {} {}", contextName, timeout, timeUnit);
-            temp.halt(); // give up on remaining log events, if any
+        for (final Disruptor<RingBufferLogEvent> shard : temp) {
+            try {
+                // busy-spins until all events currently in the disruptor have been processed, or timeout
+                shard.shutdown(timeout, timeUnit);
+            } catch (final TimeoutException e) {
+                LOGGER.warn("[{}] AsyncLoggerDisruptor: shutdown timed out after {} {}", contextName, timeout,
+                        timeUnit);
+                shard.halt(); // give up on remaining log events, if any
+            }
         }
 
         LOGGER.trace("[{}] AsyncLoggerDisruptor: disruptor has been shut down.", contextName);
@@ -169,22 +215,34 @@ class AsyncLoggerDisruptor extends AbstractLifeCycle {
     }
 
     /**
-     * Returns {@code true} if the specified disruptor still has unprocessed events.
+     * Returns {@code true} if any of the specified disruptors still has unprocessed events.
      */
-    private static boolean hasBacklog(final Disruptor<?> theDisruptor) {
-        final RingBuffer<?> ringBuffer = theDisruptor.getRingBuffer();
-        return !ringBuffer.hasAvailableCapacity(ringBuffer.getBufferSize());
+    private static boolean hasBacklog(final Disruptor<?>[] theDisruptors) {
+        for (final Disruptor<?> theDisruptor : theDisruptors) {
+            final RingBuffer<?> ringBuffer = theDisruptor.getRingBuffer();
+            if (!ringBuffer.hasAvailableCapacity(ringBuffer.getBufferSize())) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
-     * Creates and returns a new {@code RingBufferAdmin} that instruments the ringbuffer of the {@code AsyncLogger}.
+     * Creates and returns a new {@code RingBufferAdmin} that instruments the ringbuffers of the {@code AsyncLogger}.
      *
      * @param jmxContextName name of the {@code AsyncLoggerContext}
-     * @return a new {@code RingBufferAdmin} that instruments the ringbuffer
+     * @return a new {@code RingBufferAdmin} that instruments the ringbuffers
      */
     public RingBufferAdmin createRingBufferAdmin(final String jmxContextName) {
-        final RingBuffer<RingBufferLogEvent> ring = disruptor == null ? null : disruptor.getRingBuffer();
-        return RingBufferAdmin.forAsyncLogger(ring, jmxContextName);
+        final Disruptor<RingBufferLogEvent>[] temp = disruptors;
+        if (temp == null) {
+            return RingBufferAdmin.forAsyncLogger((RingBuffer<?>) null, jmxContextName);
+        }
+        final RingBuffer<?>[] rings = new RingBuffer<?>[temp.length];
+        for (int i = 0; i < temp.length; i++) {
+            rings[i] = temp[i].getRingBuffer();
+        }
+        return RingBufferAdmin.forAsyncLogger(rings, waitStrategies, jmxContextName);
     }
 
     EventRoute getEventRoute(final Level logLevel) {
@@ -192,11 +250,29 @@ class AsyncLoggerDisruptor extends AbstractLifeCycle {
         if (remainingCapacity < 0) {
             return EventRoute.DISCARD;
         }
-        return asyncQueueFullPolicy.getRoute(backgroundThreadId, logLevel);
+        return asyncQueueFullPolicy.getRoute(getBackgroundThreadId(), logLevel);
+    }
+
+    /**
+     * Returns the ID of the background thread relevant to the current thread: the current thread itself if it is one of
+     * the background threads, otherwise the background thread draining the shard the current thread publishes to.
+     */
+    private long getBackgroundThreadId() {
+        final long[] ids = backgroundThreadIds;
+        if (ids.length == 1) {
+            return ids[0];
+        }
+        final long current = Thread.currentThread().getId();
+        for (final long id : ids) {
+            if (id == current) {
+                return id;
+            }
+        }
+        return ids[shardIndex(ids.length)];
     }
 
     private int remainingDisruptorCapacity() {
-        final Disruptor<RingBufferLogEvent> temp = disruptor;
+        final Disruptor<RingBufferLogEvent> temp = getDisruptor();
         if (hasLog4jBeenShutDown(temp)) {
             return -1;
         }
@@ -215,12 +291,12 @@ class AsyncLoggerDisruptor extends AbstractLifeCycle {
 
     boolean tryPublish(final RingBufferLogEventTranslator translator) {
         try {
-            // Note: we deliberately access the volatile disruptor field afresh here.
+            // Note: we deliberately access the volatile disruptors field afresh here.
             // Avoiding this and using an older reference could result in adding a log event to the disruptor after it
             // was shut down, which could cause the publishEvent method to hang and never return.
-            return disruptor.getRingBuffer().tryPublishEvent(translator);
+            return getDisruptor().getRingBuffer().tryPublishEvent(translator);
         } catch (final NullPointerException npe) {
-            // LOG4J2-639: catch NPE if disruptor field was set to null in stop()
+            // LOG4J2-639: catch NPE if disruptors field was set to null in stop()
             logWarningOnNpeFromDisruptorPublish(translator);
             return false;
         }
@@ -228,18 +304,18 @@ class AsyncLoggerDisruptor extends AbstractLifeCycle {
 
     void enqueueLogMessageWhenQueueFull(final RingBufferLogEventTranslator translator) {
         try {
-            // Note: we deliberately access the volatile disruptor field afresh here.
+            // Note: we deliberately access the volatile disruptors field afresh here.
             // Avoiding this and using an older reference could result in adding a log event to the disruptor after it
             // was shut down, which could cause the publishEvent method to hang and never return.
             if (synchronizeEnqueueWhenQueueFull()) {
                 synchronized (queueFullEnqueueLock) {
-                    disruptor.publishEvent(translator);
+                    getDisruptor().publishEvent(translator);
                 }
             } else {
-                disruptor.publishEvent(translator);
+                getDisruptor().publishEvent(translator);
             }
         } catch (final NullPointerException npe) {
-            // LOG4J2-639: catch NPE if disruptor field was set to null in stop()
+            // LOG4J2-639: catch NPE if disruptors field was set to null in stop()
             logWarningOnNpeFromDisruptorPublish(translator);
         }
     }
@@ -254,12 +330,12 @@ class AsyncLoggerDisruptor extends AbstractLifeCycle {
             final Message msg,
             final Throwable thrown) {
         try {
-            // Note: we deliberately access the volatile disruptor field afresh here.
+            // Note: we deliberately access the volatile disruptors field afresh here.
             // Avoiding this and using an older reference could result in adding a log event to the disruptor after it
             // was shut down, which could cause the publishEvent method to hang and never return.
             if (synchronizeEnqueueWhenQueueFull()) {
                 synchronized (queueFullEnqueueLock) {
-                    disruptor.getRingBuffer().publishEvent(translator,
+                    getDisruptor().getRingBuffer().publishEvent(translator,
                             asyncLogger, // asyncLogger: 0
                             location, // location: 1
                             fqcn, // 2
@@ -269,7 +345,7 @@ class AsyncLoggerDisruptor extends AbstractLifeCycle {
                             thrown); // 6
                 }
             } else {
-                disruptor.getRingBuffer().publishEvent(translator,
+                getDisruptor().getRingBuffer().publishEvent(translator,
                         asyncLogger, // asyncLogger: 0
                         location, // location: 1
                         fqcn, // 2
@@ -279,7 +355,7 @@ class AsyncLoggerDisruptor extends AbstractLifeCycle {
                         thrown); // 6
             }
         } catch (final NullPointerException npe) {
-            // LOG4J2-639: catch NPE if disruptor field was set to null in stop()
+            // LOG4J2-639: catch NPE if disruptors field was set to null in stop()
             logWarningOnNpeFromDisruptorPublish(level, fqcn, msg, thrown);
         }
     }
@@ -287,7 +363,7 @@ class AsyncLoggerDisruptor extends AbstractLifeCycle {
     private boolean synchronizeEnqueueWhenQueueFull() {
         return DisruptorUtil.ASYNC_LOGGER_SYNCHRONIZE_ENQUEUE_WHEN_QUEUE_FULL
                 // Background thread must never block
-                && backgroundThreadId != Thread.currentThread().getId()
+                && getBackgroundThreadId() != Thread.currentThread().getId()
                 // Threads owned by log4j are most likely to result in
                 // deadlocks because they generally consume events.
                 // This prevents deadlocks between AsyncLoggerContext
@@ -45,6 +45,7 @@ final class DisruptorUtil {
     private static final int RINGBUFFER_MIN_SIZE = 128;
     private static final int RINGBUFFER_DEFAULT_SIZE = 256 * 1024;
     private static final int RINGBUFFER_NO_GC_DEFAULT_SIZE = 4 * 1024;
+    private static final int RINGBUFFER_DEFAULT_SHARDS = 1;
 
     /**
      * LOG4J2-2606: Users encountered excessive CPU utilization with Disruptor v3.4.2 when the application
@@ -77,6 +78,12 @@ final class DisruptorUtil {
                 return new SleepingWaitStrategy(retries, sleepTimeNs);
             case "YIELD":
                 return new YieldingWaitStrategy();
+            case "ADAPTIVE":
+                final long minParkTimeNs =
+                        parseAdditionalLongProperty(propertyName, "AdaptiveParkNs", 100L);
+                final int yieldRetries = PropertiesUtil.getProperties().getIntegerProperty(
+                        getFullPropertyKey(propertyName, "AdaptiveYieldRetries"), 200);
+                return new AdaptiveWaitStrategy(yieldRetries, minParkTimeNs);
             case "BLOCK":
                 return new BlockingWaitStrategy();
             case "BUSYSPIN":
@@ -120,6 +127,44 @@ final class DisruptorUtil {
         return Integers.ceilingNextPowerOfTwo(ringBufferSize);
     }
 
+    /**
+     * Returns the number of ring buffers (shards) that async loggers should stripe their events over. Values smaller
+     * than one are rejected and the default of a single ring buffer is used instead.
+     *
+     * @param propertyName the name of the property holding the shard count
+     * @return the number of shards, at least one
+     */
+    static int calculateRingBufferShards(final String propertyName) {
+        final String userPreferredShards = PropertiesUtil.getProperties().getStringProperty(propertyName,
+                String.valueOf(RINGBUFFER_DEFAULT_SHARDS));
+        try {
+            final int shards = Integer.parseInt(userPreferredShards.trim());
+            if (shards < 1) {
+                LOGGER.warn("Invalid RingBufferShards {}, using default {}.", userPreferredShards,
+                        RINGBUFFER_DEFAULT_SHARDS);
+                return RINGBUFFER_DEFAULT_SHARDS;
+            }
+            return shards;
+        } catch (final Exception ex) {
+            LOGGER.warn("Invalid RingBufferShards {}, using default {}.", userPreferredShards,
+                    RINGBUFFER_DEFAULT_SHARDS);
+            return RINGBUFFER_DEFAULT_SHARDS;
+        }
+    }
+
+    /**
+     * Divides the configured ring buffer size over the specified number of shards, so that the total number of
+     * pre-allocated slots stays roughly the same regardless of the shard count.
+     *
+     * @param ringBufferSize the total ring buffer size, a power of two
+     * @param shards the number of shards
+     * @return the size of each shard, a power of two no smaller than the minimum ring buffer size
+     */
+    static int calculateShardRingBufferSize(final int ringBufferSize, final int shards) {
+        final int size = Math.max(RINGBUFFER_MIN_SIZE, ringBufferSize / shards);
+        return Integers.ceilingNextPowerOfTwo(size);
+    }
+
     static ExceptionHandler<RingBufferLogEvent> getAsyncLoggerExceptionHandler() {
         final String cls = PropertiesUtil.getProperties().getStringProperty("AsyncLogger.ExceptionHandler");
         if (cls == null) {
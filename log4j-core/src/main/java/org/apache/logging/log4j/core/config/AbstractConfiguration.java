@@ -25,6 +25,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -37,6 +38,7 @@ import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.core.Appender;
 import org.apache.logging.log4j.core.Filter;
 import org.apache.logging.log4j.core.Layout;
@@ -63,7 +65,6 @@ import org.apache.logging.log4j.core.script.ScriptRef;
 import org.apache.logging.log4j.core.util.Constants;
 import org.apache.logging.log4j.core.time.internal.DummyNanoClock;
 import org.apache.logging.log4j.core.util.Loader;
-import org.apache.logging.log4j.util.NameUtil;
 import org.apache.logging.log4j.core.util.Source;
 import org.apache.logging.log4j.core.time.NanoClock;
 import org.apache.logging.log4j.core.util.WatchManager;
@@ -125,6 +126,18 @@ public abstract class AbstractConfiguration extends AbstractFilterable implement
     private String name;
     private ConcurrentMap<String, Appender> appenders = new ConcurrentHashMap<>();
     private ConcurrentMap<String, LoggerConfig> loggerConfigs = new ConcurrentHashMap<>();
+    private volatile LoggerConfigTrie loggerConfigTrie = LoggerConfigTrie.EMPTY;
+    /**
+     * Copy of the node tree before the plugins consumed its attributes, with its attributes and values resolved, kept
+     * for incremental reconfiguration.
+     */
+    private Node configurationSnapshot;
+    private AbstractConfiguration previousConfiguration;
+    /**
+     * Nodes of the Loggers that differ from the configuration this one replaces, by Logger name, null for a removed
+     * Logger. The map itself is null unless the Loggers are the only difference.
+     */
+    private Map<String, Node> changedLoggerNodes;
     private List<CustomLevelConfig> customLevels = Collections.emptyList();
     private final ConcurrentMap<String, String> properties = new ConcurrentHashMap<>();
     private final StrLookup tempLookup = new Interpolator(properties);
@@ -519,6 +532,9 @@ public abstract class AbstractConfiguration extends AbstractFilterable implement
     }
 
     protected void doConfigure() {
+        if (isIncrementalReconfiguration()) {
+            configurationSnapshot = new Node(rootNode);
+        }
         preConfigure(rootNode);
         configurationScheduler.start();
         if (rootNode.hasChildren() && rootNode.getChildren().get(0).getName().equalsIgnoreCase("Properties")) {
@@ -532,6 +548,17 @@ public abstract class AbstractConfiguration extends AbstractFilterable implement
             final StrLookup lookup = map == null ? null : new MapLookup(map);
             subst.setVariableResolver(new Interpolator(lookup, pluginPackages));
         }
+        if (configurationSnapshot != null) {
+            // compare what the plugins see: a changed system property or environment variable changes the node
+            resolve(configurationSnapshot);
+        }
+        if (previousConfiguration != null) {
+            changedLoggerNodes = getChangedLoggerNodes(previousConfiguration);
+            if (changedLoggerNodes != null) {
+                // the previous configuration updates its Loggers instead, see updateLoggerConfigs
+                return;
+            }
+        }
 
         boolean setLoggers = false;
         boolean setRoot = false;
@@ -593,22 +620,24 @@ public abstract class AbstractConfiguration extends AbstractFilterable implement
         }
 
         for (final Map.Entry<String, LoggerConfig> entry : loggerConfigs.entrySet()) {
-            final LoggerConfig loggerConfig = entry.getValue();
-            for (final AppenderRef ref : loggerConfig.getAppenderRefs()) {
-                final Appender app = appenders.get(ref.getRef());
-                if (app != null) {
-                    loggerConfig.addAppender(app, ref.getLevel(), ref.getFilter());
-                } else {
-                    LOGGER.error("Unable to locate appender \"{}\" for logger config \"{}\"", ref.getRef(),
-                            loggerConfig);
-                }
-            }
-
+            addAppenderRefs(entry.getValue());
         }
 
         setParents();
     }
 
+    private void addAppenderRefs(final LoggerConfig loggerConfig) {
+        for (final AppenderRef ref : loggerConfig.getAppenderRefs()) {
+            final Appender app = appenders.get(ref.getRef());
+            if (app != null) {
+                loggerConfig.addAppender(app, ref.getLevel(), ref.getFilter());
+            } else {
+                LOGGER.error("Unable to locate appender \"{}\" for logger config \"{}\"", ref.getRef(),
+                        loggerConfig);
+            }
+        }
+    }
+
     protected void setToDefault() {
         // LOG4J2-1176 facilitate memory leak investigation
         setName(DefaultConfiguration.DEFAULT_NAME + "@" + Integer.toHexString(hashCode()));
@@ -844,18 +873,8 @@ public abstract class AbstractConfiguration extends AbstractFilterable implement
      */
     @Override
     public LoggerConfig getLoggerConfig(final String loggerName) {
-        LoggerConfig loggerConfig = loggerConfigs.get(loggerName);
-        if (loggerConfig != null) {
-            return loggerConfig;
-        }
-        String substr = loggerName;
-        while ((substr = NameUtil.getSubName(substr)) != null) {
-            loggerConfig = loggerConfigs.get(substr);
-            if (loggerConfig != null) {
-                return loggerConfig;
-            }
-        }
-        return root;
+        final LoggerConfig loggerConfig = loggerConfigTrie.find(loggerName);
+        return loggerConfig != null ? loggerConfig : root;
     }
 
     @Override
@@ -1014,7 +1033,211 @@ public abstract class AbstractConfiguration extends AbstractFilterable implement
         return list;
     }
 
+    /**
+     * Applies a new configuration to this running configuration by updating only the LoggerConfigs that changed, if
+     * the {@value Constants#LOG4J_INCREMENTAL_RECONFIGURATION} system property is true and the Loggers are the only
+     * elements that differ between both configurations after variable substitution. The Appenders of this
+     * configuration keep running and the new configuration is discarded. Otherwise the new configuration is left
+     * initialized and must be started to replace this one.
+     *
+     * @param next the configuration that would replace this configuration, not yet initialized.
+     * @return true if the LoggerConfigs of this configuration were updated and the new configuration was discarded.
+     * @since 3.0
+     */
+    public boolean updateLoggerConfigs(final AbstractConfiguration next) {
+        if (next == this || !isStarted() || next.getState() != State.INITIALIZING || configurationSnapshot == null
+                || !isIncrementalReconfiguration()) {
+            return false;
+        }
+        next.previousConfiguration = this;
+        try {
+            next.initialize();
+        } finally {
+            next.previousConfiguration = null;
+        }
+        final Map<String, Node> changed = next.changedLoggerNodes;
+        if (changed == null) {
+            return false;
+        }
+        next.stop();
+        LOGGER.debug("Configuration {} updates {} LoggerConfigs instead of being replaced by {}", this, changed.size(),
+                next);
+        final List<LoggerConfig> replaced = new ArrayList<>();
+        synchronized (this) {
+            for (final Map.Entry<String, Node> entry : changed.entrySet()) {
+                final String name = entry.getKey();
+                final Node node = entry.getValue();
+                LoggerConfig loggerConfig = null;
+                if (node != null) {
+                    createConfiguration(node, null);
+                    loggerConfig = node.getObject(LoggerConfig.class);
+                    if (loggerConfig == null) {
+                        LOGGER.error("Unable to create the LoggerConfig \"{}\", keeping the current one", name);
+                        continue;
+                    }
+                    addAppenderRefs(loggerConfig);
+                    loggerConfig.start();
+                }
+                final LoggerConfig previous = loggerConfig == null ? loggerConfigs.remove(name)
+                        : loggerConfigs.put(name, loggerConfig);
+                if (name.isEmpty()) {
+                    root = loggerConfig;
+                }
+                if (previous != null) {
+                    replaced.add(previous);
+                }
+            }
+            configurationSnapshot = next.configurationSnapshot;
+            setParents();
+        }
+        final LoggerContext context = getLoggerContext();
+        if (context != null) {
+            context.updateLoggers();
+        }
+        for (final LoggerConfig loggerConfig : replaced) {
+            loggerConfig.getReliabilityStrategy().beforeStopConfiguration(this);
+            loggerConfig.stop();
+        }
+        return true;
+    }
+
+    private void resolve(final Node node) {
+        for (final Map.Entry<String, String> entry : node.getAttributes().entrySet()) {
+            entry.setValue(subst.replace(entry.getValue()));
+        }
+        if (node.getValue() != null) {
+            node.setValue(subst.replace(node.getValue()));
+        }
+        for (final Node child : node.getChildren()) {
+            resolve(child);
+        }
+    }
+
+    private static boolean isIncrementalReconfiguration() {
+        return PropertiesUtil.getProperties().getBooleanProperty(Constants.LOG4J_INCREMENTAL_RECONFIGURATION);
+    }
+
+    /**
+     * Returns the nodes of the Loggers whose resolved nodes differ from the previous configuration, by Logger name, or
+     * null if anything else differs: the attributes of the configuration, the properties, scripts, Appenders or any
+     * other top level element. Changes to asynchronous Loggers always require a new configuration as they share the
+     * disruptor the configuration starts.
+     */
+    private Map<String, Node> getChangedLoggerNodes(final AbstractConfiguration previous) {
+        final Node previousSnapshot = previous.configurationSnapshot;
+        if (previousSnapshot == null || configurationSnapshot == null
+                || !previousSnapshot.getAttributes().equals(configurationSnapshot.getAttributes())) {
+            return null;
+        }
+        final List<Node> previousChildren = previousSnapshot.getChildren();
+        final List<Node> children = configurationSnapshot.getChildren();
+        if (previousChildren.size() != children.size()) {
+            return null;
+        }
+        int loggersIndex = -1;
+        for (int i = 0; i < children.size(); i++) {
+            final Node child = children.get(i);
+            if (loggersIndex < 0 && child.getName().equalsIgnoreCase("Loggers")
+                    && previousChildren.get(i).getName().equalsIgnoreCase("Loggers")) {
+                loggersIndex = i;
+            } else if (!isSameNode(previousChildren.get(i), child)) {
+                return null;
+            }
+        }
+        if (loggersIndex < 0) {
+            return null;
+        }
+        final Node previousLoggers = previousChildren.get(loggersIndex);
+        final Node loggers = children.get(loggersIndex);
+        final Map<String, Node> previousNodes = getLoggerNodes(previousLoggers);
+        final Map<String, Node> nodes = getLoggerNodes(loggers);
+        if (previousNodes == null || nodes == null || !previousNodes.containsKey("") || !nodes.containsKey("")
+                || !previousLoggers.getAttributes().equals(loggers.getAttributes())) {
+            return null;
+        }
+        // the snapshot and the node tree have the same structure, only the latter can be used to create plugins
+        final List<Node> liveNodes = rootNode.getChildren().get(loggersIndex).getChildren();
+        final Map<String, Node> changed = new HashMap<>();
+        for (final Map.Entry<String, Node> entry : nodes.entrySet()) {
+            final Node previousNode = previousNodes.remove(entry.getKey());
+            final Node node = entry.getValue();
+            if (!isSameNode(previousNode, node)) {
+                if (isAsyncLogger(previousNode) || isAsyncLogger(node)) {
+                    return null;
+                }
+                changed.put(entry.getKey(), liveNodes.get(loggers.getChildren().indexOf(node)));
+            }
+        }
+        for (final Map.Entry<String, Node> entry : previousNodes.entrySet()) {
+            if (isAsyncLogger(entry.getValue())) {
+                return null;
+            }
+            changed.put(entry.getKey(), null);
+        }
+        return changed;
+    }
+
+    /**
+     * Returns the Logger nodes by Logger name, the root Logger under the empty name, or null if a name is missing or
+     * used twice.
+     */
+    private static Map<String, Node> getLoggerNodes(final Node loggers) {
+        final Map<String, Node> nodes = new HashMap<>();
+        for (final Node node : loggers.getChildren()) {
+            final String name = node.getName().equalsIgnoreCase("Root") || node.getName().equalsIgnoreCase("AsyncRoot")
+                    ? LogManager.ROOT_LOGGER_NAME : getAttribute(node, "name");
+            if (name == null || nodes.put(name, node) != null) {
+                return null;
+            }
+        }
+        return nodes;
+    }
+
+    private static boolean isAsyncLogger(final Node node) {
+        final Class<?> pluginClass = node == null ? null : getPluginClass(node);
+        return pluginClass != null && (AsyncLoggerConfig.class.isAssignableFrom(pluginClass)
+                || AsyncLoggerConfig.RootLogger.class.isAssignableFrom(pluginClass));
+    }
+
+    private static boolean isSameNodes(final List<Node> nodes, final List<Node> others) {
+        if (nodes.size() != others.size()) {
+            return false;
+        }
+        for (int i = 0; i < nodes.size(); i++) {
+            if (!isSameNode(nodes.get(i), others.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSameNode(final Node node, final Node other) {
+        if (node == null || other == null) {
+            return node == other;
+        }
+        return Objects.equals(node.getName(), other.getName())
+                && Objects.equals(getPluginClass(node), getPluginClass(other))
+                && Objects.equals(node.getValue(), other.getValue())
+                && node.getAttributes().equals(other.getAttributes())
+                && isSameNodes(node.getChildren(), other.getChildren());
+    }
+
+    private static Class<?> getPluginClass(final Node node) {
+        return node.getType() == null ? null : node.getType().getPluginClass();
+    }
+
+    private static String getAttribute(final Node node, final String name) {
+        for (final Map.Entry<String, String> entry : node.getAttributes().entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(name)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
     private void setParents() {
+        // every change to the LoggerConfigs ends here
+        loggerConfigTrie = new LoggerConfigTrie(loggerConfigs);
         for (final Map.Entry<String, LoggerConfig> entry : loggerConfigs.entrySet()) {
             final LoggerConfig logger = entry.getValue();
             String key = entry.getKey();
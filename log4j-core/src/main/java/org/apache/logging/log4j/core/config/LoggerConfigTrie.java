@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable index of LoggerConfigs by the dot separated segments of their names.
+ * <p>
+ * Finding the LoggerConfig of a Logger walks the segments of the Logger name down the trie and compares them in place,
+ * so no substrings are created and every segment is looked at once. The result is the same as trying the Logger name
+ * and then each shorter name obtained with {@link org.apache.logging.log4j.util.NameUtil#getSubName(String)}.
+ * </p>
+ */
+final class LoggerConfigTrie {
+
+    static final LoggerConfigTrie EMPTY = new LoggerConfigTrie(new HashMap<>());
+
+    private final Node root;
+
+    /**
+     * Creates the index of the specified LoggerConfigs.
+     *
+     * @param loggerConfigs the LoggerConfigs by name.
+     */
+    LoggerConfigTrie(final Map<String, LoggerConfig> loggerConfigs) {
+        final NodeBuilder rootBuilder = new NodeBuilder();
+        for (final Map.Entry<String, LoggerConfig> entry : loggerConfigs.entrySet()) {
+            final String name = entry.getKey();
+            NodeBuilder node = rootBuilder;
+            // the empty name is the root of the trie, not an empty segment
+            if (!name.isEmpty()) {
+                int start = 0;
+                int end;
+                do {
+                    end = name.indexOf('.', start);
+                    if (end < 0) {
+                        end = name.length();
+                    }
+                    node = node.children.computeIfAbsent(name.substring(start, end), key -> new NodeBuilder());
+                    start = end + 1;
+                } while (end < name.length());
+            }
+            node.loggerConfig = entry.getValue();
+        }
+        this.root = rootBuilder.build();
+    }
+
+    /**
+     * Returns the LoggerConfig with the longest name that is the specified Logger name or one of its ancestors.
+     *
+     * @param loggerName the Logger name.
+     * @return the LoggerConfig or null if none matches.
+     */
+    LoggerConfig find(final String loggerName) {
+        Node node = root;
+        LoggerConfig result = node.loggerConfig;
+        final int length = loggerName.length();
+        if (length == 0) {
+            return result;
+        }
+        int start = 0;
+        while (true) {
+            int end = loggerName.indexOf('.', start);
+            if (end < 0) {
+                end = length;
+            }
+            node = node.child(loggerName, start, end);
+            if (node == null) {
+                return result;
+            }
+            if (node.loggerConfig != null) {
+                result = node.loggerConfig;
+            }
+            if (end == length) {
+                return result;
+            }
+            start = end + 1;
+        }
+    }
+
+    private static int hash(final String string, final int start, final int end) {
+        // the same as String.hashCode() of the substring
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + string.charAt(i);
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private static final class NodeBuilder {
+
+        final Map<String, NodeBuilder> children = new HashMap<>();
+        LoggerConfig loggerConfig;
+
+        Node build() {
+            if (children.isEmpty()) {
+                return new Node(loggerConfig, null, null);
+            }
+            // open addressing with a load factor of at most 0.5
+            final int capacity = Integer.highestOneBit(children.size() * 2 - 1) << 1;
+            final String[] segments = new String[capacity];
+            final Node[] nodes = new Node[capacity];
+            for (final Map.Entry<String, NodeBuilder> entry : children.entrySet()) {
+                final String segment = entry.getKey();
+                int index = hash(segment, 0, segment.length()) & (capacity - 1);
+                while (segments[index] != null) {
+                    index = (index + 1) & (capacity - 1);
+                }
+                segments[index] = segment;
+                nodes[index] = entry.getValue().build();
+            }
+            return new Node(loggerConfig, segments, nodes);
+        }
+    }
+
+    private static final class Node {
+
+        final LoggerConfig loggerConfig;
+        final String[] segments;
+        final Node[] children;
+
+        Node(final LoggerConfig loggerConfig, final String[] segments, final Node[] children) {
+            this.loggerConfig = loggerConfig;
+            this.segments = segments;
+            this.children = children;
+        }
+
+        Node child(final String name, final int start, final int end) {
+            if (segments == null) {
+                return null;
+            }
+            final int length = end - start;
+            final int mask = segments.length - 1;
+            int index = hash(name, start, end) & mask;
+            String segment;
+            while ((segment = segments[index]) != null) {
+                if (segment.length() == length && name.regionMatches(start, segment, 0, length)) {
+                    return children[index];
+                }
+                index = (index + 1) & mask;
+            }
+            return null;
+        }
+    }
+}
@@ -18,8 +18,12 @@ package org.apache.logging.log4j.core.filter;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.logging.log4j.Level;
@@ -30,8 +34,12 @@ import org.apache.logging.log4j.core.LifeCycle;
 import org.apache.logging.log4j.core.LifeCycle2;
 import org.apache.logging.log4j.core.LogEvent;
 import org.apache.logging.log4j.core.Logger;
+import org.apache.logging.log4j.core.config.Configuration;
+import org.apache.logging.log4j.core.config.ConfigurationScheduler;
+import org.apache.logging.log4j.core.config.plugins.PluginConfiguration;
 import org.apache.logging.log4j.plugins.Node;
 import org.apache.logging.log4j.plugins.Plugin;
+import org.apache.logging.log4j.plugins.PluginAttribute;
 import org.apache.logging.log4j.plugins.PluginElement;
 import org.apache.logging.log4j.plugins.PluginFactory;
 import org.apache.logging.log4j.core.util.ObjectArrayIterator;
@@ -40,20 +48,212 @@ import org.apache.logging.log4j.util.PerformanceSensitive;
 
 /**
  * Composes and invokes one or more filters.
+ * <p>
+ * When all filters only depend on the level and the marker of the event, the result of the composite for each standard
+ * level without a marker is computed once and the filters are not invoked for such events.
+ * </p>
+ * <p>
+ * An adaptive composite measures the cost and the decision rate of its filters and changes the order in which they
+ * are evaluated, so the filters that are cheap and likely to decide are evaluated first. Only adjacent filters whose
+ * result does not depend on their order are reordered: filters without state that can decide in the same way, that
+ * is either only ACCEPT or only DENY. Other filters keep their position. Adaptive composites of a configuration are
+ * exported through JMX and reordered every {@value #REORDER_INTERVAL_MILLIS} milliseconds by the configuration
+ * scheduler, so the threads evaluating the filters never sort them.
+ * </p>
  */
 @Plugin(name = "filters", category = Node.CATEGORY, printObject = true)
 @PerformanceSensitive("allocation")
 public final class CompositeFilter extends AbstractLifeCycle implements Iterable<Filter>, Filter {
 
+    /**
+     * Name of the {@link Configuration} component holding the list of adaptive composites of the configuration.
+     */
+    public static final String COMPONENT_NAME = "AdaptiveCompositeFilters";
+
+    static final long REORDER_INTERVAL_MILLIS = 1000;
+
     private static final Filter[] EMPTY_FILTERS = new Filter[0];
+
+    /**
+     * The standard levels indexed by their intLevel divided by 100, followed by ALL.
+     */
+    private static final Level[] STANDARD_LEVELS = {
+            Level.OFF, Level.FATAL, Level.ERROR, Level.WARN, Level.INFO, Level.DEBUG, Level.TRACE, Level.ALL
+    };
+
+    /**
+     * Filters that only depend on the level and the marker of the event.
+     */
+    private static final List<Class<?>> LEVEL_FILTERS = Arrays.asList(ThresholdFilter.class,
+            LevelRangeFilter.class, LevelMatchFilter.class, MarkerFilter.class, NoMarkerFilter.class,
+            DenyAllFilter.class, NeutralFilter.class);
+
+    /**
+     * Filters without state that only return their onMatch or onMismatch result or NEUTRAL, so they can be evaluated
+     * in any order relative to each other when they decide in the same way.
+     */
+    private static final List<Class<?>> STATELESS_FILTERS = Arrays.asList(ThresholdFilter.class,
+            LevelRangeFilter.class, LevelMatchFilter.class, MarkerFilter.class, NoMarkerFilter.class,
+            DynamicThresholdFilter.class, MapFilter.class, StructuredDataFilter.class, ThreadContextMapFilter.class,
+            RegexFilter.class, StringMatchFilter.class, TimeFilter.class);
+
+    private static final Comparator<MeasuredFilter> BY_RANK = Comparator.comparingDouble(filter -> filter.rank);
+
     private final Filter[] filters;
+    private final Result[] levelResults;
+    private final boolean adaptive;
+    private final Configuration configuration;
+    private final MeasuredFilter[] measured;
+    private final int[] runEnds;
+    private final ConfigurationScheduler scheduler;
+    private volatile ScheduledFuture<?> future;
+    private volatile Filter[] chain;
+    private volatile String name;
+    private long reorderCount;
 
     private CompositeFilter() {
-        this.filters = EMPTY_FILTERS;
+        this(EMPTY_FILTERS, false, null);
     }
 
     private CompositeFilter(final Filter[] filters) {
+        this(filters, false, null);
+    }
+
+    private CompositeFilter(final Filter[] filters, final boolean adaptive, final Configuration configuration) {
         this.filters = filters == null ? EMPTY_FILTERS : filters;
+        this.levelResults = computeLevelResults(this.filters);
+        this.adaptive = adaptive;
+        this.configuration = configuration;
+        if (adaptive) {
+            this.measured = new MeasuredFilter[this.filters.length];
+            for (int i = 0; i < measured.length; i++) {
+                measured[i] = new MeasuredFilter(this.filters[i]);
+            }
+            this.runEnds = computeRunEnds(this.filters);
+            this.chain = measured.clone();
+            this.scheduler = configuration == null ? null : configuration.getScheduler();
+            if (scheduler != null && !scheduler.isExecutorServiceSet()) {
+                scheduler.incrementScheduledItems();
+            }
+        } else {
+            this.measured = null;
+            this.runEnds = null;
+            this.chain = this.filters;
+            this.scheduler = null;
+        }
+    }
+
+    private static Result[] computeLevelResults(final Filter[] filters) {
+        if (filters.length == 0) {
+            return null;
+        }
+        for (final Filter filter : filters) {
+            final boolean levelComposite = filter instanceof CompositeFilter
+                    && ((CompositeFilter) filter).levelResults != null;
+            if (!levelComposite && !LEVEL_FILTERS.contains(filter.getClass())) {
+                return null;
+            }
+        }
+        final Result[] results = new Result[STANDARD_LEVELS.length];
+        for (int i = 0; i < results.length; i++) {
+            Result result = Result.NEUTRAL;
+            for (final Filter filter : filters) {
+                result = filter.filter(null, STANDARD_LEVELS[i], null, (Message) null, null);
+                if (result == Result.ACCEPT || result == Result.DENY) {
+                    break;
+                }
+            }
+            results[i] = result;
+        }
+        return results;
+    }
+
+    /**
+     * Splits the filters into runs of adjacent filters that can be reordered and returns the end of each run.
+     */
+    private static int[] computeRunEnds(final Filter[] filters) {
+        final int[] ends = new int[filters.length];
+        int count = 0;
+        int i = 0;
+        while (i < filters.length) {
+            Result decision = decisionOf(filters[i]);
+            if (decision != null) {
+                i++;
+                while (i < filters.length) {
+                    final Result next = decisionOf(filters[i]);
+                    if (next == null || (next != Result.NEUTRAL && decision != Result.NEUTRAL && next != decision)) {
+                        break;
+                    }
+                    if (decision == Result.NEUTRAL) {
+                        decision = next;
+                    }
+                    i++;
+                }
+            } else {
+                i++;
+            }
+            ends[count++] = i;
+        }
+        return Arrays.copyOf(ends, count);
+    }
+
+    /**
+     * Returns the only decisive result a filter can return, NEUTRAL if it never decides, or null if it may return
+     * both ACCEPT and DENY or its result may depend on its position.
+     */
+    private static Result decisionOf(final Filter filter) {
+        if (filter.getClass() == DenyAllFilter.class) {
+            return Result.DENY;
+        }
+        if (filter.getClass() == NeutralFilter.class) {
+            return Result.NEUTRAL;
+        }
+        if (!STATELESS_FILTERS.contains(filter.getClass())) {
+            return null;
+        }
+        final Result onMatch = filter.getOnMatch();
+        final Result onMismatch = filter.getOnMismatch();
+        if (onMatch == Result.NEUTRAL) {
+            return onMismatch;
+        }
+        return onMismatch == Result.NEUTRAL || onMismatch == onMatch ? onMatch : null;
+    }
+
+    /**
+     * Returns the precomputed result for events of a standard level without a marker, or null if the filters must be
+     * evaluated.
+     */
+    private Result levelResult(final Level level, final Marker marker) {
+        if (levelResults == null || marker != null || level == null) {
+            return null;
+        }
+        if (level == Level.ALL) {
+            return levelResults[STANDARD_LEVELS.length - 1];
+        }
+        final int index = level.intLevel() / 100;
+        return index < STANDARD_LEVELS.length - 1 && STANDARD_LEVELS[index] == level ? levelResults[index] : null;
+    }
+
+    /**
+     * Sorts each run of reorderable filters by the expected cost of evaluating a filter until it decides. Called by
+     * the configuration scheduler.
+     */
+    synchronized void reorder() {
+        final MeasuredFilter[] next = (MeasuredFilter[]) chain.clone();
+        for (final MeasuredFilter filter : next) {
+            filter.updateRank();
+        }
+        int start = 0;
+        for (final int end : runEnds) {
+            if (end - start > 1) {
+                Arrays.sort(next, start, end, BY_RANK);
+            }
+            start = end;
+        }
+        if (!Arrays.equals(next, chain)) {
+            chain = next;
+            reorderCount++;
+        }
     }
 
     public CompositeFilter addFilter(final Filter filter) {
@@ -64,15 +264,15 @@ public final class CompositeFilter extends AbstractLifeCycle implements Iterable
         if (filter instanceof CompositeFilter) {
             final int size = this.filters.length + ((CompositeFilter) filter).size();
             final Filter[] copy = Arrays.copyOf(this.filters, size);
-            final int index = this.filters.length;
+            int index = this.filters.length;
             for (final Filter currentFilter : ((CompositeFilter) filter).filters) {
-                copy[index] = currentFilter;
+                copy[index++] = currentFilter;
             }
-            return new CompositeFilter(copy);
+            return derive(copy);
         }
         final Filter[] copy = Arrays.copyOf(this.filters, this.filters.length + 1);
         copy[this.filters.length] = filter;
-        return new CompositeFilter(copy);
+        return derive(copy);
     }
 
     public CompositeFilter removeFilter(final Filter filter) {
@@ -91,7 +291,54 @@ public final class CompositeFilter extends AbstractLifeCycle implements Iterable
         } else {
             filterList.remove(filter);
         }
-        return new CompositeFilter(filterList.toArray(new Filter[this.filters.length - 1]));
+        return derive(filterList.toArray(EMPTY_FILTERS));
+    }
+
+    /**
+     * Creates a composite with the same settings, which replaces this composite in the list of adaptive composites.
+     */
+    private CompositeFilter derive(final Filter[] copy) {
+        if (!adaptive) {
+            return new CompositeFilter(copy);
+        }
+        final CompositeFilter derived = new CompositeFilter(copy, true, configuration);
+        derived.register(this);
+        if (isStarted()) {
+            stop(future);
+            future = null;
+            derived.scheduleReorder();
+        }
+        return derived;
+    }
+
+    private void register(final CompositeFilter previous) {
+        if (configuration == null) {
+            name = "filters-1";
+            return;
+        }
+        configuration.addComponent(COMPONENT_NAME, new CopyOnWriteArrayList<CompositeFilter>());
+        final List<CompositeFilter> composites = configuration.getComponent(COMPONENT_NAME);
+        synchronized (composites) {
+            final int index = previous == null ? -1 : composites.indexOf(previous);
+            if (index >= 0) {
+                name = previous.name;
+                composites.set(index, this);
+            } else {
+                name = "filters-" + (composites.size() + 1);
+                composites.add(this);
+            }
+        }
+    }
+
+    /**
+     * Returns the adaptive composites of the specified configuration.
+     *
+     * @param config the configuration.
+     * @return the composites, never null.
+     */
+    public static List<CompositeFilter> getAdaptiveFilters(final Configuration config) {
+        final List<CompositeFilter> composites = config == null ? null : config.getComponent(COMPONENT_NAME);
+        return composites == null ? Collections.emptyList() : composites;
     }
 
     @Override
@@ -116,18 +363,117 @@ public final class CompositeFilter extends AbstractLifeCycle implements Iterable
         return filters.length;
     }
 
+    /**
+     * Returns whether this composite reorders its filters by their cost and decision rate.
+     *
+     * @return whether this composite is adaptive.
+     */
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+
+    /**
+     * Returns the name under which an adaptive composite is exported through JMX.
+     *
+     * @return the name, or null if the composite is not adaptive.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the filters in the order in which they are currently evaluated.
+     *
+     * @return a copy of the filters in evaluation order.
+     */
+    public Filter[] getEvaluationOrder() {
+        final Filter[] current = chain;
+        if (!adaptive) {
+            return current.clone();
+        }
+        final Filter[] order = new Filter[current.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = ((MeasuredFilter) current[i]).getFilter();
+        }
+        return order;
+    }
+
+    /**
+     * Returns the approximate number of times the filter at the specified position was invoked.
+     *
+     * @param index the position of the filter in declaration order.
+     * @return the number of invocations, or zero if the composite is not adaptive.
+     */
+    public long getInvocationCount(final int index) {
+        return adaptive ? measured[index].getCallCount() : 0;
+    }
+
+    /**
+     * Returns the average number of nanoseconds the filter at the specified position took for the sampled invocations.
+     *
+     * @param index the position of the filter in declaration order.
+     * @return the average duration, or zero if the composite is not adaptive or no invocation was sampled.
+     */
+    public double getAverageNanos(final int index) {
+        return adaptive ? measured[index].getAverageNanos() : 0;
+    }
+
+    /**
+     * Returns the ratio of the sampled invocations for which the filter at the specified position returned ACCEPT or
+     * DENY.
+     *
+     * @param index the position of the filter in declaration order.
+     * @return the decision rate, or zero if the composite is not adaptive or no invocation was sampled.
+     */
+    public double getDecisionRate(final int index) {
+        return adaptive ? measured[index].getDecisionRate() : 0;
+    }
+
+    /**
+     * Returns how often the evaluation order of an adaptive composite was changed.
+     *
+     * @return the number of times the filters were reordered.
+     */
+    public synchronized long getReorderCount() {
+        return reorderCount;
+    }
+
+    /**
+     * Forgets the measurements of an adaptive composite, the current evaluation order is kept.
+     */
+    public void resetStatistics() {
+        if (adaptive) {
+            for (final MeasuredFilter filter : measured) {
+                filter.reset();
+            }
+        }
+    }
+
     @Override
     public void start() {
         this.setStarting();
         for (final Filter filter : filters) {
             filter.start();
         }
+        scheduleReorder();
         this.setStarted();
     }
 
+    private void scheduleReorder() {
+        if (scheduler != null && future == null) {
+            if (!scheduler.isStarted()) {
+                scheduler.start();
+            }
+            future = scheduler.scheduleWithFixedDelay(this::reorder, REORDER_INTERVAL_MILLIS,
+                    REORDER_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
     @Override
     public boolean stop(final long timeout, final TimeUnit timeUnit) {
         this.setStopping();
+        stop(future);
+        future = null;
         for (final Filter filter : filters) {
             ((LifeCycle) filter).stop(timeout, timeUnit);
         }
@@ -173,9 +519,14 @@ public final class CompositeFilter extends AbstractLifeCycle implements Iterable
     @Override
     public Result filter(final Logger logger, final Level level, final Marker marker, final String msg,
             final Object... params) {
+        final Result levelResult = levelResult(level, marker);
+        if (levelResult != null) {
+            return levelResult;
+        }
+        final Filter[] chain = this.chain;
         Result result = Result.NEUTRAL;
-        for (int i = 0; i < filters.length; i++) {
-            result = filters[i].filter(logger, level, marker, msg, params);
+        for (int i = 0; i < chain.length; i++) {
+            result = chain[i].filter(logger, level, marker, msg, params);
             if (result == Result.ACCEPT || result == Result.DENY) {
                 return result;
             }
@@ -200,9 +551,14 @@ public final class CompositeFilter extends AbstractLifeCycle implements Iterable
     @Override
     public Result filter(final Logger logger, final Level level, final Marker marker, final String msg,
             final Object p0) {
+        final Result levelResult = levelResult(level, marker);
+        if (levelResult != null) {
+            return levelResult;
+        }
+        final Filter[] chain = this.chain;
         Result result = Result.NEUTRAL;
-        for (int i = 0; i < filters.length; i++) {
-            result = filters[i].filter(logger, level, marker, msg, p0);
+        for (int i = 0; i < chain.length; i++) {
+            result = chain[i].filter(logger, level, marker, msg, p0);
             if (result == Result.ACCEPT || result == Result.DENY) {
                 return result;
             }
@@ -228,9 +584,14 @@ public final class CompositeFilter extends AbstractLifeCycle implements Iterable
     @Override
     public Result filter(final Logger logger, final Level level, final Marker marker, final String msg,
             final Object p0, final Object p1) {
+        final Result levelResult = levelResult(level, marker);
+        if (levelResult != null) {
+            return levelResult;
+        }
+        final Filter[] chain = this.chain;
         Result result = Result.NEUTRAL;
-        for (int i = 0; i < filters.length; i++) {
-            result = filters[i].filter(logger, level, marker, msg, p0, p1);
+        for (int i = 0; i < chain.length; i++) {
+            result = chain[i].filter(logger, level, marker, msg, p0, p1);
             if (result == Result.ACCEPT || result == Result.DENY) {
                 return result;
             }
@@ -257,9 +618,14 @@ public final class CompositeFilter extends AbstractLifeCycle implements Iterable
     @Override
     public Result filter(final Logger logger, final Level level, final Marker marker, final String msg,
             final Object p0, final Object p1, final Object p2) {
+        final Result levelResult = levelResult(level, marker);
+        if (levelResult != null) {
+            return levelResult;
+        }
+        final Filter[] chain = this.chain;
         Result result = Result.NEUTRAL;
-        for (int i = 0; i < filters.length; i++) {
-            result = filters[i].filter(logger, level, marker, msg, p0, p1, p2);
+        for (int i = 0; i < chain.length; i++) {
+            result = chain[i].filter(logger, level, marker, msg, p0, p1, p2);
             if (result == Result.ACCEPT || result == Result.DENY) {
                 return result;
             }
@@ -287,9 +653,14 @@ public final class CompositeFilter extends AbstractLifeCycle implements Iterable
     @Override
     public Result filter(final Logger logger, final Level level, final Marker marker, final String msg,
             final Object p0, final Object p1, final Object p2, final Object p3) {
+        final Result levelResult = levelResult(level, marker);
+        if (levelResult != null) {
+            return levelResult;
+        }
+        final Filter[] chain = this.chain;
         Result result = Result.NEUTRAL;
-        for (int i = 0; i < filters.length; i++) {
-            result = filters[i].filter(logger, level, marker, msg, p0, p1, p2, p3);
+        for (int i = 0; i < chain.length; i++) {
+            result = chain[i].filter(logger, level, marker, msg, p0, p1, p2, p3);
             if (result == Result.ACCEPT || result == Result.DENY) {
                 return result;
             }
@@ -319,9 +690,14 @@ public final class CompositeFilter extends AbstractLifeCycle implements Iterable
     public Result filter(final Logger logger, final Level level, final Marker marker, final String msg,
             final Object p0, final Object p1, final Object p2, final Object p3,
             final Object p4) {
+        final Result levelResult = levelResult(level, marker);
+        if (levelResult != null) {
+            return levelResult;
+        }
+        final Filter[] chain = this.chain;
         Result result = Result.NEUTRAL;
-        for (int i = 0; i < filters.length; i++) {
-            result = filters[i].filter(logger, level, marker, msg, p0, p1, p2, p3, p4);
+        for (int i = 0; i < chain.length; i++) {
+            result = chain[i].filter(logger, level, marker, msg, p0, p1, p2, p3, p4);
             if (result == Result.ACCEPT || result == Result.DENY) {
                 return result;
             }
@@ -352,9 +728,14 @@ public final class CompositeFilter extends AbstractLifeCycle implements Iterable
     public Result filter(final Logger logger, final Level level, final Marker marker, final String msg,
             final Object p0, final Object p1, final Object p2, final Object p3,
             final Object p4, final Object p5) {
+        final Result levelResult = levelResult(level, marker);
+        if (levelResult != null) {
+            return levelResult;
+        }
+        final Filter[] chain = this.chain;
         Result result = Result.NEUTRAL;
-        for (int i = 0; i < filters.length; i++) {
-            result = filters[i].filter(logger, level, marker, msg, p0, p1, p2, p3, p4, p5);
+        for (int i = 0; i < chain.length; i++) {
+            result = chain[i].filter(logger, level, marker, msg, p0, p1, p2, p3, p4, p5);
             if (result == Result.ACCEPT || result == Result.DENY) {
                 return result;
             }
@@ -386,9 +767,14 @@ public final class CompositeFilter extends AbstractLifeCycle implements Iterable
     public Result filter(final Logger logger, final Level level, final Marker marker, final String msg,
             final Object p0, final Object p1, final Object p2, final Object p3,
             final Object p4, final Object p5, final Object p6) {
+        final Result levelResult = levelResult(level, marker);
+        if (levelResult != null) {
+            return levelResult;
+        }
+        final Filter[] chain = this.chain;
         Result result = Result.NEUTRAL;
-        for (int i = 0; i < filters.length; i++) {
-            result = filters[i].filter(logger, level, marker, msg, p0, p1, p2, p3, p4, p5, p6);
+        for (int i = 0; i < chain.length; i++) {
+            result = chain[i].filter(logger, level, marker, msg, p0, p1, p2, p3, p4, p5, p6);
             if (result == Result.ACCEPT || result == Result.DENY) {
                 return result;
             }
@@ -422,9 +808,14 @@ public final class CompositeFilter extends AbstractLifeCycle implements Iterable
             final Object p0, final Object p1, final Object p2, final Object p3,
             final Object p4, final Object p5, final Object p6,
             final Object p7) {
+        final Result levelResult = levelResult(level, marker);
+        if (levelResult != null) {
+            return levelResult;
+        }
+        final Filter[] chain = this.chain;
         Result result = Result.NEUTRAL;
-        for (int i = 0; i < filters.length; i++) {
-            result = filters[i].filter(logger, level, marker, msg, p0, p1, p2, p3, p4, p5, p6, p7);
+        for (int i = 0; i < chain.length; i++) {
+            result = chain[i].filter(logger, level, marker, msg, p0, p1, p2, p3, p4, p5, p6, p7);
             if (result == Result.ACCEPT || result == Result.DENY) {
                 return result;
             }
@@ -459,9 +850,14 @@ public final class CompositeFilter extends AbstractLifeCycle implements Iterable
             final Object p0, final Object p1, final Object p2, final Object p3,
             final Object p4, final Object p5, final Object p6,
             final Object p7, final Object p8) {
+        final Result levelResult = levelResult(level, marker);
+        if (levelResult != null) {
+            return levelResult;
+        }
+        final Filter[] chain = this.chain;
         Result result = Result.NEUTRAL;
-        for (int i = 0; i < filters.length; i++) {
-            result = filters[i].filter(logger, level, marker, msg, p0, p1, p2, p3, p4, p5, p6, p7, p8);
+        for (int i = 0; i < chain.length; i++) {
+            result = chain[i].filter(logger, level, marker, msg, p0, p1, p2, p3, p4, p5, p6, p7, p8);
             if (result == Result.ACCEPT || result == Result.DENY) {
                 return result;
             }
@@ -497,9 +893,14 @@ public final class CompositeFilter extends AbstractLifeCycle implements Iterable
             final Object p0, final Object p1, final Object p2, final Object p3,
             final Object p4, final Object p5, final Object p6,
             final Object p7, final Object p8, final Object p9) {
+        final Result levelResult = levelResult(level, marker);
+        if (levelResult != null) {
+            return levelResult;
+        }
+        final Filter[] chain = this.chain;
         Result result = Result.NEUTRAL;
-        for (int i = 0; i < filters.length; i++) {
-            result = filters[i].filter(logger, level, marker, msg, p0, p1, p2, p3, p4, p5, p6, p7, p8, p9);
+        for (int i = 0; i < chain.length; i++) {
+            result = chain[i].filter(logger, level, marker, msg, p0, p1, p2, p3, p4, p5, p6, p7, p8, p9);
             if (result == Result.ACCEPT || result == Result.DENY) {
                 return result;
             }
@@ -525,9 +926,14 @@ public final class CompositeFilter extends AbstractLifeCycle implements Iterable
     @Override
     public Result filter(final Logger logger, final Level level, final Marker marker, final Object msg,
             final Throwable t) {
+        final Result levelResult = levelResult(level, marker);
+        if (levelResult != null) {
+            return levelResult;
+        }
+        final Filter[] chain = this.chain;
         Result result = Result.NEUTRAL;
-        for (int i = 0; i < filters.length; i++) {
-            result = filters[i].filter(logger, level, marker, msg, t);
+        for (int i = 0; i < chain.length; i++) {
+            result = chain[i].filter(logger, level, marker, msg, t);
             if (result == Result.ACCEPT || result == Result.DENY) {
                 return result;
             }
@@ -553,9 +959,14 @@ public final class CompositeFilter extends AbstractLifeCycle implements Iterable
     @Override
     public Result filter(final Logger logger, final Level level, final Marker marker, final Message msg,
             final Throwable t) {
+        final Result levelResult = levelResult(level, marker);
+        if (levelResult != null) {
+            return levelResult;
+        }
+        final Filter[] chain = this.chain;
         Result result = Result.NEUTRAL;
-        for (int i = 0; i < filters.length; i++) {
-            result = filters[i].filter(logger, level, marker, msg, t);
+        for (int i = 0; i < chain.length; i++) {
+            result = chain[i].filter(logger, level, marker, msg, t);
             if (result == Result.ACCEPT || result == Result.DENY) {
                 return result;
             }
@@ -572,9 +983,14 @@ public final class CompositeFilter extends AbstractLifeCycle implements Iterable
      */
     @Override
     public Result filter(final LogEvent event) {
+        final Result levelResult = levelResult(event.getLevel(), event.getMarker());
+        if (levelResult != null) {
+            return levelResult;
+        }
+        final Filter[] chain = this.chain;
         Result result = Result.NEUTRAL;
-        for (int i = 0; i < filters.length; i++) {
-            result = filters[i].filter(event);
+        for (int i = 0; i < chain.length; i++) {
+            result = chain[i].filter(event);
             if (result == Result.ACCEPT || result == Result.DENY) {
                 return result;
             }
@@ -606,9 +1022,33 @@ public final class CompositeFilter extends AbstractLifeCycle implements Iterable
      *            An array of Filters to call.
      * @return The CompositeFilter.
      */
-    @PluginFactory
-    public static CompositeFilter createFilters(@PluginElement("Filters") final Filter[] filters) {
+    public static CompositeFilter createFilters(final Filter[] filters) {
         return new CompositeFilter(filters);
     }
 
+    /**
+     * Creates a CompositeFilter.
+     *
+     * @param filters
+     *            An array of Filters to call.
+     * @param adaptive
+     *            Whether to reorder the filters by their cost and decision rate.
+     * @param configuration
+     *            The configuration exporting an adaptive composite through JMX and scheduling its reordering, may be
+     *            null, in which case the filters are measured but keep their order.
+     * @return The CompositeFilter.
+     * @since 3.0
+     */
+    @PluginFactory
+    public static CompositeFilter createFilters(@PluginElement("Filters") final Filter[] filters,
+            @PluginAttribute("adaptive") final boolean adaptive,
+            @PluginConfiguration final Configuration configuration) {
+        if (!adaptive) {
+            return new CompositeFilter(filters);
+        }
+        final CompositeFilter composite = new CompositeFilter(filters, true, configuration);
+        composite.register(null);
+        return composite;
+    }
+
 }
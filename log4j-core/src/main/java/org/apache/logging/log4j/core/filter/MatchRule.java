@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.filter;
+
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.Filter.Result;
+import org.apache.logging.log4j.plugins.Node;
+import org.apache.logging.log4j.plugins.Plugin;
+import org.apache.logging.log4j.plugins.PluginBuilderAttribute;
+import org.apache.logging.log4j.plugins.PluginFactory;
+import org.apache.logging.log4j.status.StatusLogger;
+
+/**
+ * A rule of a {@link MultiMatchFilter}: a literal text the message must contain or a regular expression the whole
+ * message must match, and the result of the filter if the rule is the first matching rule.
+ *
+ * @since 3.0
+ */
+@Plugin(name = "MatchRule", category = Node.CATEGORY, printObject = true)
+public final class MatchRule {
+
+    private static final Logger LOGGER = StatusLogger.getLogger();
+
+    private final String text;
+    private final String regex;
+    private final boolean useRawMessage;
+    private final Result onMatch;
+
+    private MatchRule(final String text, final String regex, final boolean useRawMessage, final Result onMatch) {
+        this.text = text;
+        this.regex = regex;
+        this.useRawMessage = useRawMessage;
+        this.onMatch = onMatch;
+    }
+
+    /**
+     * Returns the text the message must contain, like the match of a {@link StringMatchFilter}.
+     *
+     * @return the text or null if the rule is a regular expression.
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Returns the regular expression the whole message must match, like the regex of a {@link RegexFilter}.
+     *
+     * @return the regular expression or null if the rule is a literal text.
+     */
+    public String getRegex() {
+        return regex;
+    }
+
+    /**
+     * Returns whether the rule applies to the message format instead of the formatted message.
+     *
+     * @return whether the rule applies to the message format.
+     */
+    public boolean isUseRawMessage() {
+        return useRawMessage;
+    }
+
+    /**
+     * Returns the result of the filter if this rule is the first matching rule.
+     *
+     * @return the result or null to use the onMatch result of the filter.
+     */
+    public Result getOnMatch() {
+        return onMatch;
+    }
+
+    @Override
+    public String toString() {
+        return (text != null ? "match=" + text : "regex=" + regex) + ", useRaw=" + useRawMessage
+                + (onMatch == null ? "" : ", onMatch=" + onMatch);
+    }
+
+    @PluginFactory
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    public static class Builder implements org.apache.logging.log4j.plugins.util.Builder<MatchRule> {
+
+        @PluginBuilderAttribute(StringMatchFilter.ATTR_MATCH)
+        private String text;
+
+        @PluginBuilderAttribute
+        private String regex;
+
+        @PluginBuilderAttribute("useRawMsg")
+        private boolean useRawMessage;
+
+        @PluginBuilderAttribute
+        private Result onMatch;
+
+        /**
+         * Sets the text the message must contain.
+         * @param text the text.
+         * @return this
+         */
+        public Builder setText(final String text) {
+            this.text = text;
+            return this;
+        }
+
+        /**
+         * Sets the regular expression the whole message must match.
+         * @param regex the regular expression.
+         * @return this
+         */
+        public Builder setRegex(final String regex) {
+            this.regex = regex;
+            return this;
+        }
+
+        /**
+         * Sets whether the rule applies to the message format instead of the formatted message.
+         * @param useRawMessage whether the rule applies to the message format.
+         * @return this
+         */
+        public Builder setUseRawMessage(final boolean useRawMessage) {
+            this.useRawMessage = useRawMessage;
+            return this;
+        }
+
+        /**
+         * Sets the result of the filter if the rule is the first matching rule.
+         * @param onMatch the result, null to use the onMatch result of the filter.
+         * @return this
+         */
+        public Builder setOnMatch(final Result onMatch) {
+            this.onMatch = onMatch;
+            return this;
+        }
+
+        @Override
+        public MatchRule build() {
+            if ((text == null) == (regex == null)) {
+                LOGGER.error("A MatchRule requires either a match or a regex attribute");
+                return null;
+            }
+            return new MatchRule(text, regex, useRawMessage, onMatch);
+        }
+    }
+}
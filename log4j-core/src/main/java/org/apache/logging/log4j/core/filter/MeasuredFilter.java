@@ -0,0 +1,284 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.filter;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.Marker;
+import org.apache.logging.log4j.core.Filter;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.Logger;
+import org.apache.logging.log4j.message.Message;
+import org.apache.logging.log4j.util.PerformanceSensitive;
+
+/**
+ * Measures the cost and the decision rate of a filter in an adaptive {@link CompositeFilter}.
+ * <p>
+ * Each thread picks one in {@value #SAMPLE_INTERVAL} calls at random to be timed, so the other calls only cost a
+ * {@link LongAdder} increment and threads calling the filter concurrently do not contend on a shared counter. The
+ * composite reorders its filters from the configuration scheduler, never from the thread calling the filter.
+ * </p>
+ */
+@PerformanceSensitive("allocation")
+final class MeasuredFilter extends AbstractFilter {
+
+    static final int SAMPLE_INTERVAL = 64;
+
+    private static final int SAMPLE_MASK = SAMPLE_INTERVAL - 1;
+
+    private final Filter filter;
+    private final LongAdder samples = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+    private final LongAdder decisions = new LongAdder();
+    private final LongAdder calls = new LongAdder();
+
+    /**
+     * The cost of the filter per decision, only used by the composite while it holds its lock.
+     */
+    double rank;
+
+    MeasuredFilter(final Filter filter) {
+        super(filter.getOnMatch(), filter.getOnMismatch());
+        this.filter = filter;
+    }
+
+    Filter getFilter() {
+        return filter;
+    }
+
+    long getCallCount() {
+        return calls.sum();
+    }
+
+    long getSampleCount() {
+        return samples.sum();
+    }
+
+    /**
+     * Returns the average number of nanoseconds the sampled calls took, or zero if no call was sampled.
+     */
+    double getAverageNanos() {
+        final long count = samples.sum();
+        return count == 0 ? 0 : (double) nanos.sum() / count;
+    }
+
+    /**
+     * Returns the ratio of the sampled calls returning ACCEPT or DENY, or zero if no call was sampled.
+     */
+    double getDecisionRate() {
+        final long count = samples.sum();
+        return count == 0 ? 0 : (double) decisions.sum() / count;
+    }
+
+    /**
+     * Computes the expected cost of evaluating the filter until it decides. Filters that were never sampled are
+     * ranked last, the decision rate is smoothed so a filter that never decided still has a finite rank.
+     */
+    void updateRank() {
+        final long count = samples.sum();
+        if (count == 0) {
+            rank = Double.MAX_VALUE;
+            return;
+        }
+        final double averageNanos = (double) nanos.sum() / count;
+        final double decisionRate = (decisions.sum() + 1.0) / (count + 2.0);
+        rank = averageNanos / decisionRate;
+    }
+
+    void reset() {
+        samples.reset();
+        nanos.reset();
+        decisions.reset();
+        calls.reset();
+    }
+
+    private static boolean isSampled() {
+        return (ThreadLocalRandom.current().nextInt() & SAMPLE_MASK) == 0;
+    }
+
+    private Result record(final long start, final Result result) {
+        nanos.add(System.nanoTime() - start);
+        samples.increment();
+        if (result == Result.ACCEPT || result == Result.DENY) {
+            decisions.increment();
+        }
+        return result;
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final String msg,
+            final Object... params) {
+        calls.increment();
+        if (!isSampled()) {
+            return filter.filter(logger, level, marker, msg, params);
+        }
+        final long start = System.nanoTime();
+        return record(start, filter.filter(logger, level, marker, msg, params));
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final String msg,
+            final Object p0) {
+        calls.increment();
+        if (!isSampled()) {
+            return filter.filter(logger, level, marker, msg, p0);
+        }
+        final long start = System.nanoTime();
+        return record(start, filter.filter(logger, level, marker, msg, p0));
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final String msg, final Object p0,
+            final Object p1) {
+        calls.increment();
+        if (!isSampled()) {
+            return filter.filter(logger, level, marker, msg, p0, p1);
+        }
+        final long start = System.nanoTime();
+        return record(start, filter.filter(logger, level, marker, msg, p0, p1));
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final String msg, final Object p0,
+            final Object p1, final Object p2) {
+        calls.increment();
+        if (!isSampled()) {
+            return filter.filter(logger, level, marker, msg, p0, p1, p2);
+        }
+        final long start = System.nanoTime();
+        return record(start, filter.filter(logger, level, marker, msg, p0, p1, p2));
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final String msg, final Object p0,
+            final Object p1, final Object p2, final Object p3) {
+        calls.increment();
+        if (!isSampled()) {
+            return filter.filter(logger, level, marker, msg, p0, p1, p2, p3);
+        }
+        final long start = System.nanoTime();
+        return record(start, filter.filter(logger, level, marker, msg, p0, p1, p2, p3));
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final String msg, final Object p0,
+            final Object p1, final Object p2, final Object p3, final Object p4) {
+        calls.increment();
+        if (!isSampled()) {
+            return filter.filter(logger, level, marker, msg, p0, p1, p2, p3, p4);
+        }
+        final long start = System.nanoTime();
+        return record(start, filter.filter(logger, level, marker, msg, p0, p1, p2, p3, p4));
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final String msg, final Object p0,
+            final Object p1, final Object p2, final Object p3, final Object p4, final Object p5) {
+        calls.increment();
+        if (!isSampled()) {
+            return filter.filter(logger, level, marker, msg, p0, p1, p2, p3, p4, p5);
+        }
+        final long start = System.nanoTime();
+        return record(start, filter.filter(logger, level, marker, msg, p0, p1, p2, p3, p4, p5));
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final String msg, final Object p0,
+            final Object p1, final Object p2, final Object p3, final Object p4, final Object p5, final Object p6) {
+        calls.increment();
+        if (!isSampled()) {
+            return filter.filter(logger, level, marker, msg, p0, p1, p2, p3, p4, p5, p6);
+        }
+        final long start = System.nanoTime();
+        return record(start, filter.filter(logger, level, marker, msg, p0, p1, p2, p3, p4, p5, p6));
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final String msg, final Object p0,
+            final Object p1, final Object p2, final Object p3, final Object p4, final Object p5, final Object p6,
+            final Object p7) {
+        calls.increment();
+        if (!isSampled()) {
+            return filter.filter(logger, level, marker, msg, p0, p1, p2, p3, p4, p5, p6, p7);
+        }
+        final long start = System.nanoTime();
+        return record(start, filter.filter(logger, level, marker, msg, p0, p1, p2, p3, p4, p5, p6, p7));
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final String msg, final Object p0,
+            final Object p1, final Object p2, final Object p3, final Object p4, final Object p5, final Object p6,
+            final Object p7, final Object p8) {
+        calls.increment();
+        if (!isSampled()) {
+            return filter.filter(logger, level, marker, msg, p0, p1, p2, p3, p4, p5, p6, p7, p8);
+        }
+        final long start = System.nanoTime();
+        return record(start, filter.filter(logger, level, marker, msg, p0, p1, p2, p3, p4, p5, p6, p7, p8));
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final String msg, final Object p0,
+            final Object p1, final Object p2, final Object p3, final Object p4, final Object p5, final Object p6,
+            final Object p7, final Object p8, final Object p9) {
+        calls.increment();
+        if (!isSampled()) {
+            return filter.filter(logger, level, marker, msg, p0, p1, p2, p3, p4, p5, p6, p7, p8, p9);
+        }
+        final long start = System.nanoTime();
+        return record(start, filter.filter(logger, level, marker, msg, p0, p1, p2, p3, p4, p5, p6, p7, p8, p9));
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final Object msg,
+            final Throwable t) {
+        calls.increment();
+        if (!isSampled()) {
+            return filter.filter(logger, level, marker, msg, t);
+        }
+        final long start = System.nanoTime();
+        return record(start, filter.filter(logger, level, marker, msg, t));
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final Message msg,
+            final Throwable t) {
+        calls.increment();
+        if (!isSampled()) {
+            return filter.filter(logger, level, marker, msg, t);
+        }
+        final long start = System.nanoTime();
+        return record(start, filter.filter(logger, level, marker, msg, t));
+    }
+
+    @Override
+    public Result filter(final LogEvent event) {
+        calls.increment();
+        if (!isSampled()) {
+            return filter.filter(event);
+        }
+        final long start = System.nanoTime();
+        return record(start, filter.filter(event));
+    }
+
+    @Override
+    public String toString() {
+        return filter.toString();
+    }
+}
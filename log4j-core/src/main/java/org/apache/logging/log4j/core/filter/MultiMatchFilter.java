@@ -0,0 +1,675 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.filter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.Marker;
+import org.apache.logging.log4j.core.Filter;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.Logger;
+import org.apache.logging.log4j.message.Message;
+import org.apache.logging.log4j.message.MessageFactory;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.apache.logging.log4j.message.ParameterizedMessageFactory;
+import org.apache.logging.log4j.message.ParameterizedNoReferenceMessageFactory;
+import org.apache.logging.log4j.message.ReusableMessageFactory;
+import org.apache.logging.log4j.message.ReusableParameterizedMessage;
+import org.apache.logging.log4j.message.ReusableSimpleMessage;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.apache.logging.log4j.plugins.Node;
+import org.apache.logging.log4j.plugins.Plugin;
+import org.apache.logging.log4j.plugins.PluginAttribute;
+import org.apache.logging.log4j.plugins.PluginElement;
+import org.apache.logging.log4j.plugins.PluginFactory;
+
+/**
+ * This filter returns the result of the first of its {@link MatchRule}s that matches the message, or the onMismatch
+ * result if no rule matches. It replaces a {@link CompositeFilter} of {@link StringMatchFilter}s and
+ * {@link RegexFilter}s that each format and scan the message.
+ *
+ * <p>
+ * The literal texts of the rules are compiled into a single Aho-Corasick automaton, which finds the first matching
+ * text in one pass over the message. The regular expressions of the rules are combined into a single alternation, so
+ * the message is matched once, not once per rule.
+ * </p>
+ * <p>
+ * The message is only formatted when its format does not decide the result. Texts found in the constant parts of a
+ * parameterized format are also part of the formatted message, so if one of them is found and all rules before it
+ * have the same result, the filter returns that result without formatting the message. A format without placeholders
+ * is the formatted message.
+ * </p>
+ * <code>
+ * &lt;MultiMatchFilter onMatch="DENY" onMismatch="NEUTRAL"&gt;<br>
+ * &nbsp;&lt;MatchRule match="Connection reset"/&gt;<br>
+ * &nbsp;&lt;MatchRule regex="Retrying request \d+ of \d+"/&gt;<br>
+ * &nbsp;&lt;MatchRule match="Heartbeat" useRawMsg="true"/&gt;<br>
+ * &lt;/MultiMatchFilter&gt;<br>
+ * </code><br>
+ *
+ * @since 3.0
+ */
+@Plugin(name = "MultiMatchFilter", category = Node.CATEGORY, elementType = Filter.ELEMENT_TYPE, printObject = true)
+public final class MultiMatchFilter extends AbstractFilter {
+
+    private static final int NO_MATCH = Integer.MAX_VALUE;
+
+    private static final int FORMAT_IS_TEXT = -1;
+
+    private static final int MAX_CACHED_FORMATS = 1024;
+
+    private final MatchRule[] rules;
+
+    /**
+     * The result of each rule.
+     */
+    private final Result[] results;
+
+    /**
+     * Whether all rules up to each rule have the same result.
+     */
+    private final boolean[] sameResultUpTo;
+
+    /**
+     * The rules applying to the message format.
+     */
+    private final RuleSet rawRules;
+
+    /**
+     * The rules applying to the formatted message.
+     */
+    private final RuleSet formattedRules;
+
+    private final ConcurrentMap<String, Integer> constantTextMatches = new ConcurrentHashMap<>();
+
+    private MultiMatchFilter(final MatchRule[] rules, final Result onMatch, final Result onMismatch) {
+        super(onMatch, onMismatch);
+        this.rules = rules;
+        this.results = new Result[rules.length];
+        this.sameResultUpTo = new boolean[rules.length];
+        for (int i = 0; i < rules.length; i++) {
+            results[i] = rules[i].getOnMatch() != null ? rules[i].getOnMatch() : this.onMatch;
+            sameResultUpTo[i] = i == 0 || (sameResultUpTo[i - 1] && results[i] == results[i - 1]);
+        }
+        this.rawRules = RuleSet.create(rules, true);
+        this.formattedRules = RuleSet.create(rules, false);
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final String msg,
+            final Object... params) {
+        final Result result = filterTemplate(logger, msg);
+        return result != null ? result : filter(logger.getMessageFactory().newMessage(msg, params));
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final Object msg,
+            final Throwable t) {
+        if (msg == null) {
+            return onMismatch;
+        }
+        final String text = msg.toString();
+        return result(Math.min(rawRules.firstMatch(text), formattedRules.firstMatch(text)));
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final Message msg,
+            final Throwable t) {
+        return filter(msg);
+    }
+
+    @Override
+    public Result filter(final LogEvent event) {
+        return filter(event.getMessage());
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final String msg,
+            final Object p0) {
+        final Result result = filterTemplate(logger, msg);
+        return result != null ? result : filter(logger.getMessageFactory().newMessage(msg, p0));
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final String msg,
+            final Object p0, final Object p1) {
+        final Result result = filterTemplate(logger, msg);
+        return result != null ? result : filter(logger.getMessageFactory().newMessage(msg, p0, p1));
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final String msg,
+            final Object p0, final Object p1, final Object p2) {
+        final Result result = filterTemplate(logger, msg);
+        return result != null ? result : filter(logger.getMessageFactory().newMessage(msg, p0, p1, p2));
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final String msg,
+            final Object p0, final Object p1, final Object p2, final Object p3) {
+        final Result result = filterTemplate(logger, msg);
+        return result != null ? result : filter(logger.getMessageFactory().newMessage(msg, p0, p1, p2, p3));
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final String msg,
+            final Object p0, final Object p1, final Object p2, final Object p3,
+            final Object p4) {
+        final Result result = filterTemplate(logger, msg);
+        return result != null ? result : filter(logger.getMessageFactory().newMessage(msg, p0, p1, p2, p3, p4));
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final String msg,
+            final Object p0, final Object p1, final Object p2, final Object p3,
+            final Object p4, final Object p5) {
+        final Result result = filterTemplate(logger, msg);
+        return result != null ? result : filter(logger.getMessageFactory().newMessage(msg, p0, p1, p2, p3, p4, p5));
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final String msg,
+            final Object p0, final Object p1, final Object p2, final Object p3,
+            final Object p4, final Object p5, final Object p6) {
+        final Result result = filterTemplate(logger, msg);
+        return result != null ? result : filter(logger.getMessageFactory().newMessage(msg, p0, p1, p2, p3, p4, p5, p6));
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final String msg,
+            final Object p0, final Object p1, final Object p2, final Object p3,
+            final Object p4, final Object p5, final Object p6,
+            final Object p7) {
+        final Result result = filterTemplate(logger, msg);
+        return result != null ? result : filter(logger.getMessageFactory().newMessage(msg, p0, p1, p2, p3, p4, p5, p6, p7));
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final String msg,
+            final Object p0, final Object p1, final Object p2, final Object p3,
+            final Object p4, final Object p5, final Object p6,
+            final Object p7, final Object p8) {
+        final Result result = filterTemplate(logger, msg);
+        return result != null ? result : filter(logger.getMessageFactory().newMessage(msg, p0, p1, p2, p3, p4, p5, p6, p7, p8));
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final String msg,
+            final Object p0, final Object p1, final Object p2, final Object p3,
+            final Object p4, final Object p5, final Object p6,
+            final Object p7, final Object p8, final Object p9) {
+        final Result result = filterTemplate(logger, msg);
+        return result != null ? result : filter(logger.getMessageFactory().newMessage(msg, p0, p1, p2, p3, p4, p5, p6, p7, p8, p9));
+    }
+
+    /**
+     * Decides the result from the format of the message the logger would create, if the logger creates
+     * parameterized messages.
+     *
+     * @return the result or null if the message must be created.
+     */
+    private Result filterTemplate(final Logger logger, final String format) {
+        if (format == null) {
+            return onMismatch;
+        }
+        final MessageFactory factory = logger.getMessageFactory();
+        if (factory instanceof ReusableMessageFactory || factory instanceof ParameterizedMessageFactory
+                || factory instanceof ParameterizedNoReferenceMessageFactory) {
+            return filterTemplate(format, null);
+        }
+        return null;
+    }
+
+    private Result filter(final Message msg) {
+        if (msg == null) {
+            return onMismatch;
+        }
+        if (msg instanceof SimpleMessage || msg instanceof ReusableSimpleMessage) {
+            final String text = msg.getFormat();
+            return result(Math.min(rawRules.firstMatch(text), formattedRules.firstMatch(text)));
+        }
+        if (msg instanceof ParameterizedMessage || msg instanceof ReusableParameterizedMessage) {
+            final Result result = filterTemplate(msg.getFormat(), msg);
+            if (result != null) {
+                return result;
+            }
+        }
+        final int raw = rawRules.firstMatch(msg.getFormat());
+        if (formattedRules.isEmpty() || raw <= formattedRules.getFirstRule()) {
+            return result(raw);
+        }
+        return result(Math.min(raw, formattedRules.firstMatch(msg.getFormattedMessage())));
+    }
+
+    /**
+     * Decides the result from a parameterized message format.
+     *
+     * @param format the message format.
+     * @param msg the message to format if the format does not decide the result, or null to return null instead.
+     * @return the result or null if the message must be formatted.
+     */
+    private Result filterTemplate(final String format, final Message msg) {
+        if (format == null) {
+            return onMismatch;
+        }
+        final int raw = rawRules.firstMatch(format);
+        if (formattedRules.isEmpty() || raw <= formattedRules.getFirstRule()) {
+            return result(raw);
+        }
+        final int constant = getConstantTextMatch(format);
+        if (constant == FORMAT_IS_TEXT) {
+            // a format without placeholders and escapes is formatted as is
+            return result(Math.min(raw, formattedRules.firstMatch(format)));
+        }
+        final int match = Math.min(raw, constant);
+        if (match != NO_MATCH && sameResultUpTo[match]) {
+            return results[match];
+        }
+        return msg == null ? null : result(Math.min(raw, formattedRules.firstMatch(msg.getFormattedMessage())));
+    }
+
+    /**
+     * Returns the first literal rule applying to the formatted message whose text is found in the constant text of a
+     * parameterized format. The results of the first {@value #MAX_CACHED_FORMATS} formats are cached, as most formats
+     * are constants of the code and each scan of the format costs as much as a scan of the formatted message.
+     *
+     * @return the index of the rule, {@link #NO_MATCH}, or {@link #FORMAT_IS_TEXT} if the format has no placeholders.
+     */
+    private int getConstantTextMatch(final String format) {
+        final Integer cached = constantTextMatches.get(format);
+        if (cached != null) {
+            return cached;
+        }
+        final int placeholders = countPlaceholders(format);
+        final int match = placeholders == 0 ? FORMAT_IS_TEXT
+                : placeholders < 0 ? NO_MATCH : formattedRules.firstLiteralInConstantText(format);
+        if (constantTextMatches.size() < MAX_CACHED_FORMATS) {
+            constantTextMatches.put(format, match);
+        }
+        return match;
+    }
+
+    /**
+     * Returns the number of placeholders of a format, or -1 if the format contains escape characters.
+     */
+    private static int countPlaceholders(final String format) {
+        int count = 0;
+        for (int i = 0; i < format.length(); i++) {
+            final char c = format.charAt(i);
+            if (c == '\\') {
+                return -1;
+            }
+            if (c == '{' && i + 1 < format.length() && format.charAt(i + 1) == '}') {
+                count++;
+                i++;
+            }
+        }
+        return count;
+    }
+
+    private Result result(final int rule) {
+        return rule == NO_MATCH ? onMismatch : results[rule];
+    }
+
+    /**
+     * Returns the rules of the filter.
+     *
+     * @return the rules.
+     */
+    public MatchRule[] getRules() {
+        return rules.clone();
+    }
+
+    @Override
+    public String toString() {
+        return "rules=" + Arrays.toString(rules);
+    }
+
+    /**
+     * The rules applying either to the message format or to the formatted message.
+     */
+    private static final class RuleSet {
+
+        private final int firstRule;
+        private final LiteralMatcher literals;
+        private final RegexMatcher regexes;
+
+        private RuleSet(final int firstRule, final LiteralMatcher literals, final RegexMatcher regexes) {
+            this.firstRule = firstRule;
+            this.literals = literals;
+            this.regexes = regexes;
+        }
+
+        static RuleSet create(final MatchRule[] rules, final boolean raw) {
+            final List<String> texts = new ArrayList<>();
+            final List<Integer> textRules = new ArrayList<>();
+            final List<String> regexes = new ArrayList<>();
+            final List<Integer> regexRules = new ArrayList<>();
+            int firstRule = NO_MATCH;
+            for (int i = 0; i < rules.length; i++) {
+                if (rules[i].isUseRawMessage() != raw) {
+                    continue;
+                }
+                firstRule = Math.min(firstRule, i);
+                if (rules[i].getText() != null) {
+                    texts.add(rules[i].getText());
+                    textRules.add(i);
+                } else {
+                    regexes.add(rules[i].getRegex());
+                    regexRules.add(i);
+                }
+            }
+            return new RuleSet(firstRule, texts.isEmpty() ? null : new LiteralMatcher(texts, textRules),
+                    regexes.isEmpty() ? null : new RegexMatcher(regexes, regexRules));
+        }
+
+        boolean isEmpty() {
+            return firstRule == NO_MATCH;
+        }
+
+        int getFirstRule() {
+            return firstRule;
+        }
+
+        /**
+         * Returns the index of the first rule matching the text.
+         */
+        int firstMatch(final String text) {
+            if (isEmpty()) {
+                return NO_MATCH;
+            }
+            if (text == null) {
+                return NO_MATCH;
+            }
+            int match = literals == null ? NO_MATCH : literals.firstMatch(text, 0, text.length(), firstRule);
+            if (regexes != null && match > regexes.getFirstRule()) {
+                match = Math.min(match, regexes.firstMatch(text));
+            }
+            return match;
+        }
+
+        /**
+         * Returns the index of the first literal rule whose text is found in the parts of a parameterized format
+         * between the placeholders.
+         */
+        int firstLiteralInConstantText(final String format) {
+            if (literals == null) {
+                return NO_MATCH;
+            }
+            int match = NO_MATCH;
+            int start = 0;
+            int end = format.indexOf("{}");
+            while (end >= 0) {
+                match = Math.min(match, literals.firstMatch(format, start, end, firstRule));
+                start = end + 2;
+                end = format.indexOf("{}", start);
+            }
+            return Math.min(match, literals.firstMatch(format, start, format.length(), firstRule));
+        }
+    }
+
+    /**
+     * An Aho-Corasick automaton finding the first rule whose text is contained in a text. The failure transitions are
+     * resolved in advance, so the automaton is a DFA taking a single table lookup per character. Its alphabet is the
+     * characters of the texts, all other characters share one class.
+     */
+    private static final class LiteralMatcher {
+
+        private static final int ASCII = 128;
+
+        /**
+         * The class of each ASCII character.
+         */
+        private final int[] asciiClasses = new int[ASCII];
+
+        /**
+         * The sorted non-ASCII characters of the texts, their classes follow the ASCII classes.
+         */
+        private final char[] nonAsciiChars;
+
+        private final int nonAsciiClassOffset;
+
+        private final int classCount;
+
+        /**
+         * The next state for each state and character class, at index {@code state * classCount + class}.
+         */
+        private final int[] transitions;
+
+        /**
+         * The first rule whose text ends in each state, including the texts that are suffixes of the state.
+         */
+        private final int[] outputs;
+
+        LiteralMatcher(final List<String> texts, final List<Integer> rules) {
+            final TreeSet<Character> alphabet = new TreeSet<>();
+            for (final String text : texts) {
+                for (int i = 0; i < text.length(); i++) {
+                    alphabet.add(text.charAt(i));
+                }
+            }
+            int classes = 1;
+            final StringBuilder nonAscii = new StringBuilder();
+            for (final char c : alphabet) {
+                if (c < ASCII) {
+                    asciiClasses[c] = classes++;
+                } else {
+                    nonAscii.append(c);
+                }
+            }
+            nonAsciiChars = nonAscii.toString().toCharArray();
+            nonAsciiClassOffset = classes;
+            classCount = classes + nonAsciiChars.length;
+
+            // the trie, -1 marks a missing transition
+            final List<int[]> trie = new ArrayList<>();
+            final List<Integer> outputList = new ArrayList<>();
+            trie.add(newState());
+            outputList.add(NO_MATCH);
+            for (int i = 0; i < texts.size(); i++) {
+                final String text = texts.get(i);
+                int state = 0;
+                for (int j = 0; j < text.length(); j++) {
+                    final int charClass = classOf(text.charAt(j));
+                    if (trie.get(state)[charClass] < 0) {
+                        trie.get(state)[charClass] = trie.size();
+                        trie.add(newState());
+                        outputList.add(NO_MATCH);
+                    }
+                    state = trie.get(state)[charClass];
+                }
+                outputList.set(state, Math.min(outputList.get(state), rules.get(i)));
+            }
+            final int size = trie.size();
+            transitions = new int[size * classCount];
+            outputs = new int[size];
+            final int[] failures = new int[size];
+            for (int state = 0; state < size; state++) {
+                outputs[state] = outputList.get(state);
+            }
+            // breadth-first, so the transitions of the failure state of each state are complete before it is visited
+            final int[] queue = new int[size];
+            int head = 0;
+            int tail = 0;
+            for (int charClass = 0; charClass < classCount; charClass++) {
+                final int child = trie.get(0)[charClass];
+                if (child < 0) {
+                    transitions[charClass] = 0;
+                } else {
+                    transitions[charClass] = child;
+                    failures[child] = 0;
+                    queue[tail++] = child;
+                }
+            }
+            while (head < tail) {
+                final int state = queue[head++];
+                outputs[state] = Math.min(outputs[state], outputs[failures[state]]);
+                for (int charClass = 0; charClass < classCount; charClass++) {
+                    final int child = trie.get(state)[charClass];
+                    final int failureNext = transitions[failures[state] * classCount + charClass];
+                    if (child < 0) {
+                        transitions[state * classCount + charClass] = failureNext;
+                    } else {
+                        transitions[state * classCount + charClass] = child;
+                        failures[child] = failureNext;
+                        queue[tail++] = child;
+                    }
+                }
+            }
+        }
+
+        private int[] newState() {
+            final int[] state = new int[classCount];
+            Arrays.fill(state, -1);
+            return state;
+        }
+
+        private int classOf(final char c) {
+            if (c < ASCII) {
+                return asciiClasses[c];
+            }
+            final int index = Arrays.binarySearch(nonAsciiChars, c);
+            return index < 0 ? 0 : nonAsciiClassOffset + index;
+        }
+
+        /**
+         * Returns the first rule whose text is contained in a region of a text.
+         *
+         * @param text the text.
+         * @param start the start of the region.
+         * @param end the end of the region.
+         * @param stop a rule index no match can be lower than, to stop scanning early.
+         * @return the index of the first matching rule.
+         */
+        int firstMatch(final CharSequence text, final int start, final int end, final int stop) {
+            int match = outputs[0];
+            int state = 0;
+            for (int i = start; i < end && match > stop; i++) {
+                final char c = text.charAt(i);
+                state = transitions[state * classCount + (c < ASCII ? asciiClasses[c] : classOf(c))];
+                if (outputs[state] < match) {
+                    match = outputs[state];
+                }
+            }
+            return match;
+        }
+    }
+
+    /**
+     * Matches the regular expressions of the rules as a single alternation.
+     */
+    private static final class RegexMatcher {
+
+        private final int[] rules;
+
+        /**
+         * The combined pattern, or null if the expressions cannot be combined.
+         */
+        private final Pattern combined;
+
+        /**
+         * The group of each rule in the combined pattern.
+         */
+        private final int[] groups;
+
+        /**
+         * The patterns of the rules if the expressions cannot be combined.
+         */
+        private final Pattern[] patterns;
+
+        RegexMatcher(final List<String> regexes, final List<Integer> rules) {
+            this.rules = new int[rules.size()];
+            this.groups = new int[rules.size()];
+            this.patterns = new Pattern[rules.size()];
+            final StringBuilder alternation = new StringBuilder();
+            boolean combinable = true;
+            int group = 1;
+            for (int i = 0; i < regexes.size(); i++) {
+                final String regex = regexes.get(i);
+                this.rules[i] = rules.get(i);
+                this.patterns[i] = Pattern.compile(regex);
+                // numbered back references refer to other groups once the expressions are combined
+                combinable &= !regex.matches("(?s).*\\\\[1-9k].*");
+                groups[i] = group;
+                group += 1 + patterns[i].matcher("").groupCount();
+                alternation.append(i == 0 ? "" : "|").append('(').append(regex).append(')');
+            }
+            Pattern pattern = null;
+            if (combinable && regexes.size() > 1) {
+                try {
+                    pattern = Pattern.compile(alternation.toString());
+                } catch (final PatternSyntaxException ex) {
+                    LOGGER.debug("Unable to combine the regular expressions of MultiMatchFilter: {}", ex.getMessage());
+                }
+            }
+            this.combined = pattern;
+        }
+
+        int getFirstRule() {
+            return rules[0];
+        }
+
+        int firstMatch(final String text) {
+            if (combined != null) {
+                final Matcher matcher = combined.matcher(text);
+                if (matcher.matches()) {
+                    for (int i = 0; i < groups.length; i++) {
+                        if (matcher.start(groups[i]) >= 0) {
+                            return rules[i];
+                        }
+                    }
+                }
+                return NO_MATCH;
+            }
+            for (int i = 0; i < patterns.length; i++) {
+                if (patterns[i].matcher(text).matches()) {
+                    return rules[i];
+                }
+            }
+            return NO_MATCH;
+        }
+    }
+
+    /**
+     * Creates a MultiMatchFilter.
+     *
+     * @param rules the rules, in the order they are applied.
+     * @param onMatch the result of the rules without their own result.
+     * @param onMismatch the result if no rule matches.
+     * @return the MultiMatchFilter.
+     */
+    @PluginFactory
+    public static MultiMatchFilter createFilter(
+            @PluginElement final MatchRule[] rules,
+            @PluginAttribute final Result onMatch,
+            @PluginAttribute final Result onMismatch) {
+        if (rules == null || rules.length == 0) {
+            LOGGER.error("MultiMatchFilter requires at least one MatchRule");
+            return null;
+        }
+        return new MultiMatchFilter(rules.clone(), onMatch, onMismatch);
+    }
+}
@@ -0,0 +1,617 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.filter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.Marker;
+import org.apache.logging.log4j.MarkerManager;
+import org.apache.logging.log4j.core.Filter;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.Logger;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.config.Configuration;
+import org.apache.logging.log4j.core.config.ConfigurationScheduler;
+import org.apache.logging.log4j.core.config.plugins.PluginConfiguration;
+import org.apache.logging.log4j.message.Message;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.apache.logging.log4j.plugins.Node;
+import org.apache.logging.log4j.plugins.Plugin;
+import org.apache.logging.log4j.plugins.PluginBuilderAttribute;
+import org.apache.logging.log4j.plugins.PluginFactory;
+import org.apache.logging.log4j.util.PerformanceSensitive;
+import org.apache.logging.log4j.util.Strings;
+
+/**
+ * The <code>RateLimitFilter</code> limits the rate of log events like the {@link BurstFilter}, without allocating
+ * objects or taking locks for each event.
+ *
+ * <p>
+ * Each bucket of the filter is a token bucket implemented as the generic cell rate algorithm: a single timestamp, the
+ * theoretical arrival time of the next event, is advanced by one emission interval with a compare-and-set for each
+ * accepted event. Events arriving while the bucket would hold more than <code>maxBurst</code> events are dropped
+ * without modifying the bucket.
+ * </p>
+ * <p>
+ * By default all events share a single bucket. With <code>perLevel="true"</code> each level has its own bucket, and
+ * <code>loggerPrefixes</code> gives the loggers below each of the comma-separated logger names their own buckets. The
+ * filter counts the dropped events and, every <code>summaryInterval</code> seconds, logs how many events were
+ * suppressed. The summary events have the marker {@value #SUMMARY_MARKER_NAME} and are never dropped by the filter.
+ * </p>
+ * <code>
+ * &lt;Console name="console"&gt;<br>
+ * &nbsp;&lt;PatternLayout pattern="%-5p %d{dd-MMM-yyyy HH:mm:ss} %x %t %m%n"/&gt;<br>
+ * &nbsp;&lt;filters&gt;<br>
+ * &nbsp;&nbsp;&lt;RateLimitFilter level="INFO" rate="16" maxBurst="100" perLevel="true"
+ * loggerPrefixes="com.example.noisy"/&gt;<br>
+ * &nbsp;&lt;/filters&gt;<br>
+ * &lt;/Console&gt;<br>
+ * </code><br>
+ *
+ * @since 3.0
+ */
+@Plugin(name = "RateLimitFilter", category = Node.CATEGORY, elementType = Filter.ELEMENT_TYPE, printObject = true)
+@PerformanceSensitive("allocation")
+public final class RateLimitFilter extends AbstractFilter {
+
+    /**
+     * Name of the marker of the summary events.
+     */
+    public static final String SUMMARY_MARKER_NAME = "RATE_LIMIT_SUMMARY";
+
+    /**
+     * Marker of the summary events.
+     */
+    public static final Marker SUMMARY_MARKER = MarkerManager.getMarker(SUMMARY_MARKER_NAME);
+
+    private static final long NANOS_IN_SECONDS = 1000000000;
+
+    private static final int DEFAULT_RATE = 10;
+
+    private static final int DEFAULT_RATE_MULTIPLE = 100;
+
+    private static final int DEFAULT_SUMMARY_INTERVAL_SECONDS = 60;
+
+    private static final String FQCN = RateLimitFilter.class.getName();
+
+    private static final String DEFAULT_BUCKET_NAME = "*";
+
+    /**
+     * Level of messages to be filtered. Anything at or below this level will be filtered out if the bucket of the
+     * event is exhausted.
+     */
+    private final Level level;
+
+    private final long emissionIntervalNanos;
+
+    private final long toleranceNanos;
+
+    private final boolean perLevel;
+
+    /**
+     * The logger prefixes, longest first so the first match is the most specific one.
+     */
+    private final String[] loggerPrefixes;
+
+    /**
+     * The bucket groups of the logger prefixes followed by the default group.
+     */
+    private final BucketGroup[] groups;
+
+    private final List<Bucket> buckets = new CopyOnWriteArrayList<>();
+
+    private final Configuration configuration;
+
+    private final ConfigurationScheduler scheduler;
+
+    private final long summaryIntervalSeconds;
+
+    private final Level summaryLevel;
+
+    private final String summaryLogger;
+
+    private volatile ScheduledFuture<?> future;
+
+    private RateLimitFilter(final Level level, final float rate, final long maxBurst, final boolean perLevel,
+            final String[] loggerPrefixes, final Configuration configuration, final long summaryIntervalSeconds,
+            final Level summaryLevel, final String summaryLogger, final Result onMatch, final Result onMismatch) {
+        super(onMatch, onMismatch);
+        this.level = level;
+        this.emissionIntervalNanos = Math.max(1, (long) (NANOS_IN_SECONDS / rate));
+        this.toleranceNanos = (maxBurst - 1) * emissionIntervalNanos;
+        this.perLevel = perLevel;
+        this.loggerPrefixes = loggerPrefixes;
+        this.groups = new BucketGroup[loggerPrefixes.length + 1];
+        for (int i = 0; i < loggerPrefixes.length; i++) {
+            groups[i] = new BucketGroup(loggerPrefixes[i]);
+        }
+        groups[loggerPrefixes.length] = new BucketGroup(DEFAULT_BUCKET_NAME);
+        this.configuration = configuration;
+        this.scheduler = configuration == null || summaryIntervalSeconds <= 0 ? null : configuration.getScheduler();
+        this.summaryIntervalSeconds = summaryIntervalSeconds;
+        this.summaryLevel = summaryLevel;
+        this.summaryLogger = summaryLogger;
+        if (scheduler != null && !scheduler.isExecutorServiceSet()) {
+            scheduler.incrementScheduledItems();
+        }
+    }
+
+    @Override
+    public void start() {
+        if (scheduler != null) {
+            if (!scheduler.isStarted()) {
+                scheduler.start();
+            }
+            future = scheduler.scheduleWithFixedDelay(this::logSummary, summaryIntervalSeconds,
+                    summaryIntervalSeconds, TimeUnit.SECONDS);
+        }
+        super.start();
+    }
+
+    @Override
+    public boolean stop(final long timeout, final TimeUnit timeUnit) {
+        setStopping();
+        final boolean stopped = stop(future);
+        future = null;
+        setStopped();
+        return stopped;
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final String msg,
+                         final Object... params) {
+        return filter(logger, level, marker);
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final Object msg,
+                         final Throwable t) {
+        return filter(logger, level, marker);
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final Message msg,
+                         final Throwable t) {
+        return filter(logger, level, marker);
+    }
+
+    @Override
+    public Result filter(final LogEvent event) {
+        return filter(event.getLoggerName(), event.getLevel(), event.getMarker());
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final String msg,
+            final Object p0) {
+        return filter(logger, level, marker);
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final String msg,
+            final Object p0, final Object p1) {
+        return filter(logger, level, marker);
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final String msg,
+            final Object p0, final Object p1, final Object p2) {
+        return filter(logger, level, marker);
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final String msg,
+            final Object p0, final Object p1, final Object p2, final Object p3) {
+        return filter(logger, level, marker);
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final String msg,
+            final Object p0, final Object p1, final Object p2, final Object p3,
+            final Object p4) {
+        return filter(logger, level, marker);
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final String msg,
+            final Object p0, final Object p1, final Object p2, final Object p3,
+            final Object p4, final Object p5) {
+        return filter(logger, level, marker);
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final String msg,
+            final Object p0, final Object p1, final Object p2, final Object p3,
+            final Object p4, final Object p5, final Object p6) {
+        return filter(logger, level, marker);
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final String msg,
+            final Object p0, final Object p1, final Object p2, final Object p3,
+            final Object p4, final Object p5, final Object p6,
+            final Object p7) {
+        return filter(logger, level, marker);
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final String msg,
+            final Object p0, final Object p1, final Object p2, final Object p3,
+            final Object p4, final Object p5, final Object p6,
+            final Object p7, final Object p8) {
+        return filter(logger, level, marker);
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final String msg,
+            final Object p0, final Object p1, final Object p2, final Object p3,
+            final Object p4, final Object p5, final Object p6,
+            final Object p7, final Object p8, final Object p9) {
+        return filter(logger, level, marker);
+    }
+
+    private Result filter(final Logger logger, final Level level, final Marker marker) {
+        return filter(logger == null ? null : logger.getName(), level, marker);
+    }
+
+    /**
+     * Decides if we're going to log the event based on whether the bucket of the event has a token left.
+     *
+     * @param loggerName The name of the logger.
+     * @param level The log level.
+     * @param marker The marker of the event.
+     * @return The onMatch value if the filter passes, onMismatch otherwise.
+     */
+    private Result filter(final String loggerName, final Level level, final Marker marker) {
+        if (!this.level.isMoreSpecificThan(level) || marker == SUMMARY_MARKER) {
+            return onMatch;
+        }
+        final Bucket bucket = getBucket(loggerName, level);
+        if (bucket.tryAcquire(System.nanoTime())) {
+            return onMatch;
+        }
+        bucket.dropped.increment();
+        return onMismatch;
+    }
+
+    private Bucket getBucket(final String loggerName, final Level level) {
+        final BucketGroup group = groups[indexOfPrefix(loggerName)];
+        if (!perLevel) {
+            return group.getShared();
+        }
+        final Bucket bucket = group.byLevel.get(level);
+        return bucket != null ? bucket : group.createBucket(level);
+    }
+
+    private int indexOfPrefix(final String loggerName) {
+        if (loggerName != null) {
+            for (int i = 0; i < loggerPrefixes.length; i++) {
+                final String prefix = loggerPrefixes[i];
+                if (loggerName.startsWith(prefix)
+                        && (loggerName.length() == prefix.length() || loggerName.charAt(prefix.length()) == '.')) {
+                    return i;
+                }
+            }
+        }
+        return loggerPrefixes.length;
+    }
+
+    /**
+     * Logs how many events each bucket dropped since the last summary. Called periodically on the thread of the
+     * configuration scheduler, so the summary does not compete with the events of the application. The summary is
+     * logged through the summary logger, so its level and the context-wide filters apply.
+     */
+    void logSummary() {
+        final LoggerContext context = configuration == null ? null : configuration.getLoggerContext();
+        if (context == null) {
+            return;
+        }
+        final Logger logger = context.getLogger(summaryLogger);
+        for (final Bucket bucket : buckets) {
+            final long dropped = bucket.dropped.sum();
+            final long suppressed = dropped - bucket.reported;
+            if (suppressed > 0) {
+                bucket.reported = dropped;
+                try {
+                    logger.logIfEnabled(FQCN, summaryLevel, SUMMARY_MARKER,
+                            new ParameterizedMessage("{} events suppressed by rate limit for {}", suppressed,
+                                    bucket.name), null);
+                } catch (final RuntimeException ex) {
+                    LOGGER.error("Unable to log summary of RateLimitFilter: {}", ex.getMessage(), ex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of events dropped since the filter was created.
+     *
+     * @return the number of dropped events.
+     */
+    public long getDroppedCount() {
+        long dropped = 0;
+        for (final Bucket bucket : buckets) {
+            dropped += bucket.dropped.sum();
+        }
+        return dropped;
+    }
+
+    /**
+     * Returns the number of events dropped by each bucket since the filter was created. Buckets are named after their
+     * logger prefix, or {@value #DEFAULT_BUCKET_NAME} for the loggers without a prefix, followed by the level if the
+     * filter has a bucket per level, like <code>com.example.noisy/INFO</code>.
+     *
+     * @return the bucket names and their number of dropped events.
+     */
+    public List<String> getDroppedCounts() {
+        final List<String> result = new ArrayList<>(buckets.size());
+        for (final Bucket bucket : buckets) {
+            result.add(bucket.name + "=" + bucket.dropped.sum());
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Fills all buckets. Used for unit testing.
+     */
+    public void clear() {
+        final long now = System.nanoTime();
+        for (final Bucket bucket : buckets) {
+            bucket.theoreticalArrivalTime.set(now);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "level=" + level.toString() + ", interval=" + emissionIntervalNanos + ", max="
+                + (toleranceNanos / emissionIntervalNanos + 1) + ", perLevel=" + perLevel + ", loggerPrefixes="
+                + Arrays.toString(loggerPrefixes);
+    }
+
+    /**
+     * The buckets of the loggers with the same prefix.
+     */
+    private final class BucketGroup {
+
+        private final String prefix;
+        private final ConcurrentMap<Level, Bucket> byLevel = new ConcurrentHashMap<>();
+        private volatile Bucket shared;
+
+        BucketGroup(final String prefix) {
+            this.prefix = prefix;
+        }
+
+        Bucket getShared() {
+            final Bucket bucket = shared;
+            return bucket != null ? bucket : createShared();
+        }
+
+        private synchronized Bucket createShared() {
+            if (shared == null) {
+                shared = newBucket(prefix);
+            }
+            return shared;
+        }
+
+        Bucket createBucket(final Level level) {
+            final Bucket created = new Bucket(prefix + "/" + level, System.nanoTime());
+            final Bucket bucket = byLevel.putIfAbsent(level, created);
+            if (bucket != null) {
+                return bucket;
+            }
+            buckets.add(created);
+            return created;
+        }
+
+        private Bucket newBucket(final String name) {
+            final Bucket bucket = new Bucket(name, System.nanoTime());
+            buckets.add(bucket);
+            return bucket;
+        }
+    }
+
+    /**
+     * A token bucket holding the theoretical arrival time of the next event.
+     */
+    private final class Bucket {
+
+        private final String name;
+        private final AtomicLong theoreticalArrivalTime;
+        private final LongAdder dropped = new LongAdder();
+
+        /**
+         * The number of dropped events already reported in a summary, only accessed by the summary task.
+         */
+        private long reported;
+
+        Bucket(final String name, final long nanos) {
+            this.name = name;
+            this.theoreticalArrivalTime = new AtomicLong(nanos);
+        }
+
+        /**
+         * Takes a token from the bucket if it has one left.
+         *
+         * @param now the current value of {@link System#nanoTime()}.
+         * @return whether a token was taken.
+         */
+        boolean tryAcquire(final long now) {
+            for (;;) {
+                final long tat = theoreticalArrivalTime.get();
+                final long start = tat - now > 0 ? tat : now;
+                if (start - now > toleranceNanos) {
+                    return false;
+                }
+                if (theoreticalArrivalTime.compareAndSet(tat, start + emissionIntervalNanos)) {
+                    return true;
+                }
+            }
+        }
+    }
+
+    @PluginFactory
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    public static class Builder extends AbstractFilterBuilder<Builder> implements org.apache.logging.log4j.plugins.util.Builder<RateLimitFilter> {
+
+        @PluginBuilderAttribute
+        private Level level = Level.WARN;
+
+        @PluginBuilderAttribute
+        private float rate = DEFAULT_RATE;
+
+        @PluginBuilderAttribute
+        private long maxBurst;
+
+        @PluginBuilderAttribute
+        private boolean perLevel;
+
+        @PluginBuilderAttribute
+        private String loggerPrefixes;
+
+        @PluginBuilderAttribute
+        private long summaryInterval = DEFAULT_SUMMARY_INTERVAL_SECONDS;
+
+        @PluginBuilderAttribute
+        private Level summaryLevel = Level.WARN;
+
+        @PluginBuilderAttribute
+        private String summaryLogger = FQCN;
+
+        @PluginConfiguration
+        private Configuration configuration;
+
+        /**
+         * Sets the logging level to use.
+         * @param level the logging level to use.
+         * @return this
+         */
+        public Builder setLevel(final Level level) {
+            this.level = level;
+            return this;
+        }
+
+        /**
+         * Sets the average number of events per second to allow.
+         * @param rate the average number of events per second to allow. This must be a positive number.
+         * @return this
+         */
+        public Builder setRate(final float rate) {
+            this.rate = rate;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of events that can occur before events are filtered for exceeding the average rate.
+         * @param maxBurst the maximum number of events of a bucket. The default is 100 times the rate.
+         * @return this
+         */
+        public Builder setMaxBurst(final long maxBurst) {
+            this.maxBurst = maxBurst;
+            return this;
+        }
+
+        /**
+         * Sets whether each level has its own bucket.
+         * @param perLevel whether each level has its own bucket.
+         * @return this
+         */
+        public Builder setPerLevel(final boolean perLevel) {
+            this.perLevel = perLevel;
+            return this;
+        }
+
+        /**
+         * Sets the logger names whose loggers and their descendants have their own buckets.
+         * @param loggerPrefixes comma-separated logger names.
+         * @return this
+         */
+        public Builder setLoggerPrefixes(final String loggerPrefixes) {
+            this.loggerPrefixes = loggerPrefixes;
+            return this;
+        }
+
+        /**
+         * Sets the number of seconds between summaries of the suppressed events.
+         * @param summaryInterval the number of seconds between summaries, or zero to disable them.
+         * @return this
+         */
+        public Builder setSummaryInterval(final long summaryInterval) {
+            this.summaryInterval = summaryInterval;
+            return this;
+        }
+
+        /**
+         * Sets the level of the summary events.
+         * @param summaryLevel the level of the summary events.
+         * @return this
+         */
+        public Builder setSummaryLevel(final Level summaryLevel) {
+            this.summaryLevel = summaryLevel;
+            return this;
+        }
+
+        /**
+         * Sets the name of the logger of the summary events.
+         * @param summaryLogger the name of the logger of the summary events.
+         * @return this
+         */
+        public Builder setSummaryLogger(final String summaryLogger) {
+            this.summaryLogger = summaryLogger;
+            return this;
+        }
+
+        /**
+         * Sets the configuration used to log the summary events.
+         * @param configuration the configuration.
+         * @return this
+         */
+        public Builder setConfiguration(final Configuration configuration) {
+            this.configuration = configuration;
+            return this;
+        }
+
+        @Override
+        public RateLimitFilter build() {
+            if (this.rate <= 0) {
+                this.rate = DEFAULT_RATE;
+            }
+            if (this.maxBurst <= 0) {
+                // at least one event must pass, also for rates of less than one event in a hundred seconds
+                this.maxBurst = Math.max(1, (long) (this.rate * DEFAULT_RATE_MULTIPLE));
+            }
+            final String[] prefixes = Strings.isBlank(loggerPrefixes) ? new String[0]
+                    : Arrays.stream(loggerPrefixes.split(",")).map(String::trim).filter(Strings::isNotEmpty)
+                    .distinct().sorted((a, b) -> b.length() - a.length()).toArray(String[]::new);
+            return new RateLimitFilter(this.level, this.rate, this.maxBurst, this.perLevel, prefixes,
+                    this.configuration, this.summaryInterval, this.summaryLevel == null ? Level.WARN : summaryLevel,
+                    Strings.isEmpty(summaryLogger) ? FQCN : summaryLogger, this.getOnMatch(), this.getOnMismatch());
+        }
+    }
+}
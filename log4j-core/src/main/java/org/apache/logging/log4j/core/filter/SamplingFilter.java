@@ -0,0 +1,410 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.filter;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.Marker;
+import org.apache.logging.log4j.core.ContextDataInjector;
+import org.apache.logging.log4j.core.Filter;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.Logger;
+import org.apache.logging.log4j.core.impl.ContextDataInjectorFactory;
+import org.apache.logging.log4j.message.MapMessage;
+import org.apache.logging.log4j.message.Message;
+import org.apache.logging.log4j.plugins.Node;
+import org.apache.logging.log4j.plugins.Plugin;
+import org.apache.logging.log4j.plugins.PluginBuilderAttribute;
+import org.apache.logging.log4j.plugins.PluginFactory;
+import org.apache.logging.log4j.util.PerformanceSensitive;
+import org.apache.logging.log4j.util.ReadOnlyStringMap;
+
+/**
+ * The <code>SamplingFilter</code> keeps a fixed fraction of the values of a key, like a trace id, and drops the events
+ * of all other values.
+ *
+ * <p>
+ * The filter hashes the value of the key of each event, which is a context data value, a {@link MapMessage} value,
+ * the marker name or the logger name, and keeps the event if the hash is below the threshold of the configured ratio.
+ * The decision only depends on the value and the seed, so all events of a trace are either kept or dropped, by all
+ * filters and applications using the same seed. The filter keeps no state per value, so its memory does not grow with
+ * the number of distinct values.
+ * </p>
+ * <p>
+ * Events more specific than <code>level</code> and events without a value for the key are not sampled and get the
+ * onMatch result.
+ * </p>
+ * <code>
+ * &lt;Console name="console"&gt;<br>
+ * &nbsp;&lt;PatternLayout pattern="%-5p %d{dd-MMM-yyyy HH:mm:ss} %X{traceId} %t %m%n"/&gt;<br>
+ * &nbsp;&lt;filters&gt;<br>
+ * &nbsp;&nbsp;&lt;SamplingFilter level="DEBUG" keyType="CONTEXT" key="traceId" ratio="0.001"/&gt;<br>
+ * &nbsp;&lt;/filters&gt;<br>
+ * &lt;/Console&gt;<br>
+ * </code><br>
+ *
+ * @since 3.0
+ */
+@Plugin(name = "SamplingFilter", category = Node.CATEGORY, elementType = Filter.ELEMENT_TYPE, printObject = true)
+@PerformanceSensitive("allocation")
+public final class SamplingFilter extends AbstractFilter {
+
+    /**
+     * Where the sampled value of an event comes from.
+     */
+    public enum KeyType {
+        /** The context data value of the key, for example a trace id in the ThreadContext. */
+        CONTEXT,
+        /** The value of the key in a {@link MapMessage}. */
+        MAP,
+        /** The name of the marker. */
+        MARKER,
+        /** The name of the logger. */
+        LOGGER
+    }
+
+    private static final long FNV_OFFSET_BASIS = 0xCBF29CE484222325L;
+
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    private final ContextDataInjector injector = ContextDataInjectorFactory.createInjector();
+
+    /**
+     * Level of messages to be sampled. Anything more specific than this level is always kept.
+     */
+    private final Level level;
+
+    private final KeyType keyType;
+
+    private final String key;
+
+    private final double ratio;
+
+    private final long seed;
+
+    /**
+     * Events whose hash shifted right by one bit is below this threshold are kept, unless the ratio keeps all events.
+     */
+    private final long threshold;
+
+    private final LongAdder keptCount = new LongAdder();
+
+    private final LongAdder droppedCount = new LongAdder();
+
+    private SamplingFilter(final Level level, final KeyType keyType, final String key, final double ratio,
+            final long seed, final Result onMatch, final Result onMismatch) {
+        super(onMatch, onMismatch);
+        this.level = level;
+        this.keyType = keyType;
+        this.key = key;
+        this.ratio = ratio;
+        this.seed = seed;
+        this.threshold = (long) (Math.min(ratio, 1) * Long.MAX_VALUE);
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final String msg,
+                         final Object... params) {
+        return sample(logger, level, marker, null);
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final Object msg,
+                         final Throwable t) {
+        return sample(logger, level, marker, msg instanceof Message ? (Message) msg : null);
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final Message msg,
+                         final Throwable t) {
+        return sample(logger, level, marker, msg);
+    }
+
+    @Override
+    public Result filter(final LogEvent event) {
+        return filter(event.getLevel(), getKeyValue(event));
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final String msg,
+            final Object p0) {
+        return sample(logger, level, marker, null);
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final String msg,
+            final Object p0, final Object p1) {
+        return sample(logger, level, marker, null);
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final String msg,
+            final Object p0, final Object p1, final Object p2) {
+        return sample(logger, level, marker, null);
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final String msg,
+            final Object p0, final Object p1, final Object p2, final Object p3) {
+        return sample(logger, level, marker, null);
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final String msg,
+            final Object p0, final Object p1, final Object p2, final Object p3,
+            final Object p4) {
+        return sample(logger, level, marker, null);
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final String msg,
+            final Object p0, final Object p1, final Object p2, final Object p3,
+            final Object p4, final Object p5) {
+        return sample(logger, level, marker, null);
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final String msg,
+            final Object p0, final Object p1, final Object p2, final Object p3,
+            final Object p4, final Object p5, final Object p6) {
+        return sample(logger, level, marker, null);
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final String msg,
+            final Object p0, final Object p1, final Object p2, final Object p3,
+            final Object p4, final Object p5, final Object p6,
+            final Object p7) {
+        return sample(logger, level, marker, null);
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final String msg,
+            final Object p0, final Object p1, final Object p2, final Object p3,
+            final Object p4, final Object p5, final Object p6,
+            final Object p7, final Object p8) {
+        return sample(logger, level, marker, null);
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final String msg,
+            final Object p0, final Object p1, final Object p2, final Object p3,
+            final Object p4, final Object p5, final Object p6,
+            final Object p7, final Object p8, final Object p9) {
+        return sample(logger, level, marker, null);
+    }
+
+    private Result sample(final Logger logger, final Level level, final Marker marker, final Message msg) {
+        if (!this.level.isMoreSpecificThan(level)) {
+            return onMatch;
+        }
+        final Object value;
+        switch (keyType) {
+            case CONTEXT:
+                value = injector.rawContextData().getValue(key);
+                break;
+            case MAP:
+                value = getMapValue(msg);
+                break;
+            case MARKER:
+                value = marker == null ? null : marker.getName();
+                break;
+            default:
+                value = logger == null ? null : logger.getName();
+                break;
+        }
+        return filter(level, value);
+    }
+
+    private Object getKeyValue(final LogEvent event) {
+        switch (keyType) {
+            case CONTEXT:
+                final ReadOnlyStringMap contextData = event.getContextData();
+                return contextData == null ? null : contextData.getValue(key);
+            case MAP:
+                return getMapValue(event.getMessage());
+            case MARKER:
+                return event.getMarker() == null ? null : event.getMarker().getName();
+            default:
+                return event.getLoggerName();
+        }
+    }
+
+    private Object getMapValue(final Message msg) {
+        return msg instanceof MapMessage ? ((MapMessage<?, ?>) msg).getIndexedReadOnlyStringMap().getValue(key) : null;
+    }
+
+    /**
+     * Decides if we're going to log the event based on the hash of the value of its key.
+     *
+     * @param level The log level.
+     * @param value The value of the key of the event, may be null.
+     * @return The onMatch value if the event is kept, onMismatch otherwise.
+     */
+    private Result filter(final Level level, final Object value) {
+        if (value == null || !this.level.isMoreSpecificThan(level)) {
+            return onMatch;
+        }
+        if (isSampled(value)) {
+            keptCount.increment();
+            return onMatch;
+        }
+        droppedCount.increment();
+        return onMismatch;
+    }
+
+    /**
+     * Returns whether events with the specified value are kept.
+     *
+     * @param value the value of the key, like a trace id.
+     * @return whether the events are kept.
+     */
+    public boolean isSampled(final Object value) {
+        // no threshold keeps the hashes equal to Long.MAX_VALUE
+        return ratio >= 1 || (hash(value) >>> 1) < threshold;
+    }
+
+    private long hash(final Object value) {
+        final CharSequence chars = value instanceof CharSequence ? (CharSequence) value : String.valueOf(value);
+        long hash = FNV_OFFSET_BASIS ^ seed;
+        for (int i = 0; i < chars.length(); i++) {
+            hash = (hash ^ chars.charAt(i)) * FNV_PRIME;
+        }
+        // FNV-1a alone leaves the high bits of short values with a common prefix poorly mixed
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * Returns the number of sampled events that were kept.
+     *
+     * @return the number of kept events.
+     */
+    public long getKeptCount() {
+        return keptCount.sum();
+    }
+
+    /**
+     * Returns the number of sampled events that were dropped.
+     *
+     * @return the number of dropped events.
+     */
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "level=" + level + ", keyType=" + keyType + (key == null ? "" : ", key=" + key) + ", ratio=" + ratio
+                + ", seed=" + seed;
+    }
+
+    @PluginFactory
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    public static class Builder extends AbstractFilterBuilder<Builder> implements org.apache.logging.log4j.plugins.util.Builder<SamplingFilter> {
+
+        @PluginBuilderAttribute
+        private Level level = Level.DEBUG;
+
+        @PluginBuilderAttribute
+        private KeyType keyType = KeyType.CONTEXT;
+
+        @PluginBuilderAttribute
+        private String key;
+
+        @PluginBuilderAttribute
+        private double ratio = 1;
+
+        @PluginBuilderAttribute
+        private long seed;
+
+        /**
+         * Sets the level of the events to sample, more specific events are always kept.
+         * @param level the logging level to use.
+         * @return this
+         */
+        public Builder setLevel(final Level level) {
+            this.level = level;
+            return this;
+        }
+
+        /**
+         * Sets where the sampled value of an event comes from.
+         * @param keyType the type of the key.
+         * @return this
+         */
+        public Builder setKeyType(final KeyType keyType) {
+            this.keyType = keyType;
+            return this;
+        }
+
+        /**
+         * Sets the name of the context data or MapMessage key.
+         * @param key the name of the key.
+         * @return this
+         */
+        public Builder setKey(final String key) {
+            this.key = key;
+            return this;
+        }
+
+        /**
+         * Sets the fraction of the values to keep.
+         * @param ratio the fraction of the values to keep, between 0 and 1.
+         * @return this
+         */
+        public Builder setRatio(final double ratio) {
+            this.ratio = ratio;
+            return this;
+        }
+
+        /**
+         * Sets the seed of the hash function. Filters with different seeds keep different values.
+         * @param seed the seed.
+         * @return this
+         */
+        public Builder setSeed(final long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        @Override
+        public SamplingFilter build() {
+            if (this.keyType == null) {
+                this.keyType = KeyType.CONTEXT;
+            }
+            if (this.key == null && (this.keyType == KeyType.CONTEXT || this.keyType == KeyType.MAP)) {
+                LOGGER.error("A key is required for SamplingFilter with keyType {}", keyType);
+                return null;
+            }
+            if (!(this.ratio >= 0 && this.ratio <= 1)) {
+                LOGGER.error("SamplingFilter ratio must be between 0 and 1, not {}", ratio);
+                return null;
+            }
+            return new SamplingFilter(this.level == null ? Level.DEBUG : level, this.keyType, this.key, this.ratio,
+                    this.seed, this.getOnMatch(), this.getOnMismatch());
+        }
+    }
+}
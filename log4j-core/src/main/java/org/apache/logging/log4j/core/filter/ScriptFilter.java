@@ -16,7 +16,10 @@
  */
 package org.apache.logging.log4j.core.filter;
 
-import javax.script.SimpleBindings;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.script.Bindings;
 
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.Marker;
@@ -31,6 +34,8 @@ import org.apache.logging.log4j.core.config.plugins.PluginConfiguration;
 import org.apache.logging.log4j.plugins.PluginElement;
 import org.apache.logging.log4j.plugins.PluginFactory;
 import org.apache.logging.log4j.core.script.AbstractScript;
+import org.apache.logging.log4j.core.script.PreparedScript;
+import org.apache.logging.log4j.core.script.ScriptResultCache;
 import org.apache.logging.log4j.core.script.ScriptRef;
 import org.apache.logging.log4j.message.Message;
 import org.apache.logging.log4j.message.ObjectMessage;
@@ -39,83 +44,146 @@ import org.apache.logging.log4j.status.StatusLogger;
 
 /**
  * Returns the onMatch result if the script returns True and returns the onMismatch value otherwise.
+ * <p>
+ * If reuseBindings is set, the bindings passed to the script are created once per thread, see
+ * {@link PreparedScript}. If the script is declared deterministic, its result is cached for each logger name, level
+ * and marker.
+ * </p>
  */
 @Plugin(name = "ScriptFilter", category = Node.CATEGORY, elementType = Filter.ELEMENT_TYPE, printObject = true)
 public final class ScriptFilter extends AbstractFilter {
 
     private static final org.apache.logging.log4j.Logger logger = StatusLogger.getLogger();
 
+    private static final String[] LOGGER_VARIABLES = {
+            "logger", "level", "marker", "message", "parameters", "throwable"
+    };
+    private static final String[] EVENT_VARIABLES = {"logEvent"};
+
     private final AbstractScript script;
-    private final Configuration configuration;
+    private final PreparedScript loggerScript;
+    private final PreparedScript eventScript;
+    private final ScriptResultCache<Result> cache;
 
     private ScriptFilter(final AbstractScript script, final Configuration configuration, final Result onMatch,
-                         final Result onMismatch) {
+                         final Result onMismatch, final boolean deterministic, final boolean reuseBindings) {
         super(onMatch, onMismatch);
         this.script = script;
-        this.configuration = configuration;
         if (!(script instanceof ScriptRef)) {
             configuration.getScriptManager().addScript(script);
         }
+        final Map<String, Object> constants = new HashMap<>(configuration.getProperties());
+        constants.put("substitutor", configuration.getStrSubstitutor());
+        this.loggerScript = new PreparedScript(configuration.getScriptManager(), script, reuseBindings, constants,
+                LOGGER_VARIABLES);
+        this.eventScript = new PreparedScript(configuration.getScriptManager(), script, reuseBindings, constants,
+                EVENT_VARIABLES);
+        this.cache = deterministic ? new ScriptResultCache<>() : null;
     }
 
     @Override
     public Result filter(final Logger logger, final Level level, final Marker marker, final String msg,
                          final Object... params) {
-        final SimpleBindings bindings = new SimpleBindings();
+        final Result cached = getCachedResult(logger, level, marker);
+        if (cached != null) {
+            return cached;
+        }
+        final Bindings bindings = loggerScript.getBindings();
         bindings.put("logger", logger);
         bindings.put("level", level);
         bindings.put("marker", marker);
         bindings.put("message", new SimpleMessage(msg));
         bindings.put("parameters", params);
-        bindings.put("throwable", null);
-        bindings.putAll(configuration.getProperties());
-        bindings.put("substitutor", configuration.getStrSubstitutor());
-        final Object object = configuration.getScriptManager().execute(script.getName(), bindings);
-        return object == null || !Boolean.TRUE.equals(object) ? onMismatch : onMatch;
+        return execute(loggerScript, bindings, logger, level, marker);
     }
 
     @Override
     public Result filter(final Logger logger, final Level level, final Marker marker, final Object msg,
                          final Throwable t) {
-        final SimpleBindings bindings = new SimpleBindings();
+        final Result cached = getCachedResult(logger, level, marker);
+        if (cached != null) {
+            return cached;
+        }
+        final Bindings bindings = loggerScript.getBindings();
         bindings.put("logger", logger);
         bindings.put("level", level);
         bindings.put("marker", marker);
         bindings.put("message", msg instanceof String ? new SimpleMessage((String)msg) : new ObjectMessage(msg));
-        bindings.put("parameters", null);
         bindings.put("throwable", t);
-        bindings.putAll(configuration.getProperties());
-        bindings.put("substitutor", configuration.getStrSubstitutor());
-        final Object object = configuration.getScriptManager().execute(script.getName(), bindings);
-        return object == null || !Boolean.TRUE.equals(object) ? onMismatch : onMatch;
+        return execute(loggerScript, bindings, logger, level, marker);
     }
 
     @Override
     public Result filter(final Logger logger, final Level level, final Marker marker, final Message msg,
                          final Throwable t) {
-        final SimpleBindings bindings = new SimpleBindings();
+        final Result cached = getCachedResult(logger, level, marker);
+        if (cached != null) {
+            return cached;
+        }
+        final Bindings bindings = loggerScript.getBindings();
         bindings.put("logger", logger);
         bindings.put("level", level);
         bindings.put("marker", marker);
         bindings.put("message", msg);
-        bindings.put("parameters", null);
         bindings.put("throwable", t);
-        bindings.putAll(configuration.getProperties());
-        bindings.put("substitutor", configuration.getStrSubstitutor());
-        final Object object = configuration.getScriptManager().execute(script.getName(), bindings);
-        return object == null || !Boolean.TRUE.equals(object) ? onMismatch : onMatch;
+        return execute(loggerScript, bindings, logger, level, marker);
     }
 
     @Override
     public Result filter(final LogEvent event) {
-        final SimpleBindings bindings = new SimpleBindings();
+        if (cache != null) {
+            final Result cached = cache.get(event.getLoggerName(), event.getLevel(), event.getMarker());
+            if (cached != null) {
+                return cached;
+            }
+        }
+        final Bindings bindings = eventScript.getBindings();
         bindings.put("logEvent", event);
-        bindings.putAll(configuration.getProperties());
-        bindings.put("substitutor", configuration.getStrSubstitutor());
-        final Object object = configuration.getScriptManager().execute(script.getName(), bindings);
+        final Object object = eventScript.execute(bindings);
+        final Result result = toResult(object);
+        if (cache != null && object != null) {
+            cache.put(event.getLoggerName(), event.getLevel(), event.getMarker(), result);
+        }
+        return result;
+    }
+
+    private Result getCachedResult(final Logger logger, final Level level, final Marker marker) {
+        return cache == null ? null : cache.get(logger == null ? null : logger.getName(), level, marker);
+    }
+
+    private Result execute(final PreparedScript preparedScript, final Bindings bindings, final Logger logger,
+            final Level level, final Marker marker) {
+        final Object object = preparedScript.execute(bindings);
+        final Result result = toResult(object);
+        // a failed script returns null, which must not stick for all the following events
+        if (cache != null && object != null) {
+            cache.put(logger == null ? null : logger.getName(), level, marker, result);
+        }
+        return result;
+    }
+
+    private Result toResult(final Object object) {
         return object == null || !Boolean.TRUE.equals(object) ? onMismatch : onMatch;
     }
 
+    /**
+     * Returns whether the results of the script are cached for each logger name, level and marker.
+     *
+     * @return whether the script is deterministic.
+     */
+    public boolean isDeterministic() {
+        return cache != null;
+    }
+
+    /**
+     * Returns whether the bindings passed to the script are reused for the next event on the same thread.
+     *
+     * @return whether the bindings are reused.
+     */
+    public boolean isReuseBindings() {
+        return loggerScript.isReuseBindings();
+    }
+
     @Override
     public String toString() {
         return script.getName();
@@ -130,12 +198,33 @@ public final class ScriptFilter extends AbstractFilter {
      * @param configuration the configuration 
      * @return A ScriptFilter.
      */
+    public static ScriptFilter createFilter(final AbstractScript script, final Result onMatch,
+            final Result onMismatch, final Configuration configuration) {
+        return createFilter(script, onMatch, onMismatch, false, false, configuration);
+    }
+
+    /**
+     * Creates the ScriptFilter.
+     * @param script The script to run. The script must return a boolean value. Either script or scriptFile must be 
+     *      provided.
+     * @param onMatch The action to take if a match occurs.
+     * @param onMismatch The action to take if no match occurs.
+     * @param deterministic Whether the script only depends on the logger name, level and marker, so its results can
+     *      be cached.
+     * @param reuseBindings Whether the bindings passed to the script are reused for the next event on the same
+     *      thread, so variables the script defines are kept between events.
+     * @param configuration the configuration 
+     * @return A ScriptFilter.
+     * @since 3.0
+     */
     // TODO Consider refactoring to use AbstractFilter.AbstractFilterBuilder
     @PluginFactory
     public static ScriptFilter createFilter(
             @PluginElement final AbstractScript script,
             @PluginAttribute final Result onMatch,
             @PluginAttribute final Result onMismatch,
+            @PluginAttribute final boolean deterministic,
+            @PluginAttribute final boolean reuseBindings,
             @PluginConfiguration final Configuration configuration) {
 
         if (script == null) {
@@ -149,7 +238,7 @@ public final class ScriptFilter extends AbstractFilter {
             }
         }
 
-        return new ScriptFilter(script, configuration, onMatch, onMismatch);
+        return new ScriptFilter(script, configuration, onMatch, onMismatch, deterministic, reuseBindings);
     }
 
 }
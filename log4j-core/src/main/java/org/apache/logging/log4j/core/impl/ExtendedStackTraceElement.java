@@ -151,7 +151,7 @@ public final class ExtendedStackTraceElement implements Serializable {
             textRenderer.render("(", output, "StackTraceElement.Container");
             textRenderer.render(fileName, output, "StackTraceElement.FileName");
             textRenderer.render(":", output, "StackTraceElement.ContainerSeparator");
-            textRenderer.render(Integer.toString(lineNumber), output, "StackTraceElement.LineNumber");
+            textRenderer.render(lineNumber, output, "StackTraceElement.LineNumber");
             textRenderer.render(")", output, "StackTraceElement.Container");
         } else if (fileName != null) {
             textRenderer.render("(", output, "StackTraceElement.Container");
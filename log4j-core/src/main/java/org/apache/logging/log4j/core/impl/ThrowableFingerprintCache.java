@@ -0,0 +1,380 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.impl;
+
+import java.io.PrintWriter;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.logging.log4j.core.config.Configuration;
+
+/**
+ * Remembers the fingerprints of the stack traces that were logged, so a stack trace that was logged before can be
+ * replaced by a short reference like {@code [trace #0123456789abcdef seen 42 times]}. A stack trace logged in full is
+ * followed by its fingerprint, like {@code [trace #0123456789abcdef]}, so references can be matched with it.
+ * <p>
+ * A fingerprint is a 64-bit hash of the class names and stack frames of a Throwable, its causes and its suppressed
+ * Throwables. Messages are not part of the fingerprint, so the same exception thrown at the same place with different
+ * messages has the same fingerprint.
+ * </p>
+ * <p>
+ * The cache holds at most a fixed number of fingerprints. When it is full it is cleared, so each stack trace is logged
+ * in full once more. The caches of a {@link Configuration} are exported through JMX.
+ * </p>
+ *
+ * @since 3.0
+ */
+public final class ThrowableFingerprintCache {
+
+    /**
+     * Name of the {@link Configuration} component holding the list of caches created for the configuration.
+     */
+    public static final String COMPONENT_NAME = "ThrowableFingerprintCaches";
+
+    /**
+     * The default maximum number of fingerprints in a cache.
+     */
+    public static final int DEFAULT_MAX_SIZE = 1024;
+
+    /**
+     * The length of a fingerprint appended by {@link #formatFingerprint(long, StringBuilder)}.
+     */
+    public static final int FINGERPRINT_LENGTH = 25;
+
+    /**
+     * Causes and suppressed Throwables nested deeper than this are not part of the fingerprint.
+     */
+    private static final int MAX_DEPTH = 16;
+
+    private static final int CAUSE = 0x43415553;
+    private static final int SUPPRESSED = 0x53555050;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final String name;
+    private final int maxSize;
+    private final long intervalNanos;
+    private final ConcurrentMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder fullTraceCount = new LongAdder();
+    private final LongAdder referenceCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * Creates a cache that is not registered with a configuration.
+     *
+     * @param name the name of the cache, used as the name of its MBean.
+     * @param maxSize the maximum number of fingerprints to remember.
+     * @param intervalMillis the minimum number of milliseconds before a stack trace is logged in full again, or zero to
+     * only log each stack trace in full once.
+     */
+    public ThrowableFingerprintCache(final String name, final int maxSize, final long intervalMillis) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+        }
+        if (intervalMillis < 0) {
+            throw new IllegalArgumentException("intervalMillis must not be negative: " + intervalMillis);
+        }
+        this.name = name;
+        this.maxSize = maxSize;
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+    }
+
+    /**
+     * Creates a cache and registers it with the specified configuration, so it is exported through JMX.
+     *
+     * @param config the configuration of the layout using the cache, may be null.
+     * @param name the prefix of the name of the cache, a sequence number is added to make the name unique.
+     * @param maxSize the maximum number of fingerprints to remember.
+     * @param intervalMillis the minimum number of milliseconds before a stack trace is logged in full again, or zero to
+     * only log each stack trace in full once.
+     * @return the new cache.
+     */
+    public static ThrowableFingerprintCache create(final Configuration config, final String name, final int maxSize,
+            final long intervalMillis) {
+        if (config == null) {
+            return new ThrowableFingerprintCache(name + "-1", maxSize, intervalMillis);
+        }
+        config.addComponent(COMPONENT_NAME, new CopyOnWriteArrayList<ThrowableFingerprintCache>());
+        final List<ThrowableFingerprintCache> caches = config.getComponent(COMPONENT_NAME);
+        synchronized (caches) {
+            final ThrowableFingerprintCache cache =
+                    new ThrowableFingerprintCache(name + "-" + (caches.size() + 1), maxSize, intervalMillis);
+            caches.add(cache);
+            return cache;
+        }
+    }
+
+    /**
+     * Returns the caches registered with the specified configuration.
+     *
+     * @param config the configuration.
+     * @return the caches, never null.
+     */
+    public static List<ThrowableFingerprintCache> getCaches(final Configuration config) {
+        final List<ThrowableFingerprintCache> caches = config == null ? null : config.getComponent(COMPONENT_NAME);
+        return caches == null ? Collections.emptyList() : caches;
+    }
+
+    /**
+     * Computes the fingerprint of a Throwable.
+     *
+     * @param throwable the Throwable.
+     * @return the fingerprint.
+     */
+    public static long fingerprint(final Throwable throwable) {
+        return finish(hash(0, throwable, 0));
+    }
+
+    /**
+     * Computes the fingerprint of the Throwable represented by a ThrowableProxy, for events that only carry the proxy,
+     * like deserialized events. This is the fingerprint of the Throwable itself, unless the same Throwable occurs more
+     * than once among its causes and suppressed Throwables, as the proxy only contains it once.
+     *
+     * @param proxy the ThrowableProxy.
+     * @return the fingerprint.
+     */
+    public static long fingerprint(final ThrowableProxy proxy) {
+        return finish(hash(0, proxy, 0));
+    }
+
+    private static long hash(long hash, final Throwable throwable, final int depth) {
+        hash = mix(hash, throwable.getClass().getName().hashCode());
+        for (final StackTraceElement element : throwable.getStackTrace()) {
+            hash = mix(hash, element.hashCode());
+        }
+        if (depth < MAX_DEPTH) {
+            for (final Throwable suppressed : throwable.getSuppressed()) {
+                hash = hash(mix(hash, SUPPRESSED), suppressed, depth + 1);
+            }
+            final Throwable cause = throwable.getCause();
+            if (cause != null && cause != throwable) {
+                hash = hash(mix(hash, CAUSE), cause, depth + 1);
+            }
+        }
+        return hash;
+    }
+
+    private static long hash(long hash, final ThrowableProxy proxy, final int depth) {
+        hash = mix(hash, proxy.getName() == null ? 0 : proxy.getName().hashCode());
+        final ExtendedStackTraceElement[] trace = proxy.getExtendedStackTrace();
+        if (trace != null) {
+            for (final ExtendedStackTraceElement element : trace) {
+                hash = mix(hash, element.getStackTraceElement().hashCode());
+            }
+        }
+        if (depth < MAX_DEPTH) {
+            final ThrowableProxy[] suppressedProxies = proxy.getSuppressedProxies();
+            if (suppressedProxies != null) {
+                for (final ThrowableProxy suppressed : suppressedProxies) {
+                    hash = hash(mix(hash, SUPPRESSED), suppressed, depth + 1);
+                }
+            }
+            if (proxy.getCauseProxy() != null) {
+                hash = hash(mix(hash, CAUSE), proxy.getCauseProxy(), depth + 1);
+            }
+        }
+        return hash;
+    }
+
+    private static long mix(final long hash, final int value) {
+        final long mixed = (hash ^ value) * 0x9E3779B97F4A7C15L;
+        return mixed ^ (mixed >>> 32);
+    }
+
+    private static long finish(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * Records that the stack trace with the specified fingerprint is logged.
+     *
+     * @param fingerprint the fingerprint of the stack trace.
+     * @return zero if the stack trace should be logged in full, otherwise the number of times the stack trace was
+     * seen, including this time.
+     */
+    public long record(final long fingerprint) {
+        final long now = System.nanoTime();
+        Entry entry = entries.get(fingerprint);
+        if (entry == null) {
+            if (entries.size() >= maxSize) {
+                evictionCount.add(entries.size());
+                entries.clear();
+            }
+            final Entry created = new Entry(now);
+            entry = entries.putIfAbsent(fingerprint, created);
+            if (entry == null) {
+                fullTraceCount.increment();
+                return 0;
+            }
+        }
+        final long count = entry.count.incrementAndGet();
+        if (intervalNanos > 0) {
+            final long lastFullTrace = entry.lastFullTraceNanos.get();
+            if (now - lastFullTrace >= intervalNanos && entry.lastFullTraceNanos.compareAndSet(lastFullTrace, now)) {
+                fullTraceCount.increment();
+                return 0;
+            }
+        }
+        referenceCount.increment();
+        return count;
+    }
+
+    /**
+     * Appends a reference to a stack trace that was logged before, like
+     * {@code [trace #0123456789abcdef seen 42 times]}.
+     *
+     * @param fingerprint the fingerprint of the stack trace.
+     * @param count the number of times the stack trace was seen.
+     * @param buffer the StringBuilder to append to.
+     */
+    public static void formatReference(final long fingerprint, final long count, final StringBuilder buffer) {
+        buffer.append("[trace #");
+        formatHex(fingerprint, buffer);
+        buffer.append(" seen ").append(count).append(" times]");
+    }
+
+    /**
+     * Appends the fingerprint of a stack trace logged in full, like {@code [trace #0123456789abcdef]}.
+     *
+     * @param fingerprint the fingerprint of the stack trace.
+     * @param buffer the StringBuilder to append to.
+     */
+    public static void formatFingerprint(final long fingerprint, final StringBuilder buffer) {
+        buffer.append("[trace #");
+        formatHex(fingerprint, buffer);
+        buffer.append(']');
+    }
+
+    /**
+     * Prints a reference to a stack trace that was logged before, like
+     * {@code [trace #0123456789abcdef seen 42 times]}.
+     *
+     * @param fingerprint the fingerprint of the stack trace.
+     * @param count the number of times the stack trace was seen.
+     * @param writer the writer to print to.
+     */
+    public static void formatReference(final long fingerprint, final long count, final PrintWriter writer) {
+        writer.print("[trace #");
+        formatHex(fingerprint, writer);
+        writer.print(" seen ");
+        writer.print(count);
+        writer.print(" times]");
+    }
+
+    /**
+     * Prints the fingerprint of a stack trace logged in full, like {@code [trace #0123456789abcdef]}.
+     *
+     * @param fingerprint the fingerprint of the stack trace.
+     * @param writer the writer to print to.
+     */
+    public static void formatFingerprint(final long fingerprint, final PrintWriter writer) {
+        writer.print("[trace #");
+        formatHex(fingerprint, writer);
+        writer.print(']');
+    }
+
+    private static void formatHex(final long fingerprint, final StringBuilder buffer) {
+        for (int shift = 60; shift >= 0; shift -= 4) {
+            buffer.append(HEX_DIGITS[(int) (fingerprint >>> shift) & 0xF]);
+        }
+    }
+
+    private static void formatHex(final long fingerprint, final PrintWriter writer) {
+        for (int shift = 60; shift >= 0; shift -= 4) {
+            writer.print(HEX_DIGITS[(int) (fingerprint >>> shift) & 0xF]);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getIntervalMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(intervalNanos);
+    }
+
+    /**
+     * Returns the number of fingerprints in the cache.
+     *
+     * @return the size of the cache.
+     */
+    public int getSize() {
+        return entries.size();
+    }
+
+    /**
+     * Returns how often a stack trace was logged in full.
+     *
+     * @return the number of full stack traces.
+     */
+    public long getFullTraceCount() {
+        return fullTraceCount.sum();
+    }
+
+    /**
+     * Returns how often a stack trace was replaced by a reference.
+     *
+     * @return the number of references.
+     */
+    public long getReferenceCount() {
+        return referenceCount.sum();
+    }
+
+    /**
+     * Returns the number of fingerprints removed because the cache was full.
+     *
+     * @return the number of evicted fingerprints.
+     */
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     * Forgets all fingerprints, so each stack trace is logged in full once more.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    @Override
+    public String toString() {
+        return "ThrowableFingerprintCache[name=" + name + ", maxSize=" + maxSize + ", intervalMillis="
+                + getIntervalMillis() + ", size=" + entries.size() + "]";
+    }
+
+    private static final class Entry {
+
+        final AtomicLong count = new AtomicLong(1);
+        final AtomicLong lastFullTraceNanos;
+
+        Entry(final long nanos) {
+            this.lastFullTraceNanos = new AtomicLong(nanos);
+        }
+    }
+}
@@ -55,6 +55,11 @@ public final class ThrowableFormatOptions {
      */
     private static final String SHORT = "short";
 
+    /**
+     * Replace stack traces that were logged before by a reference.
+     */
+    private static final String DEDUPE = "dedupe";
+
     /**
      * ANSI renderer
      */
@@ -77,6 +82,17 @@ public final class ThrowableFormatOptions {
      */
     private final List<String> ignorePackages;
 
+    /**
+     * The minimum number of milliseconds before a duplicate stack trace is logged in full again, zero to log it in full
+     * only once or -1 to always log stack traces in full.
+     */
+    private final long dedupeIntervalMillis;
+
+    /**
+     * The maximum number of stack trace fingerprints remembered to detect duplicates.
+     */
+    private final int dedupeMaxSize;
+
     public static final String CLASS_NAME = "short.className";
     public static final String METHOD_NAME = "short.methodName";
     public static final String LINE_NUMBER = "short.lineNumber";
@@ -99,11 +115,39 @@ public final class ThrowableFormatOptions {
      */
     protected ThrowableFormatOptions(final int lines, final String separator, final List<String> ignorePackages,
             final TextRenderer textRenderer, final String suffix) {
+        this(lines, separator, ignorePackages, textRenderer, suffix, -1, ThrowableFingerprintCache.DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Constructs the options for printing stack trace.
+     *
+     * @param lines
+     *            The number of lines.
+     * @param separator
+     *            The stack trace separator.
+     * @param ignorePackages
+     *            The packages to filter.
+     * @param textRenderer
+     *            The ANSI renderer
+     * @param suffix
+     *            Append this to the end of each stack frame.
+     * @param dedupeIntervalMillis
+     *            The milliseconds before a duplicate stack trace is logged in full again, zero to log it in full
+     *            only once or -1 to always log stack traces in full.
+     * @param dedupeMaxSize
+     *            The maximum number of stack trace fingerprints remembered to detect duplicates.
+     * @since 3.0
+     */
+    protected ThrowableFormatOptions(final int lines, final String separator, final List<String> ignorePackages,
+            final TextRenderer textRenderer, final String suffix, final long dedupeIntervalMillis,
+            final int dedupeMaxSize) {
         this.lines = lines;
         this.separator = separator == null ? Strings.LINE_SEPARATOR : separator;
         this.ignorePackages = ignorePackages;
         this.textRenderer = textRenderer == null ? PlainTextRenderer.getInstance() : textRenderer;
         this.suffix = suffix;
+        this.dedupeIntervalMillis = dedupeIntervalMillis;
+        this.dedupeMaxSize = dedupeMaxSize;
     }
 
     /**
@@ -188,6 +232,37 @@ public final class ThrowableFormatOptions {
         return this.lines > maxLines ? maxLines : this.lines;
     }
 
+    /**
+     * Determines if stack traces that were logged before are replaced by a reference.
+     *
+     * @return true if duplicate stack traces are replaced, false otherwise.
+     * @since 3.0
+     */
+    public boolean isDedupe() {
+        return this.dedupeIntervalMillis >= 0;
+    }
+
+    /**
+     * Returns the minimum number of milliseconds before a duplicate stack trace is logged in full again.
+     *
+     * @return the interval in milliseconds, zero to log each stack trace in full only once or -1 if duplicate stack
+     *         traces are not replaced.
+     * @since 3.0
+     */
+    public long getDedupeIntervalMillis() {
+        return this.dedupeIntervalMillis;
+    }
+
+    /**
+     * Returns the maximum number of stack trace fingerprints remembered to detect duplicates.
+     *
+     * @return the maximum number of fingerprints.
+     * @since 3.0
+     */
+    public int getDedupeMaxSize() {
+        return this.dedupeMaxSize;
+    }
+
     /**
      * Determines if there are any packages to filter.
      *
@@ -215,6 +290,9 @@ public final class ThrowableFormatOptions {
             s.deleteCharAt(s.length() - 1);
             s.append(")}");
         }
+        if (isDedupe()) {
+            s.append("{dedupe(").append(this.dedupeIntervalMillis).append(',').append(this.dedupeMaxSize).append(")}");
+        }
         return s.toString();
     }
 
@@ -251,6 +329,8 @@ public final class ThrowableFormatOptions {
         List<String> packages = DEFAULT.ignorePackages;
         TextRenderer ansiRenderer = DEFAULT.textRenderer;
         String suffix = DEFAULT.getSuffix();
+        long dedupeIntervalMillis = DEFAULT.dedupeIntervalMillis;
+        int dedupeMaxSize = DEFAULT.dedupeMaxSize;
         for (final String rawOption : options) {
             if (rawOption != null) {
                 final String option = rawOption.trim();
@@ -293,12 +373,22 @@ public final class ThrowableFormatOptions {
                     suffix = option.substring("S(".length(), option.length() - 1);
                 } else if (option.startsWith("suffix(") && option.endsWith(")")){
                     suffix = option.substring("suffix(".length(), option.length() - 1);
+                } else if (option.equalsIgnoreCase(DEDUPE)) {
+                    dedupeIntervalMillis = 0;
+                } else if (option.startsWith("dedupe(") && option.endsWith(")")) {
+                    final String[] args = option.substring("dedupe(".length(), option.length() - 1)
+                            .split(Patterns.COMMA_SEPARATOR);
+                    dedupeIntervalMillis = args[0].trim().isEmpty() ? 0 : Long.parseLong(args[0].trim());
+                    if (args.length > 1) {
+                        dedupeMaxSize = Integer.parseInt(args[1].trim());
+                    }
                 } else if (!option.equalsIgnoreCase(FULL)) {
                     lines = Integer.parseInt(option);
                 }
             }
         }
-        return new ThrowableFormatOptions(lines, separator, packages, ansiRenderer, suffix);
+        return new ThrowableFormatOptions(lines, separator, packages, ansiRenderer, suffix, dedupeIntervalMillis,
+                dedupeMaxSize);
     }
 
     public String getSuffix() {
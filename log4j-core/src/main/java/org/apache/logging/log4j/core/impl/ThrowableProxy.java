@@ -106,10 +106,11 @@ public class ThrowableProxy implements Serializable {
         this.localizedMessage = throwable.getLocalizedMessage();
         final Map<String, ThrowableProxyHelper.CacheEntry> map = new HashMap<>();
         final Stack<Class<?>> stack = StackLocatorUtil.getCurrentStackTrace();
-        this.extendedStackTrace = ThrowableProxyHelper.toExtendedStackTrace(this, stack, map, null, throwable.getStackTrace());
+        final StackTraceElement[] stackTrace = throwable.getStackTrace();
+        this.extendedStackTrace = ThrowableProxyHelper.toExtendedStackTrace(this, stack, map, null, stackTrace);
         final Throwable throwableCause = throwable.getCause();
         final Set<Throwable> causeVisited = new HashSet<>(1);
-        this.causeProxy = throwableCause == null ? null : new ThrowableProxy(throwable, stack, map, throwableCause,
+        this.causeProxy = throwableCause == null ? null : new ThrowableProxy(stackTrace, stack, map, throwableCause,
             visited, causeVisited);
         this.suppressedProxies = ThrowableProxyHelper.toSuppressedProxies(throwable, visited);
     }
@@ -117,14 +118,14 @@ public class ThrowableProxy implements Serializable {
     /**
      * Constructs the wrapper for a Throwable that is referenced as the cause by another Throwable.
      *
-     * @param parent            The Throwable referencing this Throwable.
+     * @param rootTrace         The stack trace of the outermost Throwable referencing this Throwable.
      * @param stack             The Class stack.
      * @param map               The cache containing the packaging data.
      * @param cause             The Throwable to wrap.
      * @param suppressedVisited TODO
      * @param causeVisited      TODO
      */
-    private ThrowableProxy(final Throwable parent, final Stack<Class<?>> stack,
+    private ThrowableProxy(final StackTraceElement[] rootTrace, final Stack<Class<?>> stack,
                            final Map<String, ThrowableProxyHelper.CacheEntry> map,
                            final Throwable cause, final Set<Throwable> suppressedVisited,
                            final Set<Throwable> causeVisited) {
@@ -133,9 +134,9 @@ public class ThrowableProxy implements Serializable {
         this.name = cause.getClass().getName();
         this.message = this.throwable.getMessage();
         this.localizedMessage = this.throwable.getLocalizedMessage();
-        this.extendedStackTrace = ThrowableProxyHelper.toExtendedStackTrace(this, stack, map, parent.getStackTrace(), cause.getStackTrace());
+        this.extendedStackTrace = ThrowableProxyHelper.toExtendedStackTrace(this, stack, map, rootTrace, cause.getStackTrace());
         final Throwable causeCause = cause.getCause();
-        this.causeProxy = causeCause == null || causeVisited.contains(causeCause) ? null : new ThrowableProxy(parent,
+        this.causeProxy = causeCause == null || causeVisited.contains(causeCause) ? null : new ThrowableProxy(rootTrace,
             stack, map, causeCause, suppressedVisited, causeVisited);
         this.suppressedProxies = ThrowableProxyHelper.toSuppressedProxies(cause, suppressedVisited);
     }
@@ -277,10 +278,24 @@ public class ThrowableProxy implements Serializable {
      */
     public String getCauseStackTraceAsString(final List<String> ignorePackages, final TextRenderer textRenderer, final String suffix, final String lineSeparator) {
         final StringBuilder sb = new StringBuilder();
-        ThrowableProxyRenderer.formatCauseStackTrace(this, sb, ignorePackages, textRenderer, suffix, lineSeparator);
+        formatCauseStackTraceTo(sb, ignorePackages, textRenderer, suffix, lineSeparator);
         return sb.toString();
     }
 
+    /**
+     * Formats the Throwable that is the cause of this Throwable.
+     *
+     * @param sb Destination.
+     * @param ignorePackages The List of packages to be suppressed from the stack trace.
+     * @param textRenderer The text renderer.
+     * @param suffix Append this to the end of each stack frame.
+     * @param lineSeparator The end-of-line separator.
+     * @since 3.0
+     */
+    public void formatCauseStackTraceTo(final StringBuilder sb, final List<String> ignorePackages, final TextRenderer textRenderer, final String suffix, final String lineSeparator) {
+        ThrowableProxyRenderer.formatCauseStackTrace(this, sb, ignorePackages, textRenderer, suffix, lineSeparator);
+    }
+
     /**
      * Returns the number of elements that are being omitted because they are common with the parent Throwable's stack
      * trace.
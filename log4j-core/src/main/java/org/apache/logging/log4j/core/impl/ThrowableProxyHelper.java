@@ -16,10 +16,12 @@
  */
 package org.apache.logging.log4j.core.impl;
 
+import org.apache.logging.log4j.core.util.Constants;
 import org.apache.logging.log4j.core.util.Loader;
 import org.apache.logging.log4j.status.StatusLogger;
 import org.apache.logging.log4j.util.LoaderUtil;
 
+import java.lang.ref.WeakReference;
 import java.net.URL;
 import java.security.CodeSource;
 import java.util.ArrayList;
@@ -28,6 +30,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Stack;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * {@link ThrowableProxyHelper} provides utilities required to initialize a new {@link ThrowableProxy}
@@ -37,6 +41,13 @@ class ThrowableProxyHelper {
 
     static final ThrowableProxy[] EMPTY_THROWABLE_PROXY_ARRAY = new ThrowableProxy[0];
 
+    /**
+     * Packaging information of classes shared by all ThrowableProxies, keyed by class name, or null if
+     * {@link Constants#THROWABLE_PROXY_CACHE_SIZE} disables the cache.
+     */
+    private static final ConcurrentMap<String, SharedCacheEntry> SHARED_CACHE =
+            Constants.THROWABLE_PROXY_CACHE_SIZE > 0 ? new ConcurrentHashMap<>() : null;
+
     private ThrowableProxyHelper() {
         // Utility Class
     }
@@ -57,6 +68,40 @@ class ThrowableProxyHelper {
         }
     }
 
+    /**
+     * Packaging information in the shared cache. Only holds the ClassLoader weakly, so web applications can be
+     * unloaded.
+     */
+    private static final class SharedCacheEntry {
+        private final ExtendedClassInfo exactElement;
+        private final ExtendedClassInfo inexactElement;
+        private final WeakReference<ClassLoader> loader;
+
+        private SharedCacheEntry(final CacheEntry entry) {
+            final ExtendedClassInfo element = entry.element;
+            this.exactElement = element.getExact() ? element
+                    : new ExtendedClassInfo(true, element.getLocation(), element.getVersion());
+            this.inexactElement = element.getExact()
+                    ? new ExtendedClassInfo(false, element.getLocation(), element.getVersion()) : element;
+            this.loader = entry.loader == null ? null : new WeakReference<>(entry.loader);
+        }
+
+        private boolean isLoadedBy(final ClassLoader classLoader) {
+            return loader == null ? classLoader == null : loader.get() == classLoader;
+        }
+
+        /**
+         * Returns the inexact CacheEntry or null if the ClassLoader has been garbage collected.
+         */
+        private CacheEntry toInexactCacheEntry() {
+            if (loader == null) {
+                return new CacheEntry(inexactElement, null);
+            }
+            final ClassLoader classLoader = loader.get();
+            return classLoader == null ? null : new CacheEntry(inexactElement, classLoader);
+        }
+    }
+
     /**
      * Resolve all the stack entries in this stack trace that are not common with the parent.
      *
@@ -97,7 +142,7 @@ class ThrowableProxyHelper {
             // present as those methods have returned.
             ExtendedClassInfo extClassInfo;
             if (clazz != null && className.equals(clazz.getName())) {
-                final CacheEntry entry = toCacheEntry(clazz, true);
+                final CacheEntry entry = toExactCacheEntry(clazz);
                 extClassInfo = entry.element;
                 lastLoader = entry.loader;
                 stack.pop();
@@ -111,7 +156,7 @@ class ThrowableProxyHelper {
                         lastLoader = entry.loader;
                     }
                 } else {
-                    final CacheEntry entry = toCacheEntry(ThrowableProxyHelper.loadClass(lastLoader, className), false);
+                    final CacheEntry entry = toInexactCacheEntry(lastLoader, className);
                     extClassInfo = entry.element;
                     map.put(className, entry);
                     if (entry.loader != null) {
@@ -147,6 +192,54 @@ class ThrowableProxyHelper {
         return null;
     }
 
+    /**
+     * Returns the CacheEntry of a Class obtained via Reflection.getCallerClass, from the shared cache if it contains
+     * the packaging information of the same Class.
+     */
+    private static CacheEntry toExactCacheEntry(final Class<?> clazz) {
+        if (SHARED_CACHE != null) {
+            final SharedCacheEntry shared = SHARED_CACHE.get(clazz.getName());
+            if (shared != null) {
+                final ClassLoader loader = getClassLoader(clazz);
+                if (shared.isLoadedBy(loader)) {
+                    return new CacheEntry(shared.exactElement, loader);
+                }
+            }
+        }
+        final CacheEntry entry = toCacheEntry(clazz, true);
+        share(clazz.getName(), entry);
+        return entry;
+    }
+
+    /**
+     * Returns the CacheEntry of a Class not located via Reflection.getCallerClass, from the shared cache if possible
+     * to avoid loading the Class.
+     */
+    private static CacheEntry toInexactCacheEntry(final ClassLoader lastLoader, final String className) {
+        if (SHARED_CACHE != null) {
+            final SharedCacheEntry shared = SHARED_CACHE.get(className);
+            if (shared != null) {
+                final CacheEntry entry = shared.toInexactCacheEntry();
+                if (entry != null) {
+                    return entry;
+                }
+            }
+        }
+        final CacheEntry entry = toCacheEntry(ThrowableProxyHelper.loadClass(lastLoader, className), false);
+        share(className, entry);
+        return entry;
+    }
+
+    private static void share(final String className, final CacheEntry entry) {
+        if (SHARED_CACHE != null) {
+            if (SHARED_CACHE.size() >= Constants.THROWABLE_PROXY_CACHE_SIZE) {
+                // Starting over is cheaper than tracking usage and still bounds the memory held by the cache.
+                SHARED_CACHE.clear();
+            }
+            SHARED_CACHE.put(className, new SharedCacheEntry(entry));
+        }
+    }
+
     /**
      * Construct the CacheEntry from the Class's information.
      *
@@ -184,15 +277,19 @@ class ThrowableProxyHelper {
                     version = ver;
                 }
             }
-            try {
-                lastLoader = callerClass.getClassLoader();
-            } catch (final SecurityException e) {
-                lastLoader = null;
-            }
+            lastLoader = getClassLoader(callerClass);
         }
         return new CacheEntry(new ExtendedClassInfo(exact, location, version), lastLoader);
     }
 
+    private static ClassLoader getClassLoader(final Class<?> clazz) {
+        try {
+            return clazz.getClassLoader();
+        } catch (final SecurityException e) {
+            return null;
+        }
+    }
+
 
     /**
      * Loads classes not located via Reflection.getCallerClass.
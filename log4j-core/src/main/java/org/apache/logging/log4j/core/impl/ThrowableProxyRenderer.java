@@ -49,7 +49,7 @@ class ThrowableProxyRenderer {
         renderSuffix(suffix, sb, textRenderer);
         textRenderer.render(lineSeparator, sb, "Text");
         formatElements(sb, Strings.EMPTY, cause.getCommonElementCount(),
-                cause.getThrowable().getStackTrace(), cause.getExtendedStackTrace(), ignorePackages, textRenderer, suffix, lineSeparator);
+                cause.getExtendedStackTrace(), ignorePackages, textRenderer, suffix, lineSeparator);
     }
 
     private static void formatCause(final StringBuilder sb, final String prefix, final ThrowableProxy cause,
@@ -69,8 +69,11 @@ class ThrowableProxyRenderer {
         renderSuffix(suffix, sb, textRenderer);
         textRenderer.render(lineSeparator, sb, "Text");
         formatElements(sb, prefix, throwableProxy.getCommonElementCount(),
-                throwableProxy.getStackTrace(), throwableProxy.getExtendedStackTrace(), ignorePackages, textRenderer, suffix, lineSeparator);
-        formatSuppressed(sb, prefix + TAB, throwableProxy.getSuppressedProxies(), ignorePackages, textRenderer, suffix, lineSeparator);
+                throwableProxy.getExtendedStackTrace(), ignorePackages, textRenderer, suffix, lineSeparator);
+        final ThrowableProxy[] suppressedProxies = throwableProxy.getSuppressedProxies();
+        if (suppressedProxies != null && suppressedProxies.length > 0) {
+            formatSuppressed(sb, prefix + TAB, suppressedProxies, ignorePackages, textRenderer, suffix, lineSeparator);
+        }
         formatCause(sb, prefix, throwableProxy.getCauseProxy(), ignorePackages, textRenderer, suffix, lineSeparator);
     }
 
@@ -85,7 +88,7 @@ class ThrowableProxyRenderer {
     }
 
     private static void formatElements(final StringBuilder sb, final String prefix, final int commonCount,
-                                       final StackTraceElement[] causedTrace, final ExtendedStackTraceElement[] extStackTrace,
+                                       final ExtendedStackTraceElement[] extStackTrace,
                                        final List<String> ignorePackages, final TextRenderer textRenderer, final String suffix, String lineSeparator) {
         if (ignorePackages == null || ignorePackages.isEmpty()) {
             for (final ExtendedStackTraceElement element : extStackTrace) {
@@ -94,7 +97,7 @@ class ThrowableProxyRenderer {
         } else {
             int count = 0;
             for (int i = 0; i < extStackTrace.length; ++i) {
-                if (!ignoreElement(causedTrace[i], ignorePackages)) {
+                if (!ignoreElement(extStackTrace[i], ignorePackages)) {
                     if (count > 0) {
                         appendSuppressedCount(sb, prefix, count, textRenderer, suffix, lineSeparator);
                         count = 0;
@@ -111,7 +114,7 @@ class ThrowableProxyRenderer {
         if (commonCount != 0) {
             textRenderer.render(prefix, sb, "Prefix");
             textRenderer.render("\t... ", sb, "More");
-            textRenderer.render(Integer.toString(commonCount), sb, "More");
+            textRenderer.render(commonCount, sb, "More");
             textRenderer.render(" more", sb, "More");
             renderSuffix(suffix, sb, textRenderer);
             textRenderer.render(lineSeparator, sb, "Text");
@@ -132,7 +135,7 @@ class ThrowableProxyRenderer {
             textRenderer.render("\t... ", sb, "Suppressed");
         } else {
             textRenderer.render("\t... suppressed ", sb, "Suppressed");
-            textRenderer.render(Integer.toString(count), sb, "Suppressed");
+            textRenderer.render(count, sb, "Suppressed");
             textRenderer.render(" lines", sb, "Suppressed");
         }
         renderSuffix(suffix, sb, textRenderer);
@@ -148,7 +151,7 @@ class ThrowableProxyRenderer {
         textRenderer.render(lineSeparator, sb, "Text");
     }
 
-    private static boolean ignoreElement(final StackTraceElement element, final List<String> ignorePackages) {
+    private static boolean ignoreElement(final ExtendedStackTraceElement element, final List<String> ignorePackages) {
         if (ignorePackages != null) {
             final String className = element.getClassName();
             for (final String pkg : ignorePackages) {
@@ -176,8 +179,7 @@ class ThrowableProxyRenderer {
         textRenderer.render(src.getMessage(), sb, "Message");
         renderSuffix(suffix, sb, textRenderer);
         textRenderer.render(lineSeparator, sb, "Text");
-        final StackTraceElement[] causedTrace = src.getThrowable() != null ? src.getThrowable().getStackTrace() : null;
-        formatElements(sb, Strings.EMPTY, 0, causedTrace, src.getExtendedStackTrace(), ignorePackages, textRenderer, suffix, lineSeparator);
+        formatElements(sb, Strings.EMPTY, 0, src.getExtendedStackTrace(), ignorePackages, textRenderer, suffix, lineSeparator);
         formatSuppressed(sb, TAB, src.getSuppressedProxies(), ignorePackages, textRenderer, suffix, lineSeparator);
         formatCause(sb, Strings.EMPTY, src.getCauseProxy(), ignorePackages, textRenderer, suffix, lineSeparator);
     }
@@ -202,7 +204,7 @@ class ThrowableProxyRenderer {
         renderOn(src, sb, textRenderer);
         ThrowableProxyRenderer.renderSuffix(suffix, sb, textRenderer);
         textRenderer.render(lineSeparator, sb, "Text");
-        ThrowableProxyRenderer.formatElements(sb, Strings.EMPTY, 0, src.getStackTrace(), src.getExtendedStackTrace(),
+        ThrowableProxyRenderer.formatElements(sb, Strings.EMPTY, 0, src.getExtendedStackTrace(),
                 ignorePackages, textRenderer, suffix, lineSeparator);
     }
 
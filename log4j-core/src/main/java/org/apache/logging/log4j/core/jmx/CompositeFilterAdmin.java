@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.jmx;
+
+import java.util.Objects;
+
+import javax.management.ObjectName;
+
+import org.apache.logging.log4j.core.Filter;
+import org.apache.logging.log4j.core.config.Configuration;
+import org.apache.logging.log4j.core.filter.CompositeFilter;
+
+/**
+ * Implementation of the {@code CompositeFilterAdminMBean} interface.
+ *
+ * @since 3.0
+ */
+public class CompositeFilterAdmin implements CompositeFilterAdminMBean {
+
+    private final CompositeFilter composite;
+    private final Configuration configuration;
+    private final ObjectName objectName;
+
+    /**
+     * Constructs a new {@code CompositeFilterAdmin} for the specified composite.
+     *
+     * @param contextName used in the {@code ObjectName} for this mbean
+     * @param composite the instrumented composite
+     */
+    public CompositeFilterAdmin(final String contextName, final CompositeFilter composite) {
+        this(contextName, null, composite);
+    }
+
+    /**
+     * Constructs a new {@code CompositeFilterAdmin} for the specified composite. Since adding or removing a filter
+     * replaces an adaptive composite, this mbean follows the composite with the same name in the specified
+     * configuration.
+     *
+     * @param contextName used in the {@code ObjectName} for this mbean
+     * @param configuration the configuration that owns the composite, may be null
+     * @param composite the instrumented composite
+     */
+    public CompositeFilterAdmin(final String contextName, final Configuration configuration,
+            final CompositeFilter composite) {
+        this.composite = Objects.requireNonNull(composite, "composite");
+        this.configuration = configuration;
+        try {
+            final String ctxName = Server.escape(Objects.requireNonNull(contextName, "contextName"));
+            final String name = String.format(PATTERN, ctxName, Server.escape(composite.getName()));
+            objectName = new ObjectName(name);
+        } catch (final Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns the {@code ObjectName} of this mbean.
+     *
+     * @return the {@code ObjectName}
+     * @see CompositeFilterAdminMBean#PATTERN
+     */
+    public ObjectName getObjectName() {
+        return objectName;
+    }
+
+    /**
+     * Returns the composite that currently replaces the instrumented composite in the configuration.
+     */
+    private CompositeFilter getComposite() {
+        for (final CompositeFilter current : CompositeFilter.getAdaptiveFilters(configuration)) {
+            if (composite.getName().equals(current.getName())) {
+                return current;
+            }
+        }
+        return composite;
+    }
+
+    @Override
+    public String getName() {
+        return composite.getName();
+    }
+
+    @Override
+    public String[] getFilters() {
+        return describe(getComposite().getFiltersArray());
+    }
+
+    @Override
+    public String[] getEvaluationOrder() {
+        return describe(getComposite().getEvaluationOrder());
+    }
+
+    private static String[] describe(final Filter[] filters) {
+        final String[] result = new String[filters.length];
+        for (int i = 0; i < filters.length; i++) {
+            result[i] = filters[i].getClass().getSimpleName() + "(" + filters[i] + ")";
+        }
+        return result;
+    }
+
+    @Override
+    public long[] getInvocationCounts() {
+        final CompositeFilter current = getComposite();
+        final long[] result = new long[current.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = current.getInvocationCount(i);
+        }
+        return result;
+    }
+
+    @Override
+    public double[] getAverageNanos() {
+        final CompositeFilter current = getComposite();
+        final double[] result = new double[current.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = current.getAverageNanos(i);
+        }
+        return result;
+    }
+
+    @Override
+    public double[] getDecisionRates() {
+        final CompositeFilter current = getComposite();
+        final double[] result = new double[current.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = current.getDecisionRate(i);
+        }
+        return result;
+    }
+
+    @Override
+    public long getReorderCount() {
+        return getComposite().getReorderCount();
+    }
+
+    @Override
+    public void resetStatistics() {
+        getComposite().resetStatistics();
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.jmx;
+
+/**
+ * The MBean interface for monitoring an adaptive composite filter, which reorders its filters by their cost and
+ * decision rate.
+ *
+ * @since 3.0
+ */
+public interface CompositeFilterAdminMBean {
+    /**
+     * ObjectName pattern ({@value}) for CompositeFilterAdmin MBeans.
+     * This pattern contains two variables, where the first is the
+     * name of the context, the second is the name of the instrumented composite.
+     * <p>
+     * You can find all registered CompositeFilterAdmin MBeans like this:
+     * </p>
+     * <pre>
+     * MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+     * String pattern = String.format(CompositeFilterAdminMBean.PATTERN, &quot;*&quot;, &quot;*&quot;);
+     * Set&lt;ObjectName&gt; filterNames = mbs.queryNames(new ObjectName(pattern), null);
+     * </pre>
+     * @see Server#escape(String)
+     */
+    String PATTERN = Server.DOMAIN + ":type=%s,component=CompositeFilters,name=%s";
+
+    /**
+     * Returns the name of the instrumented composite.
+     *
+     * @return the name of the composite
+     */
+    String getName();
+
+    /**
+     * Returns the filters of the composite in declaration order. The statistics of the filters are returned in the
+     * same order.
+     *
+     * @return the filters in declaration order
+     */
+    String[] getFilters();
+
+    /**
+     * Returns the filters of the composite in the order in which they are currently evaluated.
+     *
+     * @return the filters in evaluation order
+     */
+    String[] getEvaluationOrder();
+
+    /**
+     * Returns the approximate number of times each filter was invoked.
+     *
+     * @return the number of invocations of each filter
+     */
+    long[] getInvocationCounts();
+
+    /**
+     * Returns the average number of nanoseconds each filter took for the sampled invocations.
+     *
+     * @return the average duration of each filter
+     */
+    double[] getAverageNanos();
+
+    /**
+     * Returns the ratio of the sampled invocations for which each filter returned ACCEPT or DENY.
+     *
+     * @return the decision rate of each filter
+     */
+    double[] getDecisionRates();
+
+    /**
+     * Returns how often the evaluation order was changed.
+     *
+     * @return the number of times the filters were reordered
+     */
+    long getReorderCount();
+
+    /**
+     * Forgets the measurements, the current evaluation order is kept.
+     */
+    void resetStatistics();
+}
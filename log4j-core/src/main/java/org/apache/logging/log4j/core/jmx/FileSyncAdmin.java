@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.jmx;
+
+import java.util.Objects;
+
+import javax.management.ObjectName;
+
+import org.apache.logging.log4j.core.appender.FileManager;
+import org.apache.logging.log4j.core.appender.FileSyncer;
+
+/**
+ * Implementation of the {@code FileSyncAdminMBean} interface.
+ *
+ * @since 3.0
+ */
+public class FileSyncAdmin implements FileSyncAdminMBean {
+
+    private final String appenderName;
+    private final FileManager manager;
+    private final ObjectName objectName;
+
+    /**
+     * Constructs a new {@code FileSyncAdmin} for the manager of the specified appender.
+     *
+     * @param contextName used in the {@code ObjectName} for this mbean
+     * @param appenderName the name of the appender writing to the file
+     * @param manager the instrumented file manager
+     */
+    public FileSyncAdmin(final String contextName, final String appenderName, final FileManager manager) {
+        this.appenderName = Objects.requireNonNull(appenderName, "appenderName");
+        this.manager = Objects.requireNonNull(manager, "manager");
+        try {
+            final String ctxName = Server.escape(Objects.requireNonNull(contextName, "contextName"));
+            final String name = String.format(PATTERN, ctxName, Server.escape(appenderName));
+            objectName = new ObjectName(name);
+        } catch (final Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns the {@code ObjectName} of this mbean.
+     *
+     * @return the {@code ObjectName}
+     * @see FileSyncAdminMBean#PATTERN
+     */
+    public ObjectName getObjectName() {
+        return objectName;
+    }
+
+    @Override
+    public String getName() {
+        return appenderName;
+    }
+
+    @Override
+    public String getFileName() {
+        return manager.getFileName();
+    }
+
+    @Override
+    public String getSyncPolicy() {
+        return manager.getSyncPolicy().toString();
+    }
+
+    @Override
+    public long getSyncCount() {
+        final FileSyncer syncer = manager.getSyncer();
+        return syncer == null ? 0 : syncer.getSyncCount();
+    }
+
+    @Override
+    public long[] getSyncLatencyBucketBoundsMicros() {
+        final FileSyncer syncer = manager.getSyncer();
+        return syncer == null ? new long[0] : syncer.getLatencyBucketBoundsMicros();
+    }
+
+    @Override
+    public long[] getSyncLatencyHistogram() {
+        final FileSyncer syncer = manager.getSyncer();
+        return syncer == null ? new long[0] : syncer.getLatencyHistogram();
+    }
+
+    @Override
+    public long getAverageSyncLatencyMicros() {
+        final FileSyncer syncer = manager.getSyncer();
+        return syncer == null ? 0 : syncer.getAverageLatencyMicros();
+    }
+
+    @Override
+    public long getMaxSyncLatencyMicros() {
+        final FileSyncer syncer = manager.getSyncer();
+        return syncer == null ? 0 : syncer.getMaxLatencyMicros();
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.jmx;
+
+/**
+ * The MBean interface for monitoring how a file appender forces its file to the storage device.
+ *
+ * @since 3.0
+ */
+public interface FileSyncAdminMBean {
+    /**
+     * ObjectName pattern ({@value}) for FileSyncAdmin MBeans.
+     * This pattern contains two variables, where the first is the
+     * name of the context, the second is the name of the instrumented appender.
+     * <p>
+     * You can find all registered FileSyncAdmin MBeans like this:
+     * </p>
+     * <pre>
+     * MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+     * String pattern = String.format(FileSyncAdminMBean.PATTERN, &quot;*&quot;, &quot;*&quot;);
+     * Set&lt;ObjectName&gt; syncNames = mbs.queryNames(new ObjectName(pattern), null);
+     * </pre>
+     * @see Server#escape(String)
+     */
+    String PATTERN = Server.DOMAIN + ":type=%s,component=Appenders,name=%s,subtype=FileSync";
+
+    /**
+     * Returns the name of the instrumented {@code Appender}.
+     *
+     * @return the name of the Appender
+     */
+    String getName();
+
+    /**
+     * Returns the name of the file that is synced.
+     *
+     * @return the file name
+     */
+    String getFileName();
+
+    /**
+     * Returns the sync policy, for example {@code groupCommit} or {@code interval=10ms}.
+     *
+     * @return the sync policy
+     */
+    String getSyncPolicy();
+
+    /**
+     * Returns how often the file was forced to the storage device.
+     *
+     * @return the number of syncs
+     */
+    long getSyncCount();
+
+    /**
+     * Returns the exclusive upper bounds of the buckets of the sync latency histogram, in microseconds. The last
+     * bucket of the histogram counts all syncs that took longer than the last bound.
+     *
+     * @return the bucket bounds in microseconds
+     */
+    long[] getSyncLatencyBucketBoundsMicros();
+
+    /**
+     * Returns the number of syncs per latency bucket.
+     *
+     * @return the sync latency histogram
+     */
+    long[] getSyncLatencyHistogram();
+
+    /**
+     * Returns the average time a sync took, in microseconds.
+     *
+     * @return the average sync latency
+     */
+    long getAverageSyncLatencyMicros();
+
+    /**
+     * Returns the longest time a sync took, in microseconds.
+     *
+     * @return the maximum sync latency
+     */
+    long getMaxSyncLatencyMicros();
+}
@@ -19,31 +19,64 @@ package org.apache.logging.log4j.core.jmx;
 import javax.management.ObjectName;
 
 import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.WaitStrategy;
+import org.apache.logging.log4j.core.async.AdaptiveWaitStrategy;
 
 /**
- * Instruments an LMAX Disruptor ring buffer.
+ * Instruments an LMAX Disruptor ring buffer, or a group of ring buffers that together act as the sharded ring buffer
+ * of the {@code AsyncLogger}.
  */
 public class RingBufferAdmin implements RingBufferAdminMBean {
 
-    private final RingBuffer<?> ringBuffer;
+    private static final RingBuffer<?>[] NO_RING_BUFFERS = new RingBuffer<?>[0];
+    private static final WaitStrategy[] NO_WAIT_STRATEGIES = new WaitStrategy[0];
+
+    private final RingBuffer<?>[] ringBuffers;
+    private final WaitStrategy[] waitStrategies;
     private final ObjectName objectName;
 
     public static RingBufferAdmin forAsyncLogger(final RingBuffer<?> ringBuffer, final String contextName) {
+        return forAsyncLogger(ringBuffer == null ? NO_RING_BUFFERS : new RingBuffer<?>[] {ringBuffer},
+                NO_WAIT_STRATEGIES, contextName);
+    }
+
+    /**
+     * Creates a RingBufferAdmin that instruments the shards of a sharded {@code AsyncLogger} ring buffer as a whole.
+     *
+     * @param ringBuffers the ring buffers of all shards
+     * @param waitStrategies the wait strategies of the background threads draining the shards
+     * @param contextName name of the {@code AsyncLoggerContext}
+     * @return a new RingBufferAdmin
+     */
+    public static RingBufferAdmin forAsyncLogger(final RingBuffer<?>[] ringBuffers,
+            final WaitStrategy[] waitStrategies, final String contextName) {
         final String ctxName = Server.escape(contextName);
         final String name = String.format(PATTERN_ASYNC_LOGGER, ctxName);
-        return new RingBufferAdmin(ringBuffer, name);
+        return new RingBufferAdmin(ringBuffers, waitStrategies, name);
     }
 
     public static RingBufferAdmin forAsyncLoggerConfig(final RingBuffer<?> ringBuffer, 
             final String contextName, final String configName) {
+        return forAsyncLoggerConfig(ringBuffer, null, contextName, configName);
+    }
+
+    public static RingBufferAdmin forAsyncLoggerConfig(final RingBuffer<?> ringBuffer,
+            final WaitStrategy waitStrategy, final String contextName, final String configName) {
         final String ctxName = Server.escape(contextName);
         final String cfgName = Server.escape(configName);
         final String name = String.format(PATTERN_ASYNC_LOGGER_CONFIG, ctxName, cfgName);
-        return new RingBufferAdmin(ringBuffer, name);
+        return new RingBufferAdmin(ringBuffer == null ? NO_RING_BUFFERS : new RingBuffer<?>[] {ringBuffer},
+                waitStrategy == null ? NO_WAIT_STRATEGIES : new WaitStrategy[] {waitStrategy}, name);
     }
     
     protected RingBufferAdmin(final RingBuffer<?> ringBuffer, final String mbeanName) {
-        this.ringBuffer = ringBuffer;        
+        this(ringBuffer == null ? NO_RING_BUFFERS : new RingBuffer<?>[] {ringBuffer}, NO_WAIT_STRATEGIES, mbeanName);
+    }
+
+    protected RingBufferAdmin(final RingBuffer<?>[] ringBuffers, final WaitStrategy[] waitStrategies,
+            final String mbeanName) {
+        this.ringBuffers = ringBuffers == null ? NO_RING_BUFFERS : ringBuffers.clone();
+        this.waitStrategies = waitStrategies == null ? NO_WAIT_STRATEGIES : waitStrategies.clone();
         try {
             objectName = new ObjectName(mbeanName);
         } catch (final Exception e) {
@@ -53,12 +86,61 @@ public class RingBufferAdmin implements RingBufferAdminMBean {
     
     @Override
     public long getBufferSize() {
-        return ringBuffer == null ? 0 : ringBuffer.getBufferSize();
+        long result = 0;
+        for (final RingBuffer<?> ringBuffer : ringBuffers) {
+            result += ringBuffer.getBufferSize();
+        }
+        return result;
     }
     
     @Override
     public long getRemainingCapacity() {
-        return ringBuffer == null ? 0 : ringBuffer.remainingCapacity();
+        long result = 0;
+        for (final RingBuffer<?> ringBuffer : ringBuffers) {
+            result += ringBuffer.remainingCapacity();
+        }
+        return result;
+    }
+
+    @Override
+    public int getShardCount() {
+        return ringBuffers.length;
+    }
+
+    @Override
+    public long[] getShardRemainingCapacities() {
+        final long[] result = new long[ringBuffers.length];
+        for (int i = 0; i < ringBuffers.length; i++) {
+            result[i] = ringBuffers[i].remainingCapacity();
+        }
+        return result;
+    }
+
+    @Override
+    public String getWaitStrategy() {
+        return waitStrategies.length == 0 ? null : waitStrategies[0].getClass().getSimpleName();
+    }
+
+    @Override
+    public String[] getWaitStrategyPhases() {
+        final String[] result = new String[waitStrategies.length];
+        for (int i = 0; i < waitStrategies.length; i++) {
+            if (waitStrategies[i] instanceof AdaptiveWaitStrategy) {
+                result[i] = ((AdaptiveWaitStrategy) waitStrategies[i]).getPhase().name();
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public long getWaitStrategyTransitionCount() {
+        long result = 0;
+        for (final WaitStrategy waitStrategy : waitStrategies) {
+            if (waitStrategy instanceof AdaptiveWaitStrategy) {
+                result += ((AdaptiveWaitStrategy) waitStrategy).getTransitionCount();
+            }
+        }
+        return result;
     }
 
     /**
@@ -68,4 +68,45 @@ public interface RingBufferAdminMBean {
      * @return the number of available slots in the ring buffer
      */
     long getRemainingCapacity();
+
+    /**
+     * Returns the number of ring buffers (shards) that are instrumented by this MBean. This is one unless the
+     * {@code AsyncLogger} ring buffer was configured to be sharded with the
+     * {@code log4j2.asyncLoggerRingBufferShards} property, and zero if the ring buffer is not running. The buffer
+     * size and remaining capacity are the sums over all shards.
+     *
+     * @return the number of ring buffer shards
+     */
+    int getShardCount();
+
+    /**
+     * Returns the number of available slots in each ring buffer shard. May vary wildly between invocations.
+     *
+     * @return the number of available slots per shard
+     */
+    long[] getShardRemainingCapacities();
+
+    /**
+     * Returns the simple class name of the wait strategy used by the background thread(s) draining the ring buffer,
+     * or {@code null} if unknown.
+     *
+     * @return the name of the wait strategy
+     */
+    String getWaitStrategy();
+
+    /**
+     * Returns, for each shard, the phase ({@code SPIN}, {@code YIELD} or {@code PARK}) the background thread
+     * currently starts waiting in if the {@code Adaptive} wait strategy is used, or {@code null} elements otherwise.
+     *
+     * @return the current wait strategy phase per shard
+     */
+    String[] getWaitStrategyPhases();
+
+    /**
+     * Returns how often the background thread(s) switched between wait strategy phases, summed over all shards. This
+     * is always zero unless the {@code Adaptive} wait strategy is used.
+     *
+     * @return the number of wait strategy phase transitions
+     */
+    long getWaitStrategyTransitionCount();
 }
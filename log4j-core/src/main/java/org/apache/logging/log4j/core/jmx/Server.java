@@ -34,11 +34,15 @@ import javax.management.ObjectName;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.core.Appender;
 import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.appender.AbstractOutputStreamAppender;
 import org.apache.logging.log4j.core.appender.AsyncAppender;
+import org.apache.logging.log4j.core.appender.FileManager;
 import org.apache.logging.log4j.core.async.AsyncLoggerConfig;
 import org.apache.logging.log4j.core.async.AsyncLoggerContext;
 import org.apache.logging.log4j.core.config.LoggerConfig;
+import org.apache.logging.log4j.core.filter.CompositeFilter;
 import org.apache.logging.log4j.core.impl.Log4jContextFactory;
+import org.apache.logging.log4j.core.impl.ThrowableFingerprintCache;
 import org.apache.logging.log4j.core.selector.ContextSelector;
 import org.apache.logging.log4j.core.util.Constants;
 import org.apache.logging.log4j.core.util.Log4jThreadFactory;
@@ -184,6 +188,8 @@ public final class Server {
 
                 registerLoggerConfigs(ctx, mbs, executor);
                 registerAppenders(ctx, mbs, executor);
+                registerThrowableFingerprints(ctx, mbs);
+                registerCompositeFilters(ctx, mbs);
             }
         } catch (final Exception ex) {
             LOGGER.error("Could not register mbeans", ex);
@@ -215,6 +221,9 @@ public final class Server {
 			unregisterAsyncLoggerRingBufferAdmins(CONTEXT_NAME_ALL, mbs);
 			unregisterAsyncLoggerConfigRingBufferAdmins(CONTEXT_NAME_ALL, mbs);
 			unregisterAppenders(CONTEXT_NAME_ALL, mbs);
+			unregisterFileSyncs(CONTEXT_NAME_ALL, mbs);
+			unregisterThrowableFingerprints(CONTEXT_NAME_ALL, mbs);
+			unregisterCompositeFilters(CONTEXT_NAME_ALL, mbs);
 			unregisterAsyncAppenders(CONTEXT_NAME_ALL, mbs);
 		}
 	}
@@ -264,6 +273,9 @@ public final class Server {
         unregisterContextSelector(contextName, mbs);
         unregisterLoggerConfigs(contextName, mbs);
         unregisterAppenders(contextName, mbs);
+        unregisterFileSyncs(contextName, mbs);
+        unregisterThrowableFingerprints(contextName, mbs);
+        unregisterCompositeFilters(contextName, mbs);
         unregisterAsyncAppenders(contextName, mbs);
         unregisterAsyncLoggerRingBufferAdmins(contextName, mbs);
         unregisterAsyncLoggerConfigRingBufferAdmins(contextName, mbs);
@@ -312,6 +324,24 @@ public final class Server {
         unregisterAllMatching(search, mbs);
     }
 
+    private static void unregisterFileSyncs(final String contextName, final MBeanServer mbs) {
+        final String pattern = FileSyncAdminMBean.PATTERN;
+        final String search = String.format(pattern, escape(contextName), "*");
+        unregisterAllMatching(search, mbs);
+    }
+
+    private static void unregisterThrowableFingerprints(final String contextName, final MBeanServer mbs) {
+        final String pattern = ThrowableFingerprintAdminMBean.PATTERN;
+        final String search = String.format(pattern, escape(contextName), "*");
+        unregisterAllMatching(search, mbs);
+    }
+
+    private static void unregisterCompositeFilters(final String contextName, final MBeanServer mbs) {
+        final String pattern = CompositeFilterAdminMBean.PATTERN;
+        final String search = String.format(pattern, escape(contextName), "*");
+        unregisterAllMatching(search, mbs);
+    }
+
     private static void unregisterAsyncAppenders(final String contextName, final MBeanServer mbs) {
         final String pattern = AsyncAppenderAdminMBean.PATTERN;
         final String search = String.format(pattern, escape(contextName), "*");
@@ -383,6 +413,33 @@ public final class Server {
                 final AppenderAdmin mbean = new AppenderAdmin(ctx.getName(), appender);
                 register(mbs, mbean, mbean.getObjectName());
             }
+
+            if (appender instanceof AbstractOutputStreamAppender
+                    && ((AbstractOutputStreamAppender<?>) appender).getManager() instanceof FileManager) {
+                final FileManager manager = (FileManager) ((AbstractOutputStreamAppender<?>) appender).getManager();
+                if (manager.getSyncer() != null) {
+                    final FileSyncAdmin mbean = new FileSyncAdmin(ctx.getName(), appender.getName(), manager);
+                    register(mbs, mbean, mbean.getObjectName());
+                }
+            }
+        }
+    }
+
+    private static void registerThrowableFingerprints(final LoggerContext ctx, final MBeanServer mbs)
+            throws InstanceAlreadyExistsException, MBeanRegistrationException, NotCompliantMBeanException {
+
+        for (final ThrowableFingerprintCache cache : ThrowableFingerprintCache.getCaches(ctx.getConfiguration())) {
+            final ThrowableFingerprintAdmin mbean = new ThrowableFingerprintAdmin(ctx.getName(), cache);
+            register(mbs, mbean, mbean.getObjectName());
+        }
+    }
+
+    private static void registerCompositeFilters(final LoggerContext ctx, final MBeanServer mbs)
+            throws InstanceAlreadyExistsException, MBeanRegistrationException, NotCompliantMBeanException {
+
+        for (final CompositeFilter composite : CompositeFilter.getAdaptiveFilters(ctx.getConfiguration())) {
+            final CompositeFilterAdmin mbean = new CompositeFilterAdmin(ctx.getName(), ctx.getConfiguration(), composite);
+            register(mbs, mbean, mbean.getObjectName());
         }
     }
 
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.jmx;
+
+import java.util.Objects;
+
+import javax.management.ObjectName;
+
+import org.apache.logging.log4j.core.impl.ThrowableFingerprintCache;
+
+/**
+ * Implementation of the {@code ThrowableFingerprintAdminMBean} interface.
+ *
+ * @since 3.0
+ */
+public class ThrowableFingerprintAdmin implements ThrowableFingerprintAdminMBean {
+
+    private final ThrowableFingerprintCache cache;
+    private final ObjectName objectName;
+
+    /**
+     * Constructs a new {@code ThrowableFingerprintAdmin} for the specified cache.
+     *
+     * @param contextName used in the {@code ObjectName} for this mbean
+     * @param cache the instrumented cache
+     */
+    public ThrowableFingerprintAdmin(final String contextName, final ThrowableFingerprintCache cache) {
+        this.cache = Objects.requireNonNull(cache, "cache");
+        try {
+            final String ctxName = Server.escape(Objects.requireNonNull(contextName, "contextName"));
+            final String name = String.format(PATTERN, ctxName, Server.escape(cache.getName()));
+            objectName = new ObjectName(name);
+        } catch (final Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns the {@code ObjectName} of this mbean.
+     *
+     * @return the {@code ObjectName}
+     * @see ThrowableFingerprintAdminMBean#PATTERN
+     */
+    public ObjectName getObjectName() {
+        return objectName;
+    }
+
+    @Override
+    public String getName() {
+        return cache.getName();
+    }
+
+    @Override
+    public int getMaxSize() {
+        return cache.getMaxSize();
+    }
+
+    @Override
+    public int getSize() {
+        return cache.getSize();
+    }
+
+    @Override
+    public long getIntervalMillis() {
+        return cache.getIntervalMillis();
+    }
+
+    @Override
+    public long getFullTraceCount() {
+        return cache.getFullTraceCount();
+    }
+
+    @Override
+    public long getReferenceCount() {
+        return cache.getReferenceCount();
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return cache.getEvictionCount();
+    }
+
+    @Override
+    public void clear() {
+        cache.clear();
+    }
+}
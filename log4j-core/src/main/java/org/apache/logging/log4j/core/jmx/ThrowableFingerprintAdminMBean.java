@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.jmx;
+
+/**
+ * The MBean interface for monitoring a cache of logged stack traces that replaces duplicate stack traces by a
+ * reference.
+ *
+ * @since 3.0
+ */
+public interface ThrowableFingerprintAdminMBean {
+    /**
+     * ObjectName pattern ({@value}) for ThrowableFingerprintAdmin MBeans.
+     * This pattern contains two variables, where the first is the
+     * name of the context, the second is the name of the instrumented cache.
+     * <p>
+     * You can find all registered ThrowableFingerprintAdmin MBeans like this:
+     * </p>
+     * <pre>
+     * MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+     * String pattern = String.format(ThrowableFingerprintAdminMBean.PATTERN, &quot;*&quot;, &quot;*&quot;);
+     * Set&lt;ObjectName&gt; cacheNames = mbs.queryNames(new ObjectName(pattern), null);
+     * </pre>
+     * @see Server#escape(String)
+     */
+    String PATTERN = Server.DOMAIN + ":type=%s,component=ThrowableFingerprints,name=%s";
+
+    /**
+     * Returns the name of the instrumented cache.
+     *
+     * @return the name of the cache
+     */
+    String getName();
+
+    /**
+     * Returns the maximum number of fingerprints in the cache.
+     *
+     * @return the maximum size of the cache
+     */
+    int getMaxSize();
+
+    /**
+     * Returns the number of fingerprints in the cache.
+     *
+     * @return the size of the cache
+     */
+    int getSize();
+
+    /**
+     * Returns the minimum number of milliseconds before a duplicate stack trace is logged in full again, or zero if
+     * each stack trace is logged in full only once.
+     *
+     * @return the interval in milliseconds
+     */
+    long getIntervalMillis();
+
+    /**
+     * Returns how often a stack trace was logged in full.
+     *
+     * @return the number of full stack traces
+     */
+    long getFullTraceCount();
+
+    /**
+     * Returns how often a stack trace was replaced by a reference.
+     *
+     * @return the number of references
+     */
+    long getReferenceCount();
+
+    /**
+     * Returns the number of fingerprints removed because the cache was full.
+     *
+     * @return the number of evicted fingerprints
+     */
+    long getEvictionCount();
+
+    /**
+     * Forgets all fingerprints, so each stack trace is logged in full once more.
+     */
+    void clear();
+}
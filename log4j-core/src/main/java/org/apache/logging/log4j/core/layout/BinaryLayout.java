@@ -0,0 +1,521 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.layout;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.Marker;
+import org.apache.logging.log4j.ThreadContext;
+import org.apache.logging.log4j.core.Layout;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.config.Configuration;
+import org.apache.logging.log4j.core.util.Constants;
+import org.apache.logging.log4j.message.Message;
+import org.apache.logging.log4j.message.ParameterConsumer;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.apache.logging.log4j.message.ReusableParameterizedMessage;
+import org.apache.logging.log4j.plugins.Node;
+import org.apache.logging.log4j.plugins.Plugin;
+import org.apache.logging.log4j.plugins.PluginBuilderAttribute;
+import org.apache.logging.log4j.plugins.PluginFactory;
+import org.apache.logging.log4j.util.ReadOnlyStringMap;
+import org.apache.logging.log4j.util.StringBuilderFormattable;
+import org.apache.logging.log4j.util.StringBuilders;
+import org.apache.logging.log4j.util.TriConsumer;
+
+/**
+ * Formats a log event in a compact binary format that can be converted back to text with
+ * {@link BinaryLogEventReader} or the {@link org.apache.logging.log4j.core.tools.BinaryLogConverter} tool.
+ * <p>
+ * The header identifies the format. Every event is a record made of its length followed by its fields. Numbers are
+ * written as variable length integers and the timestamp of an event is written as the difference to the timestamp of
+ * the previous event. Logger names, thread names, message templates and other strings that repeat from event to event
+ * are written once and then referred to by their index in a dictionary. The dictionary starts over every time the
+ * header is requested, that is for every new file, and every time an appender switches to another file or stream, so
+ * every file can be read on its own. It is limited to {@code maxDictionarySize} entries; other strings are written as
+ * they are.
+ * </p>
+ * <p>
+ * The parameters of parameterized messages are stored next to the message template so messages are never formatted
+ * when they are logged.
+ * </p>
+ * <p>
+ * Records created by {@link #toByteArray(LogEvent)} are self-contained: they neither use nor change the dictionary.
+ * </p>
+ *
+ * @since 3.0
+ */
+@Plugin(name = "BinaryLayout", category = Node.CATEGORY, elementType = Layout.ELEMENT_TYPE, printObject = true)
+public final class BinaryLayout extends AbstractLayout<byte[]> {
+
+    /**
+     * The default maximum number of dictionary entries.
+     */
+    public static final int DEFAULT_MAX_DICTIONARY_SIZE = 4096;
+
+    static final byte[] MAGIC = {'L', '4', 'J', 'B'};
+    static final int VERSION = 1;
+
+    static final int FLAG_ABSOLUTE_TIME = 0x01;
+    static final int FLAG_PARAMETERIZED = 0x02;
+    static final int FLAG_THROWN = 0x04;
+    static final int FLAG_MARKER = 0x08;
+    static final int FLAG_CONTEXT_DATA = 0x10;
+    static final int FLAG_CONTEXT_STACK = 0x20;
+    static final int FLAG_SOURCE = 0x40;
+
+    static final int STRING_NULL = 0;
+    static final int STRING_LITERAL = 1;
+
+    /**
+     * The maximum number of nested causes written for a throwable.
+     */
+    static final int MAX_THROWABLE_DEPTH = 32;
+
+    private static final String CONTENT_TYPE = "application/octet-stream";
+
+    private static final ParameterConsumer<BinaryLayout> WRITE_PARAMETER =
+            (parameter, index, layout) -> layout.writeParameter(parameter);
+
+    private static final TriConsumer<String, Object, BinaryLayout> WRITE_CONTEXT_ENTRY =
+            (key, value, layout) -> layout.writeContextEntry(key, value);
+
+    /**
+     * Builds a BinaryLayout.
+     *
+     * @param <B> the builder type
+     */
+    public static class Builder<B extends Builder<B>> extends AbstractLayout.Builder<B>
+            implements org.apache.logging.log4j.plugins.util.Builder<BinaryLayout> {
+
+        @PluginBuilderAttribute
+        private int maxDictionarySize = DEFAULT_MAX_DICTIONARY_SIZE;
+
+        @PluginBuilderAttribute
+        private boolean locationInfo;
+
+        @Override
+        public BinaryLayout build() {
+            if (maxDictionarySize < 0) {
+                LOGGER.error("Invalid maxDictionarySize {} for BinaryLayout", maxDictionarySize);
+                return null;
+            }
+            return new BinaryLayout(getConfiguration(), maxDictionarySize, locationInfo);
+        }
+
+        public int getMaxDictionarySize() {
+            return maxDictionarySize;
+        }
+
+        public boolean isLocationInfo() {
+            return locationInfo;
+        }
+
+        public B setMaxDictionarySize(final int maxDictionarySize) {
+            this.maxDictionarySize = maxDictionarySize;
+            return asBuilder();
+        }
+
+        public B setLocationInfo(final boolean locationInfo) {
+            this.locationInfo = locationInfo;
+            return asBuilder();
+        }
+    }
+
+    @PluginFactory
+    public static <B extends Builder<B>> B newBuilder() {
+        return new Builder<B>().asBuilder();
+    }
+
+    private final int maxDictionarySize;
+    private final boolean locationInfo;
+
+    // the following fields are guarded by this
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private final Buffer buffer = new Buffer();
+    private final byte[] lengthBytes = new byte[5];
+    private final StringBuilder text = new StringBuilder(128);
+    private boolean useDictionary;
+    private boolean absoluteTime = true;
+    private long previousMillis;
+
+    private BinaryLayout(final Configuration configuration, final int maxDictionarySize, final boolean locationInfo) {
+        super(configuration, null, null);
+        this.maxDictionarySize = maxDictionarySize;
+        this.locationInfo = locationInfo;
+    }
+
+    public int getMaxDictionarySize() {
+        return maxDictionarySize;
+    }
+
+    public boolean isLocationInfo() {
+        return locationInfo;
+    }
+
+    @Override
+    public boolean requiresLocation() {
+        return locationInfo;
+    }
+
+    @Override
+    public String getContentType() {
+        return CONTENT_TYPE;
+    }
+
+    /**
+     * Returns the header identifying the format and starts a new dictionary, as the header is requested for every new
+     * file.
+     *
+     * @return the header.
+     */
+    @Override
+    public byte[] getHeader() {
+        reset();
+        final byte[] header = Arrays.copyOf(MAGIC, MAGIC.length + 1);
+        header[MAGIC.length] = VERSION;
+        return header;
+    }
+
+    /**
+     * Starts a new dictionary and writes the next timestamp in full.
+     */
+    public synchronized void reset() {
+        dictionary.clear();
+        absoluteTime = true;
+    }
+
+    /**
+     * Returns true: events refer to the dictionary entries and timestamps of the events written before them.
+     */
+    @Override
+    public boolean isStateful() {
+        return true;
+    }
+
+    /**
+     * Starts a new dictionary, a header is only written to empty files and the records written to the new stream must
+     * not refer to entries written to the previous one.
+     */
+    @Override
+    public void streamChanged() {
+        reset();
+    }
+
+    @Override
+    public byte[] toSerializable(final LogEvent event) {
+        return toByteArray(event);
+    }
+
+    @Override
+    public synchronized byte[] toByteArray(final LogEvent event) {
+        writeEvent(event, false);
+        final int lengthSize = writeLength();
+        final byte[] result = new byte[lengthSize + buffer.length];
+        System.arraycopy(lengthBytes, 0, result, 0, lengthSize);
+        System.arraycopy(buffer.bytes, 0, result, lengthSize, buffer.length);
+        return result;
+    }
+
+    @Override
+    public void encode(final LogEvent event, final ByteBufferDestination destination) {
+        // the records must reach the destination in the order their dictionary entries and time deltas were created
+        synchronized (destination) {
+            synchronized (this) {
+                writeEvent(event, true);
+                final int lengthSize = writeLength();
+                ByteBufferDestinationHelper.writeToUnsynchronized(lengthBytes, 0, lengthSize, destination);
+                ByteBufferDestinationHelper.writeToUnsynchronized(buffer.bytes, 0, buffer.length, destination);
+            }
+        }
+    }
+
+    private int writeLength() {
+        int value = buffer.length;
+        int i = 0;
+        while ((value & ~0x7F) != 0) {
+            lengthBytes[i++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        lengthBytes[i++] = (byte) value;
+        return i;
+    }
+
+    private void writeEvent(final LogEvent event, final boolean stateful) {
+        useDictionary = stateful && maxDictionarySize > 0;
+        buffer.length = 0;
+        final Message message = event.getMessage();
+        final boolean parameterized = message instanceof ParameterizedMessage
+                || message instanceof ReusableParameterizedMessage;
+        final Marker marker = event.getMarker();
+        final ReadOnlyStringMap contextData = event.getContextData();
+        final ThreadContext.ContextStack contextStack = event.getContextStack();
+        final StackTraceElement source = locationInfo ? event.getSource() : null;
+        final Throwable thrown = event.getThrown();
+        final long millis = event.getInstant().getEpochMillisecond();
+        final boolean absolute = !stateful || absoluteTime;
+
+        int flags = 0;
+        if (absolute) {
+            flags |= FLAG_ABSOLUTE_TIME;
+        }
+        if (parameterized) {
+            flags |= FLAG_PARAMETERIZED;
+        }
+        if (thrown != null) {
+            flags |= FLAG_THROWN;
+        }
+        if (marker != null) {
+            flags |= FLAG_MARKER;
+        }
+        if (contextData != null && !contextData.isEmpty()) {
+            flags |= FLAG_CONTEXT_DATA;
+        }
+        if (contextStack != null && contextStack.getDepth() > 0) {
+            flags |= FLAG_CONTEXT_STACK;
+        }
+        if (source != null) {
+            flags |= FLAG_SOURCE;
+        }
+        buffer.writeByte(flags);
+
+        buffer.writeZigZag(absolute ? millis : millis - previousMillis);
+        buffer.writeVarLong(event.getInstant().getNanoOfMillisecond());
+        if (stateful) {
+            previousMillis = millis;
+            absoluteTime = false;
+        }
+        final Level level = event.getLevel();
+        buffer.writeVarLong(level.intLevel());
+        writeString(level.name(), true);
+        writeString(event.getLoggerName(), true);
+        writeString(event.getThreadName(), true);
+        buffer.writeVarLong(event.getThreadId());
+        buffer.writeVarLong(event.getThreadPriority());
+
+        if (message instanceof ParameterizedMessage) {
+            final ParameterizedMessage parameterizedMessage = (ParameterizedMessage) message;
+            writeString(parameterizedMessage.getFormat(), true);
+            final Object[] parameters = parameterizedMessage.getParameters();
+            final int count = parameters == null ? 0 : parameters.length;
+            buffer.writeVarLong(count);
+            for (int i = 0; i < count; i++) {
+                writeParameter(parameters[i]);
+            }
+        } else if (message instanceof ReusableParameterizedMessage) {
+            final ReusableParameterizedMessage parameterizedMessage = (ReusableParameterizedMessage) message;
+            writeString(parameterizedMessage.getFormat(), true);
+            buffer.writeVarLong(parameterizedMessage.getParameterCount());
+            parameterizedMessage.forEachParameter(WRITE_PARAMETER, this);
+        } else {
+            text.setLength(0);
+            if (message instanceof StringBuilderFormattable) {
+                ((StringBuilderFormattable) message).formatTo(text);
+            } else if (message != null) {
+                text.append(message.getFormattedMessage());
+            }
+            writeString(text, false);
+        }
+
+        if (marker != null) {
+            writeString(marker.getName(), true);
+        }
+        if ((flags & FLAG_CONTEXT_DATA) != 0) {
+            buffer.writeVarLong(contextData.size());
+            contextData.forEach(WRITE_CONTEXT_ENTRY, this);
+        }
+        if ((flags & FLAG_CONTEXT_STACK) != 0) {
+            buffer.writeVarLong(contextStack.getDepth());
+            for (final String element : contextStack) {
+                writeString(element, false);
+            }
+        }
+        if (source != null) {
+            writeStackTraceElement(source);
+        }
+        if (thrown != null) {
+            writeThrowable(thrown, 0);
+        }
+        StringBuilders.trimToMaxSize(text, Constants.MAX_REUSABLE_MESSAGE_SIZE);
+    }
+
+    private void writeParameter(final Object parameter) {
+        if (parameter == null) {
+            buffer.writeVarLong(STRING_NULL);
+            return;
+        }
+        text.setLength(0);
+        if (!StringBuilders.appendSpecificTypes(text, parameter)) {
+            text.append(ParameterizedMessage.deepToString(parameter));
+        }
+        writeString(text, false);
+    }
+
+    private void writeContextEntry(final String key, final Object value) {
+        writeString(key, true);
+        if (value == null) {
+            buffer.writeVarLong(STRING_NULL);
+            return;
+        }
+        text.setLength(0);
+        StringBuilders.appendValue(text, value);
+        writeString(text, false);
+    }
+
+    private void writeStackTraceElement(final StackTraceElement element) {
+        writeString(element.getClassName(), true);
+        writeString(element.getMethodName(), true);
+        writeString(element.getFileName(), true);
+        buffer.writeZigZag(element.getLineNumber());
+    }
+
+    private void writeThrowable(final Throwable thrown, final int depth) {
+        writeString(thrown.getClass().getName(), true);
+        writeString(thrown.getMessage(), false);
+        final StackTraceElement[] stackTrace = thrown.getStackTrace();
+        buffer.writeVarLong(stackTrace.length);
+        for (final StackTraceElement element : stackTrace) {
+            writeStackTraceElement(element);
+        }
+        final Throwable cause = thrown.getCause();
+        if (cause != null && cause != thrown && depth < MAX_THROWABLE_DEPTH) {
+            buffer.writeByte(1);
+            writeThrowable(cause, depth + 1);
+        } else {
+            buffer.writeByte(0);
+        }
+        final Throwable[] suppressed = depth < MAX_THROWABLE_DEPTH ? thrown.getSuppressed() : new Throwable[0];
+        buffer.writeVarLong(suppressed.length);
+        for (final Throwable throwable : suppressed) {
+            writeThrowable(throwable, depth + 1);
+        }
+    }
+
+    /**
+     * Writes a string as a null, a literal, a reference to a dictionary entry or a new dictionary entry.
+     */
+    private void writeString(final CharSequence value, final boolean intern) {
+        if (value == null) {
+            buffer.writeVarLong(STRING_NULL);
+            return;
+        }
+        if (intern && useDictionary) {
+            final String string = value.toString();
+            final Integer index = dictionary.get(string);
+            if (index != null) {
+                buffer.writeVarLong(2L * index + 2);
+                return;
+            }
+            if (dictionary.size() < maxDictionarySize) {
+                final int newIndex = dictionary.size();
+                dictionary.put(string, newIndex);
+                buffer.writeVarLong(2L * newIndex + 3);
+                buffer.writeUtf8(value);
+                return;
+            }
+        }
+        buffer.writeVarLong(STRING_LITERAL);
+        buffer.writeUtf8(value);
+    }
+
+    @Override
+    public String toString() {
+        return "BinaryLayout[maxDictionarySize=" + maxDictionarySize + ", locationInfo=" + locationInfo + ']';
+    }
+
+    /**
+     * Growable byte array the fields of a record are written to.
+     */
+    private static final class Buffer {
+
+        byte[] bytes = new byte[512];
+        int length;
+
+        void writeByte(final int value) {
+            ensureCapacity(1);
+            bytes[length++] = (byte) value;
+        }
+
+        void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[length++] = (byte) value;
+        }
+
+        void writeZigZag(final long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        void writeUtf8(final CharSequence value) {
+            final int chars = value.length();
+            int size = 0;
+            for (int i = 0; i < chars; i++) {
+                final char c = value.charAt(i);
+                if (c < 0x80) {
+                    size++;
+                } else if (c < 0x800) {
+                    size += 2;
+                } else if (Character.isHighSurrogate(c) && i + 1 < chars
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    size += 4;
+                    i++;
+                } else if (Character.isSurrogate(c)) {
+                    size++;
+                } else {
+                    size += 3;
+                }
+            }
+            writeVarLong(size);
+            ensureCapacity(size);
+            for (int i = 0; i < chars; i++) {
+                final char c = value.charAt(i);
+                if (c < 0x80) {
+                    bytes[length++] = (byte) c;
+                } else if (c < 0x800) {
+                    bytes[length++] = (byte) (0xC0 | (c >> 6));
+                    bytes[length++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < chars
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    final int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    bytes[length++] = (byte) (0xF0 | (codePoint >> 18));
+                    bytes[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    bytes[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    bytes[length++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    // unpaired surrogates are written as '?', like the JDK encoder does
+                    bytes[length++] = '?';
+                } else {
+                    bytes[length++] = (byte) (0xE0 | (c >> 12));
+                    bytes[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    bytes[length++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+        }
+
+        private void ensureCapacity(final int additional) {
+            if (length + additional > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + additional));
+            }
+        }
+    }
+}
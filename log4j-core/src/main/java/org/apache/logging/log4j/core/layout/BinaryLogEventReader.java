@@ -0,0 +1,392 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.layout;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Constructor;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.MarkerManager;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.impl.ContextDataFactory;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.core.time.MutableInstant;
+import org.apache.logging.log4j.message.Message;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.apache.logging.log4j.spi.MutableThreadContextStack;
+import org.apache.logging.log4j.spi.StandardLevel;
+import org.apache.logging.log4j.util.LoaderUtil;
+import org.apache.logging.log4j.util.StringMap;
+
+/**
+ * Reads the log events written by {@link BinaryLayout}.
+ * <p>
+ * Throwables are read as {@link DecodedThrowable}s, as creating an instance of a class named in the input runs code
+ * of that class. Only the Throwable classes the reader is created with are recreated as instances of their original
+ * class, if they have a public constructor taking the message. Levels that are not known in the reading JVM are
+ * replaced by the standard level of the same or the next lower specificity, they are not registered as custom
+ * levels. Markers are recreated without their parents.
+ * </p>
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ *
+ * @since 3.0
+ */
+public class BinaryLogEventReader implements Closeable {
+
+    private static final int MAX_RECORD_LENGTH = 64 * 1024 * 1024;
+
+    private final DataInputStream in;
+    private final Set<String> throwableClasses;
+    private final List<String> dictionary = new ArrayList<>();
+    private byte[] record = new byte[512];
+    private int position;
+    private int limit;
+    private long previousMillis;
+
+    /**
+     * Creates a reader for a stream that starts with the header of the BinaryLayout. All throwables are read as
+     * {@link DecodedThrowable}s.
+     *
+     * @param in the stream to read.
+     * @throws IOException if the stream cannot be read or does not start with the header.
+     */
+    public BinaryLogEventReader(final InputStream in) throws IOException {
+        this(in, Collections.emptySet());
+    }
+
+    /**
+     * Creates a reader for a stream that starts with the header of the BinaryLayout.
+     *
+     * @param in the stream to read.
+     * @param throwableClasses the names of the Throwable classes that are recreated, other throwables are read as
+     *        {@link DecodedThrowable}s.
+     * @throws IOException if the stream cannot be read or does not start with the header.
+     */
+    public BinaryLogEventReader(final InputStream in, final Collection<String> throwableClasses) throws IOException {
+        this.throwableClasses = new HashSet<>(throwableClasses);
+        this.in = new DataInputStream(new BufferedInputStream(in));
+        final byte[] header = new byte[BinaryLayout.MAGIC.length + 1];
+        try {
+            this.in.readFully(header);
+        } catch (final EOFException ex) {
+            throw new IOException("Not a binary log: missing header", ex);
+        }
+        for (int i = 0; i < BinaryLayout.MAGIC.length; i++) {
+            if (header[i] != BinaryLayout.MAGIC[i]) {
+                throw new IOException("Not a binary log: invalid header");
+            }
+        }
+        if (header[BinaryLayout.MAGIC.length] != BinaryLayout.VERSION) {
+            throw new IOException("Unsupported binary log version " + header[BinaryLayout.MAGIC.length]);
+        }
+    }
+
+    /**
+     * Reads the next log event.
+     *
+     * @return the next log event or null at the end of the stream.
+     * @throws IOException if the stream cannot be read or is corrupt.
+     */
+    public LogEvent read() throws IOException {
+        final int first = in.read();
+        if (first < 0) {
+            return null;
+        }
+        long length = first & 0x7F;
+        if ((first & 0x80) != 0) {
+            int shift = 7;
+            int b;
+            do {
+                b = in.readUnsignedByte();
+                length |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0 && shift < 35);
+        }
+        if (length > MAX_RECORD_LENGTH) {
+            throw new IOException("Corrupt binary log: record length " + length);
+        }
+        limit = (int) length;
+        if (record.length < limit) {
+            record = new byte[limit];
+        }
+        in.readFully(record, 0, limit);
+        position = 0;
+        try {
+            return readEvent();
+        } catch (final IndexOutOfBoundsException ex) {
+            throw new IOException("Corrupt binary log: truncated record", ex);
+        }
+    }
+
+    private LogEvent readEvent() throws IOException {
+        final int flags = readByte();
+        final long time = readZigZag();
+        final long millis = (flags & BinaryLayout.FLAG_ABSOLUTE_TIME) != 0 ? time : previousMillis + time;
+        previousMillis = millis;
+        final long nanoOfMilli = readVarLong();
+        if (nanoOfMilli >= 1_000_000) {
+            throw new IOException("Corrupt binary log: invalid nanoseconds " + nanoOfMilli);
+        }
+        final MutableInstant instant = new MutableInstant();
+        instant.initFromEpochMilli(millis, (int) nanoOfMilli);
+        final long intLevel = readVarLong();
+        final String levelName = readString();
+        final Log4jLogEvent.Builder builder = Log4jLogEvent.newBuilder()
+                .setInstant(instant)
+                .setLevel(toLevel(levelName, intLevel))
+                .setLoggerName(readString())
+                .setThreadName(readString())
+                .setThreadId(readVarLong())
+                .setThreadPriority((int) readVarLong());
+
+        final Message message;
+        if ((flags & BinaryLayout.FLAG_PARAMETERIZED) != 0) {
+            final String format = readString();
+            final Object[] parameters = new Object[readCount()];
+            for (int i = 0; i < parameters.length; i++) {
+                parameters[i] = readString();
+            }
+            message = new ParameterizedMessage(format, parameters);
+        } else {
+            message = new SimpleMessage(readString());
+        }
+        builder.setMessage(message);
+
+        if ((flags & BinaryLayout.FLAG_MARKER) != 0) {
+            builder.setMarker(MarkerManager.getMarker(readString()));
+        }
+        if ((flags & BinaryLayout.FLAG_CONTEXT_DATA) != 0) {
+            final int size = readCount();
+            final StringMap contextData = ContextDataFactory.createContextData(size);
+            for (int i = 0; i < size; i++) {
+                contextData.putValue(readString(), readString());
+            }
+            builder.setContextData(contextData);
+        }
+        if ((flags & BinaryLayout.FLAG_CONTEXT_STACK) != 0) {
+            final int depth = readCount();
+            final List<String> elements = new ArrayList<>(depth);
+            for (int i = 0; i < depth; i++) {
+                elements.add(readString());
+            }
+            builder.setContextStack(new MutableThreadContextStack(elements));
+        }
+        if ((flags & BinaryLayout.FLAG_SOURCE) != 0) {
+            builder.setSource(readStackTraceElement());
+        }
+        if ((flags & BinaryLayout.FLAG_THROWN) != 0) {
+            builder.setThrown(readThrowable(0));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns the level with the specified name, without registering levels named in the input.
+     */
+    private static Level toLevel(final String name, final long intLevel) throws IOException {
+        if (name == null || intLevel < 0 || intLevel > Integer.MAX_VALUE) {
+            throw new IOException("Corrupt binary log: invalid level " + name + " " + intLevel);
+        }
+        final Level level = Level.getLevel(name);
+        if (level != null) {
+            return level;
+        }
+        return Level.valueOf(StandardLevel.getStandardLevel((int) intLevel).name());
+    }
+
+    /**
+     * Reads the number of the elements that follow. Each element takes at least one byte of the record.
+     */
+    private int readCount() throws IOException {
+        final long count = readVarLong();
+        if (count < 0 || count > limit - position) {
+            throw new IOException("Corrupt binary log: invalid count " + count);
+        }
+        return (int) count;
+    }
+
+    private StackTraceElement readStackTraceElement() throws IOException {
+        final String className = readString();
+        final String methodName = readString();
+        final String fileName = readString();
+        final int lineNumber = (int) readZigZag();
+        return new StackTraceElement(className, methodName, fileName, lineNumber);
+    }
+
+    private Throwable readThrowable(final int depth) throws IOException {
+        if (depth > BinaryLayout.MAX_THROWABLE_DEPTH) {
+            throw new IOException("Corrupt binary log: throwables nested too deeply");
+        }
+        final String className = readString();
+        final String message = readString();
+        final StackTraceElement[] stackTrace = new StackTraceElement[readCount()];
+        for (int i = 0; i < stackTrace.length; i++) {
+            stackTrace[i] = readStackTraceElement();
+        }
+        final Throwable cause = readByte() != 0 ? readThrowable(depth + 1) : null;
+        Throwable throwable = newThrowable(className, message);
+        if (cause != null) {
+            try {
+                throwable.initCause(cause);
+            } catch (final IllegalStateException | IllegalArgumentException ex) {
+                // the constructor already set a cause
+                throwable = new DecodedThrowable(className, message);
+                throwable.initCause(cause);
+            }
+        }
+        throwable.setStackTrace(stackTrace);
+        final int suppressed = readCount();
+        for (int i = 0; i < suppressed; i++) {
+            throwable.addSuppressed(readThrowable(depth + 1));
+        }
+        return throwable;
+    }
+
+    private Throwable newThrowable(final String className, final String message) {
+        if (className == null || !throwableClasses.contains(className)) {
+            return new DecodedThrowable(className, message);
+        }
+        try {
+            // do not run static initializers of classes that are not Throwables
+            final ClassLoader loader = LoaderUtil.getThreadContextClassLoader();
+            final Class<?> clazz = Class.forName(className, false,
+                    loader != null ? loader : BinaryLogEventReader.class.getClassLoader());
+            if (Throwable.class.isAssignableFrom(clazz)) {
+                final Constructor<?> constructor = clazz.getConstructor(String.class);
+                return (Throwable) constructor.newInstance(message);
+            }
+        } catch (final LinkageError | ReflectiveOperationException | RuntimeException ex) {
+            // fall back to a DecodedThrowable
+        }
+        return new DecodedThrowable(className, message);
+    }
+
+    private String readString() throws IOException {
+        final long tag = readVarLong();
+        if (tag == BinaryLayout.STRING_NULL) {
+            return null;
+        }
+        if (tag == BinaryLayout.STRING_LITERAL) {
+            return readUtf8();
+        }
+        if (tag < 0 || tag > Integer.MAX_VALUE) {
+            throw new IOException("Corrupt binary log: invalid string tag " + tag);
+        }
+        final int index = (int) ((tag - 2) >>> 1);
+        if ((tag & 1) == 0) {
+            if (index >= dictionary.size() || dictionary.get(index) == null) {
+                throw new IOException("Corrupt binary log: undefined dictionary entry " + index);
+            }
+            return dictionary.get(index);
+        }
+        final String value = readUtf8();
+        if (index == 0) {
+            // the writer starts a new dictionary
+            dictionary.clear();
+        }
+        while (dictionary.size() <= index) {
+            dictionary.add(null);
+        }
+        dictionary.set(index, value);
+        return value;
+    }
+
+    private String readUtf8() {
+        final long length = readVarLong();
+        if (length > limit - position) {
+            throw new IndexOutOfBoundsException();
+        }
+        final String value = new String(record, position, (int) length, StandardCharsets.UTF_8);
+        position += (int) length;
+        return value;
+    }
+
+    private int readByte() {
+        if (position >= limit) {
+            throw new IndexOutOfBoundsException();
+        }
+        return record[position++] & 0xFF;
+    }
+
+    private long readVarLong() {
+        long value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0 && shift < 70);
+        return value;
+    }
+
+    private long readZigZag() {
+        final long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Stands in for a throwable whose class is not recreated. Its localized message starts with the name of the class
+     * of the original throwable, so printed stack traces still show it.
+     */
+    public static class DecodedThrowable extends Throwable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String className;
+
+        public DecodedThrowable(final String className, final String message) {
+            super(message);
+            this.className = className;
+        }
+
+        /**
+         * Returns the name of the class of the original throwable.
+         *
+         * @return the class name.
+         */
+        public String getClassName() {
+            return className;
+        }
+
+        @Override
+        public String getLocalizedMessage() {
+            final String message = getMessage();
+            return message != null ? className + ": " + message : className;
+        }
+    }
+}
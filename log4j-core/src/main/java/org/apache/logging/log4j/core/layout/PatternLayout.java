@@ -21,6 +21,7 @@ import org.apache.logging.log4j.core.LogEvent;
 import org.apache.logging.log4j.core.config.Configuration;
 import org.apache.logging.log4j.core.config.DefaultConfiguration;
 import org.apache.logging.log4j.core.config.plugins.PluginConfiguration;
+import org.apache.logging.log4j.core.pattern.CompiledPatternFormatter;
 import org.apache.logging.log4j.core.pattern.LogEventPatternConverter;
 import org.apache.logging.log4j.core.pattern.PatternFormatter;
 import org.apache.logging.log4j.core.pattern.PatternParser;
@@ -81,6 +82,7 @@ public final class PatternLayout extends AbstractStringLayout {
     private final String conversionPattern;
     private final PatternSelector patternSelector;
     private final Serializer eventSerializer;
+    private final SegmentedPatternEncoder segmentedEncoder;
 
     /**
      * Constructs a PatternLayout using the supplied conversion pattern.
@@ -98,11 +100,13 @@ public final class PatternLayout extends AbstractStringLayout {
      *            If {@code "true"} (default) and {@link System#console()} is null, do not output ANSI escape codes
      * @param headerPattern header conversion pattern.
      * @param footerPattern footer conversion pattern.
+     * @param compile
+     *            If {@code "true"}, the event pattern is compiled into a generated class
      */
     private PatternLayout(final Configuration config, final RegexReplacement replace, final String eventPattern,
             final PatternSelector patternSelector, final Charset charset, final boolean alwaysWriteExceptions,
             final boolean disableAnsi, final boolean noConsoleNoAnsi, final String headerPattern,
-            final String footerPattern) {
+            final String footerPattern, final boolean compile) {
         super(config, charset,
                 newSerializerBuilder()
                         .setConfiguration(config)
@@ -133,7 +137,12 @@ public final class PatternLayout extends AbstractStringLayout {
                 .setNoConsoleNoAnsi(noConsoleNoAnsi)
                 .setPattern(eventPattern)
                 .setDefaultPattern(DEFAULT_CONVERSION_PATTERN)
+                .setCompile(compile)
                 .build();
+        this.segmentedEncoder = replace == null && eventSerializer instanceof PatternSerializer
+                ? SegmentedPatternEncoder.create(((PatternSerializer) eventSerializer).formatters, getCharset(),
+                        compile)
+                : null;
     }
 
     public static SerializerBuilder newSerializerBuilder() {
@@ -190,6 +199,12 @@ public final class PatternLayout extends AbstractStringLayout {
 
     @Override
     public void encode(final LogEvent event, final ByteBufferDestination destination) {
+        if (segmentedEncoder != null) {
+            final StringBuilder text = getStringBuilder();
+            segmentedEncoder.encode(event, text, destination, getStringBuilderEncoder());
+            trimToMaxSize(text);
+            return;
+        }
         if (!(eventSerializer instanceof Serializer2)) {
             super.encode(event, destination);
             return;
@@ -294,6 +309,34 @@ public final class PatternLayout extends AbstractStringLayout {
         }
     }
 
+    /**
+     * Formats events with the pattern compiled into a generated class.
+     */
+    private static class CompiledPatternSerializer extends PatternSerializer {
+
+        private final CompiledPatternFormatter compiled;
+        private final RegexReplacement replace;
+
+        private CompiledPatternSerializer(final PatternFormatter[] formatters, final RegexReplacement replace,
+                final CompiledPatternFormatter compiled) {
+            super(formatters, replace);
+            this.compiled = compiled;
+            this.replace = replace;
+        }
+
+        @Override
+        public StringBuilder toSerializable(final LogEvent event, final StringBuilder buffer) {
+            compiled.format(event, buffer);
+            if (replace != null) { // creates temporary objects
+                String str = buffer.toString();
+                str = replace.format(str);
+                buffer.setLength(0);
+                buffer.append(str);
+            }
+            return buffer;
+        }
+    }
+
     public static class SerializerBuilder implements org.apache.logging.log4j.plugins.util.Builder<Serializer> {
 
         private Configuration configuration;
@@ -304,6 +347,7 @@ public final class PatternLayout extends AbstractStringLayout {
         private boolean alwaysWriteExceptions;
         private boolean disableAnsi;
         private boolean noConsoleNoAnsi;
+        private boolean compile;
 
         @Override
         public Serializer build() {
@@ -316,6 +360,12 @@ public final class PatternLayout extends AbstractStringLayout {
                     final List<PatternFormatter> list = parser.parse(pattern == null ? defaultPattern : pattern,
                             alwaysWriteExceptions, disableAnsi, noConsoleNoAnsi);
                     final PatternFormatter[] formatters = list.toArray(new PatternFormatter[0]);
+                    if (compile) {
+                        final CompiledPatternFormatter compiled = CompiledPatternFormatter.compile(formatters);
+                        if (compiled != null) {
+                            return new CompiledPatternSerializer(formatters, replace, compiled);
+                        }
+                    }
                     return new PatternSerializer(formatters, replace);
                 } catch (final RuntimeException ex) {
                     throw new IllegalArgumentException("Cannot parse pattern '" + pattern + "'", ex);
@@ -364,6 +414,16 @@ public final class PatternLayout extends AbstractStringLayout {
             return this;
         }
 
+        /**
+         * @param compile
+         *        If {@code "true"}, the pattern is compiled into a generated class. Ignored with a PatternSelector.
+         * @since 3.0
+         */
+        public SerializerBuilder setCompile(final boolean compile) {
+            this.compile = compile;
+            return this;
+        }
+
     }
 
     private static class PatternSelectorSerializer implements Serializer, Serializer2 {
@@ -491,6 +551,9 @@ public final class PatternLayout extends AbstractStringLayout {
         @PluginBuilderAttribute
         private String footer;
 
+        @PluginBuilderAttribute
+        private boolean compile;
+
         private Builder() {
         }
 
@@ -595,6 +658,17 @@ public final class PatternLayout extends AbstractStringLayout {
             return this;
         }
 
+        /**
+         * @param compile
+         *        If {@code "true"} (default is false), the pattern is compiled into a generated class that calls each
+         *        converter directly instead of iterating over them. Ignored with a PatternSelector.
+         * @since 3.0
+         */
+        public Builder setCompile(final boolean compile) {
+            this.compile = compile;
+            return this;
+        }
+
         @Override
         public PatternLayout build() {
             // fall back to DefaultConfiguration
@@ -602,7 +676,7 @@ public final class PatternLayout extends AbstractStringLayout {
                 configuration = new DefaultConfiguration();
             }
             return new PatternLayout(configuration, regexReplacement, pattern, patternSelector, charset,
-                alwaysWriteExceptions, disableAnsi, noConsoleNoAnsi, header, footer);
+                alwaysWriteExceptions, disableAnsi, noConsoleNoAnsi, header, footer, compile);
         }
     }
 
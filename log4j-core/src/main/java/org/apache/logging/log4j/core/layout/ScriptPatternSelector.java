@@ -23,6 +23,8 @@ import org.apache.logging.log4j.core.config.plugins.PluginConfiguration;
 import org.apache.logging.log4j.core.pattern.PatternFormatter;
 import org.apache.logging.log4j.core.pattern.PatternParser;
 import org.apache.logging.log4j.core.script.AbstractScript;
+import org.apache.logging.log4j.core.script.PreparedScript;
+import org.apache.logging.log4j.core.script.ScriptResultCache;
 import org.apache.logging.log4j.core.script.ScriptRef;
 import org.apache.logging.log4j.plugins.Node;
 import org.apache.logging.log4j.plugins.Plugin;
@@ -31,7 +33,7 @@ import org.apache.logging.log4j.plugins.PluginElement;
 import org.apache.logging.log4j.plugins.PluginFactory;
 import org.apache.logging.log4j.status.StatusLogger;
 
-import javax.script.SimpleBindings;
+import javax.script.Bindings;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -40,6 +42,11 @@ import java.util.Map;
  * Selects the pattern to use based on the result of executing a Script. The returned value will be used as the "key"
  * to choose between one of the configured patterns. If no key is returned or there is no match the default
  * pattern will be used.
+ * <p>
+ * If reuseBindings is set, the bindings passed to the script are created once per thread, see
+ * {@link PreparedScript}. If the script is declared deterministic, the pattern is selected once for each logger name,
+ * level and marker.
+ * </p>
  */
 @Plugin(name = "ScriptPatternSelector", category = Node.CATEGORY, elementType = PatternSelector.ELEMENT_TYPE, printObject = true)
 public class ScriptPatternSelector implements PatternSelector {
@@ -67,6 +74,12 @@ public class ScriptPatternSelector implements PatternSelector {
         @PluginBuilderAttribute("noConsoleNoAnsi")
         private boolean noConsoleNoAnsi;
 
+        @PluginBuilderAttribute("deterministic")
+        private boolean deterministic;
+
+        @PluginBuilderAttribute("reuseBindings")
+        private boolean reuseBindings;
+
         @PluginConfiguration
         private Configuration configuration;
 
@@ -94,7 +107,7 @@ public class ScriptPatternSelector implements PatternSelector {
                 return null;
             }
             return new ScriptPatternSelector(script, properties, defaultPattern, alwaysWriteExceptions, disableAnsi,
-                    noConsoleNoAnsi, configuration);
+                    noConsoleNoAnsi, deterministic, reuseBindings, configuration);
         }
 
         public Builder setScript(final AbstractScript script) {
@@ -127,6 +140,32 @@ public class ScriptPatternSelector implements PatternSelector {
             return this;
         }
 
+        /**
+         * Sets whether the script only depends on the logger name, level and marker of the event, so the pattern is
+         * only selected once for each combination.
+         *
+         * @param deterministic whether the result of the script can be cached.
+         * @return this builder.
+         * @since 3.0
+         */
+        public Builder setDeterministic(final boolean deterministic) {
+            this.deterministic = deterministic;
+            return this;
+        }
+
+        /**
+         * Sets whether the bindings passed to the script are reused for the next event on the same thread, so
+         * variables the script defines are kept between events.
+         *
+         * @param reuseBindings whether the bindings are reused.
+         * @return this builder.
+         * @since 3.0
+         */
+        public Builder setReuseBindings(final boolean reuseBindings) {
+            this.reuseBindings = reuseBindings;
+            return this;
+        }
+
         public Builder setConfiguration(final Configuration config) {
             this.configuration = config;
             return this;
@@ -143,17 +182,23 @@ public class ScriptPatternSelector implements PatternSelector {
 
     private static final Logger LOGGER = StatusLogger.getLogger();
     private final AbstractScript script;
-    private final Configuration configuration;
     private final boolean requiresLocation;
+    private final PreparedScript preparedScript;
+    private final ScriptResultCache<PatternFormatter[]> cache;
 
     private ScriptPatternSelector(final AbstractScript script, final PatternMatch[] properties, final String defaultPattern,
                                  final boolean alwaysWriteExceptions, final boolean disableAnsi,
-                                 final boolean noConsoleNoAnsi, final Configuration config) {
+                                 final boolean noConsoleNoAnsi, final boolean deterministic,
+                                 final boolean reuseBindings, final Configuration config) {
         this.script = script;
-        this.configuration = config;
         if (!(script instanceof ScriptRef)) {
             config.getScriptManager().addScript(script);
         }
+        final Map<String, Object> constants = new HashMap<>(config.getProperties());
+        constants.put("substitutor", config.getStrSubstitutor());
+        this.preparedScript = new PreparedScript(config.getScriptManager(), script, reuseBindings, constants,
+                "logEvent");
+        this.cache = deterministic ? new ScriptResultCache<>() : null;
         final PatternParser parser = PatternLayout.createPatternParser(config);
         boolean needsLocation = false;
         for (final PatternMatch property : properties) {
@@ -189,17 +234,25 @@ public class ScriptPatternSelector implements PatternSelector {
 
     @Override
     public PatternFormatter[] getFormatters(final LogEvent event) {
-        final SimpleBindings bindings = new SimpleBindings();
-        bindings.putAll(configuration.getProperties());
-        bindings.put("substitutor", configuration.getStrSubstitutor());
+        if (cache != null) {
+            final PatternFormatter[] cached = cache.get(event.getLoggerName(), event.getLevel(), event.getMarker());
+            if (cached != null) {
+                return cached;
+            }
+        }
+        final Bindings bindings = preparedScript.getBindings();
         bindings.put("logEvent", event);
-        final Object object = configuration.getScriptManager().execute(script.getName(), bindings);
+        final Object object = preparedScript.execute(bindings);
         if (object == null) {
+            // a failed script also returns null, so this is not cached
             return defaultFormatters;
         }
         final PatternFormatter[] patternFormatter = formatterMap.get(object.toString());
-
-        return patternFormatter == null ? defaultFormatters : patternFormatter;
+        final PatternFormatter[] formatters = patternFormatter == null ? defaultFormatters : patternFormatter;
+        if (cache != null) {
+            cache.put(event.getLoggerName(), event.getLevel(), event.getMarker(), formatters);
+        }
+        return formatters;
     }
 
 
@@ -0,0 +1,268 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.layout;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.pattern.CompiledPatternFormatter;
+import org.apache.logging.log4j.core.pattern.PatternFormatter;
+import org.apache.logging.log4j.core.util.Constants;
+import org.apache.logging.log4j.spi.AbstractLogger;
+import org.apache.logging.log4j.status.StatusLogger;
+import org.apache.logging.log4j.util.PerformanceSensitive;
+
+/**
+ * Encodes the events of a PatternLayout without encoding the text of its constant formatters for every event.
+ * <p>
+ * The pattern is split into segments of formatters that depend on the event followed by constant text, like literals
+ * and line separators, whose bytes are encoded once. The text of an event is formatted as usual. Only the parts of
+ * the text written by formatters that depend on the event are encoded, the bytes of the constant text are copied.
+ * Events whose bytes do not fit into the thread-local buffers are encoded with the StringBuilderEncoder of the layout.
+ * </p>
+ */
+@PerformanceSensitive("allocation")
+final class SegmentedPatternEncoder {
+
+    /**
+     * Constants between formatters that depend on the event are only encoded in advance if they are at least this
+     * long, as each segment costs an extra call to the CharsetEncoder. Constants at the start or the end of the
+     * pattern cost no extra call.
+     */
+    static final int MIN_INNER_CONSTANT_LENGTH = 16;
+
+    private static final byte[] EMPTY_BYTES = new byte[0];
+
+    private final Segment[] segments;
+    private final Charset charset;
+    private final boolean asciiCompatible;
+
+    /**
+     * Uses Object[] to only store JDK classes in the ThreadLocal, see StringBuilderEncoder. Not static: the state
+     * depends on the charset and the number of segments of this encoder, which lives as long as its layout.
+     */
+    @SuppressWarnings("ThreadLocalUsage")
+    private final ThreadLocal<Object[]> threadLocal = new ThreadLocal<>();
+
+    private SegmentedPatternEncoder(final Segment[] segments, final Charset charset) {
+        this.segments = segments;
+        this.charset = charset;
+        this.asciiCompatible = Constants.ENCODER_ASCII_FAST_PATH && TextEncoderHelper.isAsciiCompatible(charset);
+    }
+
+    /**
+     * Creates an encoder for the specified formatters.
+     *
+     * @param formatters the formatters of the pattern.
+     * @param charset the charset of the layout.
+     * @param compile whether to compile the formatters of each segment.
+     * @return the encoder or null if the pattern has no constant text worth encoding in advance or the charset does
+     * not encode text piece by piece.
+     */
+    static SegmentedPatternEncoder create(final PatternFormatter[] formatters, final Charset charset,
+            final boolean compile) {
+        if (!Constants.ENABLE_DIRECT_ENCODERS || !canEncodeSegments(charset)) {
+            return null;
+        }
+        final List<Segment> segments = new ArrayList<>();
+        final List<PatternFormatter> run = new ArrayList<>();
+        int i = 0;
+        while (i < formatters.length) {
+            if (!formatters[i].isConstant()) {
+                run.add(formatters[i++]);
+                continue;
+            }
+            final int start = i;
+            final StringBuilder constant = new StringBuilder();
+            while (i < formatters.length && formatters[i].isConstant()) {
+                constant.append(formatters[i++].getConstantText());
+            }
+            if (start == 0 || i == formatters.length || constant.length() >= MIN_INNER_CONSTANT_LENGTH) {
+                segments.add(new Segment(run, compile, constant.toString(), charset));
+                run.clear();
+            } else {
+                run.addAll(Arrays.asList(formatters).subList(start, i));
+            }
+        }
+        if (segments.isEmpty()) {
+            return null;
+        }
+        if (!run.isEmpty()) {
+            segments.add(new Segment(run, compile, "", charset));
+        }
+        return new SegmentedPatternEncoder(segments.toArray(new Segment[0]), charset);
+    }
+
+    /**
+     * Returns whether text encoded in pieces results in the same bytes as the whole text, which is not the case for
+     * charsets that write a byte order mark.
+     */
+    private static boolean canEncodeSegments(final Charset charset) {
+        if (!charset.canEncode()) {
+            return false;
+        }
+        final byte[] first = "a".getBytes(charset);
+        final byte[] second = "b\u00e9".getBytes(charset);
+        final byte[] whole = "ab\u00e9".getBytes(charset);
+        final byte[] concatenated = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, concatenated, first.length, second.length);
+        return Arrays.equals(whole, concatenated);
+    }
+
+    /**
+     * Formats the specified event into the specified StringBuilder and writes its bytes to the destination.
+     *
+     * @param event the event to encode.
+     * @param text the StringBuilder to format the event into.
+     * @param destination the destination to write the bytes to.
+     * @param fallback encodes the formatted text if the bytes of the event do not fit into the buffers.
+     */
+    void encode(final LogEvent event, final StringBuilder text, final ByteBufferDestination destination,
+            final Encoder<StringBuilder> fallback) {
+        if (AbstractLogger.getRecursionDepth() > 1) { // LOG4J2-2368
+            // Recursive logging may clobber the segment ends in the thread-local state.
+            for (final Segment segment : segments) {
+                segment.format(event, text);
+                text.append(segment.constant);
+            }
+            fallback.encode(text, destination);
+            return;
+        }
+        final Object[] threadLocalState = getThreadLocalState();
+        final int[] ends = (int[]) threadLocalState[3];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i].format(event, text);
+            ends[i] = text.length();
+            text.append(segments[i].constant);
+        }
+        final ByteBuffer byteBuffer = (ByteBuffer) threadLocalState[2];
+        boolean encoded = false;
+        try {
+            encoded = encodeSegments((CharsetEncoder) threadLocalState[0], (CharBuffer) threadLocalState[1],
+                    byteBuffer, text, ends);
+        } catch (final RuntimeException ex) {
+            StatusLogger.getLogger().error("Recovering from SegmentedPatternEncoder.encode('{}') error: {}", text, ex,
+                    ex);
+        }
+        if (encoded) {
+            byteBuffer.flip();
+            destination.writeBytes(byteBuffer);
+        } else {
+            fallback.encode(text, destination);
+        }
+        byteBuffer.clear();
+    }
+
+    private boolean encodeSegments(final CharsetEncoder charsetEncoder, final CharBuffer charBuffer,
+            final ByteBuffer byteBuffer, final StringBuilder text, final int[] ends) {
+        int start = 0;
+        for (int i = 0; i < segments.length; i++) {
+            final int end = ends[i];
+            if (end > start) {
+                if (end - start > charBuffer.capacity()) {
+                    return false;
+                }
+                charBuffer.clear();
+                text.getChars(start, end, charBuffer.array(), charBuffer.arrayOffset());
+                charBuffer.limit(end - start);
+                if (asciiCompatible) {
+                    if (!TextEncoderHelper.encodeAsciiFirst(charsetEncoder, charBuffer, byteBuffer)) {
+                        return false;
+                    }
+                } else {
+                    charsetEncoder.reset();
+                    if (!charsetEncoder.encode(charBuffer, byteBuffer, true).isUnderflow()
+                            || !charsetEncoder.flush(byteBuffer).isUnderflow()) {
+                        return false;
+                    }
+                }
+            }
+            final byte[] bytes = segments[i].bytes;
+            if (bytes.length > byteBuffer.remaining()) {
+                return false;
+            }
+            byteBuffer.put(bytes);
+            start = end + segments[i].constant.length();
+        }
+        return true;
+    }
+
+    private Object[] getThreadLocalState() {
+        Object[] threadLocalState = threadLocal.get();
+        if (threadLocalState == null) {
+            threadLocalState = new Object[] {
+                    charset.newEncoder().onMalformedInput(CodingErrorAction.REPLACE)
+                            .onUnmappableCharacter(CodingErrorAction.REPLACE),
+                    CharBuffer.allocate(Constants.ENCODER_CHAR_BUFFER_SIZE),
+                    ByteBuffer.allocate(Constants.ENCODER_BYTE_BUFFER_SIZE),
+                    new int[segments.length]
+            };
+            threadLocal.set(threadLocalState);
+        }
+        return threadLocalState;
+    }
+
+    int getSegmentCount() {
+        return segments.length;
+    }
+
+    @Override
+    public String toString() {
+        return "SegmentedPatternEncoder[segments=" + Arrays.toString(segments) + ", charset=" + charset + "]";
+    }
+
+    /**
+     * Formatters that depend on the event followed by constant text.
+     */
+    private static final class Segment {
+
+        private final PatternFormatter[] formatters;
+        private final CompiledPatternFormatter compiled;
+        private final String constant;
+        private final byte[] bytes;
+
+        Segment(final List<PatternFormatter> formatters, final boolean compile, final String constant,
+                final Charset charset) {
+            this.formatters = formatters.toArray(new PatternFormatter[0]);
+            this.compiled = compile && !formatters.isEmpty() ? CompiledPatternFormatter.compile(this.formatters) : null;
+            this.constant = constant;
+            this.bytes = constant.isEmpty() ? EMPTY_BYTES : constant.getBytes(charset);
+        }
+
+        void format(final LogEvent event, final StringBuilder text) {
+            if (compiled != null) {
+                compiled.format(event, text);
+                return;
+            }
+            for (int i = 0; i < formatters.length; i++) {
+                formatters[i].format(event, text);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "Segment[formatters=" + Arrays.toString(formatters) + ", constant=" + constant + "]";
+        }
+    }
+}
@@ -47,6 +47,7 @@ public class StringBuilderEncoder implements Encoder<StringBuilder> {
     private final Charset charset;
     private final int charBufferSize;
     private final int byteBufferSize;
+    private final boolean asciiCompatible;
 
     public StringBuilderEncoder(final Charset charset) {
         this(charset, Constants.ENCODER_CHAR_BUFFER_SIZE, DEFAULT_BYTE_BUFFER_SIZE);
@@ -56,6 +57,7 @@ public class StringBuilderEncoder implements Encoder<StringBuilder> {
         this.charBufferSize = charBufferSize;
         this.byteBufferSize = byteBufferSize;
         this.charset = Objects.requireNonNull(charset, "charset");
+        this.asciiCompatible = Constants.ENCODER_ASCII_FAST_PATH && TextEncoderHelper.isAsciiCompatible(charset);
     }
 
     @Override
@@ -65,6 +67,10 @@ public class StringBuilderEncoder implements Encoder<StringBuilder> {
             final CharsetEncoder charsetEncoder = (CharsetEncoder) threadLocalState[0];
             final CharBuffer charBuffer = (CharBuffer) threadLocalState[1];
             final ByteBuffer byteBuffer = (ByteBuffer) threadLocalState[2];
+            if (asciiCompatible
+                    && TextEncoderHelper.encodeAsciiText(charsetEncoder, charBuffer, byteBuffer, source, destination)) {
+                return;
+            }
             TextEncoderHelper.encodeText(charsetEncoder, charBuffer, byteBuffer, source, destination);
         } catch (final Exception ex) {
             logEncodeTextException(ex, source, destination);
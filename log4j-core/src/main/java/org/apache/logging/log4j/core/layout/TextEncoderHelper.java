@@ -283,6 +283,123 @@ public class TextEncoderHelper {
         }
     }
 
+    /**
+     * Returns whether the specified charset encodes every ASCII character into the single byte with the same value, so
+     * ASCII text can be copied into a byte array without a CharsetEncoder.
+     *
+     * @param charset the charset to check
+     * @return whether ASCII characters can be copied as bytes
+     */
+    static boolean isAsciiCompatible(final Charset charset) {
+        if (!charset.canEncode()) {
+            return false;
+        }
+        final char[] ascii = new char[0x80];
+        for (int i = 0; i < ascii.length; i++) {
+            ascii[i] = (char) i;
+        }
+        final byte[] bytes = new String(ascii).getBytes(charset);
+        if (bytes.length != ascii.length) {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] != i) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Converts the specified text to bytes and writes the resulting bytes to the specified destination if the text
+     * fits into the thread-local buffers. Leading ASCII characters are copied into the byte buffer directly, only the
+     * characters from the first non-ASCII character on are converted by the CharsetEncoder.
+     *
+     * @param charsetEncoder thread-local encoder instance for an ASCII compatible charset
+     * @param charBuf thread-local text buffer for converting text to bytes
+     * @param byteBuf thread-local buffer to temporarily hold converted bytes before copying them to the destination
+     * @param text the text to convert and write to the destination
+     * @param destination the destination to write the bytes to
+     * @return {@code false} if the text was not written because it does not fit into the buffers, in which case both
+     * buffers are cleared
+     */
+    static boolean encodeAsciiText(final CharsetEncoder charsetEncoder, final CharBuffer charBuf,
+            final ByteBuffer byteBuf, final StringBuilder text, final ByteBufferDestination destination) {
+        final int length = text.length();
+        if (length > charBuf.capacity()) {
+            return false;
+        }
+        charBuf.clear();
+        text.getChars(0, length, charBuf.array(), charBuf.arrayOffset());
+        charBuf.limit(length);
+        if (!encodeAsciiFirst(charsetEncoder, charBuf, byteBuf)) {
+            charBuf.clear();
+            byteBuf.clear();
+            return false;
+        }
+        byteBuf.flip();
+        destination.writeBytes(byteBuf);
+        byteBuf.clear();
+        return true;
+    }
+
+    /**
+     * Converts the remaining characters of the CharBuffer into the ByteBuffer. Leading ASCII characters are copied
+     * directly, the rest is converted by the CharsetEncoder, which must be for an ASCII compatible charset.
+     *
+     * @return {@code false} if the ByteBuffer is too small for the converted characters
+     */
+    static boolean encodeAsciiFirst(final CharsetEncoder charsetEncoder, final CharBuffer charBuf,
+            final ByteBuffer byteBuf) {
+        if (charBuf.remaining() <= byteBuf.remaining() && charBuf.hasArray() && byteBuf.hasArray()) {
+            final int start = charBuf.arrayOffset() + charBuf.position();
+            final int end = charBuf.arrayOffset() + charBuf.limit();
+            final int copied = copyAscii(charBuf.array(), start, end, byteBuf.array(),
+                    byteBuf.arrayOffset() + byteBuf.position()) - start;
+            charBuf.position(charBuf.position() + copied);
+            byteBuf.position(byteBuf.position() + copied);
+            if (!charBuf.hasRemaining()) {
+                return true;
+            }
+        }
+        charsetEncoder.reset();
+        return charsetEncoder.encode(charBuf, byteBuf, true).isUnderflow()
+                && charsetEncoder.flush(byteBuf).isUnderflow();
+    }
+
+    /**
+     * Copies the characters of the specified range into the byte array until the first non-ASCII character. The
+     * caller must make sure that the byte array has room for all characters of the range.
+     * <p>
+     * Blocks of eight characters are checked with a single branch and copied in a loop without any, which the JIT
+     * compiler unrolls and vectorizes. The remaining characters are copied one by one.
+     * </p>
+     *
+     * @param chars the characters to copy
+     * @param start the index of the first character to copy
+     * @param end the index after the last character to copy
+     * @param bytes the byte array to copy the characters into
+     * @param offset the index in the byte array for the first character
+     * @return the index of the first character that was not copied, which is {@code end} if all characters are ASCII
+     */
+    static int copyAscii(final char[] chars, final int start, final int end, final byte[] bytes, final int offset) {
+        final int shift = offset - start;
+        int i = start;
+        for (; i + 8 <= end; i += 8) {
+            if ((chars[i] | chars[i + 1] | chars[i + 2] | chars[i + 3]
+                    | chars[i + 4] | chars[i + 5] | chars[i + 6] | chars[i + 7]) >= 0x80) {
+                break;
+            }
+            for (int j = i; j < i + 8; j++) {
+                bytes[j + shift] = (byte) chars[j];
+            }
+        }
+        for (; i < end && chars[i] < 0x80; i++) {
+            bytes[i + shift] = (byte) chars[i];
+        }
+        return i;
+    }
+
     /**
      * Copies characters from the StringBuilder into the CharBuffer,
      * starting at the specified offset and ending when either all
@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.pattern;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.logging.log4j.core.util.Integers;
+import org.apache.logging.log4j.util.PerformanceSensitive;
+
+/**
+ * NameAbbreviator that remembers the abbreviations of the names it has seen.
+ * <p>
+ * Names are looked up in a set associative cache of a fixed size. When all entries of a set are taken, the CLOCK
+ * algorithm evicts an entry that was not used since the hand of the set last passed it. Appending a cached
+ * abbreviation neither scans the name nor allocates objects.
+ * </p>
+ */
+@PerformanceSensitive("allocation")
+final class CachingNameAbbreviator extends NameAbbreviator {
+
+    private static final int WAYS = 4;
+
+    private final NameAbbreviator abbreviator;
+
+    /**
+     * Entries are immutable apart from the reference bit, so they can be shared between threads without locking. A
+     * thread that does not see the entry another thread just stored only abbreviates the name once more.
+     */
+    private final Entry[] entries;
+    private final int[] hands;
+    private final int setMask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Creates a caching abbreviator.
+     *
+     * @param abbreviator the abbreviator to cache the results of.
+     * @param maxSize the maximum number of cached names, rounded up to a power of two.
+     */
+    CachingNameAbbreviator(final NameAbbreviator abbreviator, final int maxSize) {
+        this.abbreviator = abbreviator;
+        final int sets = Math.max(1, Integers.ceilingNextPowerOfTwo(maxSize) / WAYS);
+        this.entries = new Entry[sets * WAYS];
+        this.hands = new int[sets];
+        this.setMask = sets - 1;
+    }
+
+    @Override
+    public void abbreviate(final String original, final StringBuilder destination) {
+        final int hash = original.hashCode();
+        final int set = (hash ^ (hash >>> 16)) & setMask;
+        final int first = set * WAYS;
+        for (int i = first; i < first + WAYS; i++) {
+            final Entry entry = entries[i];
+            if (entry != null && entry.hash == hash && original.equals(entry.name)) {
+                if (!entry.referenced) {
+                    entry.referenced = true;
+                }
+                hits.increment();
+                destination.append(entry.abbreviation);
+                return;
+            }
+        }
+        misses.increment();
+        final int start = destination.length();
+        abbreviator.abbreviate(original, destination);
+        store(set, new Entry(original, hash, destination.substring(start)));
+    }
+
+    private void store(final int set, final Entry entry) {
+        final int first = set * WAYS;
+        int hand = hands[set];
+        // at most one round clears all reference bits, so an entry is found within two
+        for (int i = 0; i < 2 * WAYS; i++) {
+            final int index = first + hand;
+            hand = (hand + 1) & (WAYS - 1);
+            final Entry current = entries[index];
+            if (current == null || !current.referenced) {
+                entries[index] = entry;
+                break;
+            }
+            current.referenced = false;
+        }
+        hands[set] = hand;
+    }
+
+    /**
+     * Returns the number of names whose abbreviation was found in the cache.
+     *
+     * @return the number of cache hits.
+     */
+    long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of names that were abbreviated because they were not found in the cache.
+     *
+     * @return the number of cache misses.
+     */
+    long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "CachingNameAbbreviator[abbreviator=" + abbreviator + ", size=" + entries.length + "]";
+    }
+
+    private static final class Entry {
+
+        final String name;
+        final int hash;
+        final String abbreviation;
+        boolean referenced;
+
+        Entry(final String name, final int hash, final String abbreviation) {
+            this.name = name;
+            this.hash = hash;
+            this.abbreviation = abbreviation;
+        }
+    }
+}
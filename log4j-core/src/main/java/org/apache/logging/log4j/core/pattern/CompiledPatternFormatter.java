@@ -0,0 +1,362 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.pattern;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.status.StatusLogger;
+
+/**
+ * Formats a LogEvent with a list of PatternFormatters compiled into a single generated class.
+ * <p>
+ * Iterating over the PatternFormatters calls every converter from the same call site, which the JIT compiler cannot
+ * inline once a pattern uses more than two converter classes. The generated class instead calls each converter from
+ * its own call site, appends the text of {@linkplain PatternFormatter#isConstant() constant} formatters as constants
+ * and applies the {@link FormattingInfo} of a converter only when the pattern specifies one. The output is the same as
+ * calling {@link PatternFormatter#format(LogEvent, StringBuilder)} for each formatter.
+ * </p>
+ *
+ * @since 3.0
+ */
+public abstract class CompiledPatternFormatter {
+
+    private static final Logger LOGGER = StatusLogger.getLogger();
+
+    /**
+     * The largest number of formatters compiled, which keeps the generated method well below the size limit of the
+     * class file format.
+     */
+    private static final int MAX_FORMATTERS = 1024;
+
+    /**
+     * The longest literal appended as a constant, which keeps its modified UTF-8 encoding below the size limit of the
+     * class file format.
+     */
+    private static final int MAX_CONSTANT_LENGTH = 8 * 1024;
+
+    private static final String PACKAGE = "org/apache/logging/log4j/core/pattern/generated/";
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+
+    private static final String STRING_BUILDER = "java/lang/StringBuilder";
+    private static final String SUPER_CLASS = CompiledPatternFormatter.class.getName().replace('.', '/');
+    private static final String CONVERTER = LogEventPatternConverter.class.getName().replace('.', '/');
+    private static final String FORMATTING_INFO = FormattingInfo.class.getName().replace('.', '/');
+    private static final String LOG_EVENT = LogEvent.class.getName().replace('.', '/');
+    private static final String CONVERTERS_DESCRIPTOR = "[L" + CONVERTER + ';';
+    private static final String FORMATTING_INFOS_DESCRIPTOR = "[L" + FORMATTING_INFO + ';';
+    private static final String FORMAT_DESCRIPTOR = "(L" + LOG_EVENT + ";L" + STRING_BUILDER + ";)V";
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_PRIVATE = 0x0002;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+
+    private static final int ICONST_0 = 0x03;
+    private static final int BIPUSH = 0x10;
+    private static final int SIPUSH = 0x11;
+    private static final int LDC_W = 0x13;
+    private static final int ILOAD_3 = 0x1d;
+    private static final int ALOAD_0 = 0x2a;
+    private static final int ALOAD_1 = 0x2b;
+    private static final int ALOAD_2 = 0x2c;
+    private static final int AALOAD = 0x32;
+    private static final int ISTORE_3 = 0x3e;
+    private static final int POP = 0x57;
+    private static final int RETURN = 0xb1;
+    private static final int GETFIELD = 0xb4;
+    private static final int PUTFIELD = 0xb5;
+    private static final int INVOKEVIRTUAL = 0xb6;
+    private static final int INVOKESPECIAL = 0xb7;
+
+    /**
+     * Constructor.
+     */
+    protected CompiledPatternFormatter() {
+    }
+
+    /**
+     * Formats the specified event into the specified buffer.
+     *
+     * @param event the LogEvent.
+     * @param buffer the StringBuilder to append to.
+     */
+    public abstract void format(final LogEvent event, final StringBuilder buffer);
+
+    /**
+     * Compiles the specified formatters.
+     *
+     * @param formatters the formatters of a parsed pattern.
+     * @return the compiled formatters or null if they cannot be compiled, in which case the formatters must be used.
+     */
+    public static CompiledPatternFormatter compile(final PatternFormatter[] formatters) {
+        if (formatters.length > MAX_FORMATTERS) {
+            LOGGER.warn("Not compiling a pattern of {} converters, only up to {} are supported", formatters.length,
+                    MAX_FORMATTERS);
+            return null;
+        }
+        final LogEventPatternConverter[] converters = new LogEventPatternConverter[formatters.length];
+        final FormattingInfo[] formattingInfos = new FormattingInfo[formatters.length];
+        final String[] constants = new String[formatters.length];
+        for (int i = 0; i < formatters.length; i++) {
+            converters[i] = formatters[i].getConverter();
+            formattingInfos[i] = formatters[i].getFormattingInfo();
+            final String constant = formatters[i].getConstantText();
+            constants[i] = constant != null && constant.length() <= MAX_CONSTANT_LENGTH ? constant : null;
+        }
+        final String className = PACKAGE + "PatternFormatter" + COUNTER.incrementAndGet();
+        try {
+            final byte[] bytes = generate(className, converters, formattingInfos, constants);
+            final Class<?> clazz = new GeneratedClassLoader(CompiledPatternFormatter.class.getClassLoader())
+                    .define(className.replace('/', '.'), bytes);
+            return (CompiledPatternFormatter) clazz
+                    .getConstructor(LogEventPatternConverter[].class, FormattingInfo[].class)
+                    .newInstance(converters, formattingInfos);
+        } catch (final IOException | ReflectiveOperationException | RuntimeException | LinkageError ex) {
+            LOGGER.warn("Unable to compile pattern converters {}, using them as they are", Arrays.toString(formatters),
+                    ex);
+            return null;
+        }
+    }
+
+    private static byte[] generate(final String className, final LogEventPatternConverter[] converters,
+            final FormattingInfo[] formattingInfos, final String[] constants) throws IOException {
+        final ConstantPool pool = new ConstantPool();
+        final int thisClass = pool.classInfo(className);
+        final int superClass = pool.classInfo(SUPER_CLASS);
+        final int convertersField = pool.fieldRef(className, "converters", CONVERTERS_DESCRIPTOR);
+        final int formattingInfosField = pool.fieldRef(className, "formattingInfos", FORMATTING_INFOS_DESCRIPTOR);
+
+        final ByteArrayOutputStream constructor = new ByteArrayOutputStream();
+        final DataOutputStream init = new DataOutputStream(constructor);
+        init.writeByte(ALOAD_0);
+        init.writeByte(INVOKESPECIAL);
+        init.writeShort(pool.methodRef(SUPER_CLASS, "<init>", "()V"));
+        init.writeByte(ALOAD_0);
+        init.writeByte(ALOAD_1);
+        init.writeByte(PUTFIELD);
+        init.writeShort(convertersField);
+        init.writeByte(ALOAD_0);
+        init.writeByte(ALOAD_2);
+        init.writeByte(PUTFIELD);
+        init.writeShort(formattingInfosField);
+        init.writeByte(RETURN);
+
+        final ByteArrayOutputStream method = new ByteArrayOutputStream();
+        final DataOutputStream code = new DataOutputStream(method);
+        final int append = pool.methodRef(STRING_BUILDER, "append", "(Ljava/lang/String;)L" + STRING_BUILDER + ';');
+        for (int i = 0; i < converters.length; i++) {
+            if (constants[i] != null) {
+                // adjacent constants are appended at once
+                final StringBuilder literal = new StringBuilder(constants[i]);
+                while (i + 1 < converters.length && constants[i + 1] != null
+                        && literal.length() <= MAX_CONSTANT_LENGTH) {
+                    literal.append(constants[++i]);
+                }
+                code.writeByte(ALOAD_2);
+                code.writeByte(LDC_W);
+                code.writeShort(pool.string(literal.toString()));
+                code.writeByte(INVOKEVIRTUAL);
+                code.writeShort(append);
+                code.writeByte(POP);
+                continue;
+            }
+            final boolean skipFormattingInfo = formattingInfos[i] == FormattingInfo.getDefault();
+            if (!skipFormattingInfo) {
+                code.writeByte(ALOAD_2);
+                code.writeByte(INVOKEVIRTUAL);
+                code.writeShort(pool.methodRef(STRING_BUILDER, "length", "()I"));
+                code.writeByte(ISTORE_3);
+            }
+            loadElement(code, convertersField, i);
+            code.writeByte(ALOAD_1);
+            code.writeByte(ALOAD_2);
+            code.writeByte(INVOKEVIRTUAL);
+            code.writeShort(pool.methodRef(CONVERTER, "format", FORMAT_DESCRIPTOR));
+            if (!skipFormattingInfo) {
+                loadElement(code, formattingInfosField, i);
+                code.writeByte(ILOAD_3);
+                code.writeByte(ALOAD_2);
+                code.writeByte(INVOKEVIRTUAL);
+                code.writeShort(pool.methodRef(FORMATTING_INFO, "format", "(IL" + STRING_BUILDER + ";)V"));
+            }
+        }
+        code.writeByte(RETURN);
+
+        final int codeAttribute = pool.utf8("Code");
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0xCAFEBABE);
+        out.writeShort(0); // minor version
+        out.writeShort(52); // Java 8, straight line code needs no stack map frames
+        final int constructorName = pool.utf8("<init>");
+        final int constructorDescriptor = pool.utf8(
+                "(" + CONVERTERS_DESCRIPTOR + FORMATTING_INFOS_DESCRIPTOR + ")V");
+        final int formatName = pool.utf8("format");
+        final int formatDescriptor = pool.utf8(FORMAT_DESCRIPTOR);
+        pool.writeTo(out);
+        out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+        out.writeShort(thisClass);
+        out.writeShort(superClass);
+        out.writeShort(0); // interfaces
+        out.writeShort(2); // fields
+        writeField(out, pool.utf8("converters"), pool.utf8(CONVERTERS_DESCRIPTOR));
+        writeField(out, pool.utf8("formattingInfos"), pool.utf8(FORMATTING_INFOS_DESCRIPTOR));
+        out.writeShort(2); // methods
+        writeMethod(out, constructorName, constructorDescriptor, codeAttribute, 2, 3, constructor.toByteArray());
+        writeMethod(out, formatName, formatDescriptor, codeAttribute, 3, 4, method.toByteArray());
+        out.writeShort(0); // attributes
+        return bytes.toByteArray();
+    }
+
+    private static void loadElement(final DataOutputStream code, final int field, final int index)
+            throws IOException {
+        code.writeByte(ALOAD_0);
+        code.writeByte(GETFIELD);
+        code.writeShort(field);
+        if (index <= 5) {
+            code.writeByte(ICONST_0 + index);
+        } else if (index <= Byte.MAX_VALUE) {
+            code.writeByte(BIPUSH);
+            code.writeByte(index);
+        } else {
+            code.writeByte(SIPUSH);
+            code.writeShort(index);
+        }
+        code.writeByte(AALOAD);
+    }
+
+    private static void writeField(final DataOutputStream out, final int name, final int descriptor)
+            throws IOException {
+        out.writeShort(ACC_PRIVATE | ACC_FINAL);
+        out.writeShort(name);
+        out.writeShort(descriptor);
+        out.writeShort(0); // attributes
+    }
+
+    private static void writeMethod(final DataOutputStream out, final int name, final int descriptor,
+            final int codeAttribute, final int maxStack, final int maxLocals, final byte[] code) throws IOException {
+        out.writeShort(ACC_PUBLIC);
+        out.writeShort(name);
+        out.writeShort(descriptor);
+        out.writeShort(1); // attributes
+        out.writeShort(codeAttribute);
+        out.writeInt(12 + code.length);
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(code.length);
+        out.write(code);
+        out.writeShort(0); // exception table
+        out.writeShort(0); // attributes
+    }
+
+    /**
+     * The constant pool of the generated class.
+     */
+    private static final class ConstantPool {
+
+        private static final int UTF8 = 1;
+        private static final int CLASS = 7;
+        private static final int STRING = 8;
+        private static final int FIELD_REF = 9;
+        private static final int METHOD_REF = 10;
+        private static final int NAME_AND_TYPE = 12;
+
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final List<Object[]> entries = new ArrayList<>();
+
+        int utf8(final String value) {
+            return add(UTF8, "U" + value, value);
+        }
+
+        int classInfo(final String internalName) {
+            return add(CLASS, "C" + internalName, utf8(internalName));
+        }
+
+        int string(final String value) {
+            return add(STRING, "S" + value, utf8(value));
+        }
+
+        int fieldRef(final String owner, final String name, final String descriptor) {
+            return add(FIELD_REF, "F" + owner + '.' + name + ':' + descriptor, classInfo(owner),
+                    nameAndType(name, descriptor));
+        }
+
+        int methodRef(final String owner, final String name, final String descriptor) {
+            return add(METHOD_REF, "M" + owner + '.' + name + descriptor, classInfo(owner),
+                    nameAndType(name, descriptor));
+        }
+
+        private int nameAndType(final String name, final String descriptor) {
+            return add(NAME_AND_TYPE, "N" + name + ':' + descriptor, utf8(name), utf8(descriptor));
+        }
+
+        private int add(final int tag, final String key, final Object... values) {
+            // the keys start with a character for the tag, so entries of different kinds never clash
+            final Integer index = indexes.get(key);
+            if (index != null) {
+                return index;
+            }
+            final Object[] entry = new Object[values.length + 1];
+            entry[0] = tag;
+            System.arraycopy(values, 0, entry, 1, values.length);
+            entries.add(entry);
+            // constant pool indexes start at 1
+            indexes.put(key, entries.size());
+            return entries.size();
+        }
+
+        void writeTo(final DataOutputStream out) throws IOException {
+            out.writeShort(entries.size() + 1);
+            for (final Object[] entry : entries) {
+                final int tag = (Integer) entry[0];
+                out.writeByte(tag);
+                if (tag == UTF8) {
+                    out.writeUTF((String) entry[1]);
+                } else {
+                    for (int i = 1; i < entry.length; i++) {
+                        out.writeShort((Integer) entry[i]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Defines a single generated class, which can be unloaded together with its ClassLoader once the layout is no
+     * longer used.
+     */
+    private static final class GeneratedClassLoader extends ClassLoader {
+
+        GeneratedClassLoader(final ClassLoader parent) {
+            super(parent);
+        }
+
+        Class<?> define(final String name, final byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length, CompiledPatternFormatter.class.getProtectionDomain());
+        }
+    }
+}
@@ -19,6 +19,7 @@ package org.apache.logging.log4j.core.pattern;
 import org.apache.logging.log4j.core.LogEvent;
 import org.apache.logging.log4j.core.config.Configuration;
 import org.apache.logging.log4j.plugins.Plugin;
+import org.apache.logging.log4j.core.impl.ThrowableFingerprintCache;
 import org.apache.logging.log4j.core.impl.ThrowableProxy;
 
 /**
@@ -33,6 +34,8 @@ import org.apache.logging.log4j.core.impl.ThrowableProxy;
 @ConverterKeys({ "xEx", "xThrowable", "xException" })
 public final class ExtendedThrowablePatternConverter extends ThrowablePatternConverter {
 
+    private final ThrowableFingerprintCache fingerprints;
+
     /**
      * Private constructor.
      * 
@@ -41,6 +44,8 @@ public final class ExtendedThrowablePatternConverter extends ThrowablePatternCon
      */
     private ExtendedThrowablePatternConverter(final Configuration config, final String[] options) {
         super("ExtendedThrowable", "throwable", options, config);
+        this.fingerprints = this.options.isDedupe() ? ThrowableFingerprintCache.create(config, "xEx",
+                this.options.getDedupeMaxSize(), this.options.getDedupeIntervalMillis()) : null;
     }
 
     /**
@@ -71,9 +76,44 @@ public final class ExtendedThrowablePatternConverter extends ThrowablePatternCon
             if (len > 0 && !Character.isWhitespace(toAppendTo.charAt(len - 1))) {
                 toAppendTo.append(' ');
             }
+            if (fingerprints != null) {
+                // the same fingerprint as other layouts compute for the Throwable
+                final long fingerprint = throwable != null ? ThrowableFingerprintCache.fingerprint(throwable)
+                        : ThrowableFingerprintCache.fingerprint(proxy);
+                final long count = fingerprints.record(fingerprint);
+                if (count > 0) {
+                    formatReference(proxy, fingerprint, count, toAppendTo);
+                    return;
+                }
+                proxy.formatExtendedStackTraceTo(toAppendTo, options.getIgnorePackages(),
+                        options.getTextRenderer(), getSuffix(event), options.getSeparator());
+                ThrowableFingerprintCache.formatFingerprint(fingerprint, toAppendTo);
+                toAppendTo.append(options.getSeparator());
+                return;
+            }
             proxy.formatExtendedStackTraceTo(toAppendTo, options.getIgnorePackages(),
                     options.getTextRenderer(), getSuffix(event), options.getSeparator());
         }
     }
 
+    private void formatReference(final ThrowableProxy proxy, final long fingerprint, final long count,
+            final StringBuilder toAppendTo) {
+        toAppendTo.append(proxy.getName());
+        if (proxy.getMessage() != null) {
+            toAppendTo.append(": ").append(proxy.getMessage());
+        }
+        toAppendTo.append(' ');
+        ThrowableFingerprintCache.formatReference(fingerprint, count, toAppendTo);
+        toAppendTo.append(options.getSeparator());
+    }
+
+    /**
+     * Returns the cache of logged stack traces if the {@code dedupe} option is set.
+     *
+     * @return the cache or null.
+     * @since 3.0
+     */
+    public ThrowableFingerprintCache getFingerprintCache() {
+        return fingerprints;
+    }
 }
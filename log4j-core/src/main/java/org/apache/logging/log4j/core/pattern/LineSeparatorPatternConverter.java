@@ -65,4 +65,9 @@ public final class LineSeparatorPatternConverter extends LogEventPatternConverte
     public void format(final LogEvent event, final StringBuilder toAppendTo) {
         toAppendTo.append(lineSep);
     }
+
+    @Override
+    public boolean isConstant() {
+        return true;
+    }
 }
@@ -85,6 +85,14 @@ public final class LiteralPatternConverter extends LogEventPatternConverter impl
         return false;
     }
 
+    /**
+     * Literals are constant unless they contain lookups that are resolved for every event.
+     */
+    @Override
+    public boolean isConstant() {
+        return !substitute;
+    }
+
     @Override
     public String toString() {
         return "LiteralPatternConverter[literal=" + literal + ", config=" + config + ", substitute=" + substitute + "]";
@@ -77,4 +77,15 @@ public abstract class LogEventPatternConverter extends AbstractPatternConverter
     public boolean isVariable() {
         return true;
     }
+
+    /**
+     * Some pattern converters always output the same text, independent of the LogEvent. Layouts may format the
+     * output of such converters once and reuse it, including its encoded bytes.
+     *
+     * @return true if the output of this PatternConverter does not depend on the LogEvent.
+     * @since 3.0
+     */
+    public boolean isConstant() {
+        return false;
+    }
 }
@@ -16,7 +16,7 @@
  */
 package org.apache.logging.log4j.core.pattern;
 
-
+import org.apache.logging.log4j.core.util.Constants;
 import org.apache.logging.log4j.util.PerformanceSensitive;
 
 /**
@@ -39,10 +39,14 @@ public abstract class NamePatternConverter extends LogEventPatternConverter {
     protected NamePatternConverter(final String name, final String style, final String[] options) {
         super(name, style);
 
-        if (options != null && options.length > 0) {
-            abbreviator = NameAbbreviator.getAbbreviator(options[0]);
+        final NameAbbreviator nameAbbreviator = options != null && options.length > 0
+                ? NameAbbreviator.getAbbreviator(options[0])
+                : NameAbbreviator.getDefaultAbbreviator();
+        // the default abbreviator appends the whole name, there is nothing to cache
+        if (nameAbbreviator != NameAbbreviator.getDefaultAbbreviator() && Constants.ABBREVIATION_CACHE_SIZE > 0) {
+            abbreviator = new CachingNameAbbreviator(nameAbbreviator, Constants.ABBREVIATION_CACHE_SIZE);
         } else {
-            abbreviator = NameAbbreviator.getDefaultAbbreviator();
+            abbreviator = nameAbbreviator;
         }
     }
 
@@ -56,4 +60,24 @@ public abstract class NamePatternConverter extends LogEventPatternConverter {
     protected final void abbreviate(final String original, final StringBuilder destination) {
         abbreviator.abbreviate(original, destination);
     }
+
+    /**
+     * Returns the number of names whose abbreviation was taken from the cache of this converter.
+     *
+     * @return the number of cache hits, zero if names are not abbreviated or the cache is disabled.
+     * @since 3.0
+     */
+    public long getAbbreviationCacheHits() {
+        return abbreviator instanceof CachingNameAbbreviator ? ((CachingNameAbbreviator) abbreviator).getHits() : 0;
+    }
+
+    /**
+     * Returns the number of names this converter abbreviated because they were not in its cache.
+     *
+     * @return the number of cache misses, zero if names are not abbreviated or the cache is disabled.
+     * @since 3.0
+     */
+    public long getAbbreviationCacheMisses() {
+        return abbreviator instanceof CachingNameAbbreviator ? ((CachingNameAbbreviator) abbreviator).getMisses() : 0;
+    }
 }
@@ -17,6 +17,7 @@
 package org.apache.logging.log4j.core.pattern;
 
 import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
 
 
 /**
@@ -76,6 +77,32 @@ public class PatternFormatter {
         return converter.requiresLocation();
     }
 
+    /**
+     * Returns whether this formatter always outputs the same text, which is the case when its converter is constant.
+     *
+     * @return true if the output of this formatter does not depend on the LogEvent.
+     * @see LogEventPatternConverter#isConstant()
+     * @since 3.0
+     */
+    public boolean isConstant() {
+        return converter.isConstant();
+    }
+
+    /**
+     * Returns the text a constant formatter outputs for every event.
+     *
+     * @return the formatted text or null if this formatter is not constant.
+     * @since 3.0
+     */
+    public String getConstantText() {
+        if (!isConstant()) {
+            return null;
+        }
+        final StringBuilder sb = new StringBuilder();
+        format(Log4jLogEvent.newBuilder().build(), sb);
+        return sb.toString();
+    }
+
     /**
      * Returns a String suitable for debugging.
      *
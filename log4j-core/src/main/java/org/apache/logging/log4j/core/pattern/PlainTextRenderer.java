@@ -37,4 +37,9 @@ public final class PlainTextRenderer implements TextRenderer {
         output.append(input);
     }
 
+    @Override
+    public void render(final int input, final StringBuilder output, final String styleName) {
+        output.append(input);
+    }
+
 }
@@ -65,4 +65,9 @@ public final class ProcessIdPatternConverter extends LogEventPatternConverter {
     public void format(final LogEvent event, final StringBuilder toAppendTo) {
         toAppendTo.append(pid);
     }
+
+    @Override
+    public boolean isConstant() {
+        return true;
+    }
 }
@@ -68,6 +68,15 @@ public final class RootThrowablePatternConverter extends ThrowablePatternConvert
                 super.format(event, toAppendTo);
                 return;
             }
+            if (options.allLines() && Strings.LINE_SEPARATOR.equals(options.getSeparator())) {
+                final int len = toAppendTo.length();
+                if (len > 0 && !Character.isWhitespace(toAppendTo.charAt(len - 1))) {
+                    toAppendTo.append(' ');
+                }
+                proxy.formatCauseStackTraceTo(toAppendTo, options.getIgnorePackages(), options.getTextRenderer(),
+                        getSuffix(event), options.getSeparator());
+                return;
+            }
             final String trace = proxy.getCauseStackTraceAsString(options.getIgnorePackages(), options.getTextRenderer(), getSuffix(event), options.getSeparator());
             final int len = toAppendTo.length();
             if (len > 0 && !Character.isWhitespace(toAppendTo.charAt(len - 1))) {
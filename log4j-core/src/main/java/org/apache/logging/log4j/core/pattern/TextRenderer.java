@@ -43,4 +43,19 @@ public interface TextRenderer {
      */
     void render(StringBuilder input, StringBuilder output);
 
+    /**
+     * Renders a number to an output.
+     * 
+     * @param input
+     *            The number
+     * @param output
+     *            The output
+     * @param styleName
+     *            The style name to use to render the input on the output.
+     * @since 3.0
+     */
+    default void render(final int input, final StringBuilder output, final String styleName) {
+        render(Integer.toString(input), output, styleName);
+    }
+
 }
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.script;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.script.Bindings;
+import javax.script.SimpleBindings;
+
+import org.apache.logging.log4j.core.util.Constants;
+
+/**
+ * Executes a script of a {@link ScriptManager}, optionally with bindings that are created once per thread.
+ * <p>
+ * Script engines may keep state in the bindings they are passed. Nashorn, for example, creates a new global object
+ * for bindings it has not seen before, which takes far longer than running a small script. Reusing the bindings of a
+ * thread avoids this cost. The constants are put into the bindings when they are created. The caller sets the
+ * variables before each execution and they are reset to null afterwards, so the bindings do not keep events alive.
+ * Variables defined by the script itself are kept between the executions on the same thread, which is why reusing
+ * the bindings must be requested by the configuration.
+ * </p>
+ * <p>
+ * New bindings are created for each execution when reusing them was not requested, when thread locals are disabled,
+ * or when the script is executed again while it is running on the same thread, for example because it logs an event.
+ * </p>
+ *
+ * @since 3.0
+ */
+public final class PreparedScript {
+
+    private final ScriptManager scriptManager;
+    private final String name;
+    private final Map<String, Object> constants;
+    private final String[] variables;
+
+    /**
+     * Uses Object[] to only store JDK classes in the ThreadLocal: the bindings and whether they are in use.
+     */
+    private final ThreadLocal<Object[]> threadLocal;
+
+    /**
+     * Creates a prepared script.
+     *
+     * @param scriptManager the ScriptManager the script was added to.
+     * @param script the script.
+     * @param reuseBindings whether the bindings of a thread are reused for the next execution on that thread.
+     * @param constants the bindings that are the same for each execution.
+     * @param variables the names of the bindings that are set for each execution.
+     */
+    public PreparedScript(final ScriptManager scriptManager, final AbstractScript script,
+            final boolean reuseBindings, final Map<String, ?> constants, final String... variables) {
+        this.scriptManager = scriptManager;
+        this.name = script.getName();
+        this.constants = new HashMap<>(constants);
+        this.variables = variables.clone();
+        this.threadLocal = reuseBindings && Constants.ENABLE_THREADLOCALS ? new ThreadLocal<>() : null;
+    }
+
+    /**
+     * Returns the bindings for the next execution on the current thread. The caller sets the variables and passes
+     * the bindings to {@link #execute(Bindings)}.
+     *
+     * @return the bindings with the constants and the variables set to null.
+     */
+    public Bindings getBindings() {
+        if (threadLocal == null) {
+            return createBindings();
+        }
+        Object[] state = threadLocal.get();
+        if (state == null) {
+            state = new Object[] {createBindings(), Boolean.FALSE};
+            threadLocal.set(state);
+        }
+        if (state[1] == Boolean.TRUE) {
+            return createBindings();
+        }
+        state[1] = Boolean.TRUE;
+        return (Bindings) state[0];
+    }
+
+    /**
+     * Executes the script.
+     *
+     * @param bindings the bindings returned by {@link #getBindings()}.
+     * @return the result of the script, or null if the script failed.
+     */
+    public Object execute(final Bindings bindings) {
+        try {
+            return scriptManager.execute(name, bindings);
+        } finally {
+            final Object[] state = threadLocal == null ? null : threadLocal.get();
+            if (state != null && state[0] == bindings) {
+                for (final String variable : variables) {
+                    bindings.put(variable, null);
+                }
+                state[1] = Boolean.FALSE;
+            }
+        }
+    }
+
+    private Bindings createBindings() {
+        final Bindings bindings = new SimpleBindings();
+        bindings.putAll(constants);
+        for (final String variable : variables) {
+            bindings.put(variable, null);
+        }
+        return bindings;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns whether the bindings of a thread are reused for the next execution on that thread.
+     *
+     * @return whether the bindings are reused.
+     */
+    public boolean isReuseBindings() {
+        return threadLocal != null;
+    }
+
+    @Override
+    public String toString() {
+        return "PreparedScript[name=" + name + ", variables=" + String.join(", ", variables) + "]";
+    }
+}
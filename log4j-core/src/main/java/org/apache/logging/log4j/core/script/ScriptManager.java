@@ -171,6 +171,9 @@ public class ScriptManager implements FileWatcher, Serializable {
             logger.warn("No script named {} could be found");
             return null;
         }
+        if (System.getSecurityManager() == null) {
+            return scriptRunner.execute(bindings);
+        }
         return AccessController.doPrivileged(new PrivilegedAction<Object>() {
             @Override
             public Object run() {
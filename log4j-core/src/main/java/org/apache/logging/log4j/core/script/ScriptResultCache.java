@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.script;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.Marker;
+
+/**
+ * Remembers the results of a script that only depends on the logger name, the level and the marker of an event.
+ * <p>
+ * The cache holds at most a fixed number of results. When it is full it is cleared, so a configuration with more
+ * combinations than that executes the script again for some events, but does not use more memory.
+ * </p>
+ * <p>
+ * The results are kept in nested maps, by logger name, level and marker, so looking up a result does not allocate.
+ * </p>
+ *
+ * @param <V> the type of the results.
+ * @since 3.0
+ */
+public final class ScriptResultCache<V> {
+
+    /**
+     * The default maximum number of results in a cache.
+     */
+    public static final int DEFAULT_MAX_SIZE = 1024;
+
+    /**
+     * Stands for null in the maps, which do not accept null keys.
+     */
+    private static final Object NULL_KEY = new Object();
+
+    private final ConcurrentMap<Object, ConcurrentMap<Object, ConcurrentMap<Object, V>>> results =
+            new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final int maxSize;
+
+    /**
+     * Creates a cache holding at most {@value #DEFAULT_MAX_SIZE} results.
+     */
+    public ScriptResultCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Creates a cache.
+     *
+     * @param maxSize the maximum number of results to remember.
+     */
+    public ScriptResultCache(final int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+        }
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the result for the specified inputs.
+     *
+     * @param loggerName the name of the logger, may be null.
+     * @param level the level of the event, may be null.
+     * @param marker the marker of the event, may be null.
+     * @return the result, or null if the script was not executed for these inputs yet.
+     */
+    public V get(final String loggerName, final Level level, final Marker marker) {
+        final ConcurrentMap<Object, ConcurrentMap<Object, V>> levels = results.get(toKey(loggerName));
+        if (levels == null) {
+            return null;
+        }
+        final ConcurrentMap<Object, V> markers = levels.get(toKey(level));
+        return markers == null ? null : markers.get(toKey(marker));
+    }
+
+    /**
+     * Remembers the result for the specified inputs.
+     *
+     * @param loggerName the name of the logger, may be null.
+     * @param level the level of the event, may be null.
+     * @param marker the marker of the event, may be null.
+     * @param result the result of the script, not null.
+     */
+    public void put(final String loggerName, final Level level, final Marker marker, final V result) {
+        if (size.get() >= maxSize) {
+            clear();
+        }
+        final ConcurrentMap<Object, V> markers = results
+                .computeIfAbsent(toKey(loggerName), key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(toKey(level), key -> new ConcurrentHashMap<>());
+        if (markers.put(toKey(marker), result) == null) {
+            size.incrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the number of results in the cache.
+     *
+     * @return the size of the cache.
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Forgets all results.
+     */
+    public void clear() {
+        results.clear();
+        size.set(0);
+    }
+
+    private static Object toKey(final Object value) {
+        return value == null ? NULL_KEY : value;
+    }
+}
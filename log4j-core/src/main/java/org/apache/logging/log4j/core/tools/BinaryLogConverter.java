@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.tools;
+
+import java.io.BufferedOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.logging.log4j.core.Appender;
+import org.apache.logging.log4j.core.Layout;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.apache.logging.log4j.core.layout.BinaryLogEventReader;
+import org.apache.logging.log4j.core.layout.PatternLayout;
+
+/**
+ * Converts log files written with the {@link org.apache.logging.log4j.core.layout.BinaryLayout} to text, using
+ * either a pattern or the layout of an appender in a configuration file.
+ */
+public final class BinaryLogConverter {
+
+    /**
+     * The pattern used if neither a pattern nor a configuration is specified.
+     */
+    public static final String DEFAULT_PATTERN = "%d [%t] %-5level %logger - %msg%n";
+
+    private BinaryLogConverter() {
+    }
+
+    /**
+     * Converts the log files specified on the command line.
+     *
+     * @param args the command line arguments.
+     */
+    public static void main(final String[] args) {
+        String pattern = null;
+        String config = null;
+        String appenderName = null;
+        String output = null;
+        final List<String> inputs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            final String arg = args[i];
+            if (i + 1 < args.length && ("-p".equals(arg) || "--pattern".equals(arg))) {
+                pattern = args[++i];
+            } else if (i + 1 < args.length && ("-c".equals(arg) || "--config".equals(arg))) {
+                config = args[++i];
+            } else if (i + 1 < args.length && ("-a".equals(arg) || "--appender".equals(arg))) {
+                appenderName = args[++i];
+            } else if (i + 1 < args.length && ("-o".equals(arg) || "--output".equals(arg))) {
+                output = args[++i];
+            } else if (arg.startsWith("-")) {
+                usage(System.err);
+                System.exit(-1);
+            } else {
+                inputs.add(arg);
+            }
+        }
+        if (inputs.isEmpty() || (config == null) != (appenderName == null) || (config != null && pattern != null)) {
+            usage(System.err);
+            System.exit(-1);
+        }
+
+        LoggerContext context = null;
+        try {
+            final Layout<? extends Serializable> layout;
+            if (config != null) {
+                context = Configurator.initialize(BinaryLogConverter.class.getName(), config);
+                final Appender appender = context.getConfiguration().getAppender(appenderName);
+                if (appender == null || appender.getLayout() == null) {
+                    System.err.println("No layout for appender '" + appenderName + "' in " + config);
+                    System.exit(-1);
+                    return;
+                }
+                layout = appender.getLayout();
+            } else {
+                layout = PatternLayout.newBuilder().setPattern(pattern != null ? pattern : DEFAULT_PATTERN).build();
+            }
+            final OutputStream out = new BufferedOutputStream(
+                    output != null ? new FileOutputStream(output) : System.out);
+            try {
+                writeBytes(layout.getHeader(), out);
+                for (final String input : inputs) {
+                    try (final InputStream in = open(input)) {
+                        convert(in, layout, out);
+                    }
+                }
+                writeBytes(layout.getFooter(), out);
+            } finally {
+                if (output != null) {
+                    out.close();
+                } else {
+                    out.flush();
+                }
+            }
+        } catch (final IOException ex) {
+            System.err.println("Cannot convert binary log: " + ex);
+            System.exit(-1);
+        } finally {
+            Configurator.shutdown(context);
+        }
+    }
+
+    /**
+     * Converts the log events of a binary log.
+     *
+     * @param in the binary log.
+     * @param layout the layout formatting the log events.
+     * @param out the stream the formatted log events are written to.
+     * @return the number of log events.
+     * @throws IOException if the binary log cannot be read or is corrupt, or the formatted events cannot be written.
+     */
+    public static long convert(final InputStream in, final Layout<?> layout, final OutputStream out)
+            throws IOException {
+        final BinaryLogEventReader reader = new BinaryLogEventReader(in);
+        long count = 0;
+        for (LogEvent event = reader.read(); event != null; event = reader.read()) {
+            out.write(layout.toByteArray(event));
+            count++;
+        }
+        return count;
+    }
+
+    private static InputStream open(final String input) throws IOException {
+        final InputStream in = new FileInputStream(input);
+        return input.endsWith(".gz") ? new GZIPInputStream(in) : in;
+    }
+
+    private static void writeBytes(final byte[] bytes, final OutputStream out) throws IOException {
+        if (bytes != null) {
+            out.write(bytes);
+        }
+    }
+
+    private static void usage(final PrintStream out) {
+        out.println("Usage: java " + BinaryLogConverter.class.getName()
+                + " [--pattern pattern | --config file --appender name] [--output file] binaryLog...");
+        out.println("       Converts log files written with the BinaryLayout to text. The log events are formatted");
+        out.println("       with the pattern, by default '" + DEFAULT_PATTERN + "', or with the layout of the");
+        out.println("       appender in the configuration file. Files ending with .gz are decompressed. The text");
+        out.println("       is written to standard output unless an output file is specified.");
+    }
+}
@@ -38,6 +38,12 @@ public final class Constants {
      */
     public static final String LOG4J_DEFAULT_STATUS_LEVEL = "Log4jDefaultStatusLevel";
 
+    /**
+     * Name of the system property that lets a running configuration update its LoggerConfigs in place when they are
+     * the only change of a new configuration.
+     */
+    public static final String LOG4J_INCREMENTAL_RECONFIGURATION = "log4j2.incrementalReconfiguration";
+
     /**
      * JNDI context name string literal.
      */
@@ -96,6 +102,18 @@ public final class Constants {
             // the alternative is to enable GC-free encoding only by default only when using all-async loggers:
             //AsyncLoggerContextSelector.class.getName().equals(PropertiesUtil.getProperties().getStringProperty(LOG4J_CONTEXT_SELECTOR)));
 
+    /**
+     * Kill switch for the text encoders' fast path that copies ASCII characters into the byte buffer instead of
+     * converting them with a {@link java.nio.charset.CharsetEncoder}. The fast path is only used for charsets like
+     * UTF-8 and ISO-8859-1 that encode ASCII characters as single bytes of the same value.
+     * <p>
+     * {@code True} by default. Disable by setting system property "log4j2.encoder.asciiFastPath" to "false".
+     * </p>
+     * @since 3.0
+     */
+    public static final boolean ENCODER_ASCII_FAST_PATH = PropertiesUtil.getProperties().getBooleanProperty(
+            "log4j2.encoder.asciiFastPath", true);
+
     /**
      * Initial StringBuilder size used in RingBuffer LogEvents to store the contents of reusable Messages.
      * <p>
@@ -135,6 +153,29 @@ public final class Constants {
      */
     public static final int ENCODER_BYTE_BUFFER_SIZE = size("log4j.encoder.byteBufferSize", 8 * 1024);
 
+    /**
+     * Maximum number of abbreviated names cached by each pattern converter that abbreviates names, like
+     * {@code %c{1.}}.
+     * <p>
+     * The default value is {@value}, users can override with system property "log4j2.abbreviationCacheSize". A value
+     * of zero disables the cache.
+     * </p>
+     * @since 3.0
+     */
+    public static final int ABBREVIATION_CACHE_SIZE = size("log4j2.abbreviationCacheSize", 4096);
+
+    /**
+     * Maximum number of classes whose packaging information is shared by all ThrowableProxies, so it is not looked up
+     * again for every logged exception.
+     * <p>
+     * The default value is {@value}, which disables the cache. Users can override with system property
+     * "log4j2.throwableProxyCacheSize". Classes are identified by name, so in an application server the packaging
+     * information of a class may be shown for a class of the same name in another web application.
+     * </p>
+     * @since 3.0
+     */
+    public static final int THROWABLE_PROXY_CACHE_SIZE = size("log4j2.throwableProxyCacheSize", 0);
+
 
     private static int size(final String property, final int defaultValue) {
         return PropertiesUtil.getProperties().getIntegerProperty(property, defaultValue);
@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.util.internal;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.AccessController;
+import java.security.PrivilegedActionException;
+import java.security.PrivilegedExceptionAction;
+
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.status.StatusLogger;
+
+/**
+ * Maps regions of files into memory and releases them, for the memory mapped file managers. Not part of the public
+ * API.
+ */
+public final class MappedBuffers {
+
+    private static final Logger LOGGER = StatusLogger.getLogger();
+    private static final int MAX_REMAP_COUNT = 10;
+    private static final double NANOS_PER_MILLISEC = 1000.0 * 1000.0;
+
+    private MappedBuffers() {
+    }
+
+    /**
+     * Maps a region of the specified file into memory, retrying while the previous mapping of the file is still
+     * being released.
+     *
+     * @param fileChannel the channel of the file
+     * @param fileName the name of the file, for logging
+     * @param start the position of the region
+     * @param size the length of the region
+     * @return the mapped region
+     * @throws IOException if the region could not be mapped
+     */
+    public static MappedByteBuffer mmap(final FileChannel fileChannel, final String fileName, final long start,
+            final int size) throws IOException {
+        for (int i = 1;; i++) {
+            try {
+                LOGGER.debug("MMapAppender remapping {} start={}, size={}", fileName, start, size);
+
+                final long startNanos = System.nanoTime();
+                final MappedByteBuffer map = fileChannel.map(FileChannel.MapMode.READ_WRITE, start, size);
+                map.order(ByteOrder.nativeOrder());
+
+                final float millis = (float) ((System.nanoTime() - startNanos) / NANOS_PER_MILLISEC);
+                LOGGER.debug("MMapAppender remapped {} OK in {} millis", fileName, millis);
+
+                return map;
+            } catch (final IOException e) {
+                if (e.getMessage() == null || !e.getMessage().endsWith("user-mapped section open")) {
+                    throw e;
+                }
+                LOGGER.debug("Remap attempt {}/{} failed. Retrying...", i, MAX_REMAP_COUNT, e);
+                if (i < MAX_REMAP_COUNT) {
+                    Thread.yield();
+                } else {
+                    try {
+                        Thread.sleep(1);
+                    } catch (final InterruptedException ignored) {
+                        Thread.currentThread().interrupt();
+                        throw e;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Releases the memory mapping of the specified buffer without waiting for it to be garbage collected. The buffer
+     * must not be used afterwards.
+     *
+     * @param mbb the buffer to unmap
+     * @throws PrivilegedActionException if the buffer could not be unmapped
+     */
+    public static void unsafeUnmap(final MappedByteBuffer mbb) throws PrivilegedActionException {
+        LOGGER.debug("MMapAppender unmapping old buffer...");
+        final long startNanos = System.nanoTime();
+        AccessController.doPrivileged(new PrivilegedExceptionAction<Object>() {
+            @Override
+            public Object run() throws Exception {
+                final Method getCleanerMethod = mbb.getClass().getMethod("cleaner");
+                getCleanerMethod.setAccessible(true);
+                final Object cleaner = getCleanerMethod.invoke(mbb); // sun.misc.Cleaner instance
+                final Method cleanMethod = cleaner.getClass().getMethod("clean");
+                cleanMethod.invoke(cleaner);
+                return null;
+            }
+        });
+        final float millis = (float) ((System.nanoTime() - startNanos) / NANOS_PER_MILLISEC);
+        LOGGER.debug("MMapAppender unmapped buffer OK in {} millis", millis);
+    }
+}
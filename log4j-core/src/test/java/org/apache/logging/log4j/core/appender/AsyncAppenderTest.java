@@ -18,6 +18,7 @@
 package org.apache.logging.log4j.core.appender;
 
 import org.apache.logging.log4j.LoggingException;
+import org.apache.logging.log4j.core.LogEvent;
 import org.apache.logging.log4j.core.LoggerContext;
 import org.apache.logging.log4j.junit.LoggerContextSource;
 import org.apache.logging.log4j.junit.Named;
@@ -27,6 +28,9 @@ import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Timeout;
 
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
@@ -131,4 +135,31 @@ class AsyncAppenderTest {
         assertEquals("?  This is a test", messages.get(0));
         assertEquals("?  Hello world!", messages.get(1));
     }
+
+    @Test
+    @LoggerContextSource("log4j-asynch-batch.xml")
+    void batchedDispatch(final LoggerContext context, @Named("List") final ListAppender appender,
+            @Named("Async") final AsyncAppender asyncAppender) throws Exception {
+        assertEquals(16, asyncAppender.getBatchSize());
+        final ExtendedLogger logger = context.getLogger(getClass());
+        final int count = 1000;
+        for (int i = 0; i < count; i++) {
+            logger.info("event {}", i);
+        }
+        final long endMillis = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+        while (appender.getEvents().size() < count && System.currentTimeMillis() < endMillis) {
+            Thread.sleep(100);
+        }
+        final List<LogEvent> events = appender.getEvents();
+        assertEquals(count, events.size());
+        assertTrue(events.get(count - 1).isEndOfBatch());
+
+        context.stop();
+        final File file = new File("target/AsyncAppenderTest-batch.log");
+        final List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        assertEquals(count, lines.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals("event " + i, lines.get(i));
+        }
+    }
 }
@@ -23,6 +23,8 @@ import java.io.InputStreamReader;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -33,12 +35,15 @@ import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.core.Layout;
 import org.apache.logging.log4j.core.LogEvent;
 import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.core.layout.BinaryLayout;
+import org.apache.logging.log4j.core.layout.BinaryLogEventReader;
 import org.apache.logging.log4j.core.layout.PatternLayout;
 import org.apache.logging.log4j.core.util.Throwables;
 import org.apache.logging.log4j.junit.CleanUpFiles;
 import org.apache.logging.log4j.message.SimpleMessage;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
@@ -179,6 +184,122 @@ public class FileAppenderTest {
         testMultipleLockingAppenderThreads(true, THREADS, createOnDemand);
     }
 
+    @ParameterizedTest
+    @ValueSource(booleans = { false, true })
+    public void testCombinedWritesFromMultipleThreads(final boolean immediateFlush) throws Exception {
+        final int threadCount = 8;
+        final int logEventCount = 500;
+        // @formatter:off
+        final FileAppender appender = FileAppender.newBuilder()
+            .setFileName(FILE_NAME)
+            .setName("test")
+            .setImmediateFlush(immediateFlush)
+            .setIgnoreExceptions(false)
+            .setBufferSize(256)
+            .setCombineWrites(true)
+            .setLayout(createPatternLayout())
+            .build();
+        // @formatter:on
+        final WriteCombiner combiner = appender.getManager().getWriteCombiner();
+        assertNotNull(combiner);
+        appender.start();
+        final ExecutorService threadPool = Executors.newFixedThreadPool(threadCount);
+        try {
+            for (int i = 0; i < threadCount; ++i) {
+                threadPool.execute(() -> {
+                    for (int j = 0; j < logEventCount; ++j) {
+                        combiner.write(appender.getLayout(), Log4jLogEvent.newBuilder().setLoggerName("TestLogger")
+                                .setLoggerFqcn(FileAppenderTest.class.getName()).setLevel(Level.INFO)
+                                .setMessage(new SimpleMessage("Test")).setThreadName(Thread.currentThread().getName())
+                                .setTimeMillis(System.currentTimeMillis()).build(), immediateFlush);
+                    }
+                });
+            }
+            threadPool.shutdown();
+            assertTrue(
+                    threadPool.awaitTermination(10, TimeUnit.SECONDS), "The thread pool has not shutdown: " + threadPool);
+        } finally {
+            appender.stop();
+        }
+        verifyFile(threadCount * logEventCount);
+    }
+
+    @Test
+    public void testCombineWritesOfSharedManager() throws Exception {
+        final FileAppender combining = FileAppender.newBuilder()
+            .setFileName(FILE_NAME)
+            .setName("combining")
+            .setCombineWrites(true)
+            .setLayout(createPatternLayout())
+            .build();
+        assertNotNull(combining.getManager().getWriteCombiner());
+        // the manager is shared, the options of the last appender apply, as after a reconfiguration
+        final FileAppender appender = FileAppender.newBuilder()
+            .setFileName(FILE_NAME)
+            .setName("test")
+            .setLayout(createPatternLayout())
+            .build();
+        try {
+            assertSame(combining.getManager(), appender.getManager());
+            assertNull(appender.getManager().getWriteCombiner());
+        } finally {
+            combining.stop();
+            appender.stop();
+        }
+    }
+
+    @Test
+    public void testBinaryLayoutFromMultipleThreads() throws Exception {
+        final int threadCount = 8;
+        final int logEventCount = 500;
+        // @formatter:off
+        final FileAppender appender = FileAppender.newBuilder()
+            .setFileName(FILE_NAME)
+            .setName("test")
+            .setImmediateFlush(false)
+            .setIgnoreExceptions(false)
+            .setBufferSize(256)
+            .setCombineWrites(true)
+            .setLayout(BinaryLayout.newBuilder().build())
+            .build();
+        // @formatter:on
+        // the records of a stateful layout must not be reordered by the combiner
+        assertNull(appender.getManager().getWriteCombiner());
+        appender.start();
+        final ExecutorService threadPool = Executors.newFixedThreadPool(threadCount);
+        try {
+            for (int i = 0; i < threadCount; ++i) {
+                final String threadName = "thread-" + i;
+                threadPool.execute(() -> {
+                    for (int j = 0; j < logEventCount; ++j) {
+                        appender.append(Log4jLogEvent.newBuilder().setLoggerName("TestLogger")
+                                .setLoggerFqcn(FileAppenderTest.class.getName()).setLevel(Level.INFO)
+                                .setMessage(new SimpleMessage(Integer.toString(j))).setThreadName(threadName)
+                                .setTimeMillis(System.currentTimeMillis()).build());
+                    }
+                });
+            }
+            threadPool.shutdown();
+            assertTrue(
+                    threadPool.awaitTermination(10, TimeUnit.SECONDS), "The thread pool has not shutdown: " + threadPool);
+        } finally {
+            appender.stop();
+        }
+        final Map<String, Integer> counts = new HashMap<>();
+        try (final BinaryLogEventReader reader = new BinaryLogEventReader(new FileInputStream(FILE_NAME))) {
+            LogEvent event;
+            while ((event = reader.read()) != null) {
+                final int expected = counts.getOrDefault(event.getThreadName(), 0);
+                assertEquals(Integer.toString(expected), event.getMessage().getFormattedMessage(), event.getThreadName());
+                counts.put(event.getThreadName(), expected + 1);
+            }
+        }
+        assertEquals(threadCount, counts.size());
+        for (final int count : counts.values()) {
+            assertEquals(logEventCount, count);
+        }
+    }
+
     @ParameterizedTest
     @ValueSource(booleans = { false, true })
     @Disabled
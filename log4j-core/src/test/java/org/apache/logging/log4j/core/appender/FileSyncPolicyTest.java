@@ -0,0 +1,218 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.appender;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.appender.rolling.SizeBasedTriggeringPolicy;
+import org.apache.logging.log4j.core.config.DefaultConfiguration;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.core.layout.PatternLayout;
+import org.apache.logging.log4j.junit.CleanUpFiles;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests {@link FileSyncPolicy} and its use by {@link FileAppender}.
+ */
+@CleanUpFiles({FileSyncPolicyTest.FILE_NAME, FileSyncPolicyTest.GZIP_FILE_NAME})
+public class FileSyncPolicyTest {
+
+    static final String FILE_NAME = "target/fileSyncPolicyTest.log";
+    static final String GZIP_FILE_NAME = "target/fileSyncPolicyTest.log.gz";
+
+    @Test
+    public void testParse() {
+        assertSame(FileSyncPolicy.NONE, FileSyncPolicy.parse(null));
+        assertSame(FileSyncPolicy.NONE, FileSyncPolicy.parse("none"));
+        assertSame(FileSyncPolicy.GROUP_COMMIT, FileSyncPolicy.parse("groupCommit"));
+        assertEquals(FileSyncPolicy.interval(10, TimeUnit.MILLISECONDS), FileSyncPolicy.parse("interval=10ms"));
+        assertEquals(FileSyncPolicy.interval(10, TimeUnit.MILLISECONDS), FileSyncPolicy.parse("interval=10"));
+        assertEquals(2000, FileSyncPolicy.parse("interval=2s").getIntervalMillis());
+        assertEquals("interval=10ms", FileSyncPolicy.parse("Interval=10ms").toString());
+        assertThrows(IllegalArgumentException.class, () -> FileSyncPolicy.parse("interval=0"));
+        assertThrows(IllegalArgumentException.class, () -> FileSyncPolicy.parse("interval=fast"));
+        assertThrows(IllegalArgumentException.class, () -> FileSyncPolicy.parse("always"));
+    }
+
+    @Test
+    public void testInvalidPolicyFailsBuild() {
+        assertNull(FileAppender.newBuilder().setFileName(FILE_NAME).setName("test").setSyncPolicy("always").build());
+    }
+
+    @Test
+    public void testPolicyOfSharedManager() {
+        final FileAppender syncing = FileAppender.newBuilder()
+            .setFileName(FILE_NAME)
+            .setName("syncing")
+            .setSyncPolicy("groupCommit")
+            .setLayout(PatternLayout.createDefaultLayout())
+            .build();
+        assertEquals(FileSyncPolicy.GROUP_COMMIT, syncing.getManager().getSyncPolicy());
+        // the manager is shared, the policy of the last appender applies, as after a reconfiguration
+        final FileAppender appender = FileAppender.newBuilder()
+            .setFileName(FILE_NAME)
+            .setName("test")
+            .setLayout(PatternLayout.createDefaultLayout())
+            .build();
+        try {
+            assertSame(syncing.getManager(), appender.getManager());
+            assertEquals(FileSyncPolicy.NONE, appender.getManager().getSyncPolicy());
+            assertNull(appender.getManager().getSyncer());
+        } finally {
+            syncing.stop();
+            appender.stop();
+        }
+    }
+
+    @Test
+    public void testGroupCommitSyncsEveryAppend() throws Exception {
+        final int threadCount = 4;
+        final int logEventCount = 50;
+        // @formatter:off
+        final FileAppender appender = FileAppender.newBuilder()
+            .setFileName(FILE_NAME)
+            .setName("test")
+            .setIgnoreExceptions(false)
+            .setSyncPolicy("groupCommit")
+            .setLayout(PatternLayout.createDefaultLayout())
+            .build();
+        // @formatter:on
+        final FileManager manager = appender.getManager();
+        assertSame(FileSyncPolicy.GROUP_COMMIT, manager.getSyncPolicy());
+        final FileSyncer syncer = manager.getSyncer();
+        appender.start();
+        final ExecutorService threadPool = Executors.newFixedThreadPool(threadCount);
+        try {
+            for (int i = 0; i < threadCount; ++i) {
+                threadPool.execute(() -> {
+                    for (int j = 0; j < logEventCount; ++j) {
+                        appender.append(Log4jLogEvent.newBuilder().setLoggerName("TestLogger")
+                                .setLoggerFqcn(FileSyncPolicyTest.class.getName()).setLevel(Level.INFO)
+                                .setMessage(new SimpleMessage("Test")).build());
+                    }
+                });
+            }
+            threadPool.shutdown();
+            assertTrue(threadPool.awaitTermination(30, TimeUnit.SECONDS), "The thread pool has not shutdown");
+            final long syncs = syncer.getSyncCount();
+            assertTrue(syncs > 0, "no syncs");
+            assertTrue(syncs <= threadCount * logEventCount, "more syncs than events: " + syncs);
+            long histogramTotal = 0;
+            for (final long count : syncer.getLatencyHistogram()) {
+                histogramTotal += count;
+            }
+            assertEquals(syncs, histogramTotal);
+            assertEquals(syncer.getLatencyBucketBoundsMicros().length + 1, syncer.getLatencyHistogram().length);
+        } finally {
+            appender.stop();
+        }
+        assertEquals(threadCount * logEventCount, Files.readAllLines(Paths.get(FILE_NAME)).size());
+    }
+
+    @Test
+    public void testIntervalSyncsInBackground() throws Exception {
+        // @formatter:off
+        final FileAppender appender = FileAppender.newBuilder()
+            .setFileName(FILE_NAME)
+            .setName("test")
+            .setSyncPolicy("interval=5ms")
+            .setLayout(PatternLayout.createDefaultLayout())
+            .build();
+        // @formatter:on
+        final FileSyncer syncer = appender.getManager().getSyncer();
+        appender.start();
+        try {
+            appender.append(Log4jLogEvent.newBuilder().setLoggerName("TestLogger").setLevel(Level.INFO)
+                    .setMessage(new SimpleMessage("Test")).build());
+            final long deadline = System.currentTimeMillis() + 10_000;
+            while (syncer.getSyncCount() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            assertTrue(syncer.getSyncCount() > 0, "background thread did not sync");
+        } finally {
+            appender.stop();
+        }
+    }
+
+    @Test
+    public void testIntervalSyncFollowsConfiguration() throws Exception {
+        final DefaultConfiguration previous = new DefaultConfiguration();
+        final DefaultConfiguration next = new DefaultConfiguration();
+        // @formatter:off
+        final FileAppender.Builder<?> builder = FileAppender.newBuilder()
+            .setFileName(FILE_NAME)
+            .setName("test")
+            .setSyncPolicy("interval=5ms")
+            .setLayout(PatternLayout.createDefaultLayout());
+        // @formatter:on
+        final FileAppender appender = builder.setConfiguration(previous).build();
+        final FileSyncer syncer = appender.getManager().getSyncer();
+        assertTrue(previous.getScheduler().isStarted());
+        // a reconfiguration builds the appender of the next configuration before stopping the previous one
+        final FileAppender nextAppender = builder.setConfiguration(next).build();
+        assertSame(syncer, nextAppender.getManager().getSyncer());
+        previous.stop();
+        nextAppender.start();
+        try {
+            final long syncs = syncer.getSyncCount();
+            nextAppender.append(Log4jLogEvent.newBuilder().setLoggerName("TestLogger").setLevel(Level.INFO)
+                    .setMessage(new SimpleMessage("Test")).build());
+            final long deadline = System.currentTimeMillis() + 10_000;
+            while (syncer.getSyncCount() == syncs && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            assertTrue(syncer.getSyncCount() > syncs, "scheduler of the next configuration did not sync");
+        } finally {
+            appender.stop();
+            nextAppender.stop();
+            next.stop();
+        }
+    }
+
+    @Test
+    public void testGroupCommitSyncsCompressedOutput() {
+        // @formatter:off
+        final RollingFileAppender appender = RollingFileAppender.newBuilder()
+            .setFileName(GZIP_FILE_NAME)
+            .setFilePattern("target/fileSyncPolicyTest-%i.log.gz")
+            .setPolicy(SizeBasedTriggeringPolicy.createPolicy("1 MB"))
+            .setName("test")
+            .setIgnoreExceptions(false)
+            .setCompressOutput(true)
+            .setSyncPolicy("groupCommit")
+            .setLayout(PatternLayout.createDefaultLayout())
+            .build();
+        // @formatter:on
+        final FileSyncer syncer = appender.getManager().getSyncer();
+        appender.start();
+        try {
+            appender.append(Log4jLogEvent.newBuilder().setLoggerName("TestLogger").setLevel(Level.INFO)
+                    .setMessage(new SimpleMessage("Test")).build());
+            assertTrue(syncer.getSyncCount() > 0, "compressed output was not synced");
+        } finally {
+            appender.stop();
+        }
+    }
+}
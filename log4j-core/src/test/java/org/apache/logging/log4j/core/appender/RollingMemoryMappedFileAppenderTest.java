@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.appender;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.appender.rolling.RollingMemoryMappedFileManager;
+import org.apache.logging.log4j.junit.CleanUpDirectories;
+import org.apache.logging.log4j.junit.LoggerContextSource;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that the rolling memory mapped file appender rolls over, that no event is lost, and that every file is
+ * truncated to its actual usage.
+ */
+@CleanUpDirectories(RollingMemoryMappedFileAppenderTest.DIR)
+public class RollingMemoryMappedFileAppenderTest {
+
+    static final String DIR = "target/rolling-mmap";
+
+    @Test
+    @LoggerContextSource("RollingMemoryMappedFileAppenderTest.xml")
+    public void testRollover(final LoggerContext context) throws Exception {
+        final Logger log = context.getLogger(getClass());
+        final RollingMemoryMappedFileAppender appender = context.getConfiguration()
+                .getAppender("RollingMemoryMappedFile");
+        final RollingMemoryMappedFileManager manager = appender.getManager();
+        assertEquals(256, appender.getRegionLength());
+
+        final List<String> messages = new ArrayList<>();
+        for (int i = 0; i < 1000; ++i) {
+            final String message = "This is test message number " + i;
+            messages.add(message);
+            log.info(message);
+        }
+        assertTrue(manager.getFileSize() < 1000 + 256, "Current file not rolled: " + manager.getFileSize());
+        context.stop();
+
+        final File[] files = new File(DIR).listFiles();
+        assertNotNull(files);
+        assertTrue(files.length > 2, "Files not rolled: " + files.length);
+        for (final File file : files) {
+            final String text = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+            assertEquals(-1, text.indexOf('\0'), "File not truncated: " + file);
+            for (final String line : text.split("[\\r\\n]+")) {
+                messages.remove(line);
+            }
+        }
+        assertTrue(messages.isEmpty(), "Log messages lost: " + messages.size());
+    }
+}
@@ -0,0 +1,422 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.appender.rolling;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.appender.RollingFileAppender;
+import org.apache.logging.log4j.core.appender.rolling.action.AbstractAction;
+import org.apache.logging.log4j.core.appender.rolling.action.Action;
+import org.apache.logging.log4j.core.config.Configuration;
+import org.apache.logging.log4j.core.config.DefaultConfiguration;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.core.layout.BinaryLayout;
+import org.apache.logging.log4j.core.layout.BinaryLogEventReader;
+import org.apache.logging.log4j.core.layout.PatternLayout;
+import org.apache.logging.log4j.junit.CleanUpDirectories;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@CleanUpDirectories(RollingAppenderAsyncRolloverTest.DIR)
+public class RollingAppenderAsyncRolloverTest {
+
+    static final String DIR = "target/rolling-async";
+
+    private static final String FILE_NAME = DIR + "/rollingtest.log";
+
+    @Test
+    public void testRolloverDoesNotWaitForStrategy() throws Exception {
+        final Configuration configuration = new DefaultConfiguration();
+        final DefaultRolloverStrategy delegate = DefaultRolloverStrategy.newBuilder()
+                .setMax("3")
+                .setConfig(configuration)
+                .build();
+        final CountDownLatch release = new CountDownLatch(1);
+        final RolloverStrategy strategy = manager -> {
+            final RolloverDescription description = delegate.rollover(manager);
+            final Action rename = description.getSynchronous();
+            return new RolloverDescriptionImpl(description.getActiveFileName(), false, new AbstractAction() {
+                @Override
+                public boolean execute() throws IOException {
+                    try {
+                        // a slow file system
+                        release.await();
+                    } catch (final InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return rename.execute();
+                }
+            }, description.getAsynchronous());
+        };
+        final RollingFileAppender appender = RollingFileAppender.newBuilder()
+                .setName("AsyncRollover")
+                .setFileName(FILE_NAME)
+                .setFilePattern(DIR + "/rollingtest-%i.log")
+                .setPolicy(SizeBasedTriggeringPolicy.createPolicy("1 MB"))
+                .setStrategy(strategy)
+                .setLayout(PatternLayout.newBuilder().setPattern("%m%n").build())
+                .setAsyncRollover(true)
+                .setConfiguration(configuration)
+                .build();
+        assertNotNull(appender);
+        appender.start();
+        final RollingFileManager manager = appender.getManager();
+        assertTrue(manager.isAsyncRollover());
+        final File nextFile = new File(manager.getNextFileName());
+        awaitFile(nextFile);
+
+        appender.append(createEvent("before rollover"));
+        final long start = System.nanoTime();
+        manager.rollover();
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5), "rollover waited for the strategy");
+        appender.append(createEvent("after rollover"));
+
+        final File archive = new File(DIR + "/rollingtest-1.log");
+        assertFalse(archive.exists());
+        release.countDown();
+        awaitFile(archive);
+        awaitFile(nextFile);
+        appender.stop();
+
+        assertEquals("before rollover\n", read(archive));
+        assertEquals("after rollover\n", read(new File(FILE_NAME)));
+        assertFalse(nextFile.exists(), "empty next file was not removed on stop");
+    }
+
+    @Test
+    public void testRolloverCheckIsDeferredUntilAsyncActionCompletes() throws Exception {
+        final Configuration configuration = new DefaultConfiguration();
+        final DefaultRolloverStrategy delegate = DefaultRolloverStrategy.newBuilder()
+                .setMax("3")
+                .setConfig(configuration)
+                .build();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger rollovers = new AtomicInteger();
+        final RolloverStrategy strategy = manager -> {
+            final RolloverDescription description = delegate.rollover(manager);
+            if (rollovers.incrementAndGet() > 1) {
+                return description;
+            }
+            return new RolloverDescriptionImpl(description.getActiveFileName(), false, description.getSynchronous(),
+                    new AbstractAction() {
+                        @Override
+                        public boolean execute() {
+                            started.countDown();
+                            try {
+                                // a long compression
+                                release.await();
+                            } catch (final InterruptedException ex) {
+                                Thread.currentThread().interrupt();
+                            }
+                            return true;
+                        }
+                    });
+        };
+        final RollingFileAppender appender = RollingFileAppender.newBuilder()
+                .setName("SlowAsyncAction")
+                .setFileName(FILE_NAME)
+                .setFilePattern(DIR + "/rollingtest-%i.log")
+                .setPolicy(SizeBasedTriggeringPolicy.createPolicy("10 B"))
+                .setStrategy(strategy)
+                .setLayout(PatternLayout.newBuilder().setPattern("%m%n").build())
+                .setAsyncRollover(true)
+                .setConfiguration(configuration)
+                .build();
+        assertNotNull(appender);
+        appender.start();
+        final RollingFileManager manager = appender.getManager();
+        final File nextFile = new File(manager.getNextFileName());
+        awaitFile(nextFile);
+
+        appender.append(createEvent("first"));
+        manager.rollover();
+        assertTrue(started.await(10, TimeUnit.SECONDS), "asynchronous action did not start");
+        // the file exceeds the limit, but the strategy must not run again before the action completed
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            appender.append(createEvent("second event"));
+            appender.append(createEvent("third"));
+        }, "logging waited for the asynchronous action of the previous rollover");
+        assertEquals(1, rollovers.get());
+        final File archive = new File(DIR + "/rollingtest-2.log");
+        release.countDown();
+        // the deferred check performs the rollover once the action released the manager
+        awaitFile(archive);
+        appender.stop();
+
+        assertEquals(2, rollovers.get());
+        assertEquals("first\n", read(archive));
+        assertEquals("second event\nthird\n", read(new File(DIR + "/rollingtest-1.log")));
+    }
+
+    @Test
+    public void testIncompleteRolloverIsArchivedByNextRollover() throws Exception {
+        final Configuration configuration = new DefaultConfiguration();
+        final DefaultRolloverStrategy delegate = DefaultRolloverStrategy.newBuilder()
+                .setMax("3")
+                .setConfig(configuration)
+                .build();
+        final AtomicInteger rollovers = new AtomicInteger();
+        // the first rollover leaves the current file in place
+        final RolloverStrategy strategy =
+                manager -> rollovers.incrementAndGet() == 1 ? null : delegate.rollover(manager);
+        final RollingFileAppender appender = RollingFileAppender.newBuilder()
+                .setName("IncompleteAsyncRollover")
+                .setFileName(FILE_NAME)
+                .setFilePattern(DIR + "/rollingtest-%i.log")
+                .setPolicy(SizeBasedTriggeringPolicy.createPolicy("1 MB"))
+                .setStrategy(strategy)
+                .setLayout(PatternLayout.newBuilder().setPattern("%m%n").build())
+                .setAsyncRollover(true)
+                .setConfiguration(configuration)
+                .build();
+        assertNotNull(appender);
+        appender.start();
+        final RollingFileManager manager = appender.getManager();
+        final File nextFile = new File(manager.getNextFileName());
+        awaitFile(nextFile);
+
+        appender.append(createEvent("first"));
+        manager.rollover();
+        appender.append(createEvent("second"));
+        // waits for the incomplete rollover and archives both periods
+        manager.rollover();
+        appender.append(createEvent("third"));
+        awaitFile(nextFile);
+        appender.stop();
+
+        assertEquals(2, rollovers.get());
+        assertEquals("first\nsecond\n", read(new File(DIR + "/rollingtest-1.log")));
+        assertEquals("third\n", read(new File(FILE_NAME)));
+        assertFalse(new File(DIR + "/rollingtest-2.log").exists());
+        assertFalse(nextFile.exists(), "empty next file was not removed on stop");
+    }
+
+    @Test
+    public void testIncompleteRolloverIsAppendedOnStop() throws Exception {
+        final Configuration configuration = new DefaultConfiguration();
+        final RollingFileAppender appender = RollingFileAppender.newBuilder()
+                .setName("IncompleteAsyncRolloverOnStop")
+                .setFileName(FILE_NAME)
+                .setFilePattern(DIR + "/rollingtest-%i.log")
+                .setPolicy(SizeBasedTriggeringPolicy.createPolicy("1 MB"))
+                .setStrategy(manager -> null)
+                .setLayout(PatternLayout.newBuilder().setPattern("%m%n").build())
+                .setAsyncRollover(true)
+                .setConfiguration(configuration)
+                .build();
+        assertNotNull(appender);
+        appender.start();
+        final RollingFileManager manager = appender.getManager();
+        final File nextFile = new File(manager.getNextFileName());
+        awaitFile(nextFile);
+
+        appender.append(createEvent("first"));
+        manager.rollover();
+        appender.append(createEvent("second"));
+        appender.stop();
+
+        assertEquals("first\nsecond\n", read(new File(FILE_NAME)));
+        assertFalse(nextFile.exists(), "next file was not appended on stop");
+    }
+
+    @Test
+    public void testAsyncRolloverOfSharedManager() throws Exception {
+        final Configuration configuration = new DefaultConfiguration();
+        final RollingFileAppender.Builder<?> builder = RollingFileAppender.newBuilder()
+                .setName("SharedAsyncRollover")
+                .setFileName(FILE_NAME)
+                .setFilePattern(DIR + "/rollingtest-%i.log")
+                .setPolicy(SizeBasedTriggeringPolicy.createPolicy("1 MB"))
+                .setLayout(PatternLayout.newBuilder().setPattern("%m%n").build())
+                .setAsyncRollover(true)
+                .setConfiguration(configuration);
+        final RollingFileAppender appender = builder.build();
+        assertNotNull(appender);
+        appender.start();
+        final RollingFileManager manager = appender.getManager();
+        assertTrue(manager.isAsyncRollover());
+        final File nextFile = new File(manager.getNextFileName());
+        awaitFile(nextFile);
+
+        final RollingFileAppender other = builder.setAsyncRollover(false).build();
+        assertNotNull(other);
+        assertSame(manager, other.getManager());
+        assertFalse(manager.isAsyncRollover());
+        assertFalse(nextFile.exists(), "next file was not closed");
+
+        other.stop();
+        appender.stop();
+    }
+
+    @Test
+    public void testCronRolloverDoesNotBlockLogging() throws Exception {
+        final Configuration configuration = new DefaultConfiguration();
+        final DefaultRolloverStrategy delegate = DefaultRolloverStrategy.newBuilder()
+                .setMax("10")
+                .setConfig(configuration)
+                .build();
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger rollovers = new AtomicInteger();
+        final RolloverStrategy strategy = manager -> {
+            final RolloverDescription description = delegate.rollover(manager);
+            final Action rename = description.getSynchronous();
+            return new RolloverDescriptionImpl(description.getActiveFileName(), false, new AbstractAction() {
+                @Override
+                public boolean execute() throws IOException {
+                    if (rollovers.incrementAndGet() == 1) {
+                        try {
+                            release.await();
+                        } catch (final InterruptedException ex) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    return rename.execute();
+                }
+            }, description.getAsynchronous());
+        };
+        final RollingFileAppender appender = RollingFileAppender.newBuilder()
+                .setName("AsyncCronRollover")
+                .setFileName(FILE_NAME)
+                .setFilePattern(DIR + "/rollingtest-%d{HH-mm-ss}-%i.log")
+                .setPolicy(CronTriggeringPolicy.createPolicy(configuration, null, "* * * * * ?"))
+                .setStrategy(strategy)
+                .setLayout(PatternLayout.newBuilder().setPattern("%m%n").build())
+                .setAsyncRollover(true)
+                .setConfiguration(configuration)
+                .build();
+        assertNotNull(appender);
+        appender.start();
+        final RollingFileManager manager = appender.getManager();
+        awaitFile(new File(manager.getNextFileName()));
+
+        // the first rollover blocks in the strategy, the cron rollovers meanwhile wait for it
+        appender.append(createEvent("first"));
+        final long deadline = System.currentTimeMillis() + 10_000;
+        while (rollovers.get() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, rollovers.get());
+        Thread.sleep(1500);
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> appender.append(createEvent("second")),
+                "logging waited for the background rollover");
+
+        // once the strategy completes, the waiting cron rollover proceeds
+        release.countDown();
+        while (rollovers.get() < 2 && System.currentTimeMillis() < deadline + 10_000) {
+            Thread.sleep(10);
+        }
+        assertTrue(rollovers.get() >= 2, "cron rollover did not resume");
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> appender.stop(), "appender did not stop");
+    }
+
+    @Test
+    public void testBinaryLogsAcrossRolloverCanBeReadOnTheirOwn() throws Exception {
+        final Configuration configuration = new DefaultConfiguration();
+        final BinaryLayout layout = BinaryLayout.newBuilder().build();
+        // left over by a process that stopped before moving the next file into place
+        final File nextFile = new File(FILE_NAME + ".next");
+        nextFile.getParentFile().mkdirs();
+        try (final OutputStream os = new FileOutputStream(nextFile)) {
+            final BinaryLayout otherLayout = BinaryLayout.newBuilder().build();
+            os.write(otherLayout.getHeader());
+            os.write(otherLayout.toByteArray(Log4jLogEvent.newBuilder()
+                    .setLoggerName("other")
+                    .setLevel(Level.INFO)
+                    .setMessage(new SimpleMessage("left over"))
+                    .build()));
+        }
+        final RollingFileAppender appender = RollingFileAppender.newBuilder()
+                .setName("BinaryAsyncRollover")
+                .setFileName(FILE_NAME)
+                .setFilePattern(DIR + "/rollingtest-%i.log")
+                .setPolicy(SizeBasedTriggeringPolicy.createPolicy("1 MB"))
+                .setStrategy(DefaultRolloverStrategy.newBuilder().setMax("3").setConfig(configuration).build())
+                .setLayout(layout)
+                .setAsyncRollover(true)
+                .setConfiguration(configuration)
+                .build();
+        assertNotNull(appender);
+        appender.start();
+        final RollingFileManager manager = appender.getManager();
+        final long deadline = System.currentTimeMillis() + 10_000;
+        while (!manager.isNextFileOpen() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(manager.isNextFileOpen(), "next file was not opened");
+
+        appender.append(createEvent("before rollover"));
+        manager.rollover();
+        // refers to the logger name and thread name written before the rollover if the dictionary is not reset
+        appender.append(createEvent("after rollover"));
+        final File archive = new File(DIR + "/rollingtest-1.log");
+        awaitFile(archive);
+        appender.stop();
+
+        assertEquals(Collections.singletonList("before rollover"), readBinary(archive));
+        assertEquals(Arrays.asList("left over", "after rollover"), readBinary(new File(FILE_NAME)));
+    }
+
+    private static LogEvent createEvent(final String message) {
+        return Log4jLogEvent.newBuilder()
+                .setLoggerName(RollingAppenderAsyncRolloverTest.class.getName())
+                .setLevel(Level.INFO)
+                .setMessage(new SimpleMessage(message))
+                .build();
+    }
+
+    private static void awaitFile(final File file) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 10_000;
+        while (!file.exists() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(file.exists(), file + " does not exist");
+    }
+
+    private static List<String> readBinary(final File file) throws IOException {
+        final List<String> messages = new ArrayList<>();
+        try (final BinaryLogEventReader reader = new BinaryLogEventReader(new FileInputStream(file))) {
+            LogEvent event;
+            while ((event = reader.read()) != null) {
+                messages.add(event.getMessage().getFormattedMessage());
+            }
+        }
+        return messages;
+    }
+
+    private static String read(final File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}
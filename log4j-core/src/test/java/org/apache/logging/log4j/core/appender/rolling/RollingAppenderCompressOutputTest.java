@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.appender.rolling;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.appender.RollingFileAppender;
+import org.apache.logging.log4j.junit.CleanUpDirectories;
+import org.apache.logging.log4j.junit.LoggerContextSource;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@CleanUpDirectories(RollingAppenderCompressOutputTest.DIR)
+public class RollingAppenderCompressOutputTest {
+
+    static final String DIR = "target/rolling-compress-output";
+
+    @Test
+    @LoggerContextSource("log4j-rolling-compress-output.xml")
+    public void testArchivesAreWrittenCompressed(final LoggerContext context) throws Exception {
+        final Logger logger = context.getLogger(getClass());
+        final RollingFileAppender appender = context.getConfiguration().getAppender("RollingFile");
+        assertTrue(appender.getManager().isCompressOutput());
+        assertNull(appender.getManager().getFileExtension());
+
+        final List<String> messages = new ArrayList<>();
+        for (int i = 0; i < 2000; ++i) {
+            final String message = "This is test message number " + i;
+            messages.add(message);
+            logger.info(message);
+        }
+        context.stop();
+
+        final File[] files = new File(DIR).listFiles();
+        assertNotNull(files);
+        assertTrue(files.length > 2, "Files not rolled: " + files.length);
+        for (final File file : files) {
+            assertTrue(file.getName().endsWith(".log.gz"), file.getName());
+            for (final String line : gunzip(file).split("\n")) {
+                messages.remove(line);
+            }
+        }
+        assertTrue(messages.isEmpty(), "Log messages lost: " + messages.size());
+    }
+
+    @Test
+    public void testReadableWithoutTrailer() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final SyncFlushGzipOutputStream gzip = new SyncFlushGzipOutputStream(out, false);
+        final byte[] block = new byte[SyncFlushGzipOutputStream.FLUSH_SIZE];
+        for (int i = 0; i < block.length; i++) {
+            block[i] = (byte) ('a' + i % 26);
+        }
+        gzip.write(block);
+        gzip.flush();
+        final int flushed = out.size();
+        gzip.write(block, 0, 10);
+        gzip.flush();
+        assertEquals(flushed, out.size(), "flushed again before the flush size was reached");
+
+        // the stream is never closed, as if the process crashed
+        final ByteArrayOutputStream read = new ByteArrayOutputStream();
+        try (final InputStream is = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            final byte[] buffer = new byte[8192];
+            int n;
+            while ((n = is.read(buffer)) != -1) {
+                read.write(buffer, 0, n);
+            }
+            fail("The GZIP trailer should be missing");
+        } catch (final EOFException expected) {
+            // data up to the last sync flush was read
+        }
+        assertArrayEquals(block, read.toByteArray());
+    }
+
+    @Test
+    public void testImmediateFlushIsReadable() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final SyncFlushGzipOutputStream gzip = new SyncFlushGzipOutputStream(out, true);
+        final byte[] event = "event\n".getBytes(StandardCharsets.UTF_8);
+        gzip.write(event);
+        gzip.flush();
+
+        final ByteArrayOutputStream read = new ByteArrayOutputStream();
+        try (final InputStream is = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            final byte[] buffer = new byte[8192];
+            int n;
+            while ((n = is.read(buffer)) != -1) {
+                read.write(buffer, 0, n);
+            }
+            fail("The GZIP trailer should be missing");
+        } catch (final EOFException expected) {
+            // data up to the last sync flush was read
+        }
+        assertArrayEquals(event, read.toByteArray());
+    }
+
+    private static String gunzip(final File file) throws IOException {
+        try (final InputStream is = new GZIPInputStream(new FileInputStream(file))) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            int n;
+            while ((n = is.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
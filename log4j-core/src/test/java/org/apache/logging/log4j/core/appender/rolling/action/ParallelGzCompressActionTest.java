@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.appender.rolling.action;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests ParallelGzCompressAction.
+ */
+public class ParallelGzCompressActionTest {
+
+    @Test
+    public void testExecuteReturnsFalseIfSourceDoesNotExist(@TempDir final File tempDir) throws IOException {
+        final ParallelGzCompressAction action = new ParallelGzCompressAction(new File(tempDir, "missing"),
+                new File(tempDir, "missing.gz"), true, Deflater.DEFAULT_COMPRESSION, 4, 0);
+        assertFalse(action.execute(), "Cannot compress non-existing file");
+    }
+
+    @Test
+    public void testCompressedFileCanBeReadAsGzip(@TempDir final File tempDir) throws IOException {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; sb.length() < 1_000_000; i++) {
+            sb.append("Here is line ").append(i).append(". Random text: ").append(Math.random()).append('\n');
+        }
+        final byte[] expected = sb.toString().getBytes(StandardCharsets.UTF_8);
+        final File source = new File(tempDir, "compressme");
+        Files.write(source.toPath(), expected);
+        final File destination = new File(tempDir, "compressme.gz");
+
+        // 64 KB blocks: the file is split into more blocks than there are threads
+        final ParallelGzCompressAction action = new ParallelGzCompressAction(source, destination, true,
+                Deflater.BEST_SPEED, 3, 64 * 1024);
+        assertTrue(action.execute(), "ParallelGzCompressAction should have succeeded");
+        assertFalse(source.exists(), "Source should have been deleted");
+        assertTrue(destination.length() < expected.length);
+        assertArrayEquals(expected, gunzip(destination));
+    }
+
+    @Test
+    public void testEmptyFile(@TempDir final File tempDir) throws IOException {
+        final File source = new File(tempDir, "empty");
+        assertTrue(source.createNewFile());
+        final File destination = new File(tempDir, "empty.gz");
+        assertTrue(new ParallelGzCompressAction(source, destination, false, Deflater.DEFAULT_COMPRESSION, 2, 0)
+                .execute());
+        assertEquals(0, gunzip(destination).length);
+    }
+
+    private static byte[] gunzip(final File file) throws IOException {
+        try (final InputStream is = new GZIPInputStream(new FileInputStream(file))) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            int n;
+            while ((n = is.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.async;
+
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.Sequence;
+import com.lmax.disruptor.SequenceBarrier;
+import com.lmax.disruptor.WaitStrategy;
+import org.apache.logging.log4j.core.jmx.RingBufferAdmin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("disruptor")
+public class AdaptiveWaitStrategyTest {
+
+    @AfterEach
+    public void after() {
+        System.clearProperty("AsyncLogger.WaitStrategy");
+    }
+
+    @Test
+    public void testCreatedFromProperty() {
+        System.setProperty("AsyncLogger.WaitStrategy", "Adaptive");
+        final WaitStrategy strategy = DisruptorUtil.createWaitStrategy("AsyncLogger.WaitStrategy");
+        assertTrue(strategy instanceof AdaptiveWaitStrategy, strategy.toString());
+    }
+
+    @Test
+    public void testSwitchesPhaseWithLoad() throws Exception {
+        final AdaptiveWaitStrategy strategy = new AdaptiveWaitStrategy(10, 1000);
+        final RingBuffer<Object> ringBuffer = RingBuffer.createSingleProducer(Object::new, 16, strategy);
+        final SequenceBarrier barrier = ringBuffer.newBarrier();
+        final Sequence cursor = new Sequence(1000);
+
+        // events always available: the background thread should end up spinning
+        for (int i = 0; i < 100; i++) {
+            assertEquals(1000, strategy.waitFor(i, cursor, cursor, barrier));
+        }
+        assertEquals(AdaptiveWaitStrategy.Phase.SPIN, strategy.getPhase());
+        final long transitions = strategy.getTransitionCount();
+        assertTrue(transitions > 0);
+
+        // events arrive rarely: the background thread should end up parking
+        for (int i = 0; i < 10; i++) {
+            final Sequence dependent = new Sequence(-1);
+            final Thread producer = new Thread(() -> {
+                try {
+                    Thread.sleep(5);
+                } catch (final InterruptedException ignored) {
+                    // ignored
+                }
+                dependent.set(0);
+            });
+            producer.start();
+            assertEquals(0, strategy.waitFor(0, cursor, dependent, barrier));
+            producer.join();
+        }
+        assertEquals(AdaptiveWaitStrategy.Phase.PARK, strategy.getPhase());
+        assertTrue(strategy.getTransitionCount() > transitions);
+
+        final RingBufferAdmin admin = RingBufferAdmin.forAsyncLoggerConfig(ringBuffer, strategy, "ctx", "cfg");
+        assertEquals("AdaptiveWaitStrategy", admin.getWaitStrategy());
+        assertArrayEquals(new String[] {"PARK"}, admin.getWaitStrategyPhases());
+        assertEquals(strategy.getTransitionCount(), admin.getWaitStrategyTransitionCount());
+    }
+}
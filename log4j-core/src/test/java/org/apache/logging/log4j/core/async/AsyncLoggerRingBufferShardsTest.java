@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.async;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.categories.AsyncLoggers;
+import org.apache.logging.log4j.core.CoreLoggerContexts;
+import org.apache.logging.log4j.core.config.ConfigurationFactory;
+import org.apache.logging.log4j.core.jmx.RingBufferAdmin;
+import org.apache.logging.log4j.core.util.Constants;
+import org.apache.logging.log4j.util.Strings;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import static org.junit.Assert.*;
+
+@Category(AsyncLoggers.class)
+public class AsyncLoggerRingBufferShardsTest {
+
+    private static final int SHARDS = 4;
+    private static final int THREADS = 8;
+    private static final int EVENTS_PER_THREAD = 100;
+
+    @BeforeClass
+    public static void beforeClass() {
+        System.setProperty(Constants.LOG4J_CONTEXT_SELECTOR, AsyncLoggerContextSelector.class.getName());
+        System.setProperty(ConfigurationFactory.CONFIGURATION_FILE_PROPERTY, "AsyncLoggerTest.xml");
+        System.setProperty("AsyncLogger.RingBufferShards", String.valueOf(SHARDS));
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        System.setProperty(Constants.LOG4J_CONTEXT_SELECTOR, Strings.EMPTY);
+        System.clearProperty("AsyncLogger.RingBufferShards");
+    }
+
+    @Test
+    public void testShardedRingBufferPreservesPerThreadOrder() throws Exception {
+        final File file = new File("target", "AsyncLoggerTest.log");
+        file.delete();
+
+        final Logger log = LogManager.getLogger("com.foo.Bar");
+        final AsyncLoggerContext context = (AsyncLoggerContext) LogManager.getContext(false);
+        final RingBufferAdmin admin = context.createRingBufferAdmin();
+        assertEquals(SHARDS, admin.getShardCount());
+        assertEquals(SHARDS, admin.getShardRemainingCapacities().length);
+
+        final Thread[] threads = new Thread[THREADS];
+        for (int i = 0; i < THREADS; i++) {
+            final int thread = i;
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < EVENTS_PER_THREAD; j++) {
+                    log.info("thread={} seq={}", thread, j);
+                }
+            });
+            threads[i].start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        CoreLoggerContexts.stopLoggerContext(false, file); // stop async threads
+
+        final List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        file.delete();
+        assertEquals(THREADS * EVENTS_PER_THREAD, lines.size());
+        final int[] expectedSeq = new int[THREADS];
+        for (final String line : lines) {
+            final int threadStart = line.indexOf("thread=") + "thread=".length();
+            final int thread = Integer.parseInt(line.substring(threadStart, line.indexOf(' ', threadStart)));
+            final int seqStart = line.indexOf("seq=") + "seq=".length();
+            final int seq = Integer.parseInt(line.substring(seqStart, line.indexOf(' ', seqStart)));
+            assertEquals("events of thread " + thread + " out of order", expectedSeq[thread]++, seq);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.config;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.Appender;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.appender.FileAppender;
+import org.apache.logging.log4j.core.util.Constants;
+import org.apache.logging.log4j.test.appender.ListAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests updating the LoggerConfigs of a running configuration when they are the only change.
+ */
+public class IncrementalReconfigurationTest {
+
+    private static final String RAW_PROPERTY = "IncrementalReconfigurationTest.raw";
+
+    private static final String CONFIG = "<Configuration status=\"OFF\" name=\"IncrementalReconfigurationTest\">\n"
+            + "  <Properties><Property name=\"dir\">%s</Property></Properties>\n"
+            + "  <Appenders>\n"
+            + "    <File name=\"File\" fileName=\"${dir}/test.log\"><PatternLayout pattern=\"%%m%%n\"/></File>\n"
+            + "    <List name=\"List\" raw=\"${sys:" + RAW_PROPERTY + ":-false}\"/>\n"
+            + "    <Routing name=\"Routing\"><Routes pattern=\"$${ctx:key}\"><Route ref=\"List\"/></Routes></Routing>\n"
+            + "  </Appenders>\n"
+            + "  <Loggers>\n"
+            + "    <Logger name=\"com.example\" level=\"%s\"><AppenderRef ref=\"Routing\"/></Logger>\n"
+            + "%s"
+            + "    <Root level=\"ERROR\"><AppenderRef ref=\"File\"/></Root>\n"
+            + "  </Loggers>\n"
+            + "</Configuration>\n";
+
+    private static final String OTHER_LOGGER = "    <Logger name=\"org.example\" level=\"TRACE\"/>\n";
+
+    @TempDir
+    File dir;
+
+    private LoggerContext context;
+
+    @AfterEach
+    public void tearDown() {
+        Configurator.shutdown(context);
+        System.clearProperty(Constants.LOG4J_INCREMENTAL_RECONFIGURATION);
+        System.clearProperty(RAW_PROPERTY);
+    }
+
+    @Test
+    public void testOnlyChangedLoggerConfigsAreUpdated() throws IOException {
+        System.setProperty(Constants.LOG4J_INCREMENTAL_RECONFIGURATION, "true");
+        final File configFile = writeConfig(dir.getPath(), "INFO", "");
+        context = Configurator.initialize("IncrementalReconfigurationTest", configFile.getPath());
+        final Configuration configuration = context.getConfiguration();
+        final Appender routing = configuration.getAppender("Routing");
+        final ListAppender list = configuration.getAppender("List");
+        final LoggerConfig root = configuration.getRootLogger();
+        final LoggerConfig example = configuration.getLoggerConfig("com.example");
+        assertEquals(Level.INFO, context.getLogger("com.example.Foo").getLevel());
+
+        writeConfig(dir.getPath(), "DEBUG", "");
+        context.reconfigure();
+
+        assertSame(configuration, context.getConfiguration());
+        assertTrue(configuration.isStarted());
+        assertSame(root, configuration.getRootLogger());
+        final LoggerConfig updated = configuration.getLoggerConfig("com.example");
+        assertNotSame(example, updated);
+        assertTrue(example.isStopped());
+        assertTrue(updated.isStarted());
+        assertSame(root, updated.getParent());
+        assertSame(routing, configuration.getAppender("Routing"));
+        assertTrue(routing.isStarted());
+        assertEquals(Level.DEBUG, context.getLogger("com.example.Foo").getLevel());
+        context.getLogger("com.example.Foo").debug("updated");
+        assertEquals(1, list.getEvents().size());
+    }
+
+    @Test
+    public void testAddedAndRemovedLoggerConfigs() throws IOException {
+        System.setProperty(Constants.LOG4J_INCREMENTAL_RECONFIGURATION, "true");
+        final File configFile = writeConfig(dir.getPath(), "INFO", "");
+        context = Configurator.initialize("IncrementalReconfigurationTest", configFile.getPath());
+        final Configuration configuration = context.getConfiguration();
+        final LoggerConfig example = configuration.getLoggerConfig("com.example");
+
+        writeConfig(dir.getPath(), "INFO", OTHER_LOGGER);
+        context.reconfigure();
+
+        assertSame(configuration, context.getConfiguration());
+        assertSame(example, configuration.getLoggerConfig("com.example"));
+        assertEquals("org.example", configuration.getLoggerConfig("org.example.Foo").getName());
+        assertEquals(Level.TRACE, context.getLogger("org.example.Foo").getLevel());
+
+        writeConfig(dir.getPath(), "INFO", "");
+        context.reconfigure();
+
+        assertSame(configuration, context.getConfiguration());
+        assertEquals("", configuration.getLoggerConfig("org.example.Foo").getName());
+        assertEquals(Level.ERROR, context.getLogger("org.example.Foo").getLevel());
+    }
+
+    @Test
+    public void testChangedPropertyValueReplacesConfiguration() throws IOException {
+        System.setProperty(Constants.LOG4J_INCREMENTAL_RECONFIGURATION, "true");
+        final File configFile = writeConfig(dir.getPath(), "INFO", "");
+        context = Configurator.initialize("IncrementalReconfigurationTest", configFile.getPath());
+        final Configuration previous = context.getConfiguration();
+        final FileAppender file = previous.getAppender("File");
+        final Appender list = previous.getAppender("List");
+
+        // the configuration file is unchanged, the value it refers to is not
+        System.setProperty(RAW_PROPERTY, "true");
+        context.reconfigure();
+
+        final Configuration configuration = context.getConfiguration();
+        assertNotSame(previous, configuration);
+        assertTrue(previous.isStopped());
+        assertNotSame(list, configuration.getAppender("List"));
+        // the new File appender shares the manager and the open file of the previous one
+        assertSame(file.getManager(), ((FileAppender) configuration.getAppender("File")).getManager());
+        assertTrue(file.getManager().isOpen());
+    }
+
+    @Test
+    public void testChangedPropertiesReplaceConfiguration() throws IOException {
+        System.setProperty(Constants.LOG4J_INCREMENTAL_RECONFIGURATION, "true");
+        final File configFile = writeConfig(dir.getPath(), "INFO", "");
+        context = Configurator.initialize("IncrementalReconfigurationTest", configFile.getPath());
+        final Configuration previous = context.getConfiguration();
+
+        writeConfig(dir.getPath() + File.separator + ".", "DEBUG", "");
+        context.reconfigure();
+
+        assertNotSame(previous, context.getConfiguration());
+        assertTrue(previous.isStopped());
+        assertEquals(Level.DEBUG, context.getLogger("com.example.Foo").getLevel());
+    }
+
+    @Test
+    public void testConfigurationIsReplacedByDefault() throws IOException {
+        final File configFile = writeConfig(dir.getPath(), "INFO", "");
+        context = Configurator.initialize("IncrementalReconfigurationTest", configFile.getPath());
+        final Configuration previous = context.getConfiguration();
+
+        writeConfig(dir.getPath(), "DEBUG", "");
+        context.reconfigure();
+
+        assertNotSame(previous, context.getConfiguration());
+        assertTrue(previous.isStopped());
+        assertEquals(Level.DEBUG, context.getLogger("com.example.Foo").getLevel());
+    }
+
+    private File writeConfig(final String logDir, final String level, final String otherLoggers) throws IOException {
+        final File configFile = new File(dir, "log4j2.xml");
+        Files.write(configFile.toPath(),
+                String.format(CONFIG, logDir, level, otherLoggers).getBytes(StandardCharsets.UTF_8));
+        return configFile;
+    }
+}
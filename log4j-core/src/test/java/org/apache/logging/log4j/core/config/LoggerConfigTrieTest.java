@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.util.NameUtil;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for LoggerConfigTrie.
+ */
+public class LoggerConfigTrieTest {
+
+    private static final String[] CONFIGURED = {
+            "", "com", "com.example", "com.example.service.impl", "org.apache.logging", "org.apache.logging.log4j.core",
+            ".leading", "trailing.", "double..dot", "x", "xy", "a.b.c.d.e.f.g.h"
+    };
+
+    private static final String[] NAMES = {
+            "", "com", "co", "comx", "com.example", "com.example.Foo", "com.example.service",
+            "com.example.service.impl.Bar", "com.examples", "org", "org.apache.logging.Foo",
+            "org.apache.logging.log4j.core.config.Foo", "org.apache.logging.log4j", ".leading", ".leading.Foo",
+            ".", "..", "trailing", "trailing.", "trailing..", "double", "double.", "double..dot.Foo", "x", "x.y",
+            "xy.z", "y", "a.b.c.d.e.f.g.h.i.j", "a.b.c.d.e.f.g", "net.example.Foo"
+    };
+
+    @Test
+    public void testFindMatchesNameWalk() {
+        final Map<String, LoggerConfig> loggerConfigs = new HashMap<>();
+        for (final String name : CONFIGURED) {
+            loggerConfigs.put(name, new LoggerConfig(name, Level.INFO, true));
+        }
+        final LoggerConfigTrie trie = new LoggerConfigTrie(loggerConfigs);
+        for (final String name : NAMES) {
+            assertSame(walk(loggerConfigs, name), trie.find(name), name);
+        }
+    }
+
+    @Test
+    public void testFindWithoutRoot() {
+        final Map<String, LoggerConfig> loggerConfigs = new HashMap<>();
+        loggerConfigs.put("com.example", new LoggerConfig("com.example", Level.INFO, true));
+        final LoggerConfigTrie trie = new LoggerConfigTrie(loggerConfigs);
+        assertNull(trie.find("org.example"));
+        assertNull(trie.find("com"));
+        assertSame(loggerConfigs.get("com.example"), trie.find("com.example.Foo"));
+        assertNull(LoggerConfigTrie.EMPTY.find("com.example"));
+    }
+
+    @Test
+    public void testManySiblings() {
+        final Map<String, LoggerConfig> loggerConfigs = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            final String name = "com.example.package" + i;
+            loggerConfigs.put(name, new LoggerConfig(name, Level.INFO, true));
+        }
+        final LoggerConfigTrie trie = new LoggerConfigTrie(loggerConfigs);
+        for (int i = 0; i < 1000; i++) {
+            assertSame(loggerConfigs.get("com.example.package" + i), trie.find("com.example.package" + i + ".Foo"));
+        }
+        assertNull(trie.find("com.example.package1000"));
+    }
+
+    @Test
+    public void testConfigurationUsesCurrentLoggers() {
+        final NullConfiguration configuration = new NullConfiguration();
+        final LoggerConfig loggerConfig = new LoggerConfig("com.example", Level.INFO, true);
+        assertSame(configuration.getRootLogger(), configuration.getLoggerConfig("com.example.Foo"));
+        configuration.addLogger("com.example", loggerConfig);
+        assertSame(loggerConfig, configuration.getLoggerConfig("com.example.Foo"));
+        configuration.removeLogger("com.example");
+        assertSame(configuration.getRootLogger(), configuration.getLoggerConfig("com.example.Foo"));
+    }
+
+    /**
+     * The lookup the trie replaces.
+     */
+    private static LoggerConfig walk(final Map<String, LoggerConfig> loggerConfigs, final String loggerName) {
+        LoggerConfig loggerConfig = loggerConfigs.get(loggerName);
+        String substr = loggerName;
+        while (loggerConfig == null && (substr = NameUtil.getSubName(substr)) != null) {
+            loggerConfig = loggerConfigs.get(substr);
+        }
+        return loggerConfig;
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.filter;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.Marker;
+import org.apache.logging.log4j.MarkerManager;
+import org.apache.logging.log4j.core.Filter;
+import org.apache.logging.log4j.core.Filter.Result;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.config.DefaultConfiguration;
+import org.apache.logging.log4j.core.jmx.CompositeFilterAdmin;
+import org.apache.logging.log4j.core.script.Script;
+import org.apache.logging.log4j.junit.LoggerContextSource;
+import org.apache.logging.log4j.junit.Named;
+import org.apache.logging.log4j.test.appender.ListAppender;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for <code>CompositeFilter</code>.
+ */
+public class CompositeFilterTest {
+
+    private static final Level[] LEVELS = {
+            Level.OFF, Level.FATAL, Level.ERROR, Level.WARN, Level.INFO, Level.DEBUG, Level.TRACE, Level.ALL,
+            Level.forName("NOTICE", 350)
+    };
+
+    private static final int CALL_COUNT = 64 * 1024;
+
+    private static Result evaluate(final Filter[] filters, final Level level, final Marker marker) {
+        for (final Filter filter : filters) {
+            final Result result = filter.filter(null, level, marker, "message", (Object[]) null);
+            if (result == Result.ACCEPT || result == Result.DENY) {
+                return result;
+            }
+        }
+        return Result.NEUTRAL;
+    }
+
+    @Test
+    public void testLevelFiltersMatchDeclarationOrder() {
+        final Filter[] filters = {
+                MarkerFilter.createFilter("AUDIT", Result.ACCEPT, Result.NEUTRAL),
+                LevelRangeFilter.createFilter(Level.ERROR, Level.WARN, Result.ACCEPT, Result.NEUTRAL),
+                ThresholdFilter.createFilter(Level.DEBUG, Result.NEUTRAL, Result.DENY)
+        };
+        final CompositeFilter composite = CompositeFilter.createFilters(filters);
+        final Marker audit = MarkerManager.getMarker("AUDIT");
+        for (final Level level : LEVELS) {
+            assertSame(evaluate(filters, level, null), composite.filter(null, level, null, "message", 1), level.name());
+            assertSame(evaluate(filters, level, audit), composite.filter(null, level, audit, "message", 1),
+                    level.name());
+        }
+        assertSame(Result.ACCEPT, composite.filter(null, Level.INFO, audit, "message", 1));
+        assertSame(Result.DENY, composite.filter(null, Level.TRACE, null, "message"));
+        assertSame(Result.NEUTRAL, composite.filter(null, Level.forName("NOTICE", 350), null, "message"));
+    }
+
+    @Test
+    public void testAdaptiveReordersFiltersDecidingAlike() throws Exception {
+        final RegexFilter regex = RegexFilter.createFilter(".*secret.*", null, false, Result.DENY, Result.NEUTRAL);
+        final ThresholdFilter threshold = ThresholdFilter.createFilter(Level.WARN, Result.NEUTRAL, Result.DENY);
+        final CompositeFilter composite = CompositeFilter.createFilters(new Filter[] {regex, threshold}, true, null);
+        assertTrue(composite.isAdaptive());
+        for (int i = 0; i < CALL_COUNT; i++) {
+            assertSame(Result.DENY, composite.filter(null, Level.DEBUG, null, "message {}", i));
+        }
+        assertArrayEquals(new Filter[] {regex, threshold}, composite.getEvaluationOrder());
+        composite.reorder();
+        assertArrayEquals(new Filter[] {threshold, regex}, composite.getEvaluationOrder());
+        assertArrayEquals(new Filter[] {regex, threshold}, composite.getFiltersArray());
+        assertTrue(composite.getReorderCount() > 0);
+        assertEquals(1.0, composite.getDecisionRate(1));
+        assertTrue(composite.getInvocationCount(1) >= CALL_COUNT);
+        assertSame(Result.DENY, composite.filter(null, Level.ERROR, null, "the secret is {}", 42));
+        assertSame(Result.NEUTRAL, composite.filter(null, Level.ERROR, null, "the answer is {}", 42));
+    }
+
+    @Test
+    public void testAdaptiveKeepsOrderOfFiltersDecidingDifferently() throws Exception {
+        final RegexFilter regex = RegexFilter.createFilter(".*secret.*", null, false, Result.ACCEPT, Result.NEUTRAL);
+        final ThresholdFilter threshold = ThresholdFilter.createFilter(Level.WARN, Result.NEUTRAL, Result.DENY);
+        final CompositeFilter composite = CompositeFilter.createFilters(new Filter[] {regex, threshold}, true, null);
+        for (int i = 0; i < CALL_COUNT; i++) {
+            assertSame(Result.DENY, composite.filter(null, Level.DEBUG, null, "message {}", i));
+        }
+        composite.reorder();
+        assertArrayEquals(new Filter[] {regex, threshold}, composite.getEvaluationOrder());
+        assertEquals(0, composite.getReorderCount());
+        assertSame(Result.ACCEPT, composite.filter(null, Level.DEBUG, null, "the secret is {}", 42));
+    }
+
+    @Test
+    public void testAdaptiveKeepsOrderOfScriptFilters() throws Exception {
+        final DefaultConfiguration configuration = new DefaultConfiguration();
+        configuration.initialize();
+        final ScriptFilter script = ScriptFilter.createFilter(new Script("neverDenies", "JavaScript", "false"),
+                Result.DENY, Result.NEUTRAL, true, false, configuration);
+        final ThresholdFilter threshold = ThresholdFilter.createFilter(Level.WARN, Result.NEUTRAL, Result.DENY);
+        final CompositeFilter composite = CompositeFilter.createFilters(new Filter[] {script, threshold}, true, null);
+        for (int i = 0; i < CALL_COUNT; i++) {
+            assertSame(Result.DENY, composite.filter(null, Level.DEBUG, null, "message {}", i));
+        }
+        composite.reorder();
+        assertArrayEquals(new Filter[] {script, threshold}, composite.getEvaluationOrder());
+        assertEquals(0, composite.getReorderCount());
+    }
+
+    @Test
+    public void testAdaptiveIsReorderedByConfigurationScheduler() throws Exception {
+        final DefaultConfiguration configuration = new DefaultConfiguration();
+        final RegexFilter regex = RegexFilter.createFilter(".*secret.*", null, false, Result.DENY, Result.NEUTRAL);
+        final ThresholdFilter threshold = ThresholdFilter.createFilter(Level.WARN, Result.NEUTRAL, Result.DENY);
+        final CompositeFilter composite = CompositeFilter.createFilters(new Filter[] {regex, threshold}, true,
+                configuration);
+        composite.start();
+        try {
+            for (int i = 0; i < CALL_COUNT; i++) {
+                composite.filter(null, Level.DEBUG, null, "message {}", i);
+            }
+            final long deadline = System.currentTimeMillis() + 10 * CompositeFilter.REORDER_INTERVAL_MILLIS;
+            while (composite.getReorderCount() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertArrayEquals(new Filter[] {threshold, regex}, composite.getEvaluationOrder());
+        } finally {
+            composite.stop();
+            configuration.stop();
+        }
+    }
+
+    @Test
+    public void testRemoveNestedComposite() throws Exception {
+        final RegexFilter regex = RegexFilter.createFilter(".*secret.*", null, false, Result.DENY, Result.NEUTRAL);
+        final ThresholdFilter threshold = ThresholdFilter.createFilter(Level.WARN, Result.NEUTRAL, Result.DENY);
+        final MarkerFilter marker = MarkerFilter.createFilter("AUDIT", Result.ACCEPT, Result.NEUTRAL);
+        final CompositeFilter composite = CompositeFilter.createFilters(new Filter[] {marker, regex, threshold});
+        final CompositeFilter removed = composite.removeFilter(CompositeFilter.createFilters(
+                new Filter[] {regex, threshold}));
+        assertArrayEquals(new Filter[] {marker}, removed.getFiltersArray());
+        assertSame(Result.NEUTRAL, removed.filter(null, Level.DEBUG, null, "message {}", 42));
+    }
+
+    @Test
+    public void testAdminFollowsReplacedComposite() throws Exception {
+        final DefaultConfiguration configuration = new DefaultConfiguration();
+        final RegexFilter regex = RegexFilter.createFilter(".*secret.*", null, false, Result.DENY, Result.NEUTRAL);
+        final ThresholdFilter threshold = ThresholdFilter.createFilter(Level.WARN, Result.NEUTRAL, Result.DENY);
+        final CompositeFilter composite = CompositeFilter.createFilters(new Filter[] {regex}, true, configuration);
+        final CompositeFilterAdmin admin = new CompositeFilterAdmin("ctx", configuration, composite);
+        final CompositeFilter replaced = composite.addFilter(threshold);
+        assertEquals(composite.getName(), replaced.getName());
+        assertEquals(2, admin.getFilters().length);
+        assertEquals(2, admin.getInvocationCounts().length);
+    }
+
+    @Test
+    public void testAdaptiveCountsConcurrentCalls() throws Exception {
+        final int threadCount = 4;
+        final int callCount = CALL_COUNT;
+        final RegexFilter regex = RegexFilter.createFilter(".*secret.*", null, false, Result.DENY, Result.NEUTRAL);
+        final ThresholdFilter threshold = ThresholdFilter.createFilter(Level.WARN, Result.NEUTRAL, Result.DENY);
+        final CompositeFilter composite = CompositeFilter.createFilters(new Filter[] {regex, threshold}, true, null);
+        final ExecutorService threadPool = Executors.newFixedThreadPool(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            threadPool.execute(() -> {
+                for (int j = 0; j < callCount; j++) {
+                    composite.filter(null, Level.ERROR, null, "message {}", j);
+                }
+            });
+        }
+        threadPool.shutdown();
+        assertTrue(threadPool.awaitTermination(30, TimeUnit.SECONDS), "The thread pool has not shutdown");
+        // neither filter decides, so both are called for every event
+        assertEquals(threadCount * callCount, composite.getInvocationCount(0));
+        assertEquals(threadCount * callCount, composite.getInvocationCount(1));
+    }
+
+    @Test
+    @LoggerContextSource("log4j-composite-adaptive.xml")
+    public void testAdaptiveConfiguration(final LoggerContext context, @Named("ListAppender") final ListAppender app) {
+        final CompositeFilter composite = (CompositeFilter) app.getFilter();
+        assertTrue(composite.isAdaptive());
+        assertEquals("filters-1", composite.getName());
+        assertTrue(CompositeFilter.getAdaptiveFilters(context.getConfiguration()).contains(composite));
+        final Logger logger = context.getLogger("org.example.Service");
+        logger.info("info");
+        logger.warn("warn");
+        logger.error("the secret is {}", 42);
+        assertEquals(1, app.getMessages().size());
+    }
+}
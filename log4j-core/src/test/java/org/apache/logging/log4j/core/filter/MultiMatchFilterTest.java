@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.filter;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.Filter.Result;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.junit.LoggerContextSource;
+import org.apache.logging.log4j.junit.Named;
+import org.apache.logging.log4j.message.Message;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.apache.logging.log4j.test.appender.ListAppender;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for <code>MultiMatchFilter</code>.
+ */
+@LoggerContextSource("log4j-multimatch.xml")
+public class MultiMatchFilterTest {
+
+    private final ListAppender app;
+    private final MultiMatchFilter filter;
+    private final Logger logger;
+
+    public MultiMatchFilterTest(final LoggerContext context, @Named("ListAppender") final ListAppender app) {
+        this.app = app;
+        this.filter = (MultiMatchFilter) app.getFilter();
+        assertNotNull(filter);
+        this.logger = context.getLogger(getClass());
+    }
+
+    @Test
+    public void testConfiguration() {
+        assertEquals(4, filter.getRules().length);
+        logger.info("Connection reset by {}", "peer");
+        logger.info("Retrying request {} of {}", 2, 5);
+        logger.info("Retrying request {} of {} after {}", 2, 5, "timeout");
+        logger.info("Heartbeat from {}", "node-1");
+        logger.info("{} received", "Heartbeat");
+        logger.info("Hello {}", "world");
+        logger.info("Disk {} important", "full");
+        assertEquals(Arrays.asList("Retrying request 2 of 5 after timeout\n", "Heartbeat received\n",
+                "Hello world\n", "Disk full important\n"), app.getMessages());
+        app.clear();
+    }
+
+    @Test
+    public void testFirstMatchingRule() {
+        final MultiMatchFilter multi = create(rule("she", Result.ACCEPT), rule("he", null),
+                rule("hers", Result.NEUTRAL), regex("h.*s", Result.ACCEPT));
+        assertSame(Result.ACCEPT, multi.filter(event("ushers")));
+        assertSame(Result.DENY, multi.filter(event("ahex")));
+        // "he" is found before "hers" ends, but the rules are applied in their order
+        assertSame(Result.DENY, multi.filter(event("xhersx")));
+        assertSame(Result.ACCEPT, multi.filter(event("his")));
+        assertSame(Result.NEUTRAL, multi.filter(event("no match")));
+        assertSame(Result.NEUTRAL, multi.filter(null, Level.INFO, null, (Object) null, null));
+    }
+
+    @Test
+    public void testSameResultsAsSeparateFilters() {
+        final String[] texts = { "ab", "abc", "bca", "cc", "aab", "cab", "bb" };
+        final MatchRule[] rules = new MatchRule[texts.length + 2];
+        for (int i = 0; i < texts.length; i++) {
+            rules[i] = rule(texts[i], Result.values()[i % 3]);
+        }
+        rules[texts.length] = regex("(a|b)+", Result.ACCEPT);
+        rules[texts.length + 1] = regex("(b)c\\1", Result.DENY);
+        final MultiMatchFilter multi = create(rules);
+        // without a back reference the expressions are combined into one pattern
+        final MatchRule[] combinableRules = rules.clone();
+        combinableRules[texts.length + 1] = regex("(b)c(b)", Result.DENY);
+        final MultiMatchFilter combined = create(combinableRules);
+        final Random random = new Random(42);
+        for (int n = 0; n < 10_000; n++) {
+            final char[] chars = new char[random.nextInt(8)];
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = "abcd".charAt(random.nextInt(4));
+            }
+            final String text = new String(chars);
+            Result expected = Result.NEUTRAL;
+            for (int i = 0; i < texts.length; i++) {
+                if (text.contains(texts[i])) {
+                    expected = Result.values()[i % 3];
+                    break;
+                }
+            }
+            if (expected == Result.NEUTRAL && !Arrays.asList(texts).stream().anyMatch(text::contains)) {
+                expected = text.matches("(a|b)+") ? Result.ACCEPT : text.matches("(b)c\\1") ? Result.DENY
+                        : Result.NEUTRAL;
+            }
+            assertSame(expected, multi.filter(event(text)), text);
+            assertSame(expected, combined.filter(event(text)), text);
+        }
+    }
+
+    @Test
+    public void testTemplateDecidesWithoutFormatting() {
+        final MultiMatchFilter multi = create(rule("Connection reset", null), rule("timeout", null),
+                regex("Retrying .*", null));
+        final Object unformattable = new Object() {
+            @Override
+            public String toString() {
+                throw new AssertionError("message formatted");
+            }
+        };
+        assertSame(Result.DENY, multi.filter(event(new ParameterizedMessage("Connection reset by {}",
+                unformattable))));
+        assertSame(Result.DENY, multi.filter((org.apache.logging.log4j.core.Logger) logger, Level.INFO, null,
+                "{} timeout", unformattable));
+        // the text spans a placeholder, so the message is formatted
+        assertSame(Result.DENY, multi.filter(event(new ParameterizedMessage("Connection {}", "reset"))));
+        assertSame(Result.NEUTRAL, multi.filter(event(new ParameterizedMessage("Hello {}", "world"))));
+        // escaped placeholders change the formatted text
+        assertSame(Result.DENY, multi.filter(event(new ParameterizedMessage("\\{}timeout{}", "x"))));
+        assertSame(Result.NEUTRAL, multi.filter(event(new ParameterizedMessage("time\\{}out {}", "x"))));
+        // a different result before the found text requires formatting the message
+        final MultiMatchFilter mixed = create(rule("peer", Result.ACCEPT), rule("Connection reset", null));
+        assertSame(Result.ACCEPT, mixed.filter(event(new ParameterizedMessage("Connection reset by {}", "peer"))));
+    }
+
+    @Test
+    public void testInvalidRules() {
+        assertNull(MatchRule.newBuilder().build());
+        assertNull(MatchRule.newBuilder().setText("a").setRegex("b").build());
+        assertNull(MultiMatchFilter.createFilter(new MatchRule[0], null, null));
+    }
+
+    private static MultiMatchFilter create(final MatchRule... rules) {
+        return MultiMatchFilter.createFilter(rules, Result.DENY, Result.NEUTRAL);
+    }
+
+    private static MatchRule rule(final String text, final Result onMatch) {
+        return MatchRule.newBuilder().setText(text).setOnMatch(onMatch).build();
+    }
+
+    private static MatchRule regex(final String regex, final Result onMatch) {
+        return MatchRule.newBuilder().setRegex(regex).setOnMatch(onMatch).build();
+    }
+
+    private static Log4jLogEvent event(final String text) {
+        return event(new SimpleMessage(text));
+    }
+
+    private static Log4jLogEvent event(final Message message) {
+        return Log4jLogEvent.newBuilder().setLoggerName("test").setLevel(Level.INFO).setMessage(message).build();
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.filter;
+
+import java.util.List;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.Filter;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.junit.LoggerContextSource;
+import org.apache.logging.log4j.junit.Named;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.apache.logging.log4j.test.appender.ListAppender;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for <code>RateLimitFilter</code>.
+ */
+@LoggerContextSource("log4j-ratelimit.xml")
+public class RateLimitFilterTest {
+
+    private final ListAppender app;
+    private final RateLimitFilter filter;
+    private final LoggerContext context;
+
+    public RateLimitFilterTest(final LoggerContext context, @Named("ListAppender") final ListAppender app) {
+        this.context = context;
+        this.app = app;
+        this.filter = (RateLimitFilter) app.getFilter();
+        assertNotNull(filter);
+    }
+
+    @Test
+    public void testBuckets() {
+        final Logger logger = context.getLogger("org.example.Service");
+        final Logger noisy = context.getLogger("org.example.noisy.Client");
+        final Logger notNoisy = context.getLogger("org.example.noisyneighbour");
+        for (int i = 0; i < 15; i++) {
+            logger.info("info {}", i);
+            logger.debug("debug {}", i);
+            noisy.info("noisy {}", i);
+            logger.warn("warn {}", i);
+        }
+        for (int i = 0; i < 5; i++) {
+            notNoisy.info("neighbour {}", i);
+        }
+        final List<String> msgs = app.getMessages();
+        assertEquals(10, count(msgs, "INFO  org.example.Service"));
+        assertEquals(10, count(msgs, "DEBUG org.example.Service"));
+        assertEquals(10, count(msgs, "INFO  org.example.noisy.Client"));
+        // org.example.noisyneighbour shares the bucket of the INFO events of org.example.Service
+        assertEquals(0, count(msgs, "INFO  org.example.noisyneighbour"));
+        assertEquals(15, count(msgs, "WARN "));
+        assertEquals(20, filter.getDroppedCount());
+        assertTrue(filter.getDroppedCounts().contains("org.example.noisy/INFO=5"), filter.getDroppedCounts().toString());
+        assertTrue(filter.getDroppedCounts().contains("*/INFO=10"), filter.getDroppedCounts().toString());
+        app.clear();
+
+        filter.logSummary();
+        final List<String> summary = app.getMessages();
+        assertEquals(3, summary.size(), summary.toString());
+        assertTrue(summary.contains("WARN  org.example.summary 10 events suppressed by rate limit for */INFO\n"),
+                summary.toString());
+        app.clear();
+        // only the events dropped since the last summary are reported
+        filter.logSummary();
+        assertTrue(app.getMessages().isEmpty());
+
+        filter.clear();
+        logger.info("after clear");
+        assertEquals(1, app.getMessages().size());
+        app.clear();
+    }
+
+    @Test
+    public void testSummaryRespectsLoggerLevel() {
+        final Log4jLogEvent event = Log4jLogEvent.newBuilder().setLoggerName("test").setLevel(Level.INFO)
+                .setMessage(new SimpleMessage("test")).build();
+        for (final Level summaryLevel : new Level[] {Level.INFO, Level.WARN}) {
+            final RateLimitFilter rateLimit = RateLimitFilter.newBuilder().setLevel(Level.INFO).setRate(0.1f)
+                    .setMaxBurst(1).setSummaryInterval(0).setSummaryLevel(summaryLevel)
+                    .setSummaryLogger("org.example.quiet").setConfiguration(context.getConfiguration()).build();
+            assertSame(Filter.Result.NEUTRAL, rateLimit.filter(event));
+            assertSame(Filter.Result.DENY, rateLimit.filter(event));
+            app.clear();
+            rateLimit.logSummary();
+            // org.example.quiet only logs WARN and above
+            assertEquals(summaryLevel == Level.WARN ? 1 : 0, app.getMessages().size(), app.getMessages().toString());
+        }
+        app.clear();
+    }
+
+    @Test
+    public void testLowRateWithDefaultBurst() {
+        final RateLimitFilter rateLimit = RateLimitFilter.newBuilder().setLevel(Level.INFO).setRate(0.005f)
+                .setSummaryInterval(0).build();
+        final Log4jLogEvent event = Log4jLogEvent.newBuilder().setLoggerName("test").setLevel(Level.INFO)
+                .setMessage(new SimpleMessage("test")).build();
+        assertSame(Filter.Result.NEUTRAL, rateLimit.filter(event));
+        assertSame(Filter.Result.DENY, rateLimit.filter(event));
+    }
+
+    @Test
+    public void testTokenBucket() {
+        final RateLimitFilter rateLimit = RateLimitFilter.newBuilder().setLevel(Level.INFO).setRate(1000)
+                .setMaxBurst(5).setSummaryInterval(0).build();
+        final Log4jLogEvent event = Log4jLogEvent.newBuilder().setLoggerName("test").setLevel(Level.INFO)
+                .setMessage(new SimpleMessage("test")).build();
+        for (int i = 0; i < 5; i++) {
+            assertSame(Filter.Result.NEUTRAL, rateLimit.filter(event));
+        }
+        assertSame(Filter.Result.DENY, rateLimit.filter(event));
+        final Log4jLogEvent summary = Log4jLogEvent.newBuilder().setLoggerName("test").setLevel(Level.INFO)
+                .setMarker(RateLimitFilter.SUMMARY_MARKER).setMessage(new SimpleMessage("summary")).build();
+        assertSame(Filter.Result.NEUTRAL, rateLimit.filter(summary));
+        final long start = System.nanoTime();
+        while (rateLimit.filter(event) == Filter.Result.DENY) {
+            assertTrue(System.nanoTime() - start < 10_000_000_000L, "bucket is not refilled");
+        }
+        assertTrue(rateLimit.getDroppedCount() > 0);
+    }
+
+    private static int count(final List<String> msgs, final String prefix) {
+        int count = 0;
+        for (final String msg : msgs) {
+            if (msg.startsWith(prefix)) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
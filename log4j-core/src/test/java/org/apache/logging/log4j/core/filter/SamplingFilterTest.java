@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.filter;
+
+import java.util.List;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.MarkerManager;
+import org.apache.logging.log4j.ThreadContext;
+import org.apache.logging.log4j.core.Filter;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.junit.LoggerContextSource;
+import org.apache.logging.log4j.junit.Named;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.apache.logging.log4j.message.StringMapMessage;
+import org.apache.logging.log4j.test.appender.ListAppender;
+import org.apache.logging.log4j.util.SortedArrayStringMap;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for <code>SamplingFilter</code>.
+ */
+@LoggerContextSource("log4j-sampling.xml")
+public class SamplingFilterTest {
+
+    private final ListAppender app;
+    private final SamplingFilter filter;
+    private final Logger logger;
+
+    public SamplingFilterTest(final LoggerContext context, @Named("ListAppender") final ListAppender app) {
+        this.app = app;
+        this.filter = (SamplingFilter) app.getFilter();
+        assertNotNull(filter);
+        this.logger = context.getLogger(getClass());
+    }
+
+    @Test
+    public void testSameTraceAlwaysKeptOrDropped() {
+        int keptTraces = 0;
+        for (int i = 0; i < 100; i++) {
+            final String traceId = Integer.toHexString(i * 7919);
+            ThreadContext.put("traceId", traceId);
+            try {
+                for (int j = 0; j < 5; j++) {
+                    logger.debug("debug {}", j);
+                }
+                logger.info("info");
+            } finally {
+                ThreadContext.remove("traceId");
+            }
+            final List<String> msgs = app.getMessages();
+            if (filter.isSampled(traceId)) {
+                keptTraces++;
+                assertEquals(6, msgs.size(), traceId);
+            } else {
+                // INFO is more specific than the level of the filter and never sampled
+                assertEquals(1, msgs.size(), traceId);
+                assertTrue(msgs.get(0).startsWith("INFO "), msgs.get(0));
+            }
+            app.clear();
+        }
+        assertTrue(keptTraces > 25 && keptTraces < 75, "kept " + keptTraces + " of 100 traces");
+        assertEquals(keptTraces * 5, filter.getKeptCount());
+        assertEquals((100 - keptTraces) * 5, filter.getDroppedCount());
+
+        // events without a trace id are not sampled
+        logger.debug("no trace");
+        assertEquals(1, app.getMessages().size());
+        app.clear();
+    }
+
+    @Test
+    public void testRatio() {
+        final SamplingFilter thousandth = SamplingFilter.newBuilder().setKey("traceId").setRatio(0.001).build();
+        final SamplingFilter none = SamplingFilter.newBuilder().setKey("traceId").setRatio(0).build();
+        final SamplingFilter all = SamplingFilter.newBuilder().setKey("traceId").setRatio(1).build();
+        final SamplingFilter seeded = SamplingFilter.newBuilder().setKey("traceId").setRatio(0.001).setSeed(1)
+                .build();
+        int kept = 0;
+        int keptBoth = 0;
+        for (int i = 0; i < 1_000_000; i++) {
+            final String traceId = "trace-" + i;
+            if (thousandth.isSampled(traceId)) {
+                kept++;
+                if (seeded.isSampled(traceId)) {
+                    keptBoth++;
+                }
+            }
+            assertFalse(none.isSampled(traceId));
+            assertTrue(all.isSampled(traceId));
+        }
+        assertTrue(kept > 800 && kept < 1200, "kept " + kept);
+        assertTrue(keptBoth < 10, "filters with different seeds keep different traces: " + keptBoth);
+    }
+
+    @Test
+    public void testKeyTypes() {
+        final StringMapMessage kept = new StringMapMessage();
+        final StringMapMessage dropped = new StringMapMessage();
+        final SamplingFilter map = SamplingFilter.newBuilder().setKeyType(SamplingFilter.KeyType.MAP).setKey("user")
+                .setRatio(0.5).build();
+        for (int i = 0; !kept.containsKey("user") || !dropped.containsKey("user"); i++) {
+            final String user = "user" + i;
+            (map.isSampled(user) ? kept : dropped).with("user", user);
+        }
+        assertSame(Filter.Result.NEUTRAL, map.filter(createEvent("test", null, kept)));
+        assertSame(Filter.Result.DENY, map.filter(createEvent("test", null, dropped)));
+        assertSame(Filter.Result.DENY, map.filter(null, Level.DEBUG, null, dropped, null));
+        assertSame(Filter.Result.NEUTRAL, map.filter(null, Level.DEBUG, null, "no map", (Object) null));
+        assertSame(Filter.Result.NEUTRAL, map.filter(createEvent("test", null, new StringMapMessage())));
+
+        final SamplingFilter logger = SamplingFilter.newBuilder().setKeyType(SamplingFilter.KeyType.LOGGER)
+                .setRatio(0).build();
+        assertSame(Filter.Result.DENY, logger.filter(createEvent("test", null, new SimpleMessage("test"))));
+
+        final SamplingFilter marker = SamplingFilter.newBuilder().setKeyType(SamplingFilter.KeyType.MARKER)
+                .setRatio(0).build();
+        assertSame(Filter.Result.NEUTRAL, marker.filter(createEvent("test", null, new SimpleMessage("test"))));
+        assertSame(Filter.Result.DENY, marker.filter(createEvent("test", "FLOW", new SimpleMessage("test"))));
+
+        final SamplingFilter context = SamplingFilter.newBuilder().setKey("traceId").setRatio(0).build();
+        final SortedArrayStringMap contextData = new SortedArrayStringMap();
+        contextData.putValue("traceId", "abc");
+        final LogEvent event = Log4jLogEvent.newBuilder().setLoggerName("test").setLevel(Level.DEBUG)
+                .setContextData(contextData).setMessage(new SimpleMessage("test")).build();
+        assertSame(Filter.Result.DENY, context.filter(event));
+
+        assertNull(SamplingFilter.newBuilder().setKeyType(SamplingFilter.KeyType.MAP).build());
+        assertNull(SamplingFilter.newBuilder().setKey("traceId").setRatio(2).build());
+    }
+
+    private static LogEvent createEvent(final String loggerName, final String marker,
+            final org.apache.logging.log4j.message.Message message) {
+        return Log4jLogEvent.newBuilder().setLoggerName(loggerName).setLevel(Level.DEBUG)
+                .setMarker(marker == null ? null : MarkerManager.getMarker(marker)).setMessage(message).build();
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.filter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.junit.LoggerContextSource;
+import org.apache.logging.log4j.junit.Named;
+import org.apache.logging.log4j.test.appender.ListAppender;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests ScriptFilters reusing their bindings and caching the results of deterministic scripts.
+ */
+@LoggerContextSource("log4j-script-filter-cache.xml")
+public class ScriptFilterCacheTest {
+
+    public static final AtomicInteger EXECUTIONS = new AtomicInteger();
+
+    @BeforeEach
+    public void beforeEach(@Named("List") final ListAppender app) {
+        EXECUTIONS.set(0);
+        app.clear();
+    }
+
+    @Test
+    public void testDeterministicScriptIsExecutedOncePerLevel(final LoggerContext context,
+            @Named("List") final ListAppender app) {
+        final Logger logger = context.getLogger("Deterministic");
+        for (int i = 0; i < 10; i++) {
+            logger.info("info {}", i);
+            logger.error("error {}", i);
+        }
+        assertEquals(10, app.getMessages().size());
+        assertEquals(2, EXECUTIONS.get());
+    }
+
+    @Test
+    public void testReusedBindingsSeeEachEvent(final LoggerContext context, @Named("List") final ListAppender app) {
+        final Logger logger = context.getLogger("Reused");
+        for (int i = 0; i < 10; i++) {
+            logger.info("keep {}", i);
+            logger.info("drop {}", i);
+        }
+        assertEquals(10, app.getMessages().size());
+        assertEquals(20, EXECUTIONS.get());
+        for (final String message : app.getMessages()) {
+            assertTrue(message.contains("keep"), message);
+        }
+    }
+
+    @Test
+    public void testFailedScriptIsNotCached(final LoggerContext context, @Named("List") final ListAppender app) {
+        final Logger logger = context.getLogger("Failing");
+        logger.info("first");
+        logger.info("second");
+        logger.info("third");
+        assertEquals(2, app.getMessages().size());
+        assertEquals(2, EXECUTIONS.get());
+    }
+
+    @Test
+    public void testBindingsAreNotReusedByDefault(final LoggerContext context,
+            @Named("List") final ListAppender app) {
+        final Logger logger = context.getLogger("Fresh");
+        for (int i = 0; i < 3; i++) {
+            logger.info("fresh {}", i);
+        }
+        assertEquals(3, app.getMessages().size());
+    }
+}
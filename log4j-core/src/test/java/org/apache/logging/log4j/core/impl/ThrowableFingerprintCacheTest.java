@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.impl;
+
+import java.util.List;
+
+import org.apache.logging.log4j.core.config.DefaultConfiguration;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ThrowableFingerprintCacheTest {
+
+    private static Throwable createThrowable(final String message) {
+        return new IllegalStateException(message, new IllegalArgumentException("cause"));
+    }
+
+    @Test
+    public void testFingerprint() {
+        final Throwable[] throwables = new Throwable[2];
+        for (int i = 0; i < throwables.length; i++) {
+            throwables[i] = createThrowable("message " + i);
+        }
+        assertEquals(ThrowableFingerprintCache.fingerprint(throwables[0]),
+                ThrowableFingerprintCache.fingerprint(throwables[1]));
+        assertEquals(ThrowableFingerprintCache.fingerprint(new ThrowableProxy(throwables[0])),
+                ThrowableFingerprintCache.fingerprint(new ThrowableProxy(throwables[1])));
+        assertNotEquals(ThrowableFingerprintCache.fingerprint(throwables[0]),
+                ThrowableFingerprintCache.fingerprint(createThrowable("message 0")));
+        final Throwable withSuppressed = createThrowable("message 0");
+        final long before = ThrowableFingerprintCache.fingerprint(withSuppressed);
+        withSuppressed.addSuppressed(new RuntimeException());
+        assertNotEquals(before, ThrowableFingerprintCache.fingerprint(withSuppressed));
+    }
+
+    @Test
+    public void testRecord() {
+        final ThrowableFingerprintCache cache = new ThrowableFingerprintCache("test", 2, 0);
+        assertEquals(0, cache.record(1));
+        assertEquals(2, cache.record(1));
+        assertEquals(3, cache.record(1));
+        assertEquals(0, cache.record(2));
+        assertEquals(2, cache.getSize());
+        // the cache is full, so it is cleared
+        assertEquals(0, cache.record(3));
+        assertEquals(1, cache.getSize());
+        assertEquals(0, cache.record(1));
+        assertEquals(4, cache.getFullTraceCount());
+        assertEquals(2, cache.getReferenceCount());
+        assertEquals(2, cache.getEvictionCount());
+        cache.clear();
+        assertEquals(0, cache.getSize());
+        assertEquals(0, cache.record(1));
+    }
+
+    @Test
+    public void testInterval() throws InterruptedException {
+        final ThrowableFingerprintCache cache = new ThrowableFingerprintCache("test", 16, 50);
+        assertEquals(0, cache.record(1));
+        assertEquals(2, cache.record(1));
+        Thread.sleep(100);
+        assertEquals(0, cache.record(1));
+        assertEquals(4, cache.record(1));
+    }
+
+    @Test
+    public void testFormatReference() {
+        final StringBuilder buffer = new StringBuilder();
+        ThrowableFingerprintCache.formatReference(0xABCL, 42, buffer);
+        assertEquals("[trace #0000000000000abc seen 42 times]", buffer.toString());
+    }
+
+    @Test
+    public void testCreate() {
+        final DefaultConfiguration config = new DefaultConfiguration();
+        assertTrue(ThrowableFingerprintCache.getCaches(config).isEmpty());
+        final ThrowableFingerprintCache first = ThrowableFingerprintCache.create(config, "xEx", 16, 0);
+        final ThrowableFingerprintCache second = ThrowableFingerprintCache.create(config, "xEx", 16, 0);
+        assertEquals("xEx-1", first.getName());
+        assertEquals("xEx-2", second.getName());
+        final List<ThrowableFingerprintCache> caches = ThrowableFingerprintCache.getCaches(config);
+        assertEquals(2, caches.size());
+        assertSame(first, caches.get(0));
+        assertThrows(IllegalArgumentException.class, () -> new ThrowableFingerprintCache("test", 0, 0));
+    }
+}
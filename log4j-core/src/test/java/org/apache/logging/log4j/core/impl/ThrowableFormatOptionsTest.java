@@ -449,4 +449,24 @@ public final class ThrowableFormatOptionsTest {
         test(new String[] { "10,filters(package1,package2)" }, 10, Strings.LINE_SEPARATOR,
                 Arrays.asList("package1", "package2"));
     }
+
+    /**
+     * Test {@code %xEx{dedupe}} and {@code %xEx{dedupe(60000,100)}}.
+     */
+    @Test
+    public void testDedupe() {
+        final ThrowableFormatOptions noDedupe = test(new String[] { "full" }, Integer.MAX_VALUE,
+                Strings.LINE_SEPARATOR, null);
+        assertFalse(noDedupe.isDedupe());
+        final ThrowableFormatOptions dedupe = test(new String[] { "dedupe" }, Integer.MAX_VALUE,
+                Strings.LINE_SEPARATOR, null);
+        assertTrue(dedupe.isDedupe());
+        assertEquals(0, dedupe.getDedupeIntervalMillis());
+        assertEquals(ThrowableFingerprintCache.DEFAULT_MAX_SIZE, dedupe.getDedupeMaxSize());
+        final ThrowableFormatOptions interval = test(new String[] { "short", "dedupe(60000,100)" }, 2,
+                Strings.LINE_SEPARATOR, null);
+        assertTrue(interval.isDedupe());
+        assertEquals(60000, interval.getDedupeIntervalMillis());
+        assertEquals(100, interval.getDedupeMaxSize());
+    }
 }
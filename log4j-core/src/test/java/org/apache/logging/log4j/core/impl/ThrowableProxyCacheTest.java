@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.impl;
+
+import java.util.Collections;
+
+import org.apache.logging.log4j.core.pattern.PlainTextRenderer;
+import org.apache.logging.log4j.core.util.Constants;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests ThrowableProxies sharing the packaging information of classes.
+ */
+public class ThrowableProxyCacheTest {
+
+    @BeforeAll
+    public static void beforeClass() {
+        System.setProperty("log4j2.throwableProxyCacheSize", "1024");
+    }
+
+    @AfterAll
+    public static void afterClass() {
+        System.clearProperty("log4j2.throwableProxyCacheSize");
+    }
+
+    private static Throwable createThrowable() {
+        return new IllegalStateException("outer", new IllegalArgumentException("inner"));
+    }
+
+    @Test
+    public void testProxiesShareClassInfo() {
+        assertEquals(1024, Constants.THROWABLE_PROXY_CACHE_SIZE);
+        final Throwable throwable = createThrowable();
+        final ThrowableProxy first = new ThrowableProxy(throwable);
+        final ThrowableProxy second = new ThrowableProxy(throwable);
+        assertEquals(first, second);
+        assertEquals(first.getExtendedStackTraceAsString(), second.getExtendedStackTraceAsString());
+
+        final ExtendedStackTraceElement[] firstTrace = first.getExtendedStackTrace();
+        final ExtendedStackTraceElement[] secondTrace = second.getExtendedStackTrace();
+        // createThrowable() has returned, so its class is not on the current stack
+        assertEquals("createThrowable", firstTrace[0].getMethodName());
+        assertFalse(firstTrace[0].getExact());
+        assertNotEquals("?", firstTrace[0].getLocation());
+        boolean exactFound = false;
+        for (int i = 0; i < firstTrace.length; i++) {
+            if (firstTrace[i].getExact()) {
+                exactFound = true;
+            } else {
+                assertSame(firstTrace[i].getExtraClassInfo(), secondTrace[i].getExtraClassInfo(),
+                        firstTrace[i].toString());
+            }
+        }
+        assertTrue(exactFound, "frames of classes on the current stack are exact");
+    }
+
+    @Test
+    public void testIgnoredPackages() {
+        final ThrowableProxy proxy = new ThrowableProxy(createThrowable());
+        final String trace = proxy.getExtendedStackTraceAsString(Collections.singletonList("org.junit"),
+                PlainTextRenderer.getInstance(), "", "\n");
+        assertTrue(trace.contains("... suppressed"), trace);
+        assertFalse(trace.contains("org.junit"), trace);
+    }
+}
@@ -0,0 +1,419 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.layout;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.MarkerManager;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.impl.ContextDataFactory;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.core.tools.BinaryLogConverter;
+import org.apache.logging.log4j.message.Message;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.apache.logging.log4j.message.ReusableMessageFactory;
+import org.apache.logging.log4j.message.ReusableParameterizedMessage;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.apache.logging.log4j.spi.MutableThreadContextStack;
+import org.apache.logging.log4j.util.StringMap;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryLayoutTest {
+
+    private static final long TIME = 1_600_000_000_123L;
+
+    private static final AtomicBoolean INITIALIZED = new AtomicBoolean();
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        final BinaryLayout layout = BinaryLayout.newBuilder().setLocationInfo(true).build();
+        final IllegalStateException thrown = new IllegalStateException("outer", new IOException("inner"));
+        thrown.addSuppressed(new IllegalArgumentException("suppressed"));
+        final StringMap contextData = ContextDataFactory.createContextData();
+        contextData.putValue("user", "alice");
+        contextData.putValue("count", 42);
+        final LogEvent first = Log4jLogEvent.newBuilder()
+                .setLoggerName("org.example.Service")
+                .setLevel(Level.WARN)
+                .setTimeMillis(TIME)
+                .setThreadName("worker-1")
+                .setThreadId(17)
+                .setThreadPriority(7)
+                .setMarker(MarkerManager.getMarker("AUDIT"))
+                .setMessage(new ParameterizedMessage("Processed {} of {} €", 3, new int[] {1, 2}))
+                .setContextData(contextData)
+                .setContextStack(new MutableThreadContextStack(Arrays.asList("request", "step")))
+                .setSource(new StackTraceElement("org.example.Service", "process", "Service.java", 123))
+                .setThrown(thrown)
+                .build();
+        final Message reusable = ReusableMessageFactory.INSTANCE.newMessage("Hello {}", "world");
+        assertTrue(reusable instanceof ReusableParameterizedMessage);
+        final LogEvent second = Log4jLogEvent.newBuilder()
+                .setLoggerName("org.example.Service")
+                .setLevel(Level.INFO)
+                .setTimeMillis(TIME - 5)
+                .setThreadName("worker-1")
+                .setMessage(reusable)
+                .build();
+        final LogEvent third = Log4jLogEvent.newBuilder()
+                .setLoggerName("org.example.Other")
+                .setLevel(Level.forName("NOTICE", 350))
+                .setTimeMillis(TIME + 1_000)
+                .setThreadName("worker-2")
+                .setMessage(new SimpleMessage("plain 😀 text"))
+                .setThrown(new CustomException(1))
+                .build();
+
+        final List<LogEvent> events = decode(encode(layout, first, second, third),
+                IllegalStateException.class.getName(), IOException.class.getName(),
+                IllegalArgumentException.class.getName());
+        assertEquals(3, events.size());
+
+        final LogEvent event = events.get(0);
+        assertEquals(TIME, event.getTimeMillis());
+        assertEquals(Level.WARN, event.getLevel());
+        assertEquals("org.example.Service", event.getLoggerName());
+        assertEquals("worker-1", event.getThreadName());
+        assertEquals(17, event.getThreadId());
+        assertEquals(7, event.getThreadPriority());
+        assertEquals("AUDIT", event.getMarker().getName());
+        assertEquals("Processed 3 of [1, 2] €", event.getMessage().getFormattedMessage());
+        assertEquals("Processed {} of {} €", event.getMessage().getFormat());
+        assertEquals("alice", event.getContextData().getValue("user"));
+        assertEquals("42", event.getContextData().getValue("count"));
+        assertEquals(Arrays.asList("request", "step"), event.getContextStack().asList());
+        assertEquals(first.getSource(), event.getSource());
+        final Throwable decoded = event.getThrown();
+        assertEquals(IllegalStateException.class, decoded.getClass());
+        assertEquals("outer", decoded.getMessage());
+        assertArrayEquals(thrown.getStackTrace(), decoded.getStackTrace());
+        assertEquals(IOException.class, decoded.getCause().getClass());
+        assertEquals("inner", decoded.getCause().getMessage());
+        assertEquals(1, decoded.getSuppressed().length);
+        assertEquals("suppressed", decoded.getSuppressed()[0].getMessage());
+
+        assertEquals(TIME - 5, events.get(1).getTimeMillis());
+        assertEquals("Hello world", events.get(1).getMessage().getFormattedMessage());
+        assertEquals("org.example.Service", events.get(1).getLoggerName());
+
+        assertEquals(TIME + 1_000, events.get(2).getTimeMillis());
+        assertEquals(350, events.get(2).getLevel().intLevel());
+        assertEquals("plain 😀 text", events.get(2).getMessage().getFormattedMessage());
+        assertNull(events.get(2).getSource());
+        assertEquals(BinaryLogEventReader.DecodedThrowable.class, events.get(2).getThrown().getClass());
+        assertEquals(CustomException.class.getName() + ": custom 1", events.get(2).getThrown().getLocalizedMessage());
+    }
+
+    @Test
+    public void testThrowablesAreDecodedByDefault() throws IOException {
+        final BinaryLayout layout = BinaryLayout.newBuilder().build();
+        final LogEvent event = Log4jLogEvent.newBuilder()
+                .setLoggerName("org.example.Service")
+                .setLevel(Level.ERROR)
+                .setTimeMillis(TIME)
+                .setMessage(new SimpleMessage("failed"))
+                .setThrown(new IllegalStateException("outer", new IOException("inner")))
+                .build();
+        final Throwable decoded = decode(encode(layout, event)).get(0).getThrown();
+        assertEquals(BinaryLogEventReader.DecodedThrowable.class, decoded.getClass());
+        assertEquals(IllegalStateException.class.getName(),
+                ((BinaryLogEventReader.DecodedThrowable) decoded).getClassName());
+        assertEquals("outer", decoded.getMessage());
+        assertEquals(IOException.class.getName() + ": inner", decoded.getCause().getLocalizedMessage());
+    }
+
+    @Test
+    public void testUnknownLevelIsNotRegistered() throws IOException {
+        final RecordWriter record = new RecordWriter().writeEventStart(350, "BINARY_LAYOUT_TEST_LEVEL");
+        record.writeString("message");
+        final List<LogEvent> events = decode(record.toLog());
+        assertEquals(Level.WARN, events.get(0).getLevel());
+        assertNull(Level.getLevel("BINARY_LAYOUT_TEST_LEVEL"));
+    }
+
+    @Test
+    public void testInvalidLevel() {
+        final RecordWriter record = new RecordWriter().writeEventStart(400, null);
+        record.writeString("message");
+        assertThrows(IOException.class, () -> decode(record.toLog()));
+    }
+
+    @Test
+    public void testInvalidCount() {
+        final RecordWriter record = new RecordWriter().writeEventStart(BinaryLayout.FLAG_PARAMETERIZED, 400, "INFO");
+        record.writeString("{}");
+        record.writeVarLong(1_000_000_000L);
+        assertThrows(IOException.class, () -> decode(record.toLog()));
+    }
+
+    @Test
+    public void testThrowablesNestedTooDeeply() {
+        final RecordWriter record = new RecordWriter().writeEventStart(BinaryLayout.FLAG_THROWN, 400, "INFO");
+        record.writeString("message");
+        for (int i = 0; i <= BinaryLayout.MAX_THROWABLE_DEPTH + 1; i++) {
+            record.writeString("java.lang.Exception");
+            record.writeVarLong(BinaryLayout.STRING_NULL);
+            record.writeVarLong(0);
+            record.writeVarLong(1);
+        }
+        assertThrows(IOException.class, () -> decode(record.toLog()));
+    }
+
+    @Test
+    public void testClassesThatAreNotThrowablesAreNotInitialized() throws IOException {
+        final BinaryLayout layout = BinaryLayout.newBuilder().build();
+        final LogEvent event = Log4jLogEvent.newBuilder()
+                .setLoggerName("org.example.Service")
+                .setLevel(Level.ERROR)
+                .setTimeMillis(TIME)
+                .setMessage(new SimpleMessage("failed"))
+                .setThrown(new CustomException(2))
+                .build();
+        final byte[] encoded = encode(layout, event);
+        // names of the same length, so the encoded lengths stay valid
+        final byte[] original = CustomException.class.getName().getBytes(StandardCharsets.UTF_8);
+        final String replacement = CustomException.class.getName().replace("CustomException", "InitializedType");
+        final int index = indexOf(encoded, original);
+        assertTrue(index >= 0);
+        System.arraycopy(replacement.getBytes(StandardCharsets.UTF_8), 0, encoded, index, original.length);
+
+        final List<LogEvent> events = decode(encoded, replacement);
+        assertEquals(1, events.size());
+        assertEquals(BinaryLogEventReader.DecodedThrowable.class, events.get(0).getThrown().getClass());
+        assertEquals(replacement + ": custom 2", events.get(0).getThrown().getLocalizedMessage());
+        assertFalse(INITIALIZED.get(), "class named by the input was initialized");
+    }
+
+    private static int indexOf(final byte[] array, final byte[] target) {
+        outer:
+        for (int i = 0; i <= array.length - target.length; i++) {
+            for (int j = 0; j < target.length; j++) {
+                if (array[i + j] != target[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    @Test
+    public void testRepeatedStringsAreWrittenOnce() {
+        final BinaryLayout layout = BinaryLayout.newBuilder().build();
+        final LogEvent event = createEvent("a reasonably long logger name for this test", TIME, "message");
+        layout.getHeader();
+        final SpyByteBufferDestination destination = new SpyByteBufferDestination(1024, 1024);
+        layout.encode(event, destination);
+        final int first = destination.getByteBuffer().position();
+        layout.encode(event, destination);
+        final int second = destination.getByteBuffer().position() - first;
+        assertTrue(second < first - "a reasonably long logger name for this test".length(),
+                "first: " + first + ", second: " + second);
+    }
+
+    @Test
+    public void testNewHeaderStartsNewDictionary() throws IOException {
+        final BinaryLayout layout = BinaryLayout.newBuilder().build();
+        final LogEvent event = createEvent("org.example.Service", TIME, "message");
+        encode(layout, event);
+        // the header of a new file
+        final List<LogEvent> events = decode(encode(layout, event));
+        assertEquals(1, events.size());
+        assertEquals("org.example.Service", events.get(0).getLoggerName());
+        assertEquals(TIME, events.get(0).getTimeMillis());
+    }
+
+    @Test
+    public void testDictionaryLimit() throws IOException {
+        final BinaryLayout layout = BinaryLayout.newBuilder().setMaxDictionarySize(2).build();
+        final LogEvent[] events = new LogEvent[5];
+        for (int i = 0; i < events.length; i++) {
+            events[i] = createEvent("logger" + i, TIME + i, "message " + i);
+        }
+        final List<LogEvent> decoded = decode(encode(layout, events));
+        for (int i = 0; i < events.length; i++) {
+            assertEquals("logger" + i, decoded.get(i).getLoggerName());
+            assertEquals("message " + i, decoded.get(i).getMessage().getFormattedMessage());
+        }
+    }
+
+    @Test
+    public void testToByteArrayIsSelfContained() throws IOException {
+        final BinaryLayout layout = BinaryLayout.newBuilder().build();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(layout.getHeader());
+        out.write(layout.toByteArray(createEvent("org.example.Service", TIME, "first")));
+        // records written with the dictionary in between must not affect the others
+        encode(layout, createEvent("org.example.Service", TIME + 10, "ignored"));
+        final byte[] second = layout.toByteArray(createEvent("org.example.Service", TIME + 20, "second"));
+        out.write(second);
+        final List<LogEvent> events = decode(out.toByteArray());
+        assertEquals(2, events.size());
+        assertEquals("second", events.get(1).getMessage().getFormattedMessage());
+        assertEquals(TIME + 20, events.get(1).getTimeMillis());
+    }
+
+    @Test
+    public void testInvalidHeader() {
+        assertThrows(IOException.class,
+                () -> new BinaryLogEventReader(new ByteArrayInputStream("plain text".getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    public void testInvalidMaxDictionarySize() {
+        assertNull(BinaryLayout.newBuilder().setMaxDictionarySize(-1).build());
+    }
+
+    @Test
+    public void testConvert() throws IOException {
+        final BinaryLayout layout = BinaryLayout.newBuilder().build();
+        final byte[] binary = encode(layout, createEvent("org.example.Service", TIME, "first"),
+                createEvent("org.example.Service", TIME + 1, "second"));
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final long count = BinaryLogConverter.convert(new ByteArrayInputStream(binary),
+                PatternLayout.newBuilder().setPattern("%p %c %m%n").build(), out);
+        assertEquals(2, count);
+        assertEquals("INFO org.example.Service first\nINFO org.example.Service second\n",
+                new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    private static LogEvent createEvent(final String loggerName, final long time, final String message) {
+        return Log4jLogEvent.newBuilder()
+                .setLoggerName(loggerName)
+                .setLevel(Level.INFO)
+                .setTimeMillis(time)
+                .setMessage(new SimpleMessage(message))
+                .build();
+    }
+
+    /**
+     * Writes the header and encodes the events into a small buffer, as an appender does.
+     */
+    private static byte[] encode(final BinaryLayout layout, final LogEvent... events) {
+        final byte[] header = layout.getHeader();
+        final SpyByteBufferDestination destination = new SpyByteBufferDestination(64, 64 * 1024);
+        for (final LogEvent event : events) {
+            layout.encode(event, destination);
+        }
+        destination.drain(destination.getByteBuffer());
+        final byte[] result = Arrays.copyOf(header, header.length + destination.drained.position());
+        System.arraycopy(destination.drained.array(), 0, result, header.length, destination.drained.position());
+        return result;
+    }
+
+    private static List<LogEvent> decode(final byte[] bytes, final String... throwableClasses) throws IOException {
+        final List<LogEvent> events = new ArrayList<>();
+        try (final BinaryLogEventReader reader = new BinaryLogEventReader(new ByteArrayInputStream(bytes),
+                Arrays.asList(throwableClasses))) {
+            for (LogEvent event = reader.read(); event != null; event = reader.read()) {
+                events.add(event);
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Writes a record by hand, to test how invalid input is read.
+     */
+    private static final class RecordWriter {
+
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        RecordWriter writeEventStart(final int intLevel, final String levelName) {
+            return writeEventStart(0, intLevel, levelName);
+        }
+
+        RecordWriter writeEventStart(final int flags, final int intLevel, final String levelName) {
+            body.write(flags | BinaryLayout.FLAG_ABSOLUTE_TIME);
+            writeVarLong(0); // time
+            writeVarLong(0); // nanoseconds
+            writeVarLong(intLevel);
+            writeString(levelName);
+            writeString("org.example.Service");
+            writeString("main");
+            writeVarLong(1); // thread id
+            writeVarLong(5); // thread priority
+            return this;
+        }
+
+        void writeVarLong(final long value) {
+            long remaining = value;
+            while ((remaining & ~0x7FL) != 0) {
+                body.write((int) (remaining & 0x7F) | 0x80);
+                remaining >>>= 7;
+            }
+            body.write((int) remaining);
+        }
+
+        void writeString(final String value) {
+            if (value == null) {
+                writeVarLong(BinaryLayout.STRING_NULL);
+                return;
+            }
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(BinaryLayout.STRING_LITERAL);
+            writeVarLong(bytes.length);
+            body.write(bytes, 0, bytes.length);
+        }
+
+        byte[] toLog() {
+            final ByteArrayOutputStream log = new ByteArrayOutputStream();
+            log.write(BinaryLayout.MAGIC, 0, BinaryLayout.MAGIC.length);
+            log.write(BinaryLayout.VERSION);
+            final byte[] record = body.toByteArray();
+            long length = record.length;
+            while ((length & ~0x7FL) != 0) {
+                log.write((int) (length & 0x7F) | 0x80);
+                length >>>= 7;
+            }
+            log.write((int) length);
+            log.write(record, 0, record.length);
+            return log.toByteArray();
+        }
+    }
+
+    private static class CustomException extends Exception {
+
+        private static final long serialVersionUID = 1L;
+
+        CustomException(final int code) {
+            super("custom " + code);
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private static class InitializedType {
+
+        static {
+            INITIALIZED.set(true);
+        }
+
+        public InitializedType(final String message) {
+            // a constructor like the one of a Throwable
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.layout;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.config.DefaultConfiguration;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.core.pattern.PatternFormatter;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SegmentedPatternEncoderTest {
+
+    private static final String[] PATTERNS = {
+            "%m%n", "[%p] %m%n", "%-5p %c - %m%n", "%d{ISO8601} [%t] %p %c: a rather long constant text %m %pid%n",
+            "before %m, a long constant in the middle with é and € %m after%n", "%5pid|%-20c|%m"
+    };
+
+    private static final List<Charset> CHARSETS = Arrays.asList(StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1,
+            StandardCharsets.US_ASCII, StandardCharsets.UTF_16BE);
+
+    @Test
+    public void testSameBytesAsToByteArray() {
+        final char[] chars = new char[20_000];
+        Arrays.fill(chars, 'é');
+        final String[] messages = { "Hello", "", "café € 😀", new String(chars) };
+        for (final Charset charset : CHARSETS) {
+            for (final String pattern : PATTERNS) {
+                for (final boolean compile : new boolean[] { false, true }) {
+                    final PatternLayout layout = PatternLayout.newBuilder().setPattern(pattern).setCharset(charset)
+                            .setCompile(compile).build();
+                    for (final String message : messages) {
+                        final LogEvent event = createEvent(message);
+                        final SpyByteBufferDestination destination = new SpyByteBufferDestination(64 * 1024,
+                                512 * 1024);
+                        layout.encode(event, destination);
+                        layout.encode(event, destination);
+                        destination.drain(destination.getByteBuffer());
+                        final byte[] expected = layout.toByteArray(event);
+                        final byte[] actual = Arrays.copyOf(destination.drained.array(),
+                                destination.drained.position());
+                        final byte[] twice = Arrays.copyOf(expected, expected.length * 2);
+                        System.arraycopy(expected, 0, twice, expected.length, expected.length);
+                        assertArrayEquals(twice, actual, charset + " " + pattern);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSegments() {
+        assertEquals(1, segmentCount("%m%n"));
+        // a leading constant is a segment without converters
+        assertEquals(2, segmentCount("[%p] %m"));
+        // short constants between converters are encoded with them
+        assertEquals(1, segmentCount("%p - %m%n"));
+        assertEquals(3, segmentCount("prefix %p a long constant between converters %m%n"));
+        assertNull(create("%p %m", StandardCharsets.UTF_8));
+        assertNull(create("%m%n", StandardCharsets.UTF_16));
+    }
+
+    private static int segmentCount(final String pattern) {
+        return create(pattern, StandardCharsets.UTF_8).getSegmentCount();
+    }
+
+    private static SegmentedPatternEncoder create(final String pattern, final Charset charset) {
+        final List<PatternFormatter> formatters = PatternLayout.createPatternParser(new DefaultConfiguration())
+                .parse(pattern);
+        return SegmentedPatternEncoder.create(formatters.toArray(new PatternFormatter[0]), charset, false);
+    }
+
+    private static LogEvent createEvent(final String message) {
+        return Log4jLogEvent.newBuilder()
+                .setLoggerName("org.example.Service")
+                .setLevel(Level.INFO)
+                .setThreadName("main")
+                .setTimeMillis(1_600_000_000_123L)
+                .setMessage(new SimpleMessage(message))
+                .build();
+    }
+}
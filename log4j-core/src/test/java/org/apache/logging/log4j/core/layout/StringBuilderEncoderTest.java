@@ -18,6 +18,7 @@ package org.apache.logging.log4j.core.layout;/*
 import java.nio.CharBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
 import org.junit.jupiter.api.Test;
 
@@ -300,6 +301,54 @@ public class StringBuilderEncoderTest {
         // no error
     }
 
+    @Test
+    public void testEncodeAsciiFastPathSameBytesAsString() throws Exception {
+        final char[] latin = new char[3000];
+        Arrays.fill(latin, '\u00e9');
+        final String[] texts = { "", "plain ASCII text that is longer than a block of eight characters\r\n",
+                "ASCII up to a non-ASCII tail: caf\u00e9", "\u00e9 at the start", "mixed \u20ac text \u00e9 with \uD83D\uDE00",
+                "\u007f\u0080\u00ff\u0100", new String(latin) };
+        for (final Charset charset : new Charset[] { StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1,
+                StandardCharsets.US_ASCII, StandardCharsets.UTF_16 }) {
+            final StringBuilderEncoder encoder = new StringBuilderEncoder(charset);
+            for (final String text : texts) {
+                final SpyByteBufferDestination destination = new SpyByteBufferDestination(64 * 1024, 64 * 1024);
+                encoder.encode(new StringBuilder(text), destination);
+                destination.drain(destination.getByteBuffer());
+                final byte[] actual = Arrays.copyOf(destination.drained.array(), destination.drained.position());
+                assertArrayEquals(text.getBytes(charset), actual, charset + " " + text);
+            }
+        }
+    }
+
+    @Test
+    public void testIsAsciiCompatible() {
+        assertTrue(TextEncoderHelper.isAsciiCompatible(StandardCharsets.UTF_8));
+        assertTrue(TextEncoderHelper.isAsciiCompatible(StandardCharsets.ISO_8859_1));
+        assertTrue(TextEncoderHelper.isAsciiCompatible(StandardCharsets.US_ASCII));
+        assertFalse(TextEncoderHelper.isAsciiCompatible(StandardCharsets.UTF_16));
+        assertFalse(TextEncoderHelper.isAsciiCompatible(StandardCharsets.UTF_16LE));
+    }
+
+    @Test
+    public void testCopyAsciiStopsAtFirstNonAsciiChar() {
+        for (int nonAscii = 0; nonAscii <= 20; nonAscii++) {
+            final char[] chars = createText(20).toString().toCharArray();
+            if (nonAscii < chars.length) {
+                chars[nonAscii] = '\u00e9';
+            }
+            final byte[] bytes = new byte[25];
+            final int end = TextEncoderHelper.copyAscii(chars, 0, chars.length, bytes, 5);
+            assertEquals(nonAscii, end, "first non-ASCII char");
+            for (int i = 0; i < end; i++) {
+                assertEquals((byte) chars[i], bytes[i + 5], "byte at " + i);
+            }
+            for (int i = end; i < chars.length; i++) {
+                assertEquals(0, bytes[i + 5], "byte after end at " + i);
+            }
+        }
+    }
+
     private StringBuilder createText(final int length) {
         final StringBuilder result = new StringBuilder(length);
         for (int i = 0; i < length; i++) {
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.pattern;
+
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CachingNameAbbreviatorTest {
+
+    private static final String[] PATTERNS = { "1.", "1.1.~", "2", "-1", "." };
+
+    @Test
+    public void testSameResultAsAbbreviator() {
+        for (final String pattern : PATTERNS) {
+            final NameAbbreviator abbreviator = NameAbbreviator.getAbbreviator(pattern);
+            // more names than fit into the cache
+            final CachingNameAbbreviator cache = new CachingNameAbbreviator(abbreviator, 16);
+            for (int round = 0; round < 3; round++) {
+                for (int i = 0; i < 100; i++) {
+                    final String name = "org.example.module" + (i % 7) + ".Class" + i;
+                    final StringBuilder expected = new StringBuilder("prefix ");
+                    abbreviator.abbreviate(name, expected);
+                    final StringBuilder actual = new StringBuilder("prefix ");
+                    cache.abbreviate(name, actual);
+                    assertEquals(expected.toString(), actual.toString(), pattern);
+                }
+            }
+            assertEquals(300, cache.getHits() + cache.getMisses());
+        }
+    }
+
+    @Test
+    public void testHitsAndMisses() {
+        final CachingNameAbbreviator cache = new CachingNameAbbreviator(NameAbbreviator.getAbbreviator("1."), 64);
+        final StringBuilder sb = new StringBuilder();
+        cache.abbreviate("org.example.Foo", sb);
+        assertEquals(0, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        for (int i = 0; i < 10; i++) {
+            cache.abbreviate(new String("org.example.Foo"), sb);
+        }
+        cache.abbreviate("org.example.Bar", sb);
+        assertEquals(10, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void testRecentlyUsedNamesStayCached() {
+        // a single set of four entries
+        final CachingNameAbbreviator cache = new CachingNameAbbreviator(NameAbbreviator.getAbbreviator("1."), 4);
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 4; i++) {
+            cache.abbreviate("org.example.Class" + i, sb);
+        }
+        for (int i = 0; i < 100; i++) {
+            cache.abbreviate("org.example.Class0", sb);
+            cache.abbreviate("org.example.Other" + i, sb);
+        }
+        assertEquals(100, cache.getHits());
+    }
+
+    @Test
+    public void testConverterCounters() {
+        final LoggerPatternConverter converter = LoggerPatternConverter.newInstance(new String[] {"1."});
+        final LogEvent event = Log4jLogEvent.newBuilder().setLoggerName("org.example.Foo").build();
+        final StringBuilder sb = new StringBuilder();
+        converter.format(event, sb);
+        converter.format(event, sb);
+        assertEquals("o.e.Fooo.e.Foo", sb.toString());
+        assertEquals(1, converter.getAbbreviationCacheHits());
+        assertEquals(1, converter.getAbbreviationCacheMisses());
+        assertEquals(0, LoggerPatternConverter.newInstance(null).getAbbreviationCacheMisses());
+    }
+}
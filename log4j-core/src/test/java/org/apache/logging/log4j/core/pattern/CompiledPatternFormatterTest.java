@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.pattern;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.MarkerManager;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.config.DefaultConfiguration;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.core.layout.PatternLayout;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompiledPatternFormatterTest {
+
+    private static final String[] PATTERNS = {
+            "", "%m", "literal only", "%d{ISO8601} [%t] %-5level %logger{36} - %msg%n",
+            "%r %T %tp %pid %c{1.} %C %M %L %F %marker %X{user} %x %N %m%ex%n",
+            "[%-10.10c] [%10t] %.3m %highlight{%p}{STYLE=Logback} %notEmpty{%x }%replace{%m}{e}{E}",
+            "${sys:user.dir} %% \\t %level{length=1} ${hostName}"
+    };
+
+    private static final LogEvent EVENT = Log4jLogEvent.newBuilder()
+            .setLoggerName("org.example.service.Service")
+            .setLoggerFqcn(CompiledPatternFormatterTest.class.getName())
+            .setLevel(Level.WARN)
+            .setMarker(MarkerManager.getMarker("AUDIT"))
+            .setTimeMillis(1_600_000_000_123L)
+            .setThreadName("worker-1")
+            .setMessage(new SimpleMessage("Hello there"))
+            .setSource(new StackTraceElement("org.example.service.Service", "process", "Service.java", 123))
+            .setThrown(new IllegalStateException("test"))
+            .build();
+
+    @Test
+    public void testSameOutputAsFormatters() {
+        final PatternParser parser = PatternLayout.createPatternParser(new DefaultConfiguration());
+        for (final String pattern : PATTERNS) {
+            final List<PatternFormatter> list = parser.parse(pattern);
+            final PatternFormatter[] formatters = list.toArray(new PatternFormatter[0]);
+            final CompiledPatternFormatter compiled = CompiledPatternFormatter.compile(formatters);
+            assertNotNull(compiled, pattern);
+            final StringBuilder expected = new StringBuilder();
+            for (final PatternFormatter formatter : formatters) {
+                formatter.format(EVENT, expected);
+            }
+            final StringBuilder actual = new StringBuilder();
+            compiled.format(EVENT, actual);
+            assertEquals(expected.toString(), actual.toString(), pattern);
+        }
+    }
+
+    @Test
+    public void testManyConverters() {
+        final StringBuilder pattern = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            pattern.append("%-").append(i % 20).append("p|%m");
+        }
+        final PatternLayout interpreted = PatternLayout.newBuilder().setPattern(pattern.toString()).build();
+        final PatternLayout compiled = PatternLayout.newBuilder().setPattern(pattern.toString()).setCompile(true)
+                .build();
+        assertEquals(interpreted.toSerializable(EVENT), compiled.toSerializable(EVENT));
+    }
+
+    @Test
+    public void testLayoutUsesCompiledFormatter() {
+        final PatternLayout layout = PatternLayout.newBuilder().setPattern("%p %c{1} %m%n").setAlwaysWriteExceptions(false)
+                .setCompile(true).build();
+        assertTrue(layout.getEventSerializer().getClass().getName().contains("Compiled"));
+        assertEquals("WARN Service Hello there" + System.lineSeparator(), layout.toSerializable(EVENT));
+        assertFalse(layout.requiresLocation());
+    }
+
+    @Test
+    public void testTooManyConvertersAreNotCompiled() {
+        final PatternFormatter[] formatters = new PatternFormatter[2000];
+        final PatternFormatter formatter = new PatternFormatter(new LiteralPatternConverter(null, "x", false),
+                FormattingInfo.getDefault());
+        Arrays.fill(formatters, formatter);
+        assertNull(CompiledPatternFormatter.compile(formatters));
+    }
+}
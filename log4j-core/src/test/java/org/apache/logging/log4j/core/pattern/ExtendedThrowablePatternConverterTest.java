@@ -24,6 +24,7 @@ import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.ThreadContext;
 import org.apache.logging.log4j.core.LogEvent;
 import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.core.impl.ThrowableFingerprintCache;
 import org.apache.logging.log4j.core.impl.ThrowableFormatOptions;
 import org.apache.logging.log4j.core.impl.ThrowableProxy;
 import org.apache.logging.log4j.message.SimpleMessage;
@@ -54,6 +55,41 @@ public class ExtendedThrowablePatternConverterTest {
         assertTrue(result.contains("test suffix"), "No suffix");
     }
 
+    @Test
+    public void testDedupe() {
+        final ExtendedThrowablePatternConverter converter = ExtendedThrowablePatternConverter.newInstance(null,
+                new String[] {"dedupe"});
+        final StringBuilder sb = new StringBuilder();
+        final String[] results = new String[2];
+        final Throwable[] thrown = new Throwable[2];
+        for (int i = 0; i < 2; i++) {
+            final LogEvent event = Log4jLogEvent.newBuilder() //
+                    .setLoggerName("testLogger") //
+                    .setLoggerFqcn(this.getClass().getName()) //
+                    .setLevel(Level.DEBUG) //
+                    .setMessage(new SimpleMessage("test exception")) //
+                    .setThrown(thrown[i] = createThrowable("IllegalArgument " + i)).build();
+            sb.setLength(0);
+            converter.format(event, sb);
+            results[i] = sb.toString();
+        }
+        final StringBuilder tag = new StringBuilder();
+        ThrowableFingerprintCache.formatFingerprint(
+                ThrowableFingerprintCache.fingerprint(thrown[0]), tag);
+        assertTrue(results[0].startsWith("java.lang.IllegalArgumentException: IllegalArgument 0"), results[0]);
+        assertTrue(results[0].endsWith(tag + Strings.LINE_SEPARATOR), results[0]);
+        final String result = results[1];
+        tag.setLength(tag.length() - 1);
+        assertTrue(result.startsWith("java.lang.IllegalArgumentException: IllegalArgument 1 " + tag + " seen 2 times]"),
+                result);
+        assertTrue(result.endsWith(" seen 2 times]" + Strings.LINE_SEPARATOR), result);
+        assertEquals(1, converter.getFingerprintCache().getFullTraceCount());
+    }
+
+    private static Throwable createThrowable(final String message) {
+        return new IllegalArgumentException(message, new NullPointerException("null pointer"));
+    }
+
     @Test
     public void testSuffix() {
         final String suffix = "suffix(test suffix)";
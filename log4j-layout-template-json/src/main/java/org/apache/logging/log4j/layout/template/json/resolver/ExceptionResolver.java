@@ -18,6 +18,7 @@ package org.apache.logging.log4j.layout.template.json.resolver;
 
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.impl.ThrowableFingerprintCache;
 import org.apache.logging.log4j.layout.template.json.JsonTemplateLayout;
 import org.apache.logging.log4j.layout.template.json.JsonTemplateLayoutDefaults;
 import org.apache.logging.log4j.layout.template.json.util.JsonWriter;
@@ -38,7 +39,10 @@ import java.util.regex.PatternSyntaxException;
  * field               = "field" -> ( "className" | "message" | "stackTrace" )
  *
  * stackTrace          = "stackTrace" -> stringified
- * stringified         = "stringified" -> ( boolean | truncation )
+ * stringified         = "stringified" -> (
+ *                         boolean
+ *                       | ( [ truncation ] , [ deduplication ] )
+ *                       )
  * truncation          = "truncation" -> (
  *                         [ suffix ]
  *                       , [ pointMatcherStrings ]
@@ -47,6 +51,12 @@ import java.util.regex.PatternSyntaxException;
  * suffix              = "suffix" -> string
  * pointMatcherStrings = "pointMatcherStrings" -> string[]
  * pointMatcherRegexes = "pointMatcherRegexes" -> string[]
+ * deduplication       = "deduplication" -> (
+ *                         boolean
+ *                       | ( [ intervalMillis ] , [ maxSize ] )
+ *                       )
+ * intervalMillis      = "intervalMillis" -> number
+ * maxSize             = "maxSize" -> number
  * </pre>
  *
  * <tt>stringified</tt> is set to <tt>false</tt> by default.
@@ -61,6 +71,13 @@ import java.util.regex.PatternSyntaxException;
  * If a stringified stack trace truncation takes place, it will be indicated
  * with <tt>suffix</tt>, which by default is set to the configured
  * <tt>truncatedStringSuffix</tt> in the layout, unless explicitly provided.
+ * <p>
+ * <tt>deduplication</tt> replaces a stringified stack trace that was resolved
+ * before by the class name and message of the exception followed by a
+ * reference like <tt>[trace #0123456789abcdef seen 42 times]</tt>. The stack
+ * trace is resolved in full again after <tt>intervalMillis</tt> milliseconds,
+ * if set. At most <tt>maxSize</tt> stack traces, 1024 by default, are
+ * remembered.
  *
  * <h3>Examples</h3>
  *
@@ -94,6 +111,23 @@ import java.util.regex.PatternSyntaxException;
  * }
  * </pre>
  *
+ * Resolve the stack trace into a string field, resolving each stack trace
+ * in full at most once per minute:
+ *
+ * <pre>
+ *  {
+ *   "$resolver": "exception",
+ *   "field": "stackTrace",
+ *   "stackTrace": {
+ *     "stringified": {
+ *       "deduplication": {
+ *         "intervalMillis": 60000
+ *       }
+ *     }
+ *   }
+ * }
+ * </pre>
+ *
  * Resolve the stack trace into a string field
  * such that the content will be truncated by the given point matcher:
  *
@@ -125,12 +159,22 @@ class ExceptionResolver implements EventResolver {
 
     private final boolean stackTraceEnabled;
 
+    private final String name;
+
     private final EventResolver internalResolver;
 
     ExceptionResolver(
             final EventResolverContext context,
             final TemplateResolverConfig config) {
+        this(context, config, getName());
+    }
+
+    ExceptionResolver(
+            final EventResolverContext context,
+            final TemplateResolverConfig config,
+            final String name) {
         this.stackTraceEnabled = context.isStackTraceEnabled();
+        this.name = name;
         this.internalResolver = createInternalResolver(context, config);
     }
 
@@ -215,13 +259,17 @@ class ExceptionResolver implements EventResolver {
         final List<String> truncationPointMatcherRegexes =
                 readTruncationPointMatcherRegexes(config);
 
+        final ThrowableFingerprintCache fingerprints =
+                readDeduplication(context, config);
+
         // Create the resolver.
         final StackTraceStringResolver resolver =
                 new StackTraceStringResolver(
                         context,
                         truncationSuffix,
                         truncationPointMatcherStrings,
-                        truncationPointMatcherRegexes);
+                        truncationPointMatcherRegexes,
+                        fingerprints);
 
         // Create the null-protected resolver.
         return (final LogEvent logEvent, final JsonWriter jsonWriter) -> {
@@ -245,6 +293,25 @@ class ExceptionResolver implements EventResolver {
                 : context.getTruncatedStringSuffix();
     }
 
+    private ThrowableFingerprintCache readDeduplication(
+            final EventResolverContext context,
+            final TemplateResolverConfig config) {
+        final String[] path = {"stackTrace", "stringified", "deduplication"};
+        final Object deduplication = config.getObject(path);
+        if (deduplication == null || Boolean.FALSE.equals(deduplication)) {
+            return null;
+        }
+        final Integer intervalMillis = config.getInteger(
+                new String[]{"stackTrace", "stringified", "deduplication", "intervalMillis"});
+        final Integer maxSize = config.getInteger(
+                new String[]{"stackTrace", "stringified", "deduplication", "maxSize"});
+        return ThrowableFingerprintCache.create(
+                context.getConfiguration(),
+                name,
+                maxSize != null ? maxSize : ThrowableFingerprintCache.DEFAULT_MAX_SIZE,
+                intervalMillis != null ? intervalMillis : 0);
+    }
+
     private static List<String> readTruncationPointMatcherStrings(
             final TemplateResolverConfig config) {
         List<String> strings = config.getList(
@@ -33,7 +33,7 @@ final class ExceptionRootCauseResolver extends ExceptionResolver {
     ExceptionRootCauseResolver(
             final EventResolverContext context,
             final TemplateResolverConfig config) {
-        super(context, config);
+        super(context, config, getName());
     }
 
     static String getName() {
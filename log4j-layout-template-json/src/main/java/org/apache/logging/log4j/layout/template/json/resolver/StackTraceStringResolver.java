@@ -16,6 +16,7 @@
  */
 package org.apache.logging.log4j.layout.template.json.resolver;
 
+import org.apache.logging.log4j.core.impl.ThrowableFingerprintCache;
 import org.apache.logging.log4j.layout.template.json.util.TruncatingBufferedPrintWriter;
 import org.apache.logging.log4j.layout.template.json.util.JsonWriter;
 import org.apache.logging.log4j.layout.template.json.util.Recycler;
@@ -38,11 +39,14 @@ final class StackTraceStringResolver implements StackTraceResolver {
 
     private final List<Pattern> groupedTruncationPointMatcherRegexes;
 
+    private final ThrowableFingerprintCache fingerprints;
+
     StackTraceStringResolver(
             final EventResolverContext context,
             final String truncationSuffix,
             final List<String> truncationPointMatcherStrings,
-            final List<String> truncationPointMatcherRegexes) {
+            final List<String> truncationPointMatcherRegexes,
+            final ThrowableFingerprintCache fingerprints) {
         final Supplier<TruncatingBufferedPrintWriter> writerSupplier =
                 () -> TruncatingBufferedPrintWriter.ofCapacity(
                         context.getMaxStringByteCount());
@@ -56,6 +60,7 @@ final class StackTraceStringResolver implements StackTraceResolver {
         this.truncationPointMatcherStrings = truncationPointMatcherStrings;
         this.groupedTruncationPointMatcherRegexes =
                 groupTruncationPointMatcherRegexes(truncationPointMatcherRegexes);
+        this.fingerprints = fingerprints;
     }
 
     private static List<Pattern> groupTruncationPointMatcherRegexes(
@@ -74,14 +79,68 @@ final class StackTraceStringResolver implements StackTraceResolver {
             final JsonWriter jsonWriter) {
         final TruncatingBufferedPrintWriter writer = writerRecycler.acquire();
         try {
-            throwable.printStackTrace(writer);
-            truncate(writer);
+            if (fingerprints == null) {
+                throwable.printStackTrace(writer);
+                truncate(writer);
+            } else {
+                final long fingerprint = ThrowableFingerprintCache.fingerprint(throwable);
+                final long count = fingerprints.record(fingerprint);
+                if (count > 0) {
+                    writeReference(throwable, fingerprint, count, writer);
+                } else {
+                    throwable.printStackTrace(writer);
+                    truncate(writer);
+                    final int maxLength = Math.min(
+                            writer.capacity(),
+                            jsonWriter.getMaxStringLength());
+                    writeFingerprint(fingerprint, maxLength, writer);
+                }
+            }
             jsonWriter.writeString(writer.buffer(), 0, writer.position());
         } finally {
             writerRecycler.release(writer);
         }
     }
 
+    /**
+     * Writes the same summary as {@link Throwable#toString()} followed by a
+     * reference to the stack trace logged before.
+     */
+    private static void writeReference(
+            final Throwable throwable,
+            final long fingerprint,
+            final long count,
+            final TruncatingBufferedPrintWriter writer) {
+        writer.print(throwable.getClass().getName());
+        final String message = throwable.getLocalizedMessage();
+        if (message != null) {
+            writer.print(": ");
+            writer.print(message);
+        }
+        writer.print(' ');
+        ThrowableFingerprintCache.formatReference(fingerprint, count, writer);
+    }
+
+    /**
+     * Writes the fingerprint after the stack trace, overwriting the end of
+     * the stack trace if it exceeds the max. string length, so that the
+     * following references can always be matched with it.
+     */
+    private static void writeFingerprint(
+            final long fingerprint,
+            final int maxLength,
+            final TruncatingBufferedPrintWriter writer) {
+        final int maxPosition =
+                maxLength - ThrowableFingerprintCache.FINGERPRINT_LENGTH;
+        if (maxPosition < 0) {
+            return;
+        }
+        if (writer.position() > maxPosition) {
+            writer.position(maxPosition);
+        }
+        ThrowableFingerprintCache.formatFingerprint(fingerprint, writer);
+    }
+
     private void truncate(final TruncatingBufferedPrintWriter writer) {
 
         // Short-circuit if truncation is not enabled.
@@ -29,9 +29,11 @@ import org.apache.logging.log4j.core.config.Configuration;
 import org.apache.logging.log4j.core.config.DefaultConfiguration;
 import org.apache.logging.log4j.core.config.builder.api.ConfigurationBuilderFactory;
 import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.core.impl.ThrowableFingerprintCache;
 import org.apache.logging.log4j.core.layout.ByteBufferDestination;
 import org.apache.logging.log4j.core.lookup.MainMapLookup;
 import org.apache.logging.log4j.core.net.Severity;
+import org.apache.logging.log4j.core.pattern.ExtendedThrowablePatternConverter;
 import org.apache.logging.log4j.core.time.MutableInstant;
 import org.apache.logging.log4j.layout.template.json.JsonTemplateLayout.EventTemplateAdditionalField;
 import org.apache.logging.log4j.layout.template.json.util.JsonReader;
@@ -1793,6 +1795,128 @@ class JsonTemplateLayoutTest {
 
     }
 
+    @Test
+    void test_stack_trace_deduplication() {
+
+        // Create the event template.
+        final String eventTemplate = writeJson(asMap(
+                "ex", asMap(
+                        "$resolver", "exception",
+                        "field", "stackTrace",
+                        "stackTrace", asMap(
+                                "stringified", asMap(
+                                        "deduplication", true))),
+                "rootEx", asMap(
+                        "$resolver", "exceptionRootCause",
+                        "field", "stackTrace",
+                        "stackTrace", asMap(
+                                "stringified", asMap(
+                                        "deduplication", asMap(
+                                                "maxSize", 16))))));
+
+        // Create the layout.
+        final JsonTemplateLayout layout = JsonTemplateLayout
+                .newBuilder()
+                .setConfiguration(CONFIGURATION)
+                .setEventTemplate(eventTemplate)
+                .setStackTraceEnabled(true)
+                .build();
+
+        // Create log events with exceptions thrown at the same place.
+        final List<LogEvent> logEvents = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            final Exception childError =
+                    new Exception("child exception message " + i);
+            final Exception parentError =
+                    new Exception("parent exception message " + i, childError);
+            logEvents.add(Log4jLogEvent
+                    .newBuilder()
+                    .setLoggerName(LOGGER_NAME)
+                    .setThrown(parentError)
+                    .build());
+        }
+
+        // Check the first serialized event.
+        final Throwable firstError = logEvents.get(0).getThrown();
+        final String parentFingerprint = formatFingerprint(firstError);
+        final String childFingerprint = formatFingerprint(firstError.getCause());
+        usingSerializedLogEventAccessor(layout, logEvents.get(0), accessor -> {
+            assertThat(accessor.getString("ex"))
+                    .contains("parent exception message 0")
+                    .contains("\tat ")
+                    .endsWith(parentFingerprint)
+                    .doesNotContain(" seen ");
+            assertThat(accessor.getString("rootEx"))
+                    .contains("child exception message 0")
+                    .endsWith(childFingerprint)
+                    .doesNotContain(" seen ");
+        });
+
+        // Check that the pattern layout prints the same fingerprint.
+        final ExtendedThrowablePatternConverter converter =
+                ExtendedThrowablePatternConverter.newInstance(CONFIGURATION, new String[] {"dedupe"});
+        final StringBuilder converterOutput = new StringBuilder();
+        converter.format(logEvents.get(0), converterOutput);
+        assertThat(converterOutput.toString().trim()).endsWith(parentFingerprint);
+
+        // Check the second serialized event.
+        usingSerializedLogEventAccessor(layout, logEvents.get(1), accessor -> {
+            assertThat(accessor.getString("ex"))
+                    .startsWith("java.lang.Exception: parent exception message 1 [trace #")
+                    .endsWith(" seen 2 times]");
+            assertThat(accessor.getString("rootEx"))
+                    .startsWith("java.lang.Exception: child exception message 1 [trace #")
+                    .endsWith(" seen 2 times]");
+        });
+
+    }
+
+    @Test
+    void test_stack_trace_deduplication_keeps_fingerprint_of_truncated_stack_trace() {
+
+        // Create the event template.
+        final String eventTemplate = writeJson(asMap(
+                "ex", asMap(
+                        "$resolver", "exception",
+                        "field", "stackTrace",
+                        "stackTrace", asMap(
+                                "stringified", asMap(
+                                        "deduplication", true)))));
+
+        // Create the layout.
+        final int maxStringLength = 100;
+        final JsonTemplateLayout layout = JsonTemplateLayout
+                .newBuilder()
+                .setConfiguration(CONFIGURATION)
+                .setEventTemplate(eventTemplate)
+                .setStackTraceEnabled(true)
+                .setMaxStringLength(maxStringLength)
+                .build();
+
+        // Create the log event.
+        final Exception error = new Exception("truncated exception message");
+        final LogEvent logEvent = Log4jLogEvent
+                .newBuilder()
+                .setLoggerName(LOGGER_NAME)
+                .setThrown(error)
+                .build();
+
+        // Check the serialized event.
+        usingSerializedLogEventAccessor(layout, logEvent, accessor -> {
+            assertThat(accessor.getString("ex"))
+                    .startsWith("java.lang.Exception: truncated exception message")
+                    .hasSize(maxStringLength)
+                    .endsWith(formatFingerprint(error));
+        });
+
+    }
+
+    private static String formatFingerprint(final Throwable throwable) {
+        final StringBuilder buffer = new StringBuilder();
+        ThrowableFingerprintCache.formatFingerprint(ThrowableFingerprintCache.fingerprint(throwable), buffer);
+        return buffer.toString();
+    }
+
     @Test
     void test_null_eventDelimiter() {
 
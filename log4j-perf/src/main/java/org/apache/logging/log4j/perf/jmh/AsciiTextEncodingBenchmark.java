@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+
+package org.apache.logging.log4j.perf.jmh;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.core.layout.ByteBufferDestination;
+import org.apache.logging.log4j.core.layout.ByteBufferDestinationHelper;
+import org.apache.logging.log4j.core.layout.StringBuilderEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares the StringBuilderEncoder copying ASCII characters directly into its byte buffer with the same encoder
+ * converting all characters with a CharsetEncoder, which is what {@link TextEncoderHelperBenchmark} measures, and with
+ * {@link String#getBytes(Charset)} as in {@link StringEncodingBenchmark}.
+ */
+// ============================== HOW TO RUN THIS TEST: ====================================
+//
+// java -jar log4j-perf/target/benchmarks.jar ".*AsciiTextEncodingBenchmark.*" -wi 5 -i 10
+//
+// The charsetEncoder* benchmarks fork a JVM with the ASCII fast path disabled, so do not use -f 0.
+//
+// Usage help:
+// java -jar log4j-perf/target/benchmarks.jar -help
+//
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+public class AsciiTextEncodingBenchmark {
+
+    private static final String ASCII = "2016-04-13 21:07:47,487 DEBUG [org.apache.logging.log4j.perf.jmh."
+            + "AsciiTextEncodingBenchmark-jmh-worker-1] AsciiTextEncodingBenchmark - This is a debug [2383178] message\n";
+    private static final String NON_ASCII_TAIL = "2016-04-13 21:07:47,487 DEBUG [org.apache.logging.log4j.perf.jmh."
+            + "AsciiTextEncodingBenchmark-jmh-worker-1] AsciiTextEncodingBenchmark - Caf\u00e9 cr\u00e8me for 3 \u20ac\n";
+
+    @Param({"UTF-8", "ISO-8859-1"})
+    public String charsetName;
+
+    private Charset charset;
+    private StringBuilderEncoder encoder;
+    private final StringBuilder ascii = new StringBuilder(ASCII);
+    private final StringBuilder nonAsciiTail = new StringBuilder(NON_ASCII_TAIL);
+    private final Destination destination = new Destination();
+
+    static class Destination implements ByteBufferDestination {
+        long count = 0;
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[256 * 1024]);
+
+        @Override
+        public ByteBuffer getByteBuffer() {
+            return buffer;
+        }
+
+        @Override
+        public ByteBuffer drain(final ByteBuffer buf) {
+            buf.flip();
+            count += buf.limit();
+            buf.clear();
+            return buf;
+        }
+
+        @Override
+        public void writeBytes(final ByteBuffer data) {
+            ByteBufferDestinationHelper.writeToUnsynchronized(data, this);
+        }
+
+        @Override
+        public void writeBytes(final byte[] data, final int offset, final int length) {
+            ByteBufferDestinationHelper.writeToUnsynchronized(data, offset, length, this);
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        charset = Charset.forName(charsetName);
+        encoder = new StringBuilderEncoder(charset);
+    }
+
+    @Benchmark
+    public long fastPathAscii() {
+        encoder.encode(ascii, destination);
+        return destination.count;
+    }
+
+    @Benchmark
+    public long fastPathNonAsciiTail() {
+        encoder.encode(nonAsciiTail, destination);
+        return destination.count;
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dlog4j2.encoder.asciiFastPath=false")
+    public long charsetEncoderAscii() {
+        encoder.encode(ascii, destination);
+        return destination.count;
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dlog4j2.encoder.asciiFastPath=false")
+    public long charsetEncoderNonAsciiTail() {
+        encoder.encode(nonAsciiTail, destination);
+        return destination.count;
+    }
+
+    @Benchmark
+    public byte[] getBytesAscii() {
+        return ASCII.getBytes(charset);
+    }
+
+    @Benchmark
+    public byte[] getBytesNonAsciiTail() {
+        return NON_ASCII_TAIL.getBytes(charset);
+    }
+}
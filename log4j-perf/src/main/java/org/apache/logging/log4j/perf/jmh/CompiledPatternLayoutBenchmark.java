@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+
+package org.apache.logging.log4j.perf.jmh;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.MarkerManager;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.impl.ContextDataFactory;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.core.layout.PatternLayout;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.apache.logging.log4j.util.StringMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares a PatternLayout with many converters iterating over its PatternFormatters with the same layout compiled
+ * into a generated class.
+ */
+// ============================== HOW TO RUN THIS TEST: ====================================
+//
+// java -jar log4j-perf/target/benchmarks.jar ".*CompiledPatternLayoutBenchmark.*" -f 1 -wi 5 -i 10
+//
+// Usage help:
+// java -jar log4j-perf/target/benchmarks.jar -help
+//
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CompiledPatternLayoutBenchmark {
+
+    private static final String PATTERN = "%d{ISO8601} %r [%t] %tid %-5level %logger{1.} %marker %X{user} %x "
+            + "%C{1}.%M(%F:%L) %pid %N - %msg%n";
+
+    private static final LogEvent EVENT = createLogEvent();
+
+    private final PatternLayout interpreted = createLayout(false);
+    private final PatternLayout compiled = createLayout(true);
+    private final StringBuilder buffer = new StringBuilder(256);
+
+    private static PatternLayout createLayout(final boolean compile) {
+        return PatternLayout.newBuilder()
+                .setPattern(PATTERN)
+                .setCharset(StandardCharsets.UTF_8)
+                .setAlwaysWriteExceptions(false)
+                .setCompile(compile)
+                .build();
+    }
+
+    private static LogEvent createLogEvent() {
+        final StringMap contextData = ContextDataFactory.createContextData();
+        contextData.putValue("user", "alice");
+        return Log4jLogEvent.newBuilder()
+                .setLoggerName("org.apache.logging.log4j.perf.jmh.CompiledPatternLayoutBenchmark")
+                .setLoggerFqcn(CompiledPatternLayoutBenchmark.class.getName())
+                .setLevel(Level.DEBUG)
+                .setMarker(MarkerManager.getMarker("BENCHMARK"))
+                .setMessage(new SimpleMessage("AB!(%087936DZYXQWEIOP$#^~-=/><nb"))
+                .setContextData(contextData)
+                .setThreadName("main")
+                .setThreadId(1)
+                .setTimeMillis(System.currentTimeMillis())
+                .setSource(new StackTraceElement("org.example.Service", "process", "Service.java", 123))
+                .build();
+    }
+
+    @Benchmark
+    public StringBuilder interpreted() {
+        buffer.setLength(0);
+        interpreted.serialize(EVENT, buffer);
+        return buffer;
+    }
+
+    @Benchmark
+    public StringBuilder compiled() {
+        buffer.setLength(0);
+        compiled.serialize(EVENT, buffer);
+        return buffer;
+    }
+
+    @Benchmark
+    public byte[] interpretedToByteArray() {
+        return interpreted.toByteArray(EVENT);
+    }
+
+    @Benchmark
+    public byte[] compiledToByteArray() {
+        return compiled.toByteArray(EVENT);
+    }
+}
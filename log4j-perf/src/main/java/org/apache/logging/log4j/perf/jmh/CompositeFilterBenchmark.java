@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+
+package org.apache.logging.log4j.perf.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.Filter;
+import org.apache.logging.log4j.core.filter.CompositeFilter;
+import org.apache.logging.log4j.core.filter.LevelRangeFilter;
+import org.apache.logging.log4j.core.filter.MarkerFilter;
+import org.apache.logging.log4j.core.filter.RegexFilter;
+import org.apache.logging.log4j.core.filter.ThresholdFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares a CompositeFilter evaluating an expensive RegexFilter before a cheap ThresholdFilter in declaration order
+ * with an adaptive composite, which moves the ThresholdFilter first as it rejects the DEBUG events. Also compares a
+ * composite of level and marker filters, which uses the results computed for each level, with the same filters
+ * evaluated one after the other.
+ */
+// ============================== HOW TO RUN THIS TEST: ====================================
+//
+// java -jar log4j-perf/target/benchmarks.jar ".*CompositeFilterBenchmark.*" -wi 5 -i 10
+//
+// Usage help:
+// java -jar log4j-perf/target/benchmarks.jar -help
+//
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+public class CompositeFilterBenchmark {
+
+    private static final String MESSAGE = "User {} logged in from {}";
+
+    private CompositeFilter declaredOrder;
+    private CompositeFilter adaptive;
+    private Filter[] levelFilters;
+    private CompositeFilter levelComposite;
+
+    @Setup
+    public void setUp() throws Exception {
+        declaredOrder = CompositeFilter.createFilters(createFilters());
+        adaptive = CompositeFilter.createFilters(createFilters(), true, null);
+        levelFilters = new Filter[] {
+                MarkerFilter.createFilter("AUDIT", Filter.Result.ACCEPT, Filter.Result.NEUTRAL),
+                LevelRangeFilter.createFilter(Level.FATAL, Level.ERROR, Filter.Result.ACCEPT, Filter.Result.NEUTRAL),
+                ThresholdFilter.createFilter(Level.INFO, Filter.Result.NEUTRAL, Filter.Result.DENY)
+        };
+        levelComposite = CompositeFilter.createFilters(levelFilters);
+    }
+
+    private static Filter[] createFilters() throws Exception {
+        return new Filter[] {
+                RegexFilter.createFilter(".*(password|secret|token).*", null, true, Filter.Result.DENY,
+                        Filter.Result.NEUTRAL),
+                ThresholdFilter.createFilter(Level.INFO, Filter.Result.NEUTRAL, Filter.Result.DENY)
+        };
+    }
+
+    @Benchmark
+    public Filter.Result declaredOrder() {
+        return declaredOrder.filter(null, Level.DEBUG, null, MESSAGE, "alice", "localhost");
+    }
+
+    @Benchmark
+    public Filter.Result adaptive() {
+        return adaptive.filter(null, Level.DEBUG, null, MESSAGE, "alice", "localhost");
+    }
+
+    @Benchmark
+    public Filter.Result levelFiltersInSequence() {
+        Filter.Result result = Filter.Result.NEUTRAL;
+        for (final Filter filter : levelFilters) {
+            result = filter.filter(null, Level.WARN, null, MESSAGE, "alice", "localhost");
+            if (result == Filter.Result.ACCEPT || result == Filter.Result.DENY) {
+                return result;
+            }
+        }
+        return result;
+    }
+
+    @Benchmark
+    public Filter.Result levelComposite() {
+        return levelComposite.filter(null, Level.WARN, null, MESSAGE, "alice", "localhost");
+    }
+}
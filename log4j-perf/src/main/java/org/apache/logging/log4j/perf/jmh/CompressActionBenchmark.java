@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+
+package org.apache.logging.log4j.perf.jmh;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+
+import org.apache.logging.log4j.core.appender.rolling.action.GzCompressAction;
+import org.apache.logging.log4j.core.appender.rolling.action.ParallelGzCompressAction;
+import org.apache.logging.log4j.core.appender.rolling.action.ZipCompressAction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the time it takes to compress a rolled over log file with the single threaded GZ and ZIP actions and with
+ * the parallel GZ action.
+ */
+// ============================== HOW TO RUN THIS TEST: ====================================
+//
+// java -jar log4j-perf/target/benchmarks.jar ".*CompressActionBenchmark.*"
+//
+// Usage help:
+// java -jar log4j-perf/target/benchmarks.jar -help
+//
+@Fork(1)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class CompressActionBenchmark {
+
+    @Param({"64"})
+    private int fileSizeMegabytes;
+
+    @Param({"2", "4", "8"})
+    private int threads;
+
+    private File source;
+    private File destination;
+
+    @Setup
+    public void setUp() throws IOException {
+        source = File.createTempFile("CompressActionBenchmark", ".log");
+        destination = new File(source.getPath() + ".gz");
+        final long size = fileSizeMegabytes * 1024L * 1024L;
+        long written = 0;
+        try (final BufferedWriter writer = new BufferedWriter(new FileWriter(source))) {
+            for (int i = 0; written < size; i++) {
+                final String line = "2021-01-01 12:00:00,000 INFO  [main] org.apache.logging.Benchmark - "
+                        + "This is log message " + i + " with a value of " + (i * 31 % 1000) + '\n';
+                writer.write(line);
+                written += line.length();
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        source.delete();
+        destination.delete();
+    }
+
+    @Benchmark
+    public boolean gz() throws IOException {
+        return GzCompressAction.execute(source, destination, false, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    @Benchmark
+    public boolean zip() throws IOException {
+        return ZipCompressAction.execute(source, destination, false, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    @Benchmark
+    public boolean parallelGz() throws IOException {
+        return new ParallelGzCompressAction(source, destination, false, Deflater.DEFAULT_COMPRESSION, threads,
+                ParallelGzCompressAction.DEFAULT_BLOCK_SIZE).execute();
+    }
+}
@@ -48,7 +48,8 @@ import java.util.logging.Level;
 
 /**
  * Benchmarks Log4j 2, Log4j 1, Logback and JUL using the ERROR level which is enabled for this test.
- * The configuration for each writes to disk.
+ * The configuration for each writes to disk. The *_CACHED Log4j 2 configurations share the packaging
+ * information of classes between ThrowableProxies.
  */
 // HOW TO RUN THIS TEST
 // java -jar target/benchmarks.jar ".*FileAppenderThrowableBenchmark.*" -f 1 -i 10 -wi 20 -bm sample -tu ns
@@ -173,6 +174,8 @@ public class FileAppenderThrowableBenchmark {
         log4jFile.delete();
         final File log4jRandomFile = new File ("target/extended-exception.log");
         log4jRandomFile.delete();
+        final File log4jRootFile = new File ("target/root-exception.log");
+        log4jRootFile.delete();
         final File log4j2File = new File ("target/simple-exception.log");
         log4j2File.delete();
         final File julFile = new File("target/testJulLog.log");
@@ -198,6 +201,59 @@ public class FileAppenderThrowableBenchmark {
                 logger.error(message, throwable);
             }
         },
+        LOG4J2_EXTENDED_THROWABLE_CACHED() {
+            Logger logger;
+            @Override
+            void setUp() throws Exception {
+                System.setProperty("log4j2.throwableProxyCacheSize", "1024");
+                logger = LogManager.getLogger("RAFExtendedException");
+            }
+
+            @Override
+            void tearDown() throws Exception {
+
+            }
+
+            @Override
+            void log(String message, Throwable throwable) {
+                logger.error(message, throwable);
+            }
+        },
+        LOG4J2_ROOT_THROWABLE() {
+            Logger logger;
+            @Override
+            void setUp() throws Exception {
+                logger = LogManager.getLogger("RAFRootException");
+            }
+
+            @Override
+            void tearDown() throws Exception {
+
+            }
+
+            @Override
+            void log(String message, Throwable throwable) {
+                logger.error(message, throwable);
+            }
+        },
+        LOG4J2_ROOT_THROWABLE_CACHED() {
+            Logger logger;
+            @Override
+            void setUp() throws Exception {
+                System.setProperty("log4j2.throwableProxyCacheSize", "1024");
+                logger = LogManager.getLogger("RAFRootException");
+            }
+
+            @Override
+            void tearDown() throws Exception {
+
+            }
+
+            @Override
+            void log(String message, Throwable throwable) {
+                logger.error(message, throwable);
+            }
+        },
         LOG4J2_EXTENDED_THROWABLE_ASYNC() {
             Logger logger;
             @Override
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+
+package org.apache.logging.log4j.perf.jmh;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.config.LoggerConfig;
+import org.apache.logging.log4j.core.config.NullConfiguration;
+import org.apache.logging.log4j.util.NameUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares finding the LoggerConfig of Loggers in a deep package hierarchy with the LoggerConfig trie of the
+ * configuration and with the previous lookup that tries every shorter name in a map.
+ */
+// ============================== HOW TO RUN THIS TEST: ====================================
+//
+// java -jar log4j-perf/target/benchmarks.jar ".*LoggerConfigLookupBenchmark.*" -i 10 -f 1 -wi 5
+//
+// Usage help:
+// java -jar log4j-perf/target/benchmarks.jar -help
+//
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LoggerConfigLookupBenchmark {
+
+    private static final int LOGGERS = 1000;
+
+    /**
+     * The number of packages of the Logger names.
+     */
+    @Param({"4", "12"})
+    private int depth;
+
+    private final NullConfiguration configuration = new NullConfiguration();
+    private final ConcurrentMap<String, LoggerConfig> loggerConfigs = new ConcurrentHashMap<>();
+    private final String[] loggerNames = new String[LOGGERS];
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < LOGGERS; i++) {
+            final StringBuilder sb = new StringBuilder("com.example");
+            for (int level = 2; level < depth; level++) {
+                sb.append(".module").append((i >> level) % 4);
+            }
+            loggerNames[i] = sb.append(".Class").append(i).toString();
+        }
+        // LoggerConfigs half way down and near the top of the hierarchy, as in typical configurations
+        for (int i = 0; i < LOGGERS; i += 10) {
+            final String name = NameUtil.getSubName(loggerNames[i]);
+            addLoggerConfig(depth > 4 ? NameUtil.getSubName(NameUtil.getSubName(name)) : name);
+        }
+        addLoggerConfig("com.example");
+    }
+
+    private void addLoggerConfig(final String name) {
+        if (!loggerConfigs.containsKey(name)) {
+            final LoggerConfig loggerConfig = new LoggerConfig(name, Level.INFO, true);
+            loggerConfigs.put(name, loggerConfig);
+            configuration.addLogger(name, loggerConfig);
+        }
+    }
+
+    @Benchmark
+    public void trie(final Blackhole bh) {
+        for (final String loggerName : loggerNames) {
+            bh.consume(configuration.getLoggerConfig(loggerName));
+        }
+    }
+
+    @Benchmark
+    public void nameWalk(final Blackhole bh) {
+        for (final String loggerName : loggerNames) {
+            bh.consume(walk(loggerName));
+        }
+    }
+
+    private LoggerConfig walk(final String loggerName) {
+        LoggerConfig loggerConfig = loggerConfigs.get(loggerName);
+        if (loggerConfig != null) {
+            return loggerConfig;
+        }
+        String substr = loggerName;
+        while ((substr = NameUtil.getSubName(substr)) != null) {
+            loggerConfig = loggerConfigs.get(substr);
+            if (loggerConfig != null) {
+                return loggerConfig;
+            }
+        }
+        return configuration.getRootLogger();
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+
+package org.apache.logging.log4j.perf.jmh;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.Filter;
+import org.apache.logging.log4j.core.filter.CompositeFilter;
+import org.apache.logging.log4j.core.filter.MatchRule;
+import org.apache.logging.log4j.core.filter.MultiMatchFilter;
+import org.apache.logging.log4j.core.filter.RegexFilter;
+import org.apache.logging.log4j.core.filter.StringMatchFilter;
+import org.apache.logging.log4j.message.Message;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares a MultiMatchFilter with a CompositeFilter of StringMatchFilters and RegexFilters with the same rules, for an
+ * event matching no rule and for an event whose message format contains the text of a rule.
+ */
+// ============================== HOW TO RUN THIS TEST: ====================================
+//
+// java -jar log4j-perf/target/benchmarks.jar ".*MultiMatchFilterBenchmark.*" -wi 5 -i 10 -prof gc
+//
+// Usage help:
+// java -jar log4j-perf/target/benchmarks.jar -help
+//
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+public class MultiMatchFilterBenchmark {
+
+    @Param({"8", "32"})
+    public int ruleCount;
+
+    private Filter composite;
+    private Filter multi;
+
+    private static final String UNMATCHED = "Processed order {} for customer {} in {} ms";
+    private static final String MATCHED = "Connection reset while sending order {} to customer {} after {} ms";
+
+    /**
+     * Creates a new message for each call, as ParameterizedMessage caches its formatted message.
+     */
+    private static Message createMessage(final String format) {
+        return new ParameterizedMessage(format, 123456, "ACME Corporation", 42);
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        final List<Filter> filters = new ArrayList<>();
+        final List<MatchRule> rules = new ArrayList<>();
+        for (int i = 0; i < ruleCount; i++) {
+            final String text = i == ruleCount - 1 ? "Connection reset" : "Noisy message " + i;
+            if (i % 4 == 3) {
+                final String regex = "Retry " + i + " of \\d+ for .*";
+                filters.add(RegexFilter.createFilter(regex, null, false, Filter.Result.DENY,
+                        Filter.Result.NEUTRAL));
+                rules.add(MatchRule.newBuilder().setRegex(regex).build());
+            }
+            filters.add(StringMatchFilter.newBuilder().setMatchString(text).setOnMatch(Filter.Result.DENY)
+                    .setOnMismatch(Filter.Result.NEUTRAL).build());
+            rules.add(MatchRule.newBuilder().setText(text).build());
+        }
+        composite = CompositeFilter.createFilters(filters.toArray(new Filter[0]));
+        multi = MultiMatchFilter.createFilter(rules.toArray(new MatchRule[0]), Filter.Result.DENY,
+                Filter.Result.NEUTRAL);
+    }
+
+    @Benchmark
+    public Filter.Result compositeUnmatched() {
+        return composite.filter(null, Level.INFO, null, createMessage(UNMATCHED), null);
+    }
+
+    @Benchmark
+    public Filter.Result multiMatchUnmatched() {
+        return multi.filter(null, Level.INFO, null, createMessage(UNMATCHED), null);
+    }
+
+    @Benchmark
+    public Filter.Result compositeMatchedInFormat() {
+        return composite.filter(null, Level.INFO, null, createMessage(MATCHED), null);
+    }
+
+    @Benchmark
+    public Filter.Result multiMatchMatchedInFormat() {
+        return multi.filter(null, Level.INFO, null, createMessage(MATCHED), null);
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+
+package org.apache.logging.log4j.perf.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.Filter;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.filter.BurstFilter;
+import org.apache.logging.log4j.core.filter.RateLimitFilter;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares the lock-free token bucket of the RateLimitFilter with the DelayQueue of the BurstFilter. With a low rate
+ * almost all events are dropped, with a high rate almost all events are accepted.
+ */
+// ============================== HOW TO RUN THIS TEST: ====================================
+//
+// single thread:
+// java -jar log4j-perf/target/benchmarks.jar ".*RateLimitFilterBenchmark.*" -wi 5 -i 10
+//
+// multiple threads (for example, 8 threads), with the allocation rate:
+// java -jar log4j-perf/target/benchmarks.jar ".*RateLimitFilterBenchmark.*" -wi 5 -i 10 -t 8 -prof gc
+//
+// Usage help:
+// java -jar log4j-perf/target/benchmarks.jar -help
+//
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+public class RateLimitFilterBenchmark {
+
+    private static final int MAX_BURST = 1000;
+
+    @Param({"100", "100000000"})
+    public float rate;
+
+    private BurstFilter burstFilter;
+    private RateLimitFilter rateLimitFilter;
+    private RateLimitFilter perLevelRateLimitFilter;
+
+    private final LogEvent event = Log4jLogEvent.newBuilder()
+            .setLoggerName("org.apache.logging.log4j.perf.jmh.RateLimitFilterBenchmark")
+            .setLevel(Level.INFO)
+            .setMessage(new SimpleMessage("This is a test"))
+            .build();
+
+    @Setup
+    public void setUp() {
+        burstFilter = BurstFilter.newBuilder().setLevel(Level.INFO).setRate(rate).setMaxBurst(MAX_BURST).build();
+        rateLimitFilter = RateLimitFilter.newBuilder().setLevel(Level.INFO).setRate(rate).setMaxBurst(MAX_BURST)
+                .build();
+        perLevelRateLimitFilter = RateLimitFilter.newBuilder().setLevel(Level.INFO).setRate(rate)
+                .setMaxBurst(MAX_BURST).setPerLevel(true).setLoggerPrefixes("org.apache.logging.log4j.perf,org.example")
+                .build();
+    }
+
+    @Benchmark
+    public Filter.Result burstFilter() {
+        return burstFilter.filter(event);
+    }
+
+    @Benchmark
+    public Filter.Result rateLimitFilter() {
+        return rateLimitFilter.filter(event);
+    }
+
+    @Benchmark
+    public Filter.Result rateLimitFilterPerLevelAndLogger() {
+        return perLevelRateLimitFilter.filter(event);
+    }
+}
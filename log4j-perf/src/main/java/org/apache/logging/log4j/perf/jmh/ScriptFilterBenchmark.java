@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+
+package org.apache.logging.log4j.perf.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.script.SimpleBindings;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.Filter;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.config.DefaultConfiguration;
+import org.apache.logging.log4j.core.filter.ScriptFilter;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.core.script.Script;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the per-event overhead of a ScriptFilter: executing the script with new bindings for each event as the
+ * ScriptFilter used to, with the bindings of the thread reused, and with the result of a deterministic script cached.
+ * The script is JavaScript, so the benchmark needs a JavaScript engine like Nashorn, which is part of Java 8 to 14.
+ */
+// ============================== HOW TO RUN THIS TEST: ====================================
+//
+// java -jar log4j-perf/target/benchmarks.jar ".*ScriptFilterBenchmark.*" -wi 5 -i 10
+//
+// Usage help:
+// java -jar log4j-perf/target/benchmarks.jar -help
+//
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+public class ScriptFilterBenchmark {
+
+    private static final String SCRIPT = "logEvent.getLevel().isMoreSpecificThan(org.apache.logging.log4j.Level.WARN)";
+
+    private DefaultConfiguration configuration;
+    private ScriptFilter reusedBindings;
+    private ScriptFilter deterministic;
+
+    private final LogEvent event = Log4jLogEvent.newBuilder()
+            .setLoggerName("org.apache.logging.log4j.perf.jmh.ScriptFilterBenchmark")
+            .setLevel(Level.INFO)
+            .setMessage(new SimpleMessage("This is a test"))
+            .build();
+
+    @Setup
+    public void setUp() {
+        configuration = new DefaultConfiguration();
+        configuration.initialize();
+        reusedBindings = ScriptFilter.createFilter(new Script("reusedBindings", "JavaScript", SCRIPT),
+                Filter.Result.ACCEPT, Filter.Result.DENY, false, true, configuration);
+        deterministic = ScriptFilter.createFilter(new Script("deterministic", "JavaScript", SCRIPT),
+                Filter.Result.ACCEPT, Filter.Result.DENY, true, false, configuration);
+    }
+
+    @Benchmark
+    public Object newBindings() {
+        final SimpleBindings bindings = new SimpleBindings();
+        bindings.put("logEvent", event);
+        bindings.putAll(configuration.getProperties());
+        bindings.put("substitutor", configuration.getStrSubstitutor());
+        return configuration.getScriptManager().execute("reusedBindings", bindings);
+    }
+
+    @Benchmark
+    public Filter.Result reusedBindings() {
+        return reusedBindings.filter(event);
+    }
+
+    @Benchmark
+    public Filter.Result deterministic() {
+        return deterministic.filter(event);
+    }
+}
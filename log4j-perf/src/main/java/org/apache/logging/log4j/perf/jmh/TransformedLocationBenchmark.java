@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+
+package org.apache.logging.log4j.perf.jmh;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.transform.LocationTransformer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Compares logging with location information determined by walking the stack at runtime with logging with the
+ * location added by the {@link LocationTransformer} at build time. The benchmark transforms its logging classes when
+ * it is set up.
+ */
+// HOW TO RUN THIS TEST
+// java -jar log4j-perf/target/benchmarks.jar ".*TransformedLocationBenchmark.*" -f 1 -wi 10 -i 20
+//
+// RUNNING THIS TEST WITH 4 THREADS:
+// java -jar log4j-perf/target/benchmarks.jar ".*TransformedLocationBenchmark.*" -f 1 -wi 10 -i 20 -t 4
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TransformedLocationBenchmark {
+
+    public static final String MESSAGE = "This is a debug message";
+
+    private Logger logger;
+    private Consumer<Logger> stackWalking;
+    private Consumer<Logger> transformed;
+    private Consumer<Logger> fluentStackWalking;
+    private Consumer<Logger> fluentTransformed;
+
+    public static class LoggerCalls implements Consumer<Logger> {
+        @Override
+        public void accept(final Logger logger) {
+            logger.debug(MESSAGE);
+        }
+    }
+
+    public static class FluentLoggerCalls implements Consumer<Logger> {
+        @Override
+        public void accept(final Logger logger) {
+            logger.atDebug().withLocation().log(MESSAGE);
+        }
+    }
+
+    private static final class TransformedClassLoader extends ClassLoader {
+
+        TransformedClassLoader() {
+            super(TransformedLocationBenchmark.class.getClassLoader());
+        }
+
+        Class<?> define(final String name, final byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        System.setProperty("log4j.configurationFile", "log4j2-perfloc.xml");
+        deleteLogFile();
+
+        logger = LogManager.getLogger("TestRandom");
+        stackWalking = new LoggerCalls();
+        fluentStackWalking = new FluentLoggerCalls();
+        transformed = transform(LoggerCalls.class);
+        fluentTransformed = transform(FluentLoggerCalls.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Consumer<Logger> transform(final Class<?> clazz) throws Exception {
+        final byte[] bytes = new LocationTransformer().transform(readClassFile(clazz));
+        final Class<?> transformedClass = new TransformedClassLoader().define(clazz.getName(), bytes);
+        return (Consumer<Logger>) transformedClass.getConstructor().newInstance();
+    }
+
+    private static byte[] readClassFile(final Class<?> clazz) throws IOException {
+        final String name = clazz.getName();
+        try (final InputStream in = clazz.getResourceAsStream(name.substring(name.lastIndexOf('.') + 1) + ".class")) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[4096];
+            int count;
+            while ((count = in.read(buffer)) != -1) {
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.clearProperty("log4j.configurationFile");
+        deleteLogFile();
+    }
+
+    private void deleteLogFile() {
+        final File log4jRandomFile = new File("target/testRandomlog4j2.log");
+        log4jRandomFile.delete();
+    }
+
+    @Benchmark
+    public void stackWalking() {
+        stackWalking.accept(logger);
+    }
+
+    @Benchmark
+    public void transformed() {
+        transformed.accept(logger);
+    }
+
+    @Benchmark
+    public void fluentStackWalking() {
+        fluentStackWalking.accept(logger);
+    }
+
+    @Benchmark
+    public void fluentTransformed() {
+        fluentTransformed.accept(logger);
+    }
+}
@@ -0,0 +1,613 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.transform;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+/**
+ * Rewrites the calls of Log4j API loggers in compiled classes to pass the location of the call as a constant, so
+ * location information, like the class, method, file and line printed by the {@code %C}, {@code %M}, {@code %F} and
+ * {@code %L} pattern converters, is known without walking the stack at runtime.
+ * <p>
+ * Calls of {@code LogBuilder.withLocation()} are rewritten to {@code LogBuilder.withLocation(StackTraceElement)}.
+ * Calls of the level methods of {@code Logger}, like {@code logger.info("Hello {}", name)}, are rewritten to check
+ * {@code ExtendedLogger.isEnabled} with the same arguments, so filters see the message and its parameters as before,
+ * and to log the message once with {@code Logger.logMessage} passing the location. Calls passing the message as a
+ * Supplier or MessageSupplier are not rewritten and determine their location at runtime. The locations of a class are
+ * created once, when the class is initialized.
+ * </p>
+ * <p>
+ * The transformer runs after the classes are compiled, {@link #main(String[])} transforms the classes in directories
+ * in place. Interfaces and classes that were transformed before are not changed.
+ * </p>
+ */
+public final class LocationTransformer {
+
+    /**
+     * The name of the static field holding the locations of a transformed class.
+     */
+    public static final String LOCATIONS_FIELD = "log4j$locations";
+
+    /**
+     * At most this many calls are rewritten per class, so the code initializing the locations fits into the static
+     * initializer.
+     */
+    static final int MAX_LOCATIONS = 1024;
+
+    private static final String HELPER_PREFIX = "log4j$";
+    private static final String LOGGER = "org/apache/logging/log4j/Logger";
+    private static final String EXTENDED_LOGGER = "org/apache/logging/log4j/spi/ExtendedLogger";
+    private static final String LOG_BUILDER = "org/apache/logging/log4j/LogBuilder";
+    private static final String LEVEL = "org/apache/logging/log4j/Level";
+    private static final String MESSAGE = "org/apache/logging/log4j/message/Message";
+    private static final String MESSAGE_FACTORY = "org/apache/logging/log4j/message/MessageFactory";
+    private static final String LAMBDA_UTIL = "org/apache/logging/log4j/util/LambdaUtil";
+    private static final String THROWABLE = "java/lang/Throwable";
+    private static final String STACK_TRACE_ELEMENT = "java/lang/StackTraceElement";
+
+    private static final String LOG_BUILDER_DESC = "L" + LOG_BUILDER + ";";
+    private static final String LEVEL_DESC = "L" + LEVEL + ";";
+    private static final String MARKER_DESC = "Lorg/apache/logging/log4j/Marker;";
+    private static final String MESSAGE_DESC = "Lorg/apache/logging/log4j/message/Message;";
+    private static final String STRING_DESC = "Ljava/lang/String;";
+    private static final String CHAR_SEQUENCE_DESC = "Ljava/lang/CharSequence;";
+    private static final String OBJECT_DESC = "Ljava/lang/Object;";
+    private static final String THROWABLE_DESC = "Ljava/lang/Throwable;";
+    private static final String OBJECT_ARRAY_DESC = "[Ljava/lang/Object;";
+    private static final String SUPPLIER_ARRAY_DESC = "[Lorg/apache/logging/log4j/util/Supplier;";
+    private static final String STACK_TRACE_ELEMENT_DESC = "L" + STACK_TRACE_ELEMENT + ";";
+    private static final String MESSAGE_FACTORY_DESC = "L" + MESSAGE_FACTORY + ";";
+    private static final String LOCATIONS_DESC = "[" + STACK_TRACE_ELEMENT_DESC;
+
+    /**
+     * The fully qualified class name of the logger passed with the events of rewritten calls, the same as for the
+     * calls of the level methods.
+     */
+    private static final String FQCN = "org.apache.logging.log4j.spi.AbstractLogger";
+
+    private static final int MAX_PARAMETERS = 10;
+
+    private static final List<String> LEVEL_METHODS = Arrays.asList("trace", "debug", "info", "warn", "error",
+            "fatal", "log");
+
+    /**
+     * Transforms the specified class file.
+     *
+     * @param classFile the bytes of the class file.
+     * @return the bytes of the transformed class file or null if the class does not need to be transformed.
+     */
+    public byte[] transform(final byte[] classFile) {
+        final ClassReader reader = new ClassReader(classFile);
+        final CallSiteCollector collector = new CallSiteCollector();
+        reader.accept(collector, ClassReader.SKIP_FRAMES);
+        if (collector.skip || collector.locations.isEmpty()) {
+            return null;
+        }
+        final ClassWriter writer = new ClassWriter(reader, ClassWriter.COMPUTE_MAXS);
+        reader.accept(new CallSiteRewriter(writer, collector), 0);
+        try {
+            return writer.toByteArray();
+        } catch (final RuntimeException e) {
+            // the static initializer or a rewritten method is too large
+            return null;
+        }
+    }
+
+    /**
+     * Transforms the class files in the specified directories in place.
+     *
+     * @param args the directories containing the class files.
+     * @throws IOException if a class file cannot be read or written.
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: java " + LocationTransformer.class.getName() + " <classes directory>...");
+            return;
+        }
+        final LocationTransformer transformer = new LocationTransformer();
+        int transformed = 0;
+        for (final String arg : args) {
+            final List<Path> classFiles;
+            try (final Stream<Path> paths = Files.walk(Paths.get(arg))) {
+                classFiles = paths.filter(path -> path.toString().endsWith(".class")).collect(Collectors.toList());
+            }
+            for (final Path classFile : classFiles) {
+                final byte[] bytes = transformer.transform(Files.readAllBytes(classFile));
+                if (bytes != null) {
+                    Files.write(classFile, bytes);
+                    transformed++;
+                }
+            }
+        }
+        System.out.println("Added the locations of Log4j calls to " + transformed + " classes.");
+    }
+
+    /**
+     * A rewritten call of a level method of a Logger.
+     */
+    private static final class LoggerCall {
+
+        final String owner;
+        final String name;
+        final String desc;
+        final boolean level;
+        final boolean marker;
+        final String message;
+        final boolean throwable;
+        final String parameters;
+
+        LoggerCall(final String owner, final String name, final String desc, final boolean level,
+                final boolean marker, final String message, final boolean throwable, final String parameters) {
+            this.owner = owner;
+            this.name = name;
+            this.desc = desc;
+            this.level = level;
+            this.marker = marker;
+            this.message = message;
+            this.throwable = throwable;
+            this.parameters = parameters;
+        }
+    }
+
+    private static boolean isWithLocation(final int opcode, final String owner, final String name, final String desc) {
+        return opcode == Opcodes.INVOKEINTERFACE && owner.equals(LOG_BUILDER) && name.equals("withLocation")
+                && desc.equals("()" + LOG_BUILDER_DESC);
+    }
+
+    /**
+     * Returns the specified call of a Logger if it is rewritten.
+     *
+     * @return the call or null if the call is not rewritten.
+     */
+    private static LoggerCall toLoggerCall(final int opcode, final String owner, final String name,
+            final String desc) {
+        if (!LEVEL_METHODS.contains(name) || opcode != Opcodes.INVOKEINTERFACE
+                || !(owner.equals(LOGGER) || owner.equals(EXTENDED_LOGGER))
+                || Type.getReturnType(desc) != Type.VOID_TYPE) {
+            return null;
+        }
+        final Type[] args = Type.getArgumentTypes(desc);
+        int i = 0;
+        final boolean level = name.equals("log");
+        if (level) {
+            if (args.length == 0 || !args[0].getDescriptor().equals(LEVEL_DESC)) {
+                return null;
+            }
+            i++;
+        }
+        final boolean marker = i < args.length && args[i].getDescriptor().equals(MARKER_DESC);
+        if (marker) {
+            i++;
+        }
+        if (i == args.length) {
+            return null;
+        }
+        final String message = args[i++].getDescriptor();
+        if (!message.equals(STRING_DESC) && !message.equals(MESSAGE_DESC) && !message.equals(CHAR_SEQUENCE_DESC)
+                && !message.equals(OBJECT_DESC)) {
+            return null;
+        }
+        final int parameters = args.length - i;
+        if (parameters == 1 && args[i].getDescriptor().equals(THROWABLE_DESC)) {
+            return new LoggerCall(owner, name, desc, level, marker, message, true, "");
+        }
+        final StringBuilder parametersDesc = new StringBuilder();
+        if (parameters > 0) {
+            if (!message.equals(STRING_DESC) || parameters > MAX_PARAMETERS) {
+                return null;
+            }
+            final boolean array = parameters == 1 && (args[i].getDescriptor().equals(OBJECT_ARRAY_DESC)
+                    || args[i].getDescriptor().equals(SUPPLIER_ARRAY_DESC));
+            for (; i < args.length; i++) {
+                if (!array && !args[i].getDescriptor().equals(OBJECT_DESC)) {
+                    return null;
+                }
+                parametersDesc.append(args[i].getDescriptor());
+            }
+        }
+        return new LoggerCall(owner, name, desc, level, marker, message, false, parametersDesc.toString());
+    }
+
+    /**
+     * Collects the locations of the calls to rewrite.
+     */
+    private static final class CallSiteCollector extends ClassVisitor {
+
+        final List<StackTraceElement> locations = new ArrayList<>();
+        final Map<String, LoggerCall> helpers = new LinkedHashMap<>();
+        String className;
+        String fileName;
+        boolean skip;
+        boolean hasStaticInitializer;
+
+        CallSiteCollector() {
+            super(Opcodes.ASM9);
+        }
+
+        @Override
+        public void visit(final int version, final int access, final String name, final String signature,
+                final String superName, final String[] interfaces) {
+            className = name;
+            skip = (access & (Opcodes.ACC_INTERFACE | Opcodes.ACC_MODULE)) != 0;
+        }
+
+        @Override
+        public void visitSource(final String source, final String debug) {
+            fileName = source;
+        }
+
+        @Override
+        public FieldVisitor visitField(final int access, final String name, final String desc, final String signature,
+                final Object value) {
+            if (name.equals(LOCATIONS_FIELD)) {
+                skip = true;
+            }
+            return null;
+        }
+
+        @Override
+        public MethodVisitor visitMethod(final int access, final String name, final String desc,
+                final String signature, final String[] exceptions) {
+            if (name.equals("<clinit>")) {
+                hasStaticInitializer = true;
+            }
+            final String methodName = name;
+            return new MethodVisitor(Opcodes.ASM9) {
+
+                private int line = -1;
+
+                @Override
+                public void visitLineNumber(final int line, final Label start) {
+                    this.line = line;
+                }
+
+                @Override
+                public void visitMethodInsn(final int opcode, final String owner, final String name,
+                        final String desc, final boolean itf) {
+                    if (locations.size() == MAX_LOCATIONS) {
+                        return;
+                    }
+                    if (!isWithLocation(opcode, owner, name, desc)) {
+                        final LoggerCall call = toLoggerCall(opcode, owner, name, desc);
+                        if (call == null) {
+                            return;
+                        }
+                        helpers.putIfAbsent(helperKey(owner, name, desc), call);
+                    }
+                    locations.add(new StackTraceElement(className.replace('/', '.'), methodName, fileName, line));
+                }
+            };
+        }
+    }
+
+    private static String helperKey(final String owner, final String name, final String desc) {
+        return owner + '.' + name + desc;
+    }
+
+    /**
+     * Rewrites the calls, adds the field holding the locations and the helper methods making the calls of the
+     * LogBuilder.
+     */
+    private static final class CallSiteRewriter extends ClassVisitor {
+
+        private final CallSiteCollector collector;
+        private final Map<String, String> helperNames = new LinkedHashMap<>();
+        private int version;
+        private int nextLocation;
+
+        CallSiteRewriter(final ClassVisitor classVisitor, final CallSiteCollector collector) {
+            super(Opcodes.ASM9, classVisitor);
+            this.collector = collector;
+            int i = 0;
+            for (final Map.Entry<String, LoggerCall> entry : collector.helpers.entrySet()) {
+                final String key = entry.getKey();
+                helperNames.put(key, HELPER_PREFIX + key.substring(key.indexOf('.') + 1, key.indexOf('(')) + '$'
+                        + i++);
+            }
+        }
+
+        @Override
+        public void visit(final int version, final int access, final String name, final String signature,
+                final String superName, final String[] interfaces) {
+            this.version = version;
+            super.visit(version, access, name, signature, superName, interfaces);
+        }
+
+        @Override
+        public MethodVisitor visitMethod(final int access, final String name, final String desc,
+                final String signature, final String[] exceptions) {
+            final MethodVisitor methodVisitor = super.visitMethod(access, name, desc, signature, exceptions);
+            final boolean staticInitializer = name.equals("<clinit>");
+            return new MethodVisitor(Opcodes.ASM9, methodVisitor) {
+
+                @Override
+                public void visitCode() {
+                    super.visitCode();
+                    if (staticInitializer) {
+                        initializeLocations(mv);
+                    }
+                }
+
+                @Override
+                public void visitMethodInsn(final int opcode, final String owner, final String name,
+                        final String desc, final boolean itf) {
+                    if (nextLocation < collector.locations.size()) {
+                        if (isWithLocation(opcode, owner, name, desc)) {
+                            loadLocation(mv, nextLocation++);
+                            super.visitMethodInsn(Opcodes.INVOKEINTERFACE, LOG_BUILDER, "withLocation",
+                                    "(" + STACK_TRACE_ELEMENT_DESC + ")" + LOG_BUILDER_DESC, true);
+                            return;
+                        }
+                        if (toLoggerCall(opcode, owner, name, desc) != null) {
+                            loadLocation(mv, nextLocation++);
+                            super.visitMethodInsn(Opcodes.INVOKESTATIC, collector.className,
+                                    helperNames.get(helperKey(owner, name, desc)), helperDesc(owner, desc), false);
+                            return;
+                        }
+                    }
+                    super.visitMethodInsn(opcode, owner, name, desc, itf);
+                }
+            };
+        }
+
+        @Override
+        public void visitEnd() {
+            cv.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_STATIC | Opcodes.ACC_FINAL | Opcodes.ACC_SYNTHETIC,
+                    LOCATIONS_FIELD, LOCATIONS_DESC, null, null).visitEnd();
+            if (!collector.hasStaticInitializer) {
+                final MethodVisitor mv = cv.visitMethod(Opcodes.ACC_STATIC, "<clinit>", "()V", null, null);
+                mv.visitCode();
+                initializeLocations(mv);
+                mv.visitInsn(Opcodes.RETURN);
+                mv.visitMaxs(0, 0);
+                mv.visitEnd();
+            }
+            for (final Map.Entry<String, LoggerCall> entry : collector.helpers.entrySet()) {
+                final String key = entry.getKey();
+                final String owner = key.substring(0, key.indexOf('.'));
+                final String desc = key.substring(key.indexOf('('));
+                generateHelper(helperNames.get(key), helperDesc(owner, desc), entry.getValue());
+            }
+            super.visitEnd();
+        }
+
+        private void loadLocation(final MethodVisitor mv, final int index) {
+            mv.visitFieldInsn(Opcodes.GETSTATIC, collector.className, LOCATIONS_FIELD, LOCATIONS_DESC);
+            pushInt(mv, index);
+            mv.visitInsn(Opcodes.AALOAD);
+        }
+
+        private void initializeLocations(final MethodVisitor mv) {
+            pushInt(mv, collector.locations.size());
+            mv.visitTypeInsn(Opcodes.ANEWARRAY, STACK_TRACE_ELEMENT);
+            for (int i = 0; i < collector.locations.size(); i++) {
+                final StackTraceElement location = collector.locations.get(i);
+                mv.visitInsn(Opcodes.DUP);
+                pushInt(mv, i);
+                mv.visitTypeInsn(Opcodes.NEW, STACK_TRACE_ELEMENT);
+                mv.visitInsn(Opcodes.DUP);
+                mv.visitLdcInsn(location.getClassName());
+                mv.visitLdcInsn(location.getMethodName());
+                if (location.getFileName() == null) {
+                    mv.visitInsn(Opcodes.ACONST_NULL);
+                } else {
+                    mv.visitLdcInsn(location.getFileName());
+                }
+                pushInt(mv, location.getLineNumber());
+                mv.visitMethodInsn(Opcodes.INVOKESPECIAL, STACK_TRACE_ELEMENT, "<init>",
+                        "(" + STRING_DESC + STRING_DESC + STRING_DESC + "I)V", false);
+                mv.visitInsn(Opcodes.AASTORE);
+            }
+            mv.visitFieldInsn(Opcodes.PUTSTATIC, collector.className, LOCATIONS_FIELD, LOCATIONS_DESC);
+        }
+
+        /**
+         * Generates a method making the equivalent of a Logger call with the location. Its parameters are the Logger,
+         * the arguments of the Logger call and the location. Like the Logger, it checks whether the logger is enabled
+         * for the message and its parameters and logs the message once, a Logger that is not an ExtendedLogger is
+         * called as before.
+         */
+        private void generateHelper(final String name, final String desc, final LoggerCall call) {
+            final MethodVisitor mv = cv.visitMethod(Opcodes.ACC_PRIVATE | Opcodes.ACC_STATIC | Opcodes.ACC_SYNTHETIC,
+                    name, desc, null, null);
+            mv.visitCode();
+            final int parameters = Type.getArgumentTypes(desc).length;
+            int next = 1;
+            final int level = call.level ? next++ : -1;
+            final int marker = call.marker ? next++ : -1;
+            final int message = next++;
+            final int location = parameters - 1;
+            final int throwable = parameters;
+            final int msg = parameters + 1;
+            final boolean frames = version >= Opcodes.V1_6;
+            final boolean messageThrowable = call.message.equals(MESSAGE_DESC) && !call.throwable;
+
+            final Label extended = new Label();
+            mv.visitVarInsn(Opcodes.ALOAD, 0);
+            mv.visitTypeInsn(Opcodes.INSTANCEOF, EXTENDED_LOGGER);
+            mv.visitJumpInsn(Opcodes.IFNE, extended);
+            for (int i = 0; i < location; i++) {
+                mv.visitVarInsn(Opcodes.ALOAD, i);
+            }
+            mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, call.owner, call.name, call.desc, true);
+            mv.visitInsn(Opcodes.RETURN);
+            mv.visitLabel(extended);
+            if (frames) {
+                mv.visitFrame(Opcodes.F_SAME, 0, null, 0, null);
+            }
+            if (messageThrowable) {
+                // message != null ? message.getThrowable() : null
+                final Label nonNull = new Label();
+                final Label done = new Label();
+                mv.visitVarInsn(Opcodes.ALOAD, message);
+                mv.visitJumpInsn(Opcodes.IFNONNULL, nonNull);
+                mv.visitInsn(Opcodes.ACONST_NULL);
+                mv.visitJumpInsn(Opcodes.GOTO, done);
+                mv.visitLabel(nonNull);
+                if (frames) {
+                    mv.visitFrame(Opcodes.F_SAME, 0, null, 0, null);
+                }
+                mv.visitVarInsn(Opcodes.ALOAD, message);
+                mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, MESSAGE, "getThrowable", "()" + THROWABLE_DESC, true);
+                mv.visitLabel(done);
+                if (frames) {
+                    mv.visitFrame(Opcodes.F_SAME1, 0, null, 1, new Object[] {THROWABLE});
+                }
+                mv.visitVarInsn(Opcodes.ASTORE, throwable);
+            }
+
+            // the same check as the Logger method
+            final Label enabled = new Label();
+            mv.visitVarInsn(Opcodes.ALOAD, 0);
+            mv.visitTypeInsn(Opcodes.CHECKCAST, EXTENDED_LOGGER);
+            loadLevel(mv, call, level);
+            loadMarker(mv, call, marker);
+            mv.visitVarInsn(Opcodes.ALOAD, message);
+            final String enabledDesc;
+            if (call.throwable) {
+                mv.visitVarInsn(Opcodes.ALOAD, message + 1);
+                enabledDesc = call.message + THROWABLE_DESC;
+            } else if (messageThrowable) {
+                mv.visitVarInsn(Opcodes.ALOAD, throwable);
+                enabledDesc = call.message + THROWABLE_DESC;
+            } else if (!call.message.equals(STRING_DESC)) {
+                mv.visitInsn(Opcodes.ACONST_NULL);
+                enabledDesc = call.message + THROWABLE_DESC;
+            } else if (call.parameters.equals(SUPPLIER_ARRAY_DESC)) {
+                enabledDesc = call.message;
+            } else {
+                loadParameters(mv, message + 1, location);
+                enabledDesc = call.message + call.parameters;
+            }
+            mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, EXTENDED_LOGGER, "isEnabled",
+                    "(" + LEVEL_DESC + MARKER_DESC + enabledDesc + ")Z", true);
+            mv.visitJumpInsn(Opcodes.IFNE, enabled);
+            mv.visitInsn(Opcodes.RETURN);
+            mv.visitLabel(enabled);
+            if (frames) {
+                if (messageThrowable) {
+                    mv.visitFrame(Opcodes.F_APPEND, 1, new Object[] {THROWABLE}, 0, null);
+                } else {
+                    mv.visitFrame(Opcodes.F_SAME, 0, null, 0, null);
+                }
+            }
+
+            // the message, created like the Logger method creates it
+            if (call.message.equals(MESSAGE_DESC)) {
+                mv.visitVarInsn(Opcodes.ALOAD, message);
+            } else {
+                mv.visitVarInsn(Opcodes.ALOAD, 0);
+                mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, LOGGER, "getMessageFactory", "()" + MESSAGE_FACTORY_DESC,
+                        true);
+                mv.visitVarInsn(Opcodes.ALOAD, message);
+                String parametersDesc = "";
+                if (call.parameters.equals(SUPPLIER_ARRAY_DESC)) {
+                    mv.visitVarInsn(Opcodes.ALOAD, message + 1);
+                    mv.visitMethodInsn(Opcodes.INVOKESTATIC, LAMBDA_UTIL, "getAll",
+                            "(" + SUPPLIER_ARRAY_DESC + ")" + OBJECT_ARRAY_DESC, false);
+                    parametersDesc = OBJECT_ARRAY_DESC;
+                } else if (!call.throwable) {
+                    loadParameters(mv, message + 1, location);
+                    parametersDesc = call.parameters;
+                }
+                mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, MESSAGE_FACTORY, "newMessage",
+                        "(" + call.message + parametersDesc + ")" + MESSAGE_DESC, true);
+            }
+            mv.visitVarInsn(Opcodes.ASTORE, msg);
+
+            mv.visitVarInsn(Opcodes.ALOAD, 0);
+            loadLevel(mv, call, level);
+            loadMarker(mv, call, marker);
+            mv.visitLdcInsn(FQCN);
+            mv.visitVarInsn(Opcodes.ALOAD, location);
+            mv.visitVarInsn(Opcodes.ALOAD, msg);
+            if (call.throwable) {
+                mv.visitVarInsn(Opcodes.ALOAD, message + 1);
+            } else if (messageThrowable) {
+                mv.visitVarInsn(Opcodes.ALOAD, throwable);
+            } else if (call.message.equals(STRING_DESC)) {
+                mv.visitVarInsn(Opcodes.ALOAD, msg);
+                mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, MESSAGE, "getThrowable", "()" + THROWABLE_DESC, true);
+            } else {
+                mv.visitInsn(Opcodes.ACONST_NULL);
+            }
+            mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, LOGGER, "logMessage", "(" + LEVEL_DESC + MARKER_DESC
+                    + STRING_DESC + STACK_TRACE_ELEMENT_DESC + MESSAGE_DESC + THROWABLE_DESC + ")V", true);
+            mv.visitInsn(Opcodes.RETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+        }
+
+        private static void loadLevel(final MethodVisitor mv, final LoggerCall call, final int level) {
+            if (call.level) {
+                mv.visitVarInsn(Opcodes.ALOAD, level);
+            } else {
+                mv.visitFieldInsn(Opcodes.GETSTATIC, LEVEL, call.name.toUpperCase(Locale.ROOT), LEVEL_DESC);
+            }
+        }
+
+        private static void loadMarker(final MethodVisitor mv, final LoggerCall call, final int marker) {
+            if (call.marker) {
+                mv.visitVarInsn(Opcodes.ALOAD, marker);
+            } else {
+                mv.visitInsn(Opcodes.ACONST_NULL);
+            }
+        }
+
+        private static void loadParameters(final MethodVisitor mv, final int first, final int end) {
+            for (int i = first; i < end; i++) {
+                mv.visitVarInsn(Opcodes.ALOAD, i);
+            }
+        }
+    }
+
+    private static String helperDesc(final String owner, final String desc) {
+        return "(L" + owner + ";" + desc.substring(1, desc.indexOf(')')) + STACK_TRACE_ELEMENT_DESC + ")V";
+    }
+
+    private static void pushInt(final MethodVisitor mv, final int value) {
+        if (value >= -1 && value <= 5) {
+            mv.visitInsn(Opcodes.ICONST_0 + value);
+        } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            mv.visitIntInsn(Opcodes.BIPUSH, value);
+        } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            mv.visitIntInsn(Opcodes.SIPUSH, value);
+        } else {
+            mv.visitLdcInsn(value);
+        }
+    }
+}
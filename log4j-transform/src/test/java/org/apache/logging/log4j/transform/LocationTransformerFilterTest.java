@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.transform;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.Marker;
+import org.apache.logging.log4j.MarkerManager;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.junit.LoggerContextSource;
+import org.apache.logging.log4j.junit.Named;
+import org.apache.logging.log4j.junit.ReconfigurationPolicy;
+import org.apache.logging.log4j.test.appender.ListAppender;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that rewritten calls are filtered like the original calls.
+ */
+@LoggerContextSource(value = "log4j2-location-transformer-filters.xml", reconfigure = ReconfigurationPolicy.AFTER_EACH)
+public class LocationTransformerFilterTest {
+
+    private final Logger logger;
+    private final ListAppender app;
+
+    public LocationTransformerFilterTest(final LoggerContext context, @Named("List") final ListAppender app) {
+        this.logger = context.getLogger(LocationTransformerFilterTest.class);
+        this.app = app.clear();
+    }
+
+    public static class RegexTarget implements Consumer<Logger> {
+
+        @Override
+        public void accept(final Logger logger) {
+            final Marker marker = MarkerManager.getMarker("Transformed");
+            logger.info("public {}", 1);
+            logger.info("secret {}", 2);
+            logger.info(marker, "secret {} {}", 3, 4);
+            logger.info(marker, "public {} {}", 5, 6);
+            logger.info("secret", new IllegalStateException());
+        }
+    }
+
+    public static class BurstTarget implements Consumer<Logger> {
+
+        @Override
+        public void accept(final Logger logger) {
+            final Marker marker = MarkerManager.getMarker("Transformed");
+            for (int i = 0; i < 5; i++) {
+                logger.debug(marker, "burst {}", i);
+            }
+        }
+    }
+
+    @Test
+    public void testRegexFilterSeesMessage() throws Exception {
+        final List<String> expected = log(RegexTarget.class);
+        assertEquals(2, expected.size(), expected.toString());
+        assertEquals(expected, log(transform(RegexTarget.class)));
+    }
+
+    @Test
+    public void testBurstFilterCheckedOnce() throws Exception {
+        assertEquals(3, log(transform(BurstTarget.class)).size());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> log(final Class<?> target) throws ReflectiveOperationException {
+        app.clear();
+        ((Consumer<Logger>) target.getConstructor().newInstance()).accept(logger);
+        return app.getEvents().stream()
+                .map(event -> event.getMessage().getFormattedMessage())
+                .collect(Collectors.toList());
+    }
+
+    private static Class<?> transform(final Class<?> target) throws IOException {
+        final byte[] bytes = new LocationTransformer().transform(readClassFile(target));
+        assertNotNull(bytes);
+        return new ClassLoader(LocationTransformerFilterTest.class.getClassLoader()) {
+            Class<?> define() {
+                return defineClass(target.getName(), bytes, 0, bytes.length);
+            }
+        }.define();
+    }
+
+    private static byte[] readClassFile(final Class<?> clazz) throws IOException {
+        try (final InputStream in = clazz.getResourceAsStream(
+                clazz.getName().substring(clazz.getName().lastIndexOf('.') + 1) + ".class")) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[4096];
+            int count;
+            while ((count = in.read(buffer)) != -1) {
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.transform;
+
+import java.util.function.Consumer;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.Marker;
+import org.apache.logging.log4j.MarkerManager;
+import org.apache.logging.log4j.message.Message;
+import org.apache.logging.log4j.message.SimpleMessage;
+
+/**
+ * Logs with the calls rewritten by the LocationTransformer.
+ */
+public class LocationTransformerTarget implements Consumer<Logger> {
+
+    static final Marker MARKER = MarkerManager.getMarker("Transformed");
+
+    static final Marker DENIED = MarkerManager.getMarker("Denied");
+
+    @Override
+    public void accept(final Logger logger) {
+        logger.info("info");
+        logger.debug("debug {}", 1);
+        logger.warn(MARKER, "marker {} {}", 1, 2);
+        logger.warn(DENIED, "denied");
+        logger.error("throwable", new IllegalStateException("explicit"));
+        logger.error("parameter {}", 1, new IllegalStateException("parameter"));
+        logger.log(Level.INFO, (Message) new SimpleMessage("level"));
+        logger.info("array {} {} {} {} {} {} {} {} {} {} {}", 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11);
+        logger.atInfo().withLocation().log("builder");
+        logger.info(() -> "supplier");
+        final Runnable lambda = () -> logger.trace("lambda");
+        lambda.run();
+    }
+}
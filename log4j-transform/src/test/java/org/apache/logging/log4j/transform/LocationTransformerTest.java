@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.transform;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.junit.LoggerContextSource;
+import org.apache.logging.log4j.junit.Named;
+import org.apache.logging.log4j.test.appender.ListAppender;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@LoggerContextSource("log4j2-location-transformer.xml")
+public class LocationTransformerTest {
+
+    private final Logger logger;
+    private final ListAppender app;
+
+    public LocationTransformerTest(final LoggerContext context, @Named("List") final ListAppender app) {
+        this.logger = context.getLogger(LocationTransformerTest.class);
+        this.app = app.clear();
+    }
+
+    private static byte[] readClassFile(final Class<?> clazz) throws IOException {
+        try (final InputStream in = clazz.getResourceAsStream(
+                clazz.getName().substring(clazz.getName().lastIndexOf('.') + 1) + ".class")) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[4096];
+            int count;
+            while ((count = in.read(buffer)) != -1) {
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    private static final class TransformedClassLoader extends ClassLoader {
+
+        TransformedClassLoader() {
+            super(LocationTransformerTest.class.getClassLoader());
+        }
+
+        Class<?> define(final String name, final byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<LogEvent> log(final Class<?> target) throws ReflectiveOperationException {
+        app.clear();
+        ((Consumer<Logger>) target.getConstructor().newInstance()).accept(logger);
+        return new ArrayList<>(app.getEvents());
+    }
+
+    @Test
+    public void testSameLocationsAsStackWalking() throws Exception {
+        final byte[] bytes = new LocationTransformer().transform(readClassFile(LocationTransformerTarget.class));
+        assertNotNull(bytes);
+        final Class<?> transformed = new TransformedClassLoader().define(LocationTransformerTarget.class.getName(),
+                bytes);
+
+        final List<LogEvent> expected = log(LocationTransformerTarget.class);
+        final List<LogEvent> actual = log(transformed);
+        final Field field = transformed.getDeclaredField(LocationTransformer.LOCATIONS_FIELD);
+        field.setAccessible(true);
+        final List<StackTraceElement> locations = Arrays.asList((StackTraceElement[]) field.get(null));
+        assertEquals(10, expected.size(), expected.toString());
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            final LogEvent expectedEvent = expected.get(i);
+            final LogEvent actualEvent = actual.get(i);
+            final String message = expectedEvent.getMessage().getFormattedMessage();
+            assertEquals(message, actualEvent.getMessage().getFormattedMessage());
+            assertEquals(expectedEvent.getLevel(), actualEvent.getLevel(), message);
+            assertEquals(expectedEvent.getMarker(), actualEvent.getMarker(), message);
+            assertEquals(String.valueOf(expectedEvent.getThrown()), String.valueOf(actualEvent.getThrown()), message);
+            final StackTraceElement expectedSource = expectedEvent.getSource();
+            final StackTraceElement actualSource = actualEvent.getSource();
+            assertEquals(expectedSource.getClassName(), actualSource.getClassName(), message);
+            assertEquals(expectedSource.getMethodName(), actualSource.getMethodName(), message);
+            assertEquals(expectedSource.getFileName(), actualSource.getFileName(), message);
+            assertEquals(expectedSource.getLineNumber(), actualSource.getLineNumber(), message);
+            // the Supplier is not rewritten, all other calls use the constant locations
+            assertEquals(!message.equals("supplier"), locations.stream().anyMatch(l -> l == actualSource), message);
+        }
+    }
+
+    @Test
+    public void testClassesAreTransformedOnce() throws Exception {
+        final LocationTransformer transformer = new LocationTransformer();
+        final byte[] bytes = transformer.transform(readClassFile(LocationTransformerTarget.class));
+        assertNotNull(bytes);
+        assertNull(transformer.transform(bytes));
+        // no calls of a Logger
+        assertNull(transformer.transform(readClassFile(TransformedClassLoader.class)));
+    }
+}